@@ -0,0 +1,187 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.hc5.async;
+
+import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.dialogue.Channel;
+import com.palantir.dialogue.Endpoint;
+import com.palantir.dialogue.HttpMethod;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.RequestBody;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.core.BaseUrl;
+import com.palantir.logsafe.Arg;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.tracing.api.TraceHttpHeaders;
+import java.net.InetAddress;
+import java.net.URI;
+import java.net.URL;
+import java.util.Optional;
+import java.util.OptionalInt;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.client5.http.ConnectTimeoutException;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.message.BasicHttpRequest;
+import org.apache.hc.core5.http.nio.AsyncEntityProducer;
+import org.apache.hc.core5.http.nio.entity.AsyncEntityProducers;
+import org.apache.hc.core5.http.nio.support.BasicRequestProducer;
+
+/**
+ * Non-blocking {@link Channel} for a single target. The returned future completes once response headers have
+ * been received, without holding a thread while the exchange is in flight.
+ */
+final class ApacheHttpAsyncClientChannel implements Channel {
+
+    private final ApacheHttpAsyncClientChannels.CloseableAsyncClient client;
+    private final BaseUrl baseUrl;
+    private final Optional<InetAddress> resolvedHost;
+    private final OptionalInt uriIndexForInstrumentation;
+
+    ApacheHttpAsyncClientChannel(
+            ApacheHttpAsyncClientChannels.CloseableAsyncClient client,
+            URL baseUrl,
+            Optional<InetAddress> resolvedHost,
+            OptionalInt uriIndexForInstrumentation) {
+        this.client = client;
+        this.baseUrl = BaseUrl.of(baseUrl);
+        this.resolvedHost = resolvedHost;
+        this.uriIndexForInstrumentation = uriIndexForInstrumentation;
+    }
+
+    @Override
+    public ListenableFuture<Response> execute(Endpoint endpoint, Request request) {
+        BasicHttpRequest httpRequest =
+                new BasicHttpRequest(endpoint.httpMethod().name(), URI.create(baseUrl.renderString(endpoint, request)));
+        request.headerParams().forEach(httpRequest::addHeader);
+        // The entity producer describes the body, an explicit header would conflict with it.
+        httpRequest.removeHeaders(HttpHeaders.CONTENT_LENGTH);
+
+        AsyncEntityProducer entity = null;
+        if (request.body().isPresent()) {
+            Preconditions.checkArgument(
+                    endpoint.httpMethod() != HttpMethod.GET, "GET endpoints must not have a request body");
+            Preconditions.checkArgument(
+                    endpoint.httpMethod() != HttpMethod.HEAD, "HEAD endpoints must not have a request body");
+            Preconditions.checkArgument(
+                    endpoint.httpMethod() != HttpMethod.OPTIONS, "OPTIONS endpoints must not have a request body");
+            RequestBody body = request.body().get();
+            entity = new RequestBodyEntityProducer(body, client.requestBodyExecutor());
+        } else if (requiresEmptyBody(endpoint)) {
+            entity = AsyncEntityProducers.create(new byte[0], null);
+        }
+
+        HttpClientContext context = HttpClientContext.create();
+        resolvedHost.ifPresent(inetAddress -> DialogueAsyncRoutePlanner.set(context, inetAddress));
+        SettableFuture<Response> result = SettableFuture.create();
+        Future<Response> exchange = client.apacheClient()
+                .execute(
+                        new BasicRequestProducer(httpRequest, entity),
+                        new StreamingResponseConsumer(client),
+                        null,
+                        context,
+                        new ResultCallback(result, endpoint, request, System.nanoTime()));
+        result.addListener(
+                () -> {
+                    if (result.isCancelled()) {
+                        exchange.cancel(true);
+                    }
+                },
+                MoreExecutors.directExecutor());
+        return result;
+    }
+
+    // https://tools.ietf.org/html/rfc7230#section-3.3.2 recommends setting a content-length
+    // on empty post requests. Some components may respond 411 if the content-length is not present.
+    private static boolean requiresEmptyBody(Endpoint endpoint) {
+        HttpMethod method = endpoint.httpMethod();
+        return method == HttpMethod.POST || method == HttpMethod.PUT;
+    }
+
+    @Override
+    public String toString() {
+        return "ApacheHttpAsyncClientChannel{baseUrl=" + baseUrl + ", client=" + client + '}';
+    }
+
+    private final class ResultCallback implements FutureCallback<Response> {
+        private final SettableFuture<Response> result;
+        private final Endpoint endpoint;
+        private final Request request;
+        private final long startNanos;
+
+        ResultCallback(SettableFuture<Response> result, Endpoint endpoint, Request request, long startNanos) {
+            this.result = result;
+            this.endpoint = endpoint;
+            this.request = request;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void completed(Response response) {
+            Response leakDetectingResponse = client.leakDetector().wrap(response, endpoint);
+            try {
+                // Listeners commonly read the body using a direct executor, which must not happen on the I/O
+                // reactor thread because the remainder of the body is delivered by that same thread.
+                client.responseExecutor().execute(() -> complete(leakDetectingResponse));
+            } catch (RejectedExecutionException e) {
+                leakDetectingResponse.close();
+                result.setException(e);
+            }
+        }
+
+        private void complete(Response response) {
+            if (!result.set(response)) {
+                // The caller has already cancelled the request
+                response.close();
+            }
+        }
+
+        @Override
+        public void failed(Exception exception) {
+            if (exception instanceof ConnectTimeoutException) {
+                // ConnectTimeoutException must be wrapped so it may be retried, see SafeConnectTimeoutException.
+                result.setException(
+                        new SafeConnectTimeoutException((ConnectTimeoutException) exception, diagnosticArgs()));
+            } else {
+                result.setException(exception);
+            }
+        }
+
+        @Override
+        public void cancelled() {
+            result.cancel(false);
+        }
+
+        private Arg<?>[] diagnosticArgs() {
+            return new Arg<?>[] {
+                SafeArg.of("durationMillis", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos)),
+                SafeArg.of("connectTimeout", client.clientConfiguration().connectTimeout()),
+                SafeArg.of("clientName", client.name()),
+                SafeArg.of("serviceName", endpoint.serviceName()),
+                SafeArg.of("endpointName", endpoint.endpointName()),
+                SafeArg.of("requestTraceId", request.headerParams().get(TraceHttpHeaders.TRACE_ID)),
+                SafeArg.of("hostIndex", uriIndexForInstrumentation)
+            };
+        }
+    }
+}
@@ -0,0 +1,565 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.hc5.async;
+
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.io.Closer;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.conjure.java.client.config.CipherSuites;
+import com.palantir.conjure.java.client.config.ClientConfiguration;
+import com.palantir.dialogue.Channel;
+import com.palantir.dialogue.core.DialogueChannel;
+import com.palantir.dialogue.core.DialogueChannelFactory;
+import com.palantir.dialogue.core.DialogueDnsResolver;
+import com.palantir.dialogue.core.DialogueInternalWeakReducingGauge;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.Safe;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+import com.palantir.logsafe.exceptions.SafeRuntimeException;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.Cleaner;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+import javax.annotation.Nullable;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.config.TlsConfig;
+import org.apache.hc.client5.http.impl.async.CloseableHttpAsyncClient;
+import org.apache.hc.client5.http.impl.async.HttpAsyncClients;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManager;
+import org.apache.hc.client5.http.impl.nio.PoolingAsyncClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.ssl.ClientTlsStrategyBuilder;
+import org.apache.hc.client5.http.ssl.DefaultHostnameVerifier;
+import org.apache.hc.core5.http.ssl.TLS;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.apache.hc.core5.http2.config.H2Config;
+import org.apache.hc.core5.io.CloseMode;
+import org.apache.hc.core5.pool.PoolConcurrencyPolicy;
+import org.apache.hc.core5.pool.PoolReusePolicy;
+import org.apache.hc.core5.reactor.IOReactorConfig;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+
+/**
+ * Dialogue transport built on the non-blocking httpclient5 async client. Unlike {@code ApacheHttpClientChannels},
+ * no thread is held while waiting for a response: requests are written and responses are read by a small number
+ * of I/O reactor threads, and response bodies are streamed through a flow-controlled buffer.
+ *
+ * <p>HTTP/2 is negotiated using ALPN for {@code https} targets by default. Cleartext HTTP/2 (h2c) requires prior
+ * knowledge, see {@link ClientBuilder#httpVersionPolicy(HttpVersionPolicy)}. Once a connection is established
+ * using HTTP/2, concurrent exchanges to the same route are multiplexed over it rather than leasing a connection
+ * per request.
+ */
+public final class ApacheHttpAsyncClientChannels {
+    private static final SafeLogger log = SafeLoggerFactory.get(ApacheHttpAsyncClientChannels.class);
+
+    /** Shared across all clients, the request body executor is only used to write streaming request bodies. */
+    private static final Supplier<ExecutorService> sharedRequestBodyExecutor =
+            Suppliers.memoize(() -> Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                    .setNameFormat("dialogue-async-request-body-%d")
+                    .setDaemon(true)
+                    .build()));
+
+    /**
+     * Shared across all clients, responses are handed to callers on this executor rather than the I/O reactor.
+     * Callers commonly read the body in direct-executor transforms, which would otherwise block the reactor thread
+     * responsible for delivering the remainder of the body.
+     */
+    private static final Supplier<ExecutorService> sharedResponseExecutor =
+            Suppliers.memoize(() -> Executors.newCachedThreadPool(new ThreadFactoryBuilder()
+                    .setNameFormat("dialogue-async-response-%d")
+                    .setDaemon(true)
+                    .build()));
+
+    private static final Cleaner cleaner = Cleaner.create(new ThreadFactoryBuilder()
+            .setDaemon(true)
+            .setNameFormat("dialogue-async-cleaner-%d")
+            .build());
+
+    // Matches the lower bound used by the blocking Apache client to avoid handshakes causing retry storms.
+    private static final Timeout DEFAULT_HANDSHAKE_TIMEOUT = Timeout.ofSeconds(10);
+
+    private ApacheHttpAsyncClientChannels() {}
+
+    /**
+     * Simple cjr-style factory method. Prefer using {@code dialogue-clients} general purpose factory where possible.
+     */
+    public static Channel create(ClientConfiguration conf, String channelName) {
+        CloseableAsyncClient client = clientBuilder()
+                .clientConfiguration(conf)
+                .clientName(channelName)
+                .build();
+        return DialogueChannel.builder()
+                .channelName(channelName)
+                .clientConfiguration(conf)
+                .factory(args -> createSingleUri(args, client))
+                .build();
+    }
+
+    public static Channel createSingleUri(DialogueChannelFactory.ChannelArgs args, CloseableAsyncClient client) {
+        return new ApacheHttpAsyncClientChannel(
+                client, url(args.uri()), args.resolvedAddress(), args.uriIndexForInstrumentation());
+    }
+
+    public static Channel createSingleUri(String uri, CloseableAsyncClient client) {
+        return createSingleUri(
+                DialogueChannelFactory.ChannelArgs.builder().uri(uri).build(), client);
+    }
+
+    private static void setupConnectionPoolMetrics(
+            TaggedMetricRegistry taggedMetrics, String clientName, PoolingAsyncClientConnectionManager pool) {
+        DialogueClientPoolMetrics metrics = DialogueClientPoolMetrics.of(taggedMetrics);
+        DialogueInternalWeakReducingGauge.getOrCreate(
+                taggedMetrics,
+                metrics.size().clientName(clientName).state("idle").buildMetricName(),
+                manager -> manager.getTotalStats().getAvailable(),
+                LongStream::sum,
+                pool);
+        DialogueInternalWeakReducingGauge.getOrCreate(
+                taggedMetrics,
+                metrics.size().clientName(clientName).state("leased").buildMetricName(),
+                manager -> manager.getTotalStats().getLeased(),
+                LongStream::sum,
+                pool);
+        DialogueInternalWeakReducingGauge.getOrCreate(
+                taggedMetrics,
+                metrics.size().clientName(clientName).state("pending").buildMetricName(),
+                manager -> manager.getTotalStats().getPending(),
+                LongStream::sum,
+                pool);
+    }
+
+    /** Intentionally opaque wrapper type - we don't want people using the inner Apache client directly. */
+    public abstract static class CloseableAsyncClient implements Closeable {
+
+        abstract CloseableHttpAsyncClient apacheClient();
+
+        abstract ClientConfiguration clientConfiguration();
+
+        abstract String name();
+
+        abstract ExecutorService requestBodyExecutor();
+
+        abstract ExecutorService responseExecutor();
+
+        abstract ResponseLeakDetector leakDetector();
+
+        /** Closes idle connections, does not throw. */
+        @Override
+        public abstract void close();
+    }
+
+    /**
+     * Handed out to callers. Resources are released when this wrapper becomes unreachable rather than when it's
+     * closed, because channels may still have queued requests which need to execute on this client.
+     */
+    private static final class CloseableAsyncClientWrapper extends CloseableAsyncClient {
+
+        private final CloseableAsyncClientImpl delegate;
+
+        CloseableAsyncClientWrapper(CloseableAsyncClientImpl delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        CloseableHttpAsyncClient apacheClient() {
+            return delegate.apacheClient();
+        }
+
+        @Override
+        ClientConfiguration clientConfiguration() {
+            return delegate.clientConfiguration();
+        }
+
+        @Override
+        String name() {
+            return delegate.name();
+        }
+
+        @Override
+        ExecutorService requestBodyExecutor() {
+            return delegate.requestBodyExecutor();
+        }
+
+        @Override
+        ExecutorService responseExecutor() {
+            return delegate.responseExecutor();
+        }
+
+        @Override
+        ResponseLeakDetector leakDetector() {
+            return delegate.leakDetector();
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+
+        @Override
+        public String toString() {
+            return "CloseableAsyncClientWrapper{" + delegate + '}';
+        }
+    }
+
+    private static final class CloseableAsyncClientImpl extends CloseableAsyncClient {
+
+        private final String clientName;
+        private final CloseableHttpAsyncClient apacheClient;
+        private final PoolingAsyncClientConnectionManager pool;
+        private final ResponseLeakDetector leakDetector;
+        private final ClientConfiguration clientConfiguration;
+        private final ExecutorService requestBodyExecutor;
+        private final ExecutorService responseExecutor;
+        private final Closer closer = Closer.create();
+
+        private CloseableAsyncClientImpl(
+                CloseableHttpAsyncClient apacheClient,
+                @Safe String clientName,
+                PoolingAsyncClientConnectionManager pool,
+                ExecutorService requestBodyExecutor,
+                ExecutorService responseExecutor,
+                ClientConfiguration clientConfiguration) {
+            this.clientName = clientName;
+            this.apacheClient = apacheClient;
+            this.pool = pool;
+            this.requestBodyExecutor = requestBodyExecutor;
+            this.responseExecutor = responseExecutor;
+            this.clientConfiguration = clientConfiguration;
+            this.leakDetector = ResponseLeakDetector.of(clientName, clientConfiguration.taggedMetricRegistry());
+            closer.register(() -> apacheClient.close(CloseMode.GRACEFUL));
+            closer.register(() -> pool.close(CloseMode.GRACEFUL));
+            closer.register(DialogueClientMetrics.of(clientConfiguration.taggedMetricRegistry())
+                    .close(clientName)::mark);
+        }
+
+        @Override
+        CloseableHttpAsyncClient apacheClient() {
+            return apacheClient;
+        }
+
+        @Override
+        ClientConfiguration clientConfiguration() {
+            return clientConfiguration;
+        }
+
+        @Override
+        String name() {
+            return clientName;
+        }
+
+        @Override
+        ExecutorService requestBodyExecutor() {
+            return requestBodyExecutor;
+        }
+
+        @Override
+        ExecutorService responseExecutor() {
+            return responseExecutor;
+        }
+
+        @Override
+        ResponseLeakDetector leakDetector() {
+            return leakDetector;
+        }
+
+        @Override
+        public void close() {
+            // Only idle connections are closed, the I/O reactor is shut down once the client is unreachable.
+            pool.closeIdle(TimeValue.ZERO_MILLISECONDS);
+        }
+
+        private void closeApacheClient() {
+            log.info(
+                    "ApacheHttpAsyncClientChannels#finalize - {} {}",
+                    SafeArg.of("name", clientName),
+                    SafeArg.of("client", Integer.toHexString(System.identityHashCode(apacheClient))));
+            try {
+                closer.close();
+            } catch (IOException e) {
+                log.warn("Failed to close client", e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "CloseableAsyncClientImpl@" + Integer.toHexString(System.identityHashCode(this)) + "{"
+                    + "clientName='" + clientName + '\''
+                    + ", client=" + apacheClient
+                    + ", pool=" + pool
+                    + '}';
+        }
+    }
+
+    public static ClientBuilder clientBuilder() {
+        return new ClientBuilder();
+    }
+
+    public static final class ClientBuilder {
+
+        // Slightly lower than the one minute keep-alive timeout used by most servers, see ApacheHttpClientChannels.
+        private static final Timeout IDLE_CONNECTION_TIMEOUT = Timeout.ofSeconds(50);
+
+        @Nullable
+        private ClientConfiguration clientConfiguration;
+
+        @Nullable
+        private String clientName;
+
+        @Nullable
+        private ExecutorService requestBodyExecutor;
+
+        @Nullable
+        private ExecutorService responseExecutor;
+
+        @Nullable
+        private SSLContext sslContext;
+
+        private Optional<DialogueDnsResolver> dnsResolver = Optional.empty();
+        private HttpVersionPolicy httpVersionPolicy = HttpVersionPolicy.NEGOTIATE;
+        private int ioThreads = Math.min(4, Runtime.getRuntime().availableProcessors());
+
+        private ClientBuilder() {}
+
+        public ClientBuilder clientConfiguration(ClientConfiguration value) {
+            this.clientConfiguration = Preconditions.checkNotNull(value, "ClientConfiguration is required");
+            return this;
+        }
+
+        /**
+         * {@link Safe} loggable identifier used to identify this client instance for instrumentation
+         * purposes. While this value does not impact behavior, using a unique value for each client
+         * makes it much easier to monitor and debug the RPC stack.
+         */
+        public ClientBuilder clientName(@Safe String value) {
+            this.clientName = Preconditions.checkNotNull(value, "clientName is required");
+            return this;
+        }
+
+        /**
+         * Configures the {@link ExecutorService} used to write streaming request bodies, which are produced using
+         * blocking {@link java.io.OutputStream} writes. If no {@link ExecutorService executor} is provided,
+         * a shared cached executor is used.
+         */
+        public ClientBuilder requestBodyExecutor(ExecutorService value) {
+            this.requestBodyExecutor = Preconditions.checkNotNull(value, "ExecutorService is required");
+            return this;
+        }
+
+        /**
+         * Configures the {@link ExecutorService} used to complete response futures. Callers may block on this
+         * executor while reading the response body, so it should not be tightly bounded. If no
+         * {@link ExecutorService executor} is provided, a shared cached executor is used.
+         */
+        public ClientBuilder responseExecutor(ExecutorService value) {
+            this.responseExecutor = Preconditions.checkNotNull(value, "ExecutorService is required");
+            return this;
+        }
+
+        /**
+         * Configures the {@link DialogueDnsResolver} used to look up addresses. If no
+         * {@link DialogueDnsResolver resolver} is provided, the httpclient5 default will be used.
+         */
+        public ClientBuilder dnsResolver(DialogueDnsResolver value) {
+            this.dnsResolver = Optional.of(Preconditions.checkNotNull(value, "DialogueDnsResolver is required"));
+            return this;
+        }
+
+        /**
+         * The non-blocking transport requires an {@link SSLContext} rather than the
+         * {@link ClientConfiguration#sslSocketFactory()}. When no context is provided, one is created from the
+         * {@link ClientConfiguration#trustManager()}, which does not present client certificates.
+         */
+        public ClientBuilder sslContext(SSLContext value) {
+            this.sslContext = Preconditions.checkNotNull(value, "SSLContext is required");
+            return this;
+        }
+
+        /**
+         * Defaults to {@link HttpVersionPolicy#NEGOTIATE}, which uses ALPN to select HTTP/2 over TLS and HTTP/1.1
+         * for cleartext connections. {@link HttpVersionPolicy#FORCE_HTTP_2} may be used for cleartext HTTP/2 (h2c)
+         * with prior knowledge when all targets are known to support it.
+         */
+        public ClientBuilder httpVersionPolicy(HttpVersionPolicy value) {
+            this.httpVersionPolicy = Preconditions.checkNotNull(value, "HttpVersionPolicy is required");
+            return this;
+        }
+
+        /** Number of I/O reactor threads owned by this client, defaulting to the number of cores up to four. */
+        public ClientBuilder ioThreads(int value) {
+            Preconditions.checkArgument(value > 0, "ioThreads must be positive", SafeArg.of("ioThreads", value));
+            this.ioThreads = value;
+            return this;
+        }
+
+        public CloseableAsyncClient build() {
+            ClientConfiguration conf =
+                    Preconditions.checkNotNull(clientConfiguration, "ClientConfiguration is required");
+            String name = Preconditions.checkNotNull(clientName, "Client name is required");
+            Preconditions.checkArgument(
+                    !conf.fallbackToCommonNameVerification(), "fallback-to-common-name-verification is not supported");
+            Preconditions.checkArgument(!conf.meshProxy().isPresent(), "Mesh proxy is not supported");
+            Preconditions.checkArgument(
+                    !conf.proxyCredentials().isPresent(), "Proxy credentials are not supported by the async client");
+
+            Timeout socketTimeout = getSocketTimeout(conf);
+            Timeout connectTimeout = Timeout.ofMilliseconds(conf.connectTimeout().toMillis());
+            SSLContext context = sslContext == null ? createSslContext(conf) : sslContext;
+
+            PoolingAsyncClientConnectionManagerBuilder poolBuilder = PoolingAsyncClientConnectionManagerBuilder.create()
+                    .setTlsStrategy(ClientTlsStrategyBuilder.create()
+                            .setSslContext(context)
+                            .setTlsVersions(TLS.V_1_3, TLS.V_1_2)
+                            .setCiphers(supportedCipherSuites(context))
+                            .setHostnameVerifier(new DefaultHostnameVerifier())
+                            .build())
+                    .setDefaultTlsConfig(TlsConfig.custom()
+                            .setVersionPolicy(httpVersionPolicy)
+                            .setHandshakeTimeout(getHandshakeTimeout(connectTimeout, socketTimeout))
+                            .build())
+                    .setDefaultConnectionConfig(ConnectionConfig.custom()
+                            .setConnectTimeout(connectTimeout)
+                            .setSocketTimeout(socketTimeout)
+                            .build())
+                    .setPoolConcurrencyPolicy(PoolConcurrencyPolicy.LAX)
+                    // Allow unnecessary connections to time out reducing system load.
+                    .setConnPoolPolicy(PoolReusePolicy.LIFO)
+                    .setMaxConnTotal(Integer.MAX_VALUE)
+                    .setMaxConnPerRoute(Integer.MAX_VALUE);
+            dnsResolver.ifPresent(resolver -> poolBuilder.setDnsResolver(new DialogueDnsResolverAdapter(resolver)));
+            PoolingAsyncClientConnectionManager pool = poolBuilder.build();
+            setupConnectionPoolMetrics(conf.taggedMetricRegistry(), name, pool);
+
+            CloseableHttpAsyncClient apacheClient = HttpAsyncClients.custom()
+                    .setConnectionManager(pool)
+                    .setConnectionManagerShared(true)
+                    .setIOReactorConfig(IOReactorConfig.custom()
+                            .setIoThreadCount(ioThreads)
+                            .setSoKeepAlive(true)
+                            .build())
+                    .setH2Config(H2Config.custom().setPushEnabled(false).build())
+                    .setThreadFactory(new ThreadFactoryBuilder()
+                            .setNameFormat("dialogue-async-io-" + name + "-%d")
+                            .setDaemon(true)
+                            .build())
+                    .setDefaultRequestConfig(RequestConfig.custom()
+                            // Don't allow clients to wait forever for a connection to become available
+                            .setConnectionRequestTimeout(connectTimeout)
+                            .setResponseTimeout(socketTimeout)
+                            // Match okhttp, disallow redirects
+                            .setRedirectsEnabled(false)
+                            .setAuthenticationEnabled(false)
+                            .setExpectContinueEnabled(false)
+                            .setConnectionKeepAlive(IDLE_CONNECTION_TIMEOUT)
+                            .build())
+                    .setRoutePlanner(new DialogueAsyncRoutePlanner(conf.proxy()))
+                    .evictIdleConnections(IDLE_CONNECTION_TIMEOUT)
+                    .disableAutomaticRetries()
+                    .disableConnectionState()
+                    .disableCookieManagement()
+                    .disableRedirectHandling()
+                    .build();
+            apacheClient.start();
+
+            CloseableAsyncClientImpl impl = new CloseableAsyncClientImpl(
+                    apacheClient,
+                    name,
+                    pool,
+                    requestBodyExecutor == null ? sharedRequestBodyExecutor.get() : requestBodyExecutor,
+                    responseExecutor == null ? sharedResponseExecutor.get() : responseExecutor,
+                    conf);
+            log.info(
+                    "Created Apache async client {} {} {}",
+                    SafeArg.of("name", name),
+                    SafeArg.of("client", Integer.toHexString(System.identityHashCode(apacheClient))),
+                    SafeArg.of("httpVersionPolicy", httpVersionPolicy));
+            DialogueClientMetrics.of(conf.taggedMetricRegistry()).create(name).mark();
+            CloseableAsyncClient wrapper = new CloseableAsyncClientWrapper(impl);
+            cleaner.register(wrapper, impl::closeApacheClient);
+            return wrapper;
+        }
+    }
+
+    static Cleaner cleaner() {
+        return cleaner;
+    }
+
+    private static Timeout getSocketTimeout(ClientConfiguration conf) {
+        long socketTimeoutMillis = conf.readTimeout().toMillis();
+        // https://issues.apache.org/jira/browse/HTTPCLIENT-2099
+        return Timeout.ofMilliseconds(socketTimeoutMillis == 0 ? Duration.ofDays(1).toMillis() : socketTimeoutMillis);
+    }
+
+    private static Timeout getHandshakeTimeout(Timeout connectTimeout, Timeout socketTimeout) {
+        if (!connectTimeout.isEnabled()) {
+            return socketTimeout;
+        }
+        if (connectTimeout.toMilliseconds() >= DEFAULT_HANDSHAKE_TIMEOUT.toMilliseconds()) {
+            return connectTimeout;
+        }
+        return Timeout.ofMilliseconds(
+                Math.min(socketTimeout.toMilliseconds(), DEFAULT_HANDSHAKE_TIMEOUT.toMilliseconds()));
+    }
+
+    private static SSLContext createSslContext(ClientConfiguration conf) {
+        try {
+            SSLContext context = SSLContext.getInstance("TLS");
+            context.init(null, new TrustManager[] {conf.trustManager()}, null);
+            return context;
+        } catch (GeneralSecurityException e) {
+            throw new SafeRuntimeException("Failed to create an SSLContext", e);
+        }
+    }
+
+    /** Filters the conjure cipher suites, preserving order, to those supported by the given context. */
+    private static String[] supportedCipherSuites(SSLContext context) {
+        ImmutableSet<String> supported =
+                ImmutableSet.copyOf(context.getSupportedSSLParameters().getCipherSuites());
+        String[] enabled = Arrays.stream(CipherSuites.allCipherSuites())
+                .filter(supported::contains)
+                .toArray(String[]::new);
+        if (enabled.length == 0) {
+            throw new SafeIllegalStateException("Zero supported cipher suites");
+        }
+        return enabled;
+    }
+
+    private static URL url(String uri) {
+        try {
+            return new URL(uri);
+        } catch (MalformedURLException e) {
+            throw new SafeIllegalArgumentException("Failed to parse URL", e);
+        }
+    }
+}
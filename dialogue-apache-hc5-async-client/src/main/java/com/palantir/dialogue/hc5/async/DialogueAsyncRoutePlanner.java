@@ -0,0 +1,67 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.hc5.async;
+
+import java.net.InetAddress;
+import java.net.ProxySelector;
+import javax.annotation.Nullable;
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.impl.routing.SystemDefaultRoutePlanner;
+import org.apache.hc.client5.http.routing.HttpRoutePlanner;
+import org.apache.hc.core5.http.HttpException;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+/**
+ * Allows a pre-resolved address to be used for a request. Client instances are shared between all URIs, so
+ * resolved addresses are passed using the {@link HttpContext}. Pre-resolved addresses are part of the
+ * {@link HttpRoute}, so HTTP/2 connections are only shared between requests to the same address.
+ */
+final class DialogueAsyncRoutePlanner implements HttpRoutePlanner {
+    private static final String ATTRIBUTE = "dialogueResolvedAddress";
+    private final HttpRoutePlanner delegate;
+
+    DialogueAsyncRoutePlanner(ProxySelector proxySelector) {
+        delegate = new SystemDefaultRoutePlanner(proxySelector);
+    }
+
+    @Override
+    public HttpRoute determineRoute(HttpHost host, HttpContext context) throws HttpException {
+        HttpRoute route = delegate.determineRoute(host, context);
+        InetAddress resolvedAddress = get(context);
+        // Proxied routes are left alone, the proxy is responsible for resolving the target.
+        if (resolvedAddress == null || route.getTargetHost().getAddress() != null || route.getProxyHost() != null) {
+            return route;
+        }
+        HttpHost targetHost = route.getTargetHost();
+        return new HttpRoute(
+                new HttpHost(
+                        targetHost.getSchemeName(), resolvedAddress, targetHost.getHostName(), targetHost.getPort()),
+                route.getLocalAddress(),
+                route.isSecure());
+    }
+
+    static void set(HttpContext context, InetAddress resolvedAddress) {
+        context.setAttribute(ATTRIBUTE, resolvedAddress);
+    }
+
+    @Nullable
+    private static InetAddress get(@Nullable HttpContext context) {
+        Object value = context == null ? null : context.getAttribute(ATTRIBUTE);
+        return value instanceof InetAddress ? (InetAddress) value : null;
+    }
+}
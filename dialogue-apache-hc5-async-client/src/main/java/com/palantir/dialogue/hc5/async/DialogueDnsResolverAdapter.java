@@ -0,0 +1,53 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.hc5.async;
+
+import com.google.common.collect.ImmutableSet;
+import com.palantir.dialogue.core.DialogueDnsResolver;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import org.apache.hc.client5.http.DnsResolver;
+
+/** Adapts a {@link DialogueDnsResolver}, which returns an empty set on failure, to the httpclient5 API. */
+final class DialogueDnsResolverAdapter implements DnsResolver {
+
+    private final DialogueDnsResolver delegate;
+
+    DialogueDnsResolverAdapter(DialogueDnsResolver delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public InetAddress[] resolve(String host) throws UnknownHostException {
+        ImmutableSet<InetAddress> resolved = delegate.resolve(host);
+        if (resolved.isEmpty()) {
+            throw new UnknownHostException(host);
+        }
+        return resolved.toArray(new InetAddress[0]);
+    }
+
+    @Override
+    public String resolveCanonicalHostname(String host) throws UnknownHostException {
+        // Canonical hostnames are only used for authentication schemes which this client does not support.
+        return host;
+    }
+
+    @Override
+    public String toString() {
+        return "DialogueDnsResolverAdapter{" + delegate + '}';
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.hc5.async;
+
+import com.palantir.dialogue.RequestBody;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.Executor;
+import org.apache.hc.core5.http.ContentType;
+import org.apache.hc.core5.http.nio.support.classic.AbstractClassicEntityProducer;
+
+/**
+ * Bridges the blocking {@link RequestBody#writeTo(OutputStream)} API to the non-blocking transport. Bodies are
+ * written on the provided executor into a shared buffer which the I/O reactor drains as the connection,
+ * or the HTTP/2 stream flow-control window, allows.
+ */
+final class RequestBodyEntityProducer extends AbstractClassicEntityProducer {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final RequestBody requestBody;
+
+    RequestBodyEntityProducer(RequestBody requestBody, Executor executor) {
+        super(BUFFER_SIZE, ContentType.parse(requestBody.contentType()), executor);
+        this.requestBody = requestBody;
+    }
+
+    @Override
+    protected void produceData(ContentType _contentType, OutputStream outputStream) throws IOException {
+        requestBody.writeTo(outputStream);
+    }
+
+    @Override
+    public String toString() {
+        return "RequestBodyEntityProducer{requestBody=" + requestBody + '}';
+    }
+}
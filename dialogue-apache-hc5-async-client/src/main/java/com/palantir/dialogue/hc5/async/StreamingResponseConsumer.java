@@ -0,0 +1,290 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.hc5.async;
+
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.MultimapBuilder;
+import com.google.common.collect.Multimaps;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.ResponseAttachments;
+import com.palantir.logsafe.exceptions.SafeIoException;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nullable;
+import org.apache.hc.core5.concurrent.FutureCallback;
+import org.apache.hc.core5.http.EntityDetails;
+import org.apache.hc.core5.http.Header;
+import org.apache.hc.core5.http.HttpResponse;
+import org.apache.hc.core5.http.nio.AsyncResponseConsumer;
+import org.apache.hc.core5.http.nio.CapacityChannel;
+import org.apache.hc.core5.http.nio.support.classic.SharedInputBuffer;
+import org.apache.hc.core5.http.protocol.HttpContext;
+
+/**
+ * Completes with a {@link Response} as soon as response headers are received, the body is streamed through a
+ * {@link SharedInputBuffer}. Capacity is only granted to the peer as the body is read, so a slow reader applies
+ * back-pressure using the HTTP/2 stream flow-control window (or TCP, for HTTP/1.1) rather than buffering the
+ * entire response in memory.
+ */
+final class StreamingResponseConsumer implements AsyncResponseConsumer<Response> {
+    private static final SafeLogger log = SafeLoggerFactory.get(StreamingResponseConsumer.class);
+
+    /** Matches the default HTTP/2 initial window size. */
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ApacheHttpAsyncClientChannels.CloseableAsyncClient client;
+    private final SharedInputBuffer buffer = new SharedInputBuffer(BUFFER_SIZE);
+
+    @Nullable
+    private volatile CapacityChannel capacityChannel;
+
+    @Nullable
+    private volatile Exception failure;
+
+    private volatile boolean complete;
+    private volatile boolean discarded;
+
+    StreamingResponseConsumer(ApacheHttpAsyncClientChannels.CloseableAsyncClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public void consumeResponse(
+            HttpResponse response,
+            @Nullable EntityDetails entityDetails,
+            HttpContext _context,
+            FutureCallback<Response> resultCallback) {
+        if (entityDetails == null) {
+            complete = true;
+            buffer.markEndStream();
+        }
+        resultCallback.completed(new AsyncResponse(response, this));
+    }
+
+    @Override
+    public void informationResponse(HttpResponse _response, HttpContext _context) {}
+
+    @Override
+    public void updateCapacity(CapacityChannel channel) throws IOException {
+        this.capacityChannel = channel;
+        buffer.updateCapacity(channel);
+    }
+
+    @Override
+    public void consume(ByteBuffer src) throws IOException {
+        if (discarded) {
+            // Failing the exchange resets the HTTP/2 stream, or closes an HTTP/1.1 connection.
+            throw new SafeIoException("Response was closed before the body was fully consumed");
+        }
+        buffer.fill(src);
+    }
+
+    @Override
+    public void streamEnd(List<? extends Header> _trailers) {
+        complete = true;
+        buffer.markEndStream();
+    }
+
+    @Override
+    public void failed(Exception cause) {
+        failure = cause;
+        buffer.abort();
+    }
+
+    @Override
+    public void releaseResources() {
+        // The buffer is owned by the response body, which may still be read.
+    }
+
+    /**
+     * Aborts the exchange if the body has not been fully received. The peer may be blocked on flow control, so
+     * a byte of capacity is granted to ensure {@link #consume(ByteBuffer)} is invoked and fails the exchange.
+     */
+    private boolean discard() throws IOException {
+        if (complete || discarded) {
+            return false;
+        }
+        discarded = true;
+        buffer.abort();
+        CapacityChannel channel = capacityChannel;
+        if (channel != null) {
+            channel.update(1);
+        }
+        return true;
+    }
+
+    private void checkFailure() throws IOException {
+        Exception cause = failure;
+        if (cause != null && !discarded) {
+            throw new SafeIoException("Failed to read the response body", cause);
+        }
+    }
+
+    private static final class AsyncResponse implements Response {
+
+        private final HttpResponse response;
+        private final ResponseAttachments attachments = ResponseAttachments.create();
+
+        // Consumer reference retains the client, preventing premature termination
+        @Nullable
+        private StreamingResponseConsumer consumer;
+
+        @Nullable
+        private ListMultimap<String, String> headers;
+
+        @Nullable
+        private InputStream body;
+
+        AsyncResponse(HttpResponse response, StreamingResponseConsumer consumer) {
+            this.response = response;
+            this.consumer = consumer;
+        }
+
+        @Override
+        public InputStream body() {
+            InputStream snapshot = body;
+            if (snapshot == null) {
+                snapshot = new ResponseBodyInputStream(consumer);
+                body = snapshot;
+            }
+            return snapshot;
+        }
+
+        @Override
+        public int code() {
+            return response.getCode();
+        }
+
+        @Override
+        public ListMultimap<String, String> headers() {
+            if (headers == null) {
+                ListMultimap<String, String> tmpHeaders = MultimapBuilder.treeKeys(String.CASE_INSENSITIVE_ORDER)
+                        .arrayListValues()
+                        .build();
+                Iterator<Header> headerIterator = response.headerIterator();
+                while (headerIterator.hasNext()) {
+                    Header header = headerIterator.next();
+                    String value = header.getValue();
+                    if (value != null) {
+                        tmpHeaders.put(header.getName(), value);
+                    }
+                }
+                headers = Multimaps.unmodifiableListMultimap(tmpHeaders);
+            }
+            return headers;
+        }
+
+        @Override
+        public Optional<String> getFirstHeader(String header) {
+            return Optional.ofNullable(response.getFirstHeader(header)).map(Header::getValue);
+        }
+
+        @Override
+        public ResponseAttachments attachments() {
+            return attachments;
+        }
+
+        @Override
+        public void close() {
+            StreamingResponseConsumer snapshot = consumer;
+            consumer = null;
+            if (snapshot != null) {
+                ResponseBodyInputStream.discard(snapshot);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "AsyncResponse{response=" + response + ", consumer=" + consumer + '}';
+        }
+    }
+
+    private static final class ResponseBodyInputStream extends InputStream {
+
+        @Nullable
+        private StreamingResponseConsumer consumer;
+
+        ResponseBodyInputStream(@Nullable StreamingResponseConsumer consumer) {
+            this.consumer = consumer;
+        }
+
+        @Override
+        public int read() throws IOException {
+            StreamingResponseConsumer snapshot = consumer;
+            if (snapshot == null) {
+                return -1;
+            }
+            int result = snapshot.buffer.read();
+            if (result == -1) {
+                snapshot.checkFailure();
+            }
+            return result;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            StreamingResponseConsumer snapshot = consumer;
+            if (snapshot == null) {
+                return -1;
+            }
+            int result = snapshot.buffer.read(bytes, off, len);
+            if (result == -1) {
+                snapshot.checkFailure();
+            }
+            return result;
+        }
+
+        @Override
+        public int available() {
+            StreamingResponseConsumer snapshot = consumer;
+            return snapshot == null ? 0 : snapshot.buffer.length();
+        }
+
+        @Override
+        public void close() {
+            StreamingResponseConsumer snapshot = consumer;
+            consumer = null;
+            if (snapshot != null) {
+                discard(snapshot);
+            }
+        }
+
+        static void discard(StreamingResponseConsumer consumer) {
+            try {
+                if (consumer.discard()) {
+                    DialogueClientMetrics.of(consumer.client.clientConfiguration().taggedMetricRegistry())
+                            .streamResetPartiallyConsumedResponse(consumer.client.name())
+                            .mark();
+                }
+            } catch (IOException | RuntimeException e) {
+                // Failing to grant capacity means the exchange has already failed.
+                log.debug("Failed to abort the response exchange", e);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "ResponseBodyInputStream{consumer=" + consumer + '}';
+        }
+    }
+}
@@ -0,0 +1,194 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.hc5.async;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.Meter;
+import com.google.common.base.Strings;
+import com.google.common.collect.Iterables;
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.conjure.java.client.config.ClientConfiguration;
+import com.palantir.conjure.java.dialogue.serde.DefaultConjureRuntime;
+import com.palantir.dialogue.Channel;
+import com.palantir.dialogue.ConjureRuntime;
+import com.palantir.dialogue.Deserializer;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.TestConfigurations;
+import com.palantir.dialogue.TestEndpoint;
+import com.palantir.dialogue.TypeMarker;
+import io.undertow.Undertow;
+import io.undertow.UndertowOptions;
+import io.undertow.server.HttpHandler;
+import io.undertow.server.handlers.BlockingHandler;
+import io.undertow.util.Headers;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public final class ApacheHttpAsyncClientChannelsTest {
+
+    private static final HttpHandler PROTOCOL_HANDLER =
+            exchange -> exchange.getResponseSender().send(exchange.getProtocol().toString());
+
+    private Undertow server;
+
+    @AfterEach
+    public void after() {
+        if (server != null) {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void h2c_prior_knowledge_uses_http2() throws Exception {
+        String uri = startServer(PROTOCOL_HANDLER);
+        try (ApacheHttpAsyncClientChannels.CloseableAsyncClient client =
+                client(uri, HttpVersionPolicy.FORCE_HTTP_2)) {
+            Channel channel = ApacheHttpAsyncClientChannels.createSingleUri(uri, client);
+            assertThat(body(channel.execute(TestEndpoint.GET, Request.builder().build())))
+                    .isEqualTo("HTTP/2.0");
+        }
+    }
+
+    @Test
+    public void negotiate_uses_http1_for_cleartext() throws Exception {
+        String uri = startServer(PROTOCOL_HANDLER);
+        try (ApacheHttpAsyncClientChannels.CloseableAsyncClient client = client(uri, HttpVersionPolicy.NEGOTIATE)) {
+            Channel channel = ApacheHttpAsyncClientChannels.createSingleUri(uri, client);
+            assertThat(body(channel.execute(TestEndpoint.POST, Request.builder().build())))
+                    .isEqualTo("HTTP/1.1");
+        }
+    }
+
+    @Test
+    public void concurrent_requests_complete_over_http2() throws Exception {
+        String uri = startServer(PROTOCOL_HANDLER);
+        try (ApacheHttpAsyncClientChannels.CloseableAsyncClient client =
+                client(uri, HttpVersionPolicy.FORCE_HTTP_2)) {
+            Channel channel = ApacheHttpAsyncClientChannels.createSingleUri(uri, client);
+            List<ListenableFuture<Response>> responses = new ArrayList<>();
+            for (int i = 0; i < 200; i++) {
+                responses.add(channel.execute(TestEndpoint.GET, Request.builder().build()));
+            }
+            for (ListenableFuture<Response> response : responses) {
+                assertThat(body(response)).isEqualTo("HTTP/2.0");
+            }
+        }
+    }
+
+    @Test
+    public void closing_partially_consumed_response_resets_stream() throws Exception {
+        String uri = startServer(new BlockingHandler(exchange -> {
+            if (exchange.getQueryParameters().containsKey("large")) {
+                OutputStream out = exchange.getOutputStream();
+                byte[] chunk = new byte[1024 * 1024];
+                for (int i = 0; i < 300; i++) {
+                    out.write(chunk);
+                }
+            }
+        }));
+        ClientConfiguration conf = TestConfigurations.create(uri);
+        Meter resets = DialogueClientMetrics.of(conf.taggedMetricRegistry())
+                .streamResetPartiallyConsumedResponse("client");
+        try (ApacheHttpAsyncClientChannels.CloseableAsyncClient client = ApacheHttpAsyncClientChannels.clientBuilder()
+                .clientConfiguration(conf)
+                .clientName("client")
+                .httpVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2)
+                .build()) {
+            Channel channel = ApacheHttpAsyncClientChannels.createSingleUri(uri, client);
+            Response large = channel.execute(
+                            TestEndpoint.GET,
+                            Request.builder().putQueryParams("large", "true").build())
+                    .get();
+            InputStream body = large.body();
+            assertThat(body.read()).isZero();
+            long beforeClose = System.nanoTime();
+            large.close();
+            assertThat(Duration.ofNanos(System.nanoTime() - beforeClose)).isLessThan(Duration.ofSeconds(2));
+            assertThat(resets.getCount()).isOne();
+
+            try (Response response =
+                    channel.execute(TestEndpoint.GET, Request.builder().build()).get()) {
+                assertThat(response.code()).isEqualTo(200);
+                assertThat(response.body()).isEmpty();
+            }
+        }
+    }
+
+    @Test
+    public void deserializes_body_larger_than_flow_control_window() throws Exception {
+        int length = 1024 * 1024;
+        String uri = startServer(new BlockingHandler(exchange -> {
+            exchange.getResponseHeaders().put(Headers.CONTENT_TYPE, "application/json");
+            OutputStream out = exchange.getOutputStream();
+            out.write('"');
+            out.write(Strings.repeat("a", length).getBytes(StandardCharsets.UTF_8));
+            out.write('"');
+        }));
+        ConjureRuntime runtime = DefaultConjureRuntime.builder().build();
+        Deserializer<String> deserializer = runtime.bodySerDe().deserializer(new TypeMarker<String>() {});
+        try (ApacheHttpAsyncClientChannels.CloseableAsyncClient client =
+                client(uri, HttpVersionPolicy.FORCE_HTTP_2)) {
+            Channel channel = ApacheHttpAsyncClientChannels.createSingleUri(uri, client);
+            // The deserializer runs on a direct executor, so this would deadlock if the response future were
+            // completed on the I/O reactor thread.
+            String value = runtime.clients()
+                    .call(channel, TestEndpoint.GET, Request.builder().build(), deserializer)
+                    .get(10, TimeUnit.SECONDS);
+            assertThat(value).hasSize(length);
+        }
+    }
+
+    private String startServer(HttpHandler handler) {
+        server = Undertow.builder()
+                .setServerOption(UndertowOptions.ENABLE_HTTP2, true)
+                .addHttpListener(0, "localhost", handler)
+                .build();
+        server.start();
+        InetSocketAddress address = (InetSocketAddress)
+                Iterables.getOnlyElement(server.getListenerInfo()).getAddress();
+        return "http://localhost:" + address.getPort();
+    }
+
+    private static ApacheHttpAsyncClientChannels.CloseableAsyncClient client(String uri, HttpVersionPolicy policy) {
+        return ApacheHttpAsyncClientChannels.clientBuilder()
+                .clientConfiguration(TestConfigurations.create(uri))
+                .clientName("client")
+                .httpVersionPolicy(policy)
+                .build();
+    }
+
+    private static String body(ListenableFuture<Response> future) throws Exception {
+        try (Response response = Futures.getUnchecked(future);
+                InputStream body = response.body()) {
+            assertThat(response.code()).isEqualTo(200);
+            return new String(ByteStreams.toByteArray(body), StandardCharsets.UTF_8);
+        }
+    }
+}
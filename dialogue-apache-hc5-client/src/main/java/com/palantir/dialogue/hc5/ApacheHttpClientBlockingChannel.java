@@ -25,6 +25,7 @@ import com.palantir.dialogue.Endpoint;
 import com.palantir.dialogue.HttpMethod;
 import com.palantir.dialogue.Request;
 import com.palantir.dialogue.RequestBody;
+import com.palantir.dialogue.RequestDeadlines;
 import com.palantir.dialogue.Response;
 import com.palantir.dialogue.ResponseAttachments;
 import com.palantir.dialogue.blocking.BlockingChannel;
@@ -59,6 +60,7 @@ import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import org.apache.hc.client5.http.ConnectTimeoutException;
 import org.apache.hc.client5.http.classic.ExecRuntime;
+import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpResponse;
 import org.apache.hc.client5.http.protocol.HttpClientContext;
 import org.apache.hc.core5.function.Supplier;
@@ -67,6 +69,7 @@ import org.apache.hc.core5.http.HttpEntity;
 import org.apache.hc.core5.http.NoHttpResponseException;
 import org.apache.hc.core5.http.io.support.ClassicRequestBuilder;
 import org.apache.hc.core5.http.message.BasicHeader;
+import org.apache.hc.core5.util.Timeout;
 
 final class ApacheHttpClientBlockingChannel implements BlockingChannel {
     private static final SafeLogger log = SafeLoggerFactory.get(ApacheHttpClientBlockingChannel.class);
@@ -99,9 +102,8 @@ final class ApacheHttpClientBlockingChannel implements BlockingChannel {
     @Override
     public Response execute(Endpoint endpoint, Request request) throws IOException {
         // Create base request given the URL
-        URL target = baseUrl.render(endpoint, request);
-        ClassicRequestBuilder builder =
-                ClassicRequestBuilder.create(endpoint.httpMethod().name()).setUri(target.toString());
+        String target = baseUrl.renderString(endpoint, request);
+        ClassicRequestBuilder builder = ClassicRequestBuilder.create(endpoint.httpMethod().name()).setUri(target);
 
         // Fill headers
         request.headerParams().forEach(builder::addHeader);
@@ -122,6 +124,7 @@ final class ApacheHttpClientBlockingChannel implements BlockingChannel {
         try {
             HttpClientContext context = HttpClientContext.create();
             resolvedHost.ifPresent(inetAddress -> DialogueRoutePlanner.set(context, inetAddress));
+            applyDeadline(context, request, startTime);
             CloseableHttpResponse httpClientResponse = client.apacheClient().execute(builder.build(), context);
             // Defensively ensure that resources are closed if failures occur within this block,
             // for example HttpClientResponse allocation may throw an OutOfMemoryError.
@@ -167,6 +170,34 @@ final class ApacheHttpClientBlockingChannel implements BlockingChannel {
         }
     }
 
+    /** Limits the response timeout to the time remaining before the request's deadline, if it has one. */
+    private void applyDeadline(HttpClientContext context, Request request, long nowNanos) {
+        OptionalLong deadlineNanos = RequestDeadlines.getDeadlineNanos(request);
+        if (deadlineNanos.isPresent()) {
+            RequestConfig defaultConfig = client.requestConfig();
+            Timeout configured = defaultConfig.getResponseTimeout();
+            Timeout timeout = responseTimeout(configured, deadlineNanos.getAsLong() - nowNanos);
+            if (timeout.toMilliseconds() != configured.toMilliseconds()) {
+                context.setRequestConfig(RequestConfig.copy(defaultConfig)
+                        .setResponseTimeout(timeout)
+                        .build());
+            }
+        }
+    }
+
+    /**
+     * Returns the lesser of the configured response timeout and the time remaining. Requests which are already past
+     * their deadline are given the minimum timeout rather than failing here, the queue is responsible for rejecting
+     * them before they reach the transport.
+     */
+    static Timeout responseTimeout(Timeout configured, long remainingNanos) {
+        long remainingMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(remainingNanos));
+        if (configured.isEnabled() && configured.toMilliseconds() <= remainingMillis) {
+            return configured;
+        }
+        return Timeout.ofMilliseconds(remainingMillis);
+    }
+
     private Arg<?>[] failureDiagnosticArgs(Endpoint endpoint, Request request, long startTimeNanos) {
         long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTimeNanos);
         return new Arg<?>[] {
@@ -27,6 +27,7 @@ import com.palantir.conjure.java.client.config.ClientConfiguration;
 import com.palantir.dialogue.Channel;
 import com.palantir.dialogue.blocking.BlockingChannel;
 import com.palantir.dialogue.blocking.BlockingChannelAdapter;
+import com.palantir.dialogue.blocking.VirtualThreads;
 import com.palantir.dialogue.core.DialogueChannel;
 import com.palantir.dialogue.core.DialogueChannelFactory;
 import com.palantir.dialogue.core.DialogueDnsResolver;
@@ -182,6 +183,7 @@ public final class ApacheHttpClientChannels {
                 InstrumentedPoolingHttpClientConnectionManager pool,
                 ScheduledFuture<?> connectionEvictorFuture,
                 ClientConfiguration clientConfiguration,
+                RequestConfig requestConfig,
                 @Nullable ExecutorService executor) {
             ResponseLeakDetector leakDetector =
                     ResponseLeakDetector.of(clientName, clientConfiguration.taggedMetricRegistry());
@@ -192,7 +194,8 @@ public final class ApacheHttpClientChannels {
                     connectionEvictorFuture,
                     leakDetector,
                     executor,
-                    clientConfiguration);
+                    clientConfiguration,
+                    requestConfig);
             if (log.isDebugEnabled()) {
                 // If debug is enabled, log the stack trace.
                 log.debug(
@@ -220,6 +223,9 @@ public final class ApacheHttpClientChannels {
 
         abstract ClientConfiguration clientConfiguration();
 
+        /** Default configuration of each request, requests with a deadline override the response timeout. */
+        abstract RequestConfig requestConfig();
+
         abstract String name();
 
         @Nullable
@@ -246,6 +252,11 @@ public final class ApacheHttpClientChannels {
             return delegate.clientConfiguration();
         }
 
+        @Override
+        RequestConfig requestConfig() {
+            return delegate.requestConfig();
+        }
+
         @Override
         public String name() {
             return delegate.name();
@@ -281,6 +292,7 @@ public final class ApacheHttpClientChannels {
         private final InstrumentedPoolingHttpClientConnectionManager pool;
         private final ResponseLeakDetector leakDetector;
         private final ClientConfiguration clientConfiguration;
+        private final RequestConfig requestConfig;
 
         @Nullable
         private final ExecutorService executor;
@@ -294,13 +306,15 @@ public final class ApacheHttpClientChannels {
                 ScheduledFuture<?> connectionEvictorFuture,
                 ResponseLeakDetector leakDetector,
                 @Nullable ExecutorService executor,
-                ClientConfiguration clientConfiguration) {
+                ClientConfiguration clientConfiguration,
+                RequestConfig requestConfig) {
             this.clientName = clientName;
             this.apacheClient = apacheClient;
             this.pool = pool;
             this.leakDetector = leakDetector;
             this.executor = executor;
             this.clientConfiguration = clientConfiguration;
+            this.requestConfig = requestConfig;
             closer.register(() -> connectionEvictorFuture.cancel(true));
             closer.register(apacheClient);
             closer.register(pool::closeUnderlyingConnectionManager);
@@ -318,6 +332,11 @@ public final class ApacheHttpClientChannels {
             return clientConfiguration;
         }
 
+        @Override
+        RequestConfig requestConfig() {
+            return requestConfig;
+        }
+
         @Override
         String name() {
             return clientName;
@@ -430,6 +449,8 @@ public final class ApacheHttpClientChannels {
 
         private Optional<DialogueDnsResolver> dnsResolver = Optional.empty();
 
+        private boolean virtualThreads = false;
+
         private ClientBuilder() {}
 
         public ClientBuilder clientConfiguration(ClientConfiguration value) {
@@ -459,6 +480,21 @@ public final class ApacheHttpClientChannels {
             return this;
         }
 
+        /**
+         * Executes blocking http requests on virtual threads when no {@link #executor(ExecutorService) executor} is
+         * configured. Falls back to the shared platform thread executor if the runtime does not support virtual
+         * threads. Blocking calls made from virtual threads execute on the calling thread regardless of this setting.
+         *
+         * <p>Connection leases do not pin carrier threads: the pool uses the lax concurrency policy without a
+         * per-route limit, so it never waits for a connection while holding a monitor. The remaining socket I/O under
+         * a monitor is the stale connection check in httpclient5, which only runs for connections idle longer than
+         * the inactivity threshold.
+         */
+        public ClientBuilder virtualThreads(boolean value) {
+            this.virtualThreads = value;
+            return this;
+        }
+
         /**
          * Configures the {@link DialogueDnsResolver} used to look up addresses. If no
          * {@link DialogueDnsResolver resolver} is provided, the httpclient5 default will be used.
@@ -540,20 +576,21 @@ public final class ApacheHttpClientChannels {
                     new InstrumentedPoolingHttpClientConnectionManager(
                             internalConnectionManager, conf.taggedMetricRegistry(), name);
 
+            RequestConfig requestConfig = RequestConfig.custom()
+                    .setConnectTimeout(connectTimeout)
+                    // Don't allow clients to block forever waiting on a connection to become available
+                    .setConnectionRequestTimeout(connectTimeout)
+                    // The response timeout is used as the socket timeout for the duration of
+                    // an exchange.
+                    .setResponseTimeout(socketTimeout)
+                    // Match okhttp, disallow redirects
+                    .setRedirectsEnabled(false)
+                    .setAuthenticationEnabled(conf.proxyCredentials().isPresent())
+                    .setExpectContinueEnabled(false)
+                    .setConnectionKeepAlive(IDLE_CONNECTION_TIMEOUT)
+                    .build();
             HttpClientBuilder builder = HttpClients.custom()
-                    .setDefaultRequestConfig(RequestConfig.custom()
-                            .setConnectTimeout(connectTimeout)
-                            // Don't allow clients to block forever waiting on a connection to become available
-                            .setConnectionRequestTimeout(connectTimeout)
-                            // The response timeout is used as the socket timeout for the duration of
-                            // an exchange.
-                            .setResponseTimeout(socketTimeout)
-                            // Match okhttp, disallow redirects
-                            .setRedirectsEnabled(false)
-                            .setAuthenticationEnabled(conf.proxyCredentials().isPresent())
-                            .setExpectContinueEnabled(false)
-                            .setConnectionKeepAlive(IDLE_CONNECTION_TIMEOUT)
-                            .build())
+                    .setDefaultRequestConfig(requestConfig)
                     // Connection pool lifecycle must be managed separately. This allows us to configure a more
                     // precise IdleConnectionEvictor.
                     .setConnectionManagerShared(true)
@@ -586,7 +623,29 @@ public final class ApacheHttpClientChannels {
             CloseableHttpClient apacheClient = builder.build();
             ScheduledFuture<?> connectionEvictorFuture =
                     ScheduledIdleConnectionEvictor.schedule(connectionManager, Duration.ofSeconds(5));
-            return CloseableClient.wrap(apacheClient, name, connectionManager, connectionEvictorFuture, conf, executor);
+            return CloseableClient.wrap(
+                    apacheClient,
+                    name,
+                    connectionManager,
+                    connectionEvictorFuture,
+                    conf,
+                    requestConfig,
+                    getExecutor(name));
+        }
+
+        @Nullable
+        private ExecutorService getExecutor(@Safe String name) {
+            if (executor != null || !virtualThreads) {
+                return executor;
+            }
+            Optional<ExecutorService> virtualExecutor = VirtualThreads.executor();
+            if (virtualExecutor.isEmpty()) {
+                log.warn(
+                        "Virtual threads are not supported by this runtime, using platform threads",
+                        SafeArg.of("client", name),
+                        SafeArg.of("javaVersion", Runtime.version().toString()));
+            }
+            return virtualExecutor.orElse(null);
         }
     }
 
@@ -18,6 +18,7 @@ package com.palantir.dialogue.hc5;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import java.util.concurrent.TimeUnit;
 import org.apache.hc.core5.util.Timeout;
 import org.junit.jupiter.api.Test;
 
@@ -50,4 +51,22 @@ class ApacheHttpClientChannelsTimeoutTest {
                 .as("The lesser of the socket timeout and default timeout should be used: Expected the socket timeout")
                 .isEqualTo(socketTimeout);
     }
+
+    @Test
+    void testResponseTimeoutLimitedByDeadline() {
+        Timeout socketTimeout = Timeout.ofSeconds(30);
+        assertThat(ApacheHttpClientBlockingChannel.responseTimeout(socketTimeout, TimeUnit.SECONDS.toNanos(5))
+                        .toMilliseconds())
+                .isEqualTo(5_000);
+        assertThat(ApacheHttpClientBlockingChannel.responseTimeout(socketTimeout, TimeUnit.MINUTES.toNanos(1)))
+                .as("The configured timeout should be used when the deadline is further away")
+                .isSameAs(socketTimeout);
+    }
+
+    @Test
+    void testResponseTimeoutPastDeadline() {
+        assertThat(ApacheHttpClientBlockingChannel.responseTimeout(Timeout.ofSeconds(30), -1_000_000)
+                        .toMilliseconds())
+                .isOne();
+    }
 }
@@ -83,6 +83,8 @@ public final class BlockingChannelAdapter {
                 CallingThreadExecutor callingThreadExecutor =
                         request.attachments().getOrDefault(DefaultCallingThreadExecutor.ATTACHMENT_KEY, null);
                 if (callingThreadExecutor != null) {
+                    // The task is queued even on virtual threads rather than run inline, because execute must not
+                    // block: outer layers such as the queued channel may be holding drain state when it's called.
                     // When the callingThreadExecutor is used, there's no future to cancel. If the task hasn't been
                     // executed when a cancellation occurs, the task will never begin. If it occurs while the task
                     // is running, it's caused by a thread interrupt, which is the expected result of future.cancel.
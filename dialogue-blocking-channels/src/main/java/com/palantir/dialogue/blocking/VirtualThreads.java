@@ -0,0 +1,110 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.blocking;
+
+import com.google.common.base.Suppliers;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import com.palantir.tracing.Tracers;
+import com.palantir.tritium.metrics.MetricRegistries;
+import com.palantir.tritium.metrics.registry.SharedTaggedMetricRegistries;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * Access to virtual threads, which are not available at the Java 17 library target and must be used reflectively.
+ * All methods degrade gracefully on runtimes without virtual thread support.
+ */
+public final class VirtualThreads {
+
+    private static final SafeLogger log = SafeLoggerFactory.get(VirtualThreads.class);
+    private static final String NAME = "dialogue-virtual-blocking-channel";
+
+    @Nullable
+    private static final MethodHandle IS_VIRTUAL = isVirtualHandle();
+
+    private static final Supplier<Optional<ExecutorService>> executor =
+            Suppliers.memoize(VirtualThreads::createExecutor);
+
+    /** Returns true if the runtime supports virtual threads. */
+    public static boolean isSupported() {
+        return IS_VIRTUAL != null;
+    }
+
+    /** Returns true if the current thread is a virtual thread. */
+    public static boolean isVirtualThread() {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(Thread.currentThread());
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns a shared executor which runs each task on a new virtual thread with tracing state propagated from
+     * the submitting thread, or empty if virtual threads are not supported. Threads are instrumented using the
+     * {@code executor} metrics with name {@code dialogue-virtual-blocking-channel}.
+     */
+    public static Optional<ExecutorService> executor() {
+        return executor.get();
+    }
+
+    @Nullable
+    private static MethodHandle isVirtualHandle() {
+        try {
+            return MethodHandles.publicLookup()
+                    .findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (ReflectiveOperationException e) {
+            log.debug("Virtual threads are not supported by this runtime", e);
+            return null;
+        }
+    }
+
+    @SuppressWarnings("deprecation") // No reasonable way to pass a tagged registry to this singleton
+    private static Optional<ExecutorService> createExecutor() {
+        if (!isSupported()) {
+            return Optional.empty();
+        }
+        try {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, NAME + "-", 0L);
+            ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+            Method newThreadPerTaskExecutor =
+                    Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            ExecutorService virtualExecutor = (ExecutorService) newThreadPerTaskExecutor.invoke(
+                    null, MetricRegistries.instrument(SharedTaggedMetricRegistries.getSingleton(), factory, NAME));
+            return Optional.of(Tracers.wrap(NAME, virtualExecutor));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            log.warn("Failed to create a virtual thread executor", e);
+            return Optional.empty();
+        }
+    }
+
+    private VirtualThreads() {}
+}
@@ -17,6 +17,7 @@ package com.palantir.dialogue.blocking;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assumptions.assumeThat;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
@@ -34,8 +35,10 @@ import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import org.awaitility.Awaitility;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -137,4 +140,49 @@ public class BlockingChannelAdapterTest {
                 .isInstanceOf(ExecutionException.class)
                 .hasCauseInstanceOf(RejectedExecutionException.class);
     }
+
+    @Test
+    void testCallingThreadExecutorQueuesOnPlatformThread() {
+        AtomicReference<Thread> executingThread = new AtomicReference<>();
+        Channel channel = BlockingChannelAdapter.of(
+                (_endpoint, _request) -> {
+                    executingThread.set(Thread.currentThread());
+                    return stubResponse;
+                },
+                executor);
+        Request request = Request.builder().build();
+        CallingThreadExecutor callingThreadExecutor = CallingThreadExecutor.useCallingThreadExecutor(request);
+
+        ListenableFuture<Response> result = channel.execute(TestEndpoint.POST, request);
+        assertThat(result).isNotDone();
+
+        callingThreadExecutor.executeQueue(result);
+        assertThat(result).isDone();
+        assertThat(executingThread).hasValue(Thread.currentThread());
+    }
+
+    @Test
+    void testCallingThreadExecutorQueuesOnVirtualThread() throws Exception {
+        assumeThat(VirtualThreads.isSupported()).isTrue();
+        ExecutorService virtualExecutor = VirtualThreads.executor().orElseThrow();
+        Channel channel = BlockingChannelAdapter.of((_endpoint, _request) -> stubResponse, executor);
+
+        Future<Boolean> doneBeforeQueue = virtualExecutor.submit(() -> {
+            assertThat(VirtualThreads.isVirtualThread()).isTrue();
+            Request request = Request.builder().build();
+            CallingThreadExecutor callingThreadExecutor = CallingThreadExecutor.useCallingThreadExecutor(request);
+            ListenableFuture<Response> result = channel.execute(TestEndpoint.POST, request);
+            boolean done = result.isDone();
+            callingThreadExecutor.executeQueue(result);
+            assertThat(result.get()).isSameAs(stubResponse);
+            return done;
+        });
+        // Running the blocking call inline would block execute, which callers may invoke while holding drain state
+        assertThat(doneBeforeQueue.get()).isFalse();
+    }
+
+    @Test
+    void testIsVirtualThreadOnPlatformThread() {
+        assertThat(VirtualThreads.isVirtualThread()).isFalse();
+    }
 }
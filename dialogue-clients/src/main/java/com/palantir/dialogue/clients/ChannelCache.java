@@ -21,10 +21,13 @@ import com.github.benmanes.caffeine.cache.LoadingCache;
 import com.google.common.annotations.VisibleForTesting;
 import com.palantir.conjure.java.api.config.service.ServiceConfiguration;
 import com.palantir.conjure.java.client.config.ClientConfiguration;
+import com.palantir.conjure.java.config.ssl.SslSocketFactories;
 import com.palantir.dialogue.core.DialogueChannel;
+import com.palantir.dialogue.core.DialogueChannelFactory;
 import com.palantir.dialogue.core.DialogueDnsResolver;
 import com.palantir.dialogue.core.TargetUri;
 import com.palantir.dialogue.hc5.ApacheHttpClientChannels;
+import com.palantir.dialogue.hc5.async.ApacheHttpAsyncClientChannels;
 import com.palantir.logsafe.DoNotLog;
 import com.palantir.logsafe.Preconditions;
 import com.palantir.logsafe.Safe;
@@ -69,6 +72,9 @@ final class ChannelCache {
      */
     private final Map<String, ApacheCacheEntry> apacheCache = new ConcurrentHashMap<>();
 
+    /** Equivalent of {@link #apacheCache} for channels which opted into the HTTP/2 capable async transport. */
+    private final Map<String, AsyncCacheEntry> asyncCache = new ConcurrentHashMap<>();
+
     private final LoadingCache<ChannelCacheKey, DialogueChannel> channelCache = Caffeine.newBuilder()
             .maximumSize(MAX_CACHED_CHANNELS)
             // Avoid holding onto old targets, which is now more common as we bind to resolved IP addresses
@@ -137,6 +143,8 @@ final class ChannelCache {
                 .dnsResolver(reloadingParams.dnsResolver())
                 .dnsRefreshInterval(reloadingParams.dnsRefreshInterval())
                 .dnsNodeDiscovery(overrideHostIndex.isEmpty() && reloadingParams.dnsNodeDiscovery())
+                .http2(reloadingParams.http2())
+                .virtualThreads(reloadingParams.virtualThreads())
                 .build());
     }
 
@@ -147,9 +155,20 @@ final class ChannelCache {
                 .serviceConf(stripUris(channelCacheRequest.serviceConf())) // we strip out uris to maximise cache hits
                 .blockingExecutor(channelCacheRequest.blockingExecutor())
                 .dnsResolver(channelCacheRequest.dnsResolver())
+                .virtualThreads(channelCacheRequest.virtualThreads())
                 .build();
 
-        ApacheCacheEntry apacheClient = getApacheClient(request);
+        ClientConfiguration clientConf;
+        DialogueChannelFactory factory;
+        if (channelCacheRequest.http2()) {
+            AsyncCacheEntry asyncClient = getAsyncClient(request);
+            clientConf = asyncClient.conf();
+            factory = args -> ApacheHttpAsyncClientChannels.createSingleUri(args, asyncClient.client());
+        } else {
+            ApacheCacheEntry apacheClient = getApacheClient(request);
+            clientConf = apacheClient.conf();
+            factory = args -> ApacheHttpClientChannels.createSingleUri(args, apacheClient.client());
+        }
 
         Refreshable<List<TargetUri>> targets;
         if (channelCacheRequest.overrideHostIndex().isPresent()) {
@@ -175,11 +194,11 @@ final class ChannelCache {
         return DialogueChannel.builder()
                 .channelName(channelCacheRequest.channelName())
                 .clientConfiguration(ClientConfiguration.builder()
-                        .from(apacheClient.conf())
+                        .from(clientConf)
                         .uris(channelCacheRequest.serviceConf().uris()) // restore uris
                         .build())
                 .uris(targets)
-                .factory(args -> ApacheHttpClientChannels.createSingleUri(args, apacheClient.client()))
+                .factory(factory)
                 .overrideHostIndex(channelCacheRequest.overrideHostIndex().stream()
                         .mapToInt(OverrideHostIndex::index)
                         .findAny())
@@ -212,7 +231,8 @@ final class ChannelCache {
         ApacheHttpClientChannels.ClientBuilder clientBuilder = ApacheHttpClientChannels.clientBuilder()
                 .clientConfiguration(clientConf)
                 .clientName(request.channelName())
-                .dnsResolver(request.dnsResolver());
+                .dnsResolver(request.dnsResolver())
+                .virtualThreads(request.virtualThreads());
         request.blockingExecutor().ifPresent(clientBuilder::executor);
         ApacheHttpClientChannels.CloseableClient client = clientBuilder.build();
 
@@ -234,6 +254,35 @@ final class ChannelCache {
         return newEntry;
     }
 
+    @VisibleForTesting
+    AsyncCacheEntry getAsyncClient(ImmutableApacheClientRequest request) {
+        AsyncCacheEntry cacheEntry = asyncCache.get(request.channelName());
+        // real equality not reference equality!
+        if (cacheEntry != null && request.equals(cacheEntry.originalRequest())) {
+            return cacheEntry;
+        }
+
+        ClientConfiguration clientConf = AugmentClientConfig.getClientConf(request.serviceConf(), request);
+        ApacheHttpAsyncClientChannels.CloseableAsyncClient client = ApacheHttpAsyncClientChannels.clientBuilder()
+                .clientConfiguration(clientConf)
+                .clientName(request.channelName())
+                .dnsResolver(request.dnsResolver())
+                // The async transport requires an SSLContext, which also presents any configured client certificates
+                .sslContext(SslSocketFactories.createSslContext(request.serviceConf().security()))
+                .build();
+
+        ImmutableAsyncCacheEntry newEntry = ImmutableAsyncCacheEntry.builder()
+                .originalRequest(request)
+                .client(client)
+                .conf(clientConf)
+                .build();
+        AsyncCacheEntry prev = asyncCache.put(request.channelName(), newEntry);
+        if (prev != null) {
+            prev.client().close();
+        }
+        return newEntry;
+    }
+
     private static ServiceConfiguration stripUris(ServiceConfiguration serviceConf) {
         return ServiceConfiguration.builder()
                 .from(serviceConf)
@@ -249,6 +298,7 @@ final class ChannelCache {
                 + ", apacheCache.size=" + apacheCache.size()
                 // Channel names are safe-loggable
                 + ", apacheCache=" + apacheCache.keySet()
+                + ", asyncCache=" + asyncCache.keySet()
                 + ", channelCache.size=" + channelCache.estimatedSize() + "/" + MAX_CACHED_CHANNELS
                 + ", channelCache="
                 // Channel names are safe-loggable
@@ -274,6 +324,10 @@ final class ChannelCache {
         Duration dnsRefreshInterval();
 
         boolean dnsNodeDiscovery();
+
+        boolean http2();
+
+        boolean virtualThreads();
     }
 
     @Unsafe
@@ -301,6 +355,11 @@ final class ChannelCache {
 
         DialogueDnsResolver dnsResolver();
 
+        @Value.Default
+        default boolean virtualThreads() {
+            return false;
+        }
+
         @Value.Check
         default void check() {
             Preconditions.checkState(serviceConf().uris().isEmpty(), "Uris must be empty");
@@ -316,4 +375,14 @@ final class ChannelCache {
 
         ClientConfiguration conf();
     }
+
+    @DoNotLog
+    @Value.Immutable
+    interface AsyncCacheEntry {
+        ApacheClientRequest originalRequest();
+
+        ApacheHttpAsyncClientChannels.CloseableAsyncClient client();
+
+        ClientConfiguration conf();
+    }
 }
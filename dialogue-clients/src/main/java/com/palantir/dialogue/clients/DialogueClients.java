@@ -202,6 +202,13 @@ public final class DialogueClients {
         /** Feature flag to opt into or out of the default dns-based node discovery behavior. */
         ReloadingFactory withDnsNodeDiscovery(boolean dnsNodeDiscovery);
 
+        /**
+         * Executes blocking requests on virtual threads rather than the shared platform thread pool, on runtimes which
+         * support them. Has no effect when a {@link #withBlockingExecutor(ExecutorService) blocking executor} is
+         * configured. Blocking calls made from virtual threads always run on the calling thread.
+         */
+        ReloadingFactory withVirtualThreads(boolean virtualThreads);
+
         StickyChannelFactory getStickyChannels(String serviceName);
 
         @Beta
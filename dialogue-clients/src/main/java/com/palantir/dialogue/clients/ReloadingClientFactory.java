@@ -84,7 +84,8 @@ final class ReloadingClientFactory implements DialogueClients.ReloadingFactory {
         ApacheHttpClientChannels.ClientBuilder clientBuilder = ApacheHttpClientChannels.clientBuilder()
                 .clientConfiguration(clientConf)
                 .clientName(channelName)
-                .dnsResolver(params.dnsResolver());
+                .dnsResolver(params.dnsResolver())
+                .virtualThreads(params.virtualThreads());
         params.blockingExecutor().ifPresent(clientBuilder::executor);
         ApacheHttpClientChannels.CloseableClient apacheClient = clientBuilder.build();
         return DialogueChannel.builder()
@@ -134,6 +135,22 @@ final class ReloadingClientFactory implements DialogueClients.ReloadingFactory {
             return true;
         }
 
+        /**
+         * Experimental opt-in to the non-blocking HTTP/2 capable transport from
+         * {@code dialogue-apache-hc5-async-client} for channels created from a {@link ServiceConfiguration}.
+         * HTTP/2 is negotiated using ALPN for https targets.
+         */
+        @Value.Default
+        default boolean http2() {
+            return Boolean.getBoolean("dialogue.experimental.http2");
+        }
+
+        /** Executes blocking requests on virtual threads when no {@link #blockingExecutor()} is configured. */
+        @Value.Default
+        default boolean virtualThreads() {
+            return false;
+        }
+
         Optional<ExecutorService> blockingExecutor();
     }
 
@@ -392,6 +409,11 @@ final class ReloadingClientFactory implements DialogueClients.ReloadingFactory {
         return new ReloadingClientFactory(params.withDnsNodeDiscovery(dnsNodeDiscovery), cache);
     }
 
+    @Override
+    public ReloadingFactory withVirtualThreads(boolean virtualThreads) {
+        return new ReloadingClientFactory(params.withVirtualThreads(virtualThreads), cache);
+    }
+
     @Override
     public String toString() {
         return "ReloadingClientFactory{params=" + params + ", cache=" + cache + '}';
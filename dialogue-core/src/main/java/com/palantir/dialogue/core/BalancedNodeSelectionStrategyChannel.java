@@ -20,12 +20,14 @@ import com.github.benmanes.caffeine.cache.Ticker;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.collect.ImmutableList;
 import com.google.common.math.IntMath;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.palantir.dialogue.Endpoint;
 import com.palantir.dialogue.Request;
 import com.palantir.dialogue.Response;
 import com.palantir.dialogue.core.BalancedScoreTracker.ChannelScoreInfo;
 import com.palantir.dialogue.core.BalancedScoreTracker.ScoreSnapshot;
+import com.palantir.dialogue.core.HedgeAttachments.HedgeState;
 import com.palantir.dialogue.futures.DialogueFutures;
 import com.palantir.logsafe.Preconditions;
 import com.palantir.logsafe.SafeArg;
@@ -33,9 +35,14 @@ import com.palantir.logsafe.UnsafeArg;
 import com.palantir.logsafe.logger.SafeLogger;
 import com.palantir.logsafe.logger.SafeLoggerFactory;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Random;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import javax.annotation.Nullable;
 
 /**
  * Chooses nodes to achieve the best possible client-side load balancing, by computing a 'score' for each channel and
@@ -57,6 +64,8 @@ final class BalancedNodeSelectionStrategyChannel implements LimitedChannel {
 
     private final BalancedScoreTracker tracker;
     private final ImmutableList<BalancedChannel> channels;
+    private final boolean powerOfTwoChoices;
+    private final Random random;
 
     BalancedNodeSelectionStrategyChannel(
             ImmutableList<LimitedChannel> channels,
@@ -64,18 +73,86 @@ final class BalancedNodeSelectionStrategyChannel implements LimitedChannel {
             Ticker ticker,
             TaggedMetricRegistry taggedMetrics,
             String channelName) {
+        this(channels, Optional.empty(), BalancedOptions.defaults(), random, ticker, taggedMetrics, channelName);
+    }
+
+    /**
+     * Creates a channel which continues to use the scores of {@code previous} for host channels present in both.
+     * In-flight requests started by {@code previous} keep contributing to the score of their host.
+     *
+     * When {@link BalancedOptions#powerOfTwoChoices} is enabled, each request compares the scores of two random
+     * channels rather than sorting every channel by score, see {@link #maybeExecuteTwoChoices}. When
+     * {@link BalancedOptions#latencyScoring} is enabled, channels with slower responses than the fastest channel score
+     * proportionally worse, see {@link BalancedScoreTracker}.
+     */
+    BalancedNodeSelectionStrategyChannel(
+            ImmutableList<LimitedChannel> channels,
+            Optional<BalancedNodeSelectionStrategyChannel> previous,
+            BalancedOptions options,
+            Random random,
+            Ticker ticker,
+            TaggedMetricRegistry taggedMetrics,
+            String channelName) {
+        this(
+                channels,
+                BalancedScoreTracker.positionalHostIndices(channels.size()),
+                previous,
+                options,
+                random,
+                ticker,
+                taggedMetrics,
+                channelName);
+    }
+
+    /** Tags the metrics of each channel with its entry in {@code hostIndices} rather than its position. */
+    BalancedNodeSelectionStrategyChannel(
+            ImmutableList<LimitedChannel> channels,
+            ImmutableList<Integer> hostIndices,
+            Optional<BalancedNodeSelectionStrategyChannel> previous,
+            BalancedOptions options,
+            Random random,
+            Ticker ticker,
+            TaggedMetricRegistry taggedMetrics,
+            String channelName) {
         Preconditions.checkState(channels.size() >= 2, "At least two channels required");
-        this.tracker = new BalancedScoreTracker(channels.size(), random, ticker, taggedMetrics, channelName);
+        this.tracker = new BalancedScoreTracker(
+                hostIndices,
+                previousScores(channels, previous),
+                options,
+                random,
+                ticker,
+                taggedMetrics,
+                channelName);
         this.channels = IntStream.range(0, channels.size())
                 .mapToObj(index -> new BalancedChannel(
                         channels.get(index), tracker.channelStats().get(index)))
                 .collect(ImmutableList.toImmutableList());
+        this.powerOfTwoChoices = options.powerOfTwoChoices();
+        this.random = random;
         log.debug("Initialized", SafeArg.of("count", channels.size()), UnsafeArg.of("channels", channels));
     }
 
+    private static List<Optional<ChannelScoreInfo>> previousScores(
+            ImmutableList<LimitedChannel> channels, Optional<BalancedNodeSelectionStrategyChannel> previous) {
+        // Host channels are matched by reference, as they are reused across updates
+        Map<LimitedChannel, ChannelScoreInfo> previousByChannel = new IdentityHashMap<>();
+        previous.ifPresent(balanced -> {
+            for (BalancedChannel channel : balanced.channels) {
+                previousByChannel.put(channel.delegate, channel.channelInfo);
+            }
+        });
+        return channels.stream()
+                .map(channel -> Optional.ofNullable(previousByChannel.get(channel)))
+                .collect(Collectors.toList());
+    }
+
     @Override
     public Optional<ListenableFuture<Response>> maybeExecute(
             Endpoint endpoint, Request request, LimitEnforcement limitEnforcement) {
+        if (powerOfTwoChoices) {
+            return maybeExecuteTwoChoices(endpoint, request, limitEnforcement);
+        }
+        HedgeState hedge = HedgeAttachments.get(request);
         ScoreSnapshot[] snapshotsByScore = tracker.getSnapshotsInOrderOfIncreasingScore();
 
         int giveUpThreshold = Integer.MAX_VALUE;
@@ -118,7 +195,7 @@ final class BalancedNodeSelectionStrategyChannel implements LimitedChannel {
 
             BalancedChannel channel = channels.get(snapshot.getDelegate().channelIndex());
             Optional<ListenableFuture<Response>> maybe =
-                    StickyAttachments.maybeAddStickyToken(channel, endpoint, request, limitEnforcement);
+                    maybeExecuteOn(channel, hedge, endpoint, request, limitEnforcement);
             if (maybe.isPresent()) {
                 return maybe;
             }
@@ -127,6 +204,93 @@ final class BalancedNodeSelectionStrategyChannel implements LimitedChannel {
         return Optional.empty();
     }
 
+    /**
+     * Sends the request to the better scoring of two distinct channels chosen uniformly at random, which balances load
+     * nearly as well as always picking the best channel while only computing two scores and allocating nothing
+     * per request. If the limiter of both candidates refuses the request, the remaining channels are attempted in
+     * order from a random starting point. Channels scoring far worse than the preferred candidate are skipped,
+     * equivalent to the give-up threshold in {@link #maybeExecute}.
+     */
+    private Optional<ListenableFuture<Response>> maybeExecuteTwoChoices(
+            Endpoint endpoint, Request request, LimitEnforcement limitEnforcement) {
+        int size = channels.size();
+        int first = random.nextInt(size);
+        int second = random.nextInt(size - 1);
+        if (second >= first) {
+            second++;
+        }
+        ChannelScoreInfo firstInfo = channels.get(first).channelInfo;
+        ChannelScoreInfo secondInfo = channels.get(second).channelInfo;
+        // Only the two candidates contribute to the latency baseline, which keeps selection constant time
+        double latencyBaselineNanos =
+                BalancedScoreTracker.latencyBaselineNanos(firstInfo.getLatencyNanos(), secondInfo.getLatencyNanos());
+        int firstScore = firstInfo.computeScore(latencyBaselineNanos);
+        int secondScore = secondInfo.computeScore(latencyBaselineNanos);
+        int preferredIndex = secondScore < firstScore ? second : first;
+        int otherIndex = preferredIndex == first ? second : first;
+        int preferredScore = Math.min(firstScore, secondScore);
+        int otherScore = Math.max(firstScore, secondScore);
+        BalancedChannel preferred = channels.get(preferredIndex);
+        HedgeState hedge = HedgeAttachments.get(request);
+
+        Optional<ListenableFuture<Response>> maybe =
+                maybeExecuteOn(preferred, hedge, endpoint, request, limitEnforcement);
+        if (maybe.isPresent()) {
+            return maybe;
+        }
+
+        int giveUpThreshold = preferred.channelInfo.getInflight() > INFLIGHT_COMPARISON_THRESHOLD
+                ? IntMath.saturatedMultiply(preferredScore, UNHEALTHY_SCORE_MULTIPLIER)
+                : Integer.MAX_VALUE;
+        if (otherScore <= giveUpThreshold) {
+            maybe = maybeExecuteOn(channels.get(otherIndex), hedge, endpoint, request, limitEnforcement);
+            if (maybe.isPresent()) {
+                return maybe;
+            }
+        }
+
+        int start = random.nextInt(size);
+        for (int i = 0; i < size; i++) {
+            int index = (start + i) % size;
+            if (index == preferredIndex || index == otherIndex) {
+                continue;
+            }
+            BalancedChannel channel = channels.get(index);
+            if (channel.channelInfo.computeScore(latencyBaselineNanos) > giveUpThreshold) {
+                continue;
+            }
+            maybe = maybeExecuteOn(channel, hedge, endpoint, request, limitEnforcement);
+            if (maybe.isPresent()) {
+                return maybe;
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Records the host of a request which may be hedged, and never sends the hedged attempt to the same host as the
+     * first attempt, see {@link HedgingChannel}.
+     */
+    private static Optional<ListenableFuture<Response>> maybeExecuteOn(
+            BalancedChannel channel,
+            @Nullable HedgeState hedge,
+            Endpoint endpoint,
+            Request request,
+            LimitEnforcement limitEnforcement) {
+        if (hedge == null) {
+            return StickyAttachments.maybeAddStickyToken(channel, endpoint, request, limitEnforcement);
+        }
+        if (hedge.excludes(channel)) {
+            return Optional.empty();
+        }
+        Optional<ListenableFuture<Response>> maybe =
+                StickyAttachments.maybeAddStickyToken(channel, endpoint, request, limitEnforcement);
+        if (maybe.isPresent()) {
+            hedge.onHostSelected(channel);
+        }
+        return maybe;
+    }
+
     private static final class BalancedChannel implements LimitedChannel {
         private final LimitedChannel delegate;
         private final ChannelScoreInfo channelInfo;
@@ -139,13 +303,13 @@ final class BalancedNodeSelectionStrategyChannel implements LimitedChannel {
         @Override
         public Optional<ListenableFuture<Response>> maybeExecute(
                 Endpoint endpoint, Request request, LimitEnforcement limitEnforcement) {
-            channelInfo.startRequest();
+            FutureCallback<Response> callback = channelInfo.startRequest();
 
             Optional<ListenableFuture<Response>> maybe = delegate.maybeExecute(endpoint, request, limitEnforcement);
 
             if (maybe.isPresent()) {
                 channelInfo.observability().markRequestMade();
-                DialogueFutures.addDirectCallback(maybe.get(), channelInfo);
+                DialogueFutures.addDirectCallback(maybe.get(), callback);
                 return maybe;
             } else {
                 channelInfo.undoStartRequest();
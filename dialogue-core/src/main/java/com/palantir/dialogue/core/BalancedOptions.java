@@ -0,0 +1,59 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import java.time.Duration;
+import java.util.Optional;
+import org.immutables.value.Value;
+
+/** Opt-in behaviours of the {@link BalancedNodeSelectionStrategyChannel}, configured on {@link DialogueChannel}. */
+@Value.Immutable
+interface BalancedOptions {
+
+    /** See {@link DialogueChannel.Builder#balancedPowerOfTwoChoices}. */
+    @Value.Default
+    default boolean powerOfTwoChoices() {
+        return false;
+    }
+
+    /** See {@link DialogueChannel.Builder#balancedLatencyScoring}. */
+    @Value.Default
+    default boolean latencyScoring() {
+        return false;
+    }
+
+    /** See {@link DialogueChannel.Builder#slowStart}. */
+    Optional<Duration> slowStart();
+
+    static BalancedOptions defaults() {
+        return builder().build();
+    }
+
+    static BalancedOptions from(Config cf) {
+        return builder()
+                .powerOfTwoChoices(cf.balancedPowerOfTwoChoices())
+                .latencyScoring(cf.balancedLatencyScoring())
+                .slowStart(cf.slowStart())
+                .build();
+    }
+
+    class Builder extends ImmutableBalancedOptions.Builder {}
+
+    static Builder builder() {
+        return new Builder();
+    }
+}
@@ -35,14 +35,16 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Optional;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.IntStream;
 import java.util.stream.LongStream;
+import javax.annotation.Nullable;
 
 /**
  * Chooses nodes based on stats about each channel, i.e. how many requests are currently
- * being served, how many failures have been seen in the last few seconds.
+ * being served, how many failures have been seen in the last few seconds, and optionally how quickly it responds.
  *
  * This is intended to be a strict improvement over Round Robin and Random Selection which can leave fast servers
  * underutilized, as it sends the same number to both a slow and fast node. It is *not* appropriate for transactional
@@ -55,22 +57,100 @@ final class BalancedScoreTracker {
     private static final Comparator<ScoreSnapshot> BY_SCORE = Comparator.comparingInt(ScoreSnapshot::getScore);
     private static final Duration FAILURE_MEMORY = Duration.ofSeconds(30);
     private static final double FAILURE_WEIGHT = 10;
+    private static final Duration LATENCY_DECAY = Duration.ofSeconds(10);
 
     private final ImmutableList<ChannelScoreInfo> channelStats;
+    private final boolean latencyScoring;
     private final Random random;
     private final Ticker clock;
 
     BalancedScoreTracker(
             int channelCount, Random random, Ticker ticker, TaggedMetricRegistry taggedMetrics, String channelName) {
+        this(
+                positionalHostIndices(channelCount),
+                Collections.nCopies(channelCount, Optional.empty()),
+                BalancedOptions.defaults(),
+                random,
+                ticker,
+                taggedMetrics,
+                channelName);
+    }
+
+    /**
+     * Creates a tracker where each channel with a present {@code previousStats} entry shares the in-flight count and
+     * recent failures of that entry, so scores survive the tracker being replaced when targets are reloaded. Metrics of
+     * each channel are tagged with its entry in {@code hostIndices}, which for host channels retained across reloads
+     * may differ from its position.
+     *
+     * When {@link BalancedOptions#latencyScoring} is enabled, each channel's score is also weighted by a
+     * {@link PeakEwmaLatency} of its response times relative to the fastest channel, see
+     * {@link ChannelScoreInfo#computeScore(double)}. When {@link BalancedOptions#slowStart} is enabled, scores are
+     * weighted by the {@link SlowStart} of each channel, and channels without previous stats are ramped up unless this
+     * is the first tracker for the channels.
+     */
+    BalancedScoreTracker(
+            ImmutableList<Integer> hostIndices,
+            List<Optional<ChannelScoreInfo>> previousStats,
+            BalancedOptions options,
+            Random random,
+            Ticker ticker,
+            TaggedMetricRegistry taggedMetrics,
+            String channelName) {
+        int channelCount = hostIndices.size();
         Preconditions.checkState(channelCount >= 1, "At least one channel required");
+        Preconditions.checkArgument(
+                previousStats.size() == channelCount, "Previous stats must be provided for every channel");
+        this.latencyScoring = options.latencyScoring();
         this.random = random;
         this.clock = ticker;
+        // When any channel has previous stats this tracker replaces another, so channels without them are new hosts
+        boolean added = previousStats.stream().anyMatch(Optional::isPresent);
         this.channelStats = IntStream.range(0, channelCount)
-                .mapToObj(index -> new ChannelScoreInfo(
-                        index, clock, PerHostObservability.create(channelCount, taggedMetrics, channelName, index)))
+                .mapToObj(index -> {
+                    int hostIndex = hostIndices.get(index);
+                    PerHostObservability observability =
+                            PerHostObservability.create(channelCount, taggedMetrics, channelName, hostIndex);
+                    return previousStats
+                            .get(index)
+                            .map(previous -> new ChannelScoreInfo(index, hostIndex, observability, previous))
+                            .orElseGet(() -> new ChannelScoreInfo(
+                                    index,
+                                    hostIndex,
+                                    clock,
+                                    observability,
+                                    latencyScoring ? new PeakEwmaLatency(clock::read, LATENCY_DECAY) : null,
+                                    createSlowStart(options, clock, added)));
+                })
                 .collect(ImmutableList.toImmutableList());
 
         registerGauges(taggedMetrics, channelName, channelStats);
+        if (latencyScoring) {
+            registerLatencyGauges(taggedMetrics, channelName, channelStats);
+        }
+        if (options.slowStart().isPresent() && channelStats.size() <= 10) {
+            for (ChannelScoreInfo channel : channelStats) {
+                if (channel.slowStart != null) {
+                    channel.slowStart.registerGauge(taggedMetrics, channelName, channel.instrumentationIndex);
+                }
+            }
+        }
+    }
+
+    /** Tags the metrics of each channel with its position, for channels which are not reloaded. */
+    static ImmutableList<Integer> positionalHostIndices(int channelCount) {
+        return IntStream.range(0, channelCount).boxed().collect(ImmutableList.toImmutableList());
+    }
+
+    @Nullable
+    private static SlowStart createSlowStart(BalancedOptions options, Ticker clock, boolean added) {
+        if (options.slowStart().isEmpty()) {
+            return null;
+        }
+        SlowStart slowStart = new SlowStart(clock, options.slowStart().get());
+        if (added) {
+            slowStart.start();
+        }
+        return slowStart;
     }
 
     /**
@@ -82,10 +162,11 @@ final class BalancedScoreTracker {
         // pre-shuffling is pretty important here, otherwise when there are no requests in flight, we'd
         // *always* prefer the first channel of the list, leading to a higher overall load.
         List<ChannelScoreInfo> shuffledMutableStats = shuffleImmutableList(channelStats, random);
+        double latencyBaselineNanos = latencyBaselineNanos();
 
         ScoreSnapshot[] snapshotArray = new ScoreSnapshot[shuffledMutableStats.size()];
         for (int i = 0; i < snapshotArray.length; i++) {
-            snapshotArray[i] = shuffledMutableStats.get(i).computeScoreSnapshot();
+            snapshotArray[i] = shuffledMutableStats.get(i).computeScoreSnapshot(latencyBaselineNanos);
         }
 
         Arrays.sort(snapshotArray, BY_SCORE);
@@ -100,7 +181,34 @@ final class BalancedScoreTracker {
 
     @VisibleForTesting
     IntStream getScoresForTesting() {
-        return channelStats.stream().mapToInt(c -> c.computeScoreSnapshot().score);
+        double latencyBaselineNanos = latencyBaselineNanos();
+        return channelStats.stream().mapToInt(c -> c.computeScore(latencyBaselineNanos));
+    }
+
+    /**
+     * Returns the lowest latency average across all channels which have one, or zero when latency scoring is disabled
+     * or there is no data. Scores are relative to this baseline, so a uniformly slow service is not penalized.
+     */
+    double latencyBaselineNanos() {
+        if (!latencyScoring) {
+            return 0;
+        }
+        double baseline = 0;
+        for (int i = 0; i < channelStats.size(); i++) {
+            baseline = latencyBaselineNanos(baseline, channelStats.get(i).getLatencyNanos());
+        }
+        return baseline;
+    }
+
+    /** Returns the lower of two latency averages, ignoring channels without data. */
+    static double latencyBaselineNanos(double first, double second) {
+        if (first <= 0) {
+            return second;
+        }
+        if (second <= 0) {
+            return first;
+        }
+        return Math.min(first, second);
     }
 
     ImmutableList<ChannelScoreInfo> channelStats() {
@@ -121,9 +229,14 @@ final class BalancedScoreTracker {
 
     public static final class ChannelScoreInfo implements FutureCallback<Response> {
         private final int hostIndex;
+
+        /** Tags the metrics of this channel, which unlike its position is retained when targets are reloaded. */
+        private final int instrumentationIndex;
+
         private final PerHostObservability observability;
 
-        private final AtomicInteger inflight = new AtomicInteger(0);
+        private final Ticker clock;
+        private final AtomicInteger inflight;
 
         /**
          * We keep track of failures within a time window to do well in scenarios where an unhealthy server returns
@@ -132,14 +245,86 @@ final class BalancedScoreTracker {
          */
         private final CoarseExponentialDecayReservoir recentFailuresReservoir;
 
+        /** Only present when latency scoring is enabled. */
+        @Nullable
+        private final PeakEwmaLatency latency;
+
+        /** Only present when slow start is enabled. */
+        @Nullable
+        private final SlowStart slowStart;
+
         ChannelScoreInfo(int hostIndex, Ticker clock, PerHostObservability observability) {
+            this(hostIndex, hostIndex, clock, observability, null, null);
+        }
+
+        ChannelScoreInfo(
+                int hostIndex,
+                int instrumentationIndex,
+                Ticker clock,
+                PerHostObservability observability,
+                @Nullable PeakEwmaLatency latency,
+                @Nullable SlowStart slowStart) {
+            this(
+                    hostIndex,
+                    instrumentationIndex,
+                    clock,
+                    observability,
+                    new AtomicInteger(0),
+                    new CoarseExponentialDecayReservoir(clock::read, FAILURE_MEMORY),
+                    latency,
+                    slowStart);
+        }
+
+        /**
+         * Shares the in-flight count, recent failures, latency and slow start of {@code previous}, which may have a
+         * different index.
+         */
+        ChannelScoreInfo(
+                int hostIndex,
+                int instrumentationIndex,
+                PerHostObservability observability,
+                ChannelScoreInfo previous) {
+            this(
+                    hostIndex,
+                    instrumentationIndex,
+                    previous.clock,
+                    observability,
+                    previous.inflight,
+                    previous.recentFailuresReservoir,
+                    previous.latency,
+                    previous.slowStart);
+        }
+
+        private ChannelScoreInfo(
+                int hostIndex,
+                int instrumentationIndex,
+                Ticker clock,
+                PerHostObservability observability,
+                AtomicInteger inflight,
+                CoarseExponentialDecayReservoir recentFailuresReservoir,
+                @Nullable PeakEwmaLatency latency,
+                @Nullable SlowStart slowStart) {
             this.hostIndex = hostIndex;
-            this.recentFailuresReservoir = new CoarseExponentialDecayReservoir(clock::read, FAILURE_MEMORY);
+            this.instrumentationIndex = instrumentationIndex;
+            this.clock = clock;
             this.observability = observability;
+            this.inflight = inflight;
+            this.recentFailuresReservoir = recentFailuresReservoir;
+            this.latency = latency;
+            this.slowStart = slowStart;
         }
 
-        public void startRequest() {
+        /**
+         * Records the start of a request, returning the callback which must be notified when it completes. This is the
+         * {@link ChannelScoreInfo} itself unless latency scoring is enabled, in which case it also captures the start
+         * time of this request.
+         */
+        public FutureCallback<Response> startRequest() {
             inflight.incrementAndGet();
+            if (latency == null) {
+                return this;
+            }
+            return new TimedRequest(clock.read());
         }
 
         public PerHostObservability observability() {
@@ -160,7 +345,8 @@ final class BalancedScoreTracker {
                 // tracker cannot understand.
                 return;
             }
-            if (isGlobalQosStatus(response) || Responses.isServerErrorRange(response)) {
+            boolean failure = isGlobalQosStatus(response) || Responses.isServerErrorRange(response);
+            if (failure) {
                 recentFailuresReservoir.update(FAILURE_WEIGHT);
                 observability.debugLogStatusFailure(response);
             } else if (Responses.isClientError(response) || Responses.isQosStatus(response)) {
@@ -171,6 +357,13 @@ final class BalancedScoreTracker {
                 recentFailuresReservoir.update(FAILURE_WEIGHT / 100);
                 observability.debugLogStatusFailure(response);
             }
+            if (slowStart != null) {
+                if (failure) {
+                    slowStart.onFailure();
+                } else {
+                    slowStart.onSuccess();
+                }
+            }
         }
 
         /** 429 responses suggest an endpoint is overwhelmed, not necessarily the entire service. */
@@ -187,18 +380,68 @@ final class BalancedScoreTracker {
             inflight.decrementAndGet();
             recentFailuresReservoir.update(FAILURE_WEIGHT);
             observability.debugLogThrowableFailure(recentFailuresReservoir, throwable);
+            if (slowStart != null) {
+                slowStart.onFailure();
+            }
         }
 
-        private ScoreSnapshot computeScoreSnapshot() {
+        private ScoreSnapshot computeScoreSnapshot(double latencyBaselineNanos) {
             int requestsInflight = inflight.get();
+            return new ScoreSnapshot(computeScore(requestsInflight, latencyBaselineNanos), requestsInflight, this);
+        }
+
+        /**
+         * Returns the current score without allocating a {@link ScoreSnapshot}. The {@code latencyBaselineNanos} is
+         * ignored unless latency scoring is enabled, see {@link BalancedScoreTracker#latencyBaselineNanos()}.
+         */
+        int computeScore(double latencyBaselineNanos) {
+            return computeScore(inflight.get(), latencyBaselineNanos);
+        }
+
+        int getInflight() {
+            return inflight.get();
+        }
+
+        /** Returns the current latency average, or zero if latency scoring is disabled or there is no data. */
+        double getLatencyNanos() {
+            return latency == null ? 0 : latency.getNanos();
+        }
+
+        private int computeScore(int requestsInflight, double latencyBaselineNanos) {
             double failureReservoir = recentFailuresReservoir.get();
 
             // it's important that scores are integers because if we kept the full double precision, then a single 4xx
             // would end up influencing host selection long beyond its intended lifespan in the absence of other data.
-            int score = requestsInflight + Ints.saturatedCast(Math.round(failureReservoir));
+            int score = weightedInflight(requestsInflight, latencyBaselineNanos)
+                    + Ints.saturatedCast(Math.round(failureReservoir));
 
             observability.traceLogComputedScore(requestsInflight, failureReservoir, score);
-            return new ScoreSnapshot(score, requestsInflight, this);
+            return score;
+        }
+
+        /**
+         * A channel which is n times slower than the fastest channel costs as much as n times the requests, counting
+         * the request about to be sent, such that an idle slow channel only receives a request once the fastest
+         * channel has about n requests in flight. Equal to {@code requestsInflight} for the fastest channel. Likewise
+         * a channel with slow start weight w costs as much as 1/w times the requests, so receives about w times the
+         * share of other channels.
+         */
+        private int weightedInflight(int requestsInflight, double latencyBaselineNanos) {
+            double ratio = latencyRatio(latencyBaselineNanos);
+            if (slowStart != null) {
+                ratio /= slowStart.weight();
+            }
+            if (ratio <= 1) {
+                return requestsInflight;
+            }
+            return Ints.saturatedCast(Math.round((requestsInflight + 1) * ratio)) - 1;
+        }
+
+        private double latencyRatio(double latencyBaselineNanos) {
+            if (latency == null || latencyBaselineNanos <= 0) {
+                return 1;
+            }
+            return Math.max(1, latency.getNanos() / latencyBaselineNanos);
         }
 
         @Override
@@ -207,8 +450,37 @@ final class BalancedScoreTracker {
                     + "hostIndex=" + hostIndex
                     + ", inflight=" + inflight
                     + ", recentFailures=" + recentFailuresReservoir
+                    + ", latency=" + latency
+                    + ", slowStart=" + slowStart
                     + '}';
         }
+
+        /** Records the response time of a single request before updating the score. */
+        private final class TimedRequest implements FutureCallback<Response> {
+            private final long startNanos;
+
+            TimedRequest(long startNanos) {
+                this.startNanos = startNanos;
+            }
+
+            @Override
+            public void onSuccess(Response response) {
+                updateLatency();
+                ChannelScoreInfo.this.onSuccess(response);
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                updateLatency();
+                ChannelScoreInfo.this.onFailure(throwable);
+            }
+
+            private void updateLatency() {
+                if (latency != null) {
+                    latency.update(clock.read() - startNanos);
+                }
+            }
+        }
     }
 
     /**
@@ -251,18 +523,18 @@ final class BalancedScoreTracker {
             return;
         }
 
-        for (int hostIndex = 0; hostIndex < channels.size(); hostIndex++) {
+        for (ChannelScoreInfo channel : channels) {
             MetricName metricName = DialogueBalancedMetrics.of(taggedMetrics)
                     .score()
                     .channelName(channelName)
-                    .hostIndex(Integer.toString(hostIndex))
+                    .hostIndex(Integer.toString(channel.instrumentationIndex))
                     .buildMetricName();
             // Weak gauge ensures this object can be GCd. Itherwise the tagged metric registry could hold the last ref!
             // Defensive averaging for the possibility that people create multiple channels with the same channelName.
             DialogueInternalWeakReducingGauge.getOrCreate(
                     taggedMetrics,
                     metricName,
-                    c -> c.computeScoreSnapshot().getScore(),
+                    c -> c.computeScore(0),
                     longStream -> {
                         long[] longs = longStream.toArray();
                         if (log.isInfoEnabled()
@@ -277,7 +549,27 @@ final class BalancedScoreTracker {
                         }
                         return Arrays.stream(longs).average().orElse(0);
                     },
-                    channels.get(hostIndex));
+                    channel);
+        }
+    }
+
+    private static void registerLatencyGauges(
+            TaggedMetricRegistry taggedMetrics, String channelName, ImmutableList<ChannelScoreInfo> channels) {
+        if (channels.size() > 10) {
+            return;
+        }
+        for (ChannelScoreInfo channel : channels) {
+            MetricName metricName = DialogueBalancedMetrics.of(taggedMetrics)
+                    .latency()
+                    .channelName(channelName)
+                    .hostIndex(Integer.toString(channel.instrumentationIndex))
+                    .buildMetricName();
+            DialogueInternalWeakReducingGauge.getOrCreateDouble(
+                    taggedMetrics,
+                    metricName,
+                    ChannelScoreInfo::getLatencyNanos,
+                    doubleStream -> doubleStream.max().orElse(0),
+                    channel);
         }
     }
 
@@ -40,18 +40,28 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nullable;
 
 /** Convenience utility around {@link UrlBuilder}. */
 public final class BaseUrl {
 
     private final DefaultUrlBuilder builder;
 
+    /** Encoded protocol, authority and base path, rendered once for all requests. */
+    private final String prefix;
+
+    /** Rendered URLs for enum endpoints without path parameters, keyed by endpoint identity. */
+    private final Map<Endpoint, String> staticUrls = new ConcurrentHashMap<>();
+
     public static BaseUrl of(URL baseUrl) {
         return new BaseUrl(DefaultUrlBuilder.from(baseUrl));
     }
 
     private BaseUrl(DefaultUrlBuilder builder) {
         this.builder = builder;
+        this.prefix = builder.renderPrefix();
     }
 
     public URL render(Endpoint endpoint, Request request) {
@@ -61,11 +71,98 @@ public final class BaseUrl {
         return url.build();
     }
 
+    /**
+     * Renders the same value as {@code render(endpoint, request).toString()} without intermediate segment and
+     * query collections or {@link URL} parsing. Components are encoded directly into a single buffer which is
+     * seeded with the pre-rendered base url, and requests to enum endpoints (including all conjure-generated
+     * endpoints) without path or query parameters return a cached value.
+     */
+    public String renderString(Endpoint endpoint, Request request) {
+        ListMultimap<String, String> queryParams = request.queryParams();
+        String staticUrl = staticUrl(endpoint, request);
+        if (staticUrl != null) {
+            if (queryParams.isEmpty()) {
+                return staticUrl;
+            }
+            StringBuilder result = new StringBuilder(staticUrl.length() + 64).append(staticUrl);
+            return appendQuery(result, queryParams).toString();
+        }
+        StringUrlBuilder url = new StringUrlBuilder(prefix);
+        endpoint.renderPath(request.pathParameters(), url);
+        if (url.hasQueryParams) {
+            // Query parameters from the endpoint are grouped with request parameters of the same name.
+            return render(endpoint, request).toString();
+        }
+        return appendQuery(url.result, queryParams).toString();
+    }
+
+    @Nullable
+    private String staticUrl(Endpoint endpoint, Request request) {
+        // Enum constants cannot change how they render, so the output only depends on the parameters.
+        if (!(endpoint instanceof Enum) || !request.pathParameters().isEmpty()) {
+            return null;
+        }
+        String existing = staticUrls.get(endpoint);
+        if (existing != null) {
+            return existing;
+        }
+        StringUrlBuilder url = new StringUrlBuilder(prefix);
+        endpoint.renderPath(request.pathParameters(), url);
+        if (url.hasQueryParams) {
+            return null;
+        }
+        String rendered = url.result.toString();
+        staticUrls.putIfAbsent(endpoint, rendered);
+        return rendered;
+    }
+
+    private static StringBuilder appendQuery(StringBuilder result, ListMultimap<String, String> queryParams) {
+        char separator = '?';
+        for (Map.Entry<String, String> entry : queryParams.entries()) {
+            result.append(separator);
+            UrlEncoder.appendQueryNameOrValue(result, entry.getKey());
+            result.append('=');
+            UrlEncoder.appendQueryNameOrValue(result, entry.getValue());
+            separator = '&';
+        }
+        return result;
+    }
+
     @Override
     public String toString() {
         return "BaseUrl{builder=" + builder + '}';
     }
 
+    /** Writes encoded path segments directly to a buffer, matching the output of {@link DefaultUrlBuilder}. */
+    private static final class StringUrlBuilder implements UrlBuilder {
+        private final StringBuilder result;
+        private boolean hasQueryParams;
+
+        StringUrlBuilder(String prefix) {
+            this.result = new StringBuilder(prefix.length() + 64).append(prefix);
+        }
+
+        @Override
+        public UrlBuilder pathSegment(String thePath) {
+            UrlEncoder.appendPathSegment(result.append('/'), thePath);
+            return this;
+        }
+
+        @Override
+        public UrlBuilder pathSegments(Collection<String> paths) {
+            for (String path : paths) {
+                pathSegment(path);
+            }
+            return this;
+        }
+
+        @Override
+        public UrlBuilder queryParam(String _name, String _value) {
+            hasQueryParams = true;
+            return this;
+        }
+    }
+
     /** A simplistic URL builder, not tuned for performance. */
     @VisibleForTesting
     static final class DefaultUrlBuilder implements UrlBuilder {
@@ -173,6 +270,16 @@ public final class BaseUrl {
             return this;
         }
 
+        /** Renders the protocol, authority and base path exactly as {@link #build()} formats them. */
+        String renderPrefix() {
+            StringBuilder result = new StringBuilder().append(protocol).append("://").append(host);
+            if (port != -1) {
+                result.append(':').append(port);
+            }
+            encodePath(pathSegments, result);
+            return result.toString();
+        }
+
         URL build() {
             try {
                 Preconditions.checkNotNull(protocol, "protocol must be set");
@@ -300,6 +407,23 @@ public final class BaseUrl {
             return encode(nameOrValue, IS_QUERY_CHAR);
         }
 
+        static void appendPathSegment(StringBuilder result, String pathComponent) {
+            append(result, pathComponent, IS_P_CHAR);
+        }
+
+        static void appendQueryNameOrValue(StringBuilder result, String nameOrValue) {
+            append(result, nameOrValue, IS_QUERY_CHAR);
+        }
+
+        private static void append(StringBuilder result, String source, CharMatcher charactersToKeep) {
+            // Retained characters are all ascii, so the common case requires no byte conversion.
+            if (charactersToKeep.matchesAllOf(source)) {
+                result.append(source);
+            } else {
+                result.append(encode(source, charactersToKeep));
+            }
+        }
+
         // percent-encodes every byte in the source string with it's percent-encoded representation, except for
         // bytes
         // that (in their unsigned char sense) are matched by charactersToKeep
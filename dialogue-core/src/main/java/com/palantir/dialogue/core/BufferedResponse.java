@@ -0,0 +1,118 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.google.common.collect.ListMultimap;
+import com.google.common.io.ByteStreams;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.ResponseAttachments;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link Response} replaying a body read into memory. Each instance reads from its own stream, so copies of a
+ * buffered body can be read and closed independently.
+ */
+final class BufferedResponse implements Response {
+    private static final SafeLogger log = SafeLoggerFactory.get(BufferedResponse.class);
+
+    private final int code;
+    private final ListMultimap<String, String> headers;
+    private final InputStream body;
+    private final ResponseAttachments attachments;
+
+    @Nullable
+    private final Response original;
+
+    private BufferedResponse(
+            int code,
+            ListMultimap<String, String> headers,
+            InputStream body,
+            ResponseAttachments attachments,
+            @Nullable Response original) {
+        this.code = code;
+        this.headers = headers;
+        this.body = body;
+        this.attachments = attachments;
+        this.original = original;
+    }
+
+    /** Creates a response replaying {@code body}, the headers must compare names case-insensitively. */
+    static Response of(int code, ListMultimap<String, String> headers, byte[] body) {
+        return new BufferedResponse(code, headers, new ByteArrayInputStream(body), ResponseAttachments.create(), null);
+    }
+
+    /**
+     * Creates a response reading {@code prefix} followed by the rest of the body of {@code original}, which is closed
+     * along with the returned response.
+     */
+    static Response streaming(Response original, byte[] prefix) {
+        InputStream body = new SequenceInputStream(new ByteArrayInputStream(prefix), original.body());
+        return new BufferedResponse(original.code(), original.headers(), body, original.attachments(), original);
+    }
+
+    /**
+     * Reads at most {@code maxBytes + 1} bytes of {@code body}, so that a result longer than {@code maxBytes} shows the
+     * body was not fully read.
+     */
+    static byte[] readPrefix(InputStream body, int maxBytes) throws IOException {
+        return ByteStreams.toByteArray(ByteStreams.limit(body, maxBytes + 1L));
+    }
+
+    @Override
+    public InputStream body() {
+        return body;
+    }
+
+    @Override
+    public int code() {
+        return code;
+    }
+
+    @Override
+    public ListMultimap<String, String> headers() {
+        return headers;
+    }
+
+    @Override
+    public ResponseAttachments attachments() {
+        return attachments;
+    }
+
+    @Override
+    public void close() {
+        try {
+            body.close();
+        } catch (IOException e) {
+            log.warn("Failed to close buffered body", e);
+        } finally {
+            if (original != null) {
+                original.close();
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "BufferedResponse{code=" + code + ", original=" + original + '}';
+    }
+}
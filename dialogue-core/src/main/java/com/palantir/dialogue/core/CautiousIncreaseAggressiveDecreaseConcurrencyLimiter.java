@@ -28,6 +28,7 @@ import java.io.IOException;
 import java.util.Optional;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.DoubleBinaryOperator;
+import javax.annotation.Nullable;
 
 /**
  * Simple lock-free concurrency limiter. Typically, a dispatching
@@ -39,8 +40,12 @@ import java.util.function.DoubleBinaryOperator;
  *
  * This class loosely based on the
  * <a href="https://github.com/Netflix/concurrency-limits">Netflix AIMD library</a>.
+ *
+ * When created with {@link PermitLeases}, permits are accounted in per-thread stripes rather than a single counter.
+ * The in-flight snapshot of each permit is then an upper bound which includes idle leased permits, unless it is high
+ * enough to increase the limit, in which case it's exact.
  */
-final class CautiousIncreaseAggressiveDecreaseConcurrencyLimiter {
+final class CautiousIncreaseAggressiveDecreaseConcurrencyLimiter implements ConcurrencyLimiter {
 
     private static final SafeLogger log =
             SafeLoggerFactory.get(CautiousIncreaseAggressiveDecreaseConcurrencyLimiter.class);
@@ -52,10 +57,19 @@ final class CautiousIncreaseAggressiveDecreaseConcurrencyLimiter {
     private final AtomicDouble limit = new AtomicDouble(INITIAL_LIMIT);
     private final AtomicInteger inFlight = new AtomicInteger();
 
+    /** When present, in-flight permits are accounted by the leases rather than {@link #inFlight}. */
+    @Nullable
+    private final PermitLeases leases;
+
     private final Behavior behavior;
 
     CautiousIncreaseAggressiveDecreaseConcurrencyLimiter(Behavior behavior) {
+        this(behavior, null);
+    }
+
+    CautiousIncreaseAggressiveDecreaseConcurrencyLimiter(Behavior behavior, @Nullable PermitLeases leases) {
         this.behavior = behavior;
+        this.leases = leases;
     }
 
     /**
@@ -70,7 +84,20 @@ final class CautiousIncreaseAggressiveDecreaseConcurrencyLimiter {
      * {@link Permit#onFailure} which delegate to
      * ignore/dropped/success depending on the success or failure state of the response.
      * */
-    Optional<Permit> acquire(LimitEnforcement limitEnforcement) {
+    @Override
+    public Optional<Permit> acquire(LimitEnforcement limitEnforcement) {
+        if (leases != null) {
+            double limitSnapshot = getLimit();
+            int upperBound = leases.tryAcquire((int) limitSnapshot, limitEnforcement.enforceLimits());
+            if (upperBound <= 0) {
+                return Optional.empty();
+            }
+            // Idle leased permits must not count towards increasing the limit, otherwise it would grow under low
+            // concurrency. Counting them exactly requires reading every stripe, so only when it could matter.
+            int inFlightSnapshot =
+                    upperBound >= Math.floor(limitSnapshot * BACKOFF_RATIO) ? leases.inFlight() : upperBound;
+            return Optional.of(new Permit(inFlightSnapshot));
+        }
 
         // Capture the limit field reference once to avoid work in a tight loop. The JIT cannot
         // reliably optimize out references to final fields due to the potential for reflective
@@ -180,7 +207,7 @@ final class CautiousIncreaseAggressiveDecreaseConcurrencyLimiter {
         void success();
     }
 
-    final class Permit implements PermitControl, FutureCallback<Response> {
+    final class Permit implements PermitControl, ConcurrencyLimiter.Permit {
         private final int inFlightSnapshot;
 
         Permit(int inFlightSnapshot) {
@@ -208,12 +235,12 @@ final class CautiousIncreaseAggressiveDecreaseConcurrencyLimiter {
 
         @Override
         public void ignore() {
-            inFlight.decrementAndGet();
+            release();
         }
 
         @Override
         public void dropped() {
-            inFlight.decrementAndGet();
+            release();
             double newLimit = accumulateAndGetLimit(inFlightSnapshot, LimitUpdater.DROPPED);
             if (log.isDebugEnabled()) {
                 log.debug("Decreasing limit {}", SafeArg.of("newLimit", newLimit));
@@ -222,7 +249,7 @@ final class CautiousIncreaseAggressiveDecreaseConcurrencyLimiter {
 
         @Override
         public void success() {
-            inFlight.decrementAndGet();
+            release();
             double newLimit = accumulateAndGetLimit(inFlightSnapshot, LimitUpdater.SUCCESS);
             if (log.isDebugEnabled()) {
                 log.debug("Increasing limit {}", SafeArg.of("newLimit", newLimit));
@@ -255,6 +282,14 @@ final class CautiousIncreaseAggressiveDecreaseConcurrencyLimiter {
         };
     }
 
+    private void release() {
+        if (leases != null) {
+            leases.release((int) getLimit());
+        } else {
+            inFlight.decrementAndGet();
+        }
+    }
+
     private double accumulateAndGetLimit(int value, DoubleBinaryOperator accumulatorFunction) {
         // Capture the limit field reference once to avoid work in a tight loop. The JIT cannot
         // reliably optimize out references to final fields due to the potential for reflective
@@ -263,6 +298,10 @@ final class CautiousIncreaseAggressiveDecreaseConcurrencyLimiter {
         while (true) {
             double limitSnapshot = localLimit.get();
             double accumulatorResult = accumulatorFunction.applyAsDouble(limitSnapshot, value);
+            // Most successes don't change the limit, in which case writing it would only contend with other threads
+            if (accumulatorResult == limitSnapshot) {
+                return accumulatorResult;
+            }
             if (localLimit.compareAndSet(limitSnapshot, accumulatorResult)) {
                 return accumulatorResult;
             }
@@ -273,7 +312,8 @@ final class CautiousIncreaseAggressiveDecreaseConcurrencyLimiter {
      * Returns the current concurrency limit, i.e., the maximum number of concurrent {@link #getInflight in-flight}
      * permits such that another permit can be {@link #acquire acquired}.
      */
-    double getLimit() {
+    @Override
+    public double getLimit() {
         return limit.get();
     }
 
@@ -281,12 +321,13 @@ final class CautiousIncreaseAggressiveDecreaseConcurrencyLimiter {
      * Returns the current number of in-flight permits, i.e., permits that been acquired but not yet released through
      * either of ignore/dropped/success.
      */
-    int getInflight() {
-        return inFlight.get();
+    @Override
+    public int getInflight() {
+        return leases != null ? leases.inFlight() : inFlight.get();
     }
 
     @Override
     public String toString() {
-        return "AimdConcurrencyLimiter{limit=" + limit + ", inFlight=" + inFlight + '}';
+        return "AimdConcurrencyLimiter{limit=" + limit + ", inFlight=" + getInflight() + '}';
     }
 }
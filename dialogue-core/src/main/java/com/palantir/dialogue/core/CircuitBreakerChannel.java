@@ -0,0 +1,366 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.codahale.metrics.Meter;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.dialogue.Endpoint;
+import com.palantir.dialogue.EndpointChannel;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.futures.DialogueFutures;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.OptionalDouble;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fails requests to an endpoint locally, with a {@link CircuitBreakerOpenException}, once at least the failure rate
+ * threshold of its requests over the last {@link #WINDOW} have failed, rather than paying the connection,
+ * serialization and queueing costs of requests which are almost certain to fail. Failures are 5xx responses and
+ * {@link IOException IOExceptions}, observed after retries, so an endpoint only fails when it fails on every host the
+ * request was retried on. Failure rates over fewer than {@link #MIN_REQUESTS} requests are ignored.
+ *
+ * <p>After {@link #OPEN_DURATION} the breaker half-opens and sends up to {@link #TRIAL_REQUESTS} requests. The breaker
+ * closes once they all succeed, and opens again as soon as one fails. Requests beyond the trial requests still fail
+ * locally.
+ *
+ * <p>The closed path only reads the state and counts the outcome of the request in a bucket of the sliding window,
+ * using atomic updates rather than locks.
+ */
+final class CircuitBreakerChannel implements EndpointChannel {
+    private static final SafeLogger log = SafeLoggerFactory.get(CircuitBreakerChannel.class);
+
+    static final Duration WINDOW = Duration.ofSeconds(10);
+    static final int BUCKETS = 10;
+    static final int MIN_REQUESTS = 20;
+    static final Duration OPEN_DURATION = Duration.ofSeconds(5);
+    static final int TRIAL_REQUESTS = 5;
+
+    private final EndpointChannel delegate;
+    private final Endpoint endpoint;
+    private final String channelName;
+    private final double failureRateThreshold;
+    private final Ticker ticker;
+    private final AtomicReference<State> state;
+    private final Meter openedMeter;
+    private final Meter halfOpenedMeter;
+    private final Meter closedMeter;
+    private final Meter rejectedMeter;
+
+    @VisibleForTesting
+    CircuitBreakerChannel(
+            EndpointChannel delegate,
+            Endpoint endpoint,
+            String channelName,
+            double failureRateThreshold,
+            Ticker ticker,
+            TaggedMetricRegistry taggedMetrics) {
+        this.delegate = delegate;
+        this.endpoint = endpoint;
+        this.channelName = channelName;
+        this.failureRateThreshold = failureRateThreshold;
+        this.ticker = ticker;
+        this.state = new AtomicReference<>(new Closed());
+        DialogueCircuitbreakerMetrics metrics = DialogueCircuitbreakerMetrics.of(taggedMetrics);
+        this.openedMeter = transitionMeter(metrics, "open");
+        this.halfOpenedMeter = transitionMeter(metrics, "halfOpen");
+        this.closedMeter = transitionMeter(metrics, "closed");
+        this.rejectedMeter = metrics.rejected()
+                .channelName(channelName)
+                .serviceName(endpoint.serviceName())
+                .endpoint(endpoint.endpointName())
+                .build();
+        // Weak gauges ensure the breaker can be GCd along with its channel. Channels which share a name report the
+        // most open breaker.
+        DialogueInternalWeakReducingGauge.getOrCreate(
+                taggedMetrics,
+                metrics.state()
+                        .channelName(channelName)
+                        .serviceName(endpoint.serviceName())
+                        .endpoint(endpoint.endpointName())
+                        .buildMetricName(),
+                CircuitBreakerChannel::stateValue,
+                stream -> stream.max().orElse(0L),
+                this);
+    }
+
+    static EndpointChannel create(Config cf, EndpointChannel delegate, Endpoint endpoint) {
+        OptionalDouble threshold = cf.circuitBreakerFailureRate();
+        if (threshold.isEmpty()) {
+            return delegate;
+        }
+        return new CircuitBreakerChannel(
+                delegate,
+                endpoint,
+                cf.channelName(),
+                threshold.getAsDouble(),
+                cf.ticker(),
+                cf.clientConf().taggedMetricRegistry());
+    }
+
+    @Override
+    public ListenableFuture<Response> execute(Request request) {
+        State current = state.get();
+        if (current instanceof Closed) {
+            return DialogueFutures.addDirectCallback(delegate.execute(request), (Closed) current);
+        }
+        if (current instanceof Open) {
+            Open open = (Open) current;
+            if (ticker.read() - open.untilNanos < 0) {
+                return reject();
+            }
+            if (state.compareAndSet(open, new HalfOpen())) {
+                halfOpenedMeter.mark();
+                log.info("Circuit breaker is half-open", SafeArg.of("channelName", channelName), endpointArg());
+            }
+            // Another thread may have moved the breaker on, in which case it's no longer open
+            return execute(request);
+        }
+        HalfOpen halfOpen = (HalfOpen) current;
+        if (!halfOpen.tryAcquire()) {
+            return reject();
+        }
+        return DialogueFutures.addDirectCallback(delegate.execute(request), halfOpen);
+    }
+
+    private ListenableFuture<Response> reject() {
+        rejectedMeter.mark();
+        return Futures.immediateFailedFuture(
+                new CircuitBreakerOpenException(channelName, endpoint.serviceName(), endpoint.endpointName()));
+    }
+
+    private void open(State from) {
+        if (state.compareAndSet(from, new Open(ticker.read() + OPEN_DURATION.toNanos()))) {
+            openedMeter.mark();
+            log.warn(
+                    "Circuit breaker opened, requests will fail without being sent",
+                    SafeArg.of("channelName", channelName),
+                    endpointArg(),
+                    SafeArg.of("openMillis", OPEN_DURATION.toMillis()));
+        }
+    }
+
+    private SafeArg<String> endpointArg() {
+        return SafeArg.of("endpoint", endpoint.serviceName() + '.' + endpoint.endpointName());
+    }
+
+    @VisibleForTesting
+    int stateValue() {
+        State current = state.get();
+        if (current instanceof Closed) {
+            return 0;
+        }
+        return current instanceof Open ? 1 : 2;
+    }
+
+    private static boolean isFailure(Response response) {
+        return Responses.isServerErrorRange(response);
+    }
+
+    /**
+     * Requests shed by a local queue, or by the breaker of another endpoint, were never sent, so they say nothing
+     * about the health of this endpoint.
+     */
+    private static boolean isFailure(Throwable throwable) {
+        return throwable instanceof IOException
+                && !(throwable instanceof QueueShedException)
+                && !(throwable instanceof CircuitBreakerOpenException);
+    }
+
+    @Override
+    public String toString() {
+        return "CircuitBreakerChannel{state=" + state.get() + ", delegate=" + delegate + '}';
+    }
+
+    private Meter transitionMeter(DialogueCircuitbreakerMetrics metrics, String to) {
+        return metrics.transition()
+                .channelName(channelName)
+                .serviceName(endpoint.serviceName())
+                .endpoint(endpoint.endpointName())
+                .state(to)
+                .build();
+    }
+
+    private interface State {}
+
+    /** Sends every request, and opens once the failure rate over the window reaches the threshold. */
+    private final class Closed implements State, FutureCallback<Response> {
+        private final Window window = new Window();
+
+        @Override
+        public void onSuccess(Response response) {
+            record(isFailure(response));
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {
+            if (isFailure(throwable)) {
+                record(true);
+            }
+        }
+
+        private void record(boolean failure) {
+            long nowNanos = ticker.read();
+            window.record(nowNanos, failure);
+            // Only failures can raise the failure rate, so successes never need to sum the window
+            if (failure && window.exceeds(nowNanos, failureRateThreshold)) {
+                open(this);
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "Closed{window=" + window + '}';
+        }
+    }
+
+    private static final class Open implements State {
+        private final long untilNanos;
+
+        Open(long untilNanos) {
+            this.untilNanos = untilNanos;
+        }
+
+        @Override
+        public String toString() {
+            return "Open{untilNanos=" + untilNanos + '}';
+        }
+    }
+
+    /** Sends a limited number of trial requests, which decide whether the breaker closes or opens again. */
+    private final class HalfOpen implements State, FutureCallback<Response> {
+        private final AtomicInteger permits = new AtomicInteger(TRIAL_REQUESTS);
+        private final AtomicInteger successes = new AtomicInteger();
+
+        boolean tryAcquire() {
+            while (true) {
+                int available = permits.get();
+                if (available <= 0) {
+                    return false;
+                }
+                if (permits.compareAndSet(available, available - 1)) {
+                    return true;
+                }
+            }
+        }
+
+        @Override
+        public void onSuccess(Response response) {
+            if (isFailure(response)) {
+                open(this);
+            } else if (successes.incrementAndGet() >= TRIAL_REQUESTS && state.compareAndSet(this, new Closed())) {
+                closedMeter.mark();
+                log.info("Circuit breaker closed", SafeArg.of("channelName", channelName), endpointArg());
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {
+            if (isFailure(throwable)) {
+                open(this);
+            } else {
+                // The trial was cancelled, shed locally or failed for an unrelated reason, so another request may
+                // take its place
+                permits.incrementAndGet();
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "HalfOpen{permits=" + permits + ", successes=" + successes + '}';
+        }
+    }
+
+    /**
+     * Counts requests and failures in {@link #BUCKETS} buckets spanning the {@link #WINDOW}. Each bucket packs both
+     * counts into a single long, so recording an outcome is a single atomic add, and a stale bucket is replaced by
+     * the first thread to record into it after its time has passed.
+     */
+    @VisibleForTesting
+    static final class Window {
+        private static final long REQUEST = 1L << 32;
+        private static final long FAILURE = 1L;
+        private static final long BUCKET_NANOS = WINDOW.toNanos() / BUCKETS;
+
+        private final AtomicReferenceArray<Bucket> buckets = new AtomicReferenceArray<>(BUCKETS);
+
+        void record(long nowNanos, boolean failure) {
+            long epoch = Math.floorDiv(nowNanos, BUCKET_NANOS);
+            int slot = Math.floorMod(epoch, BUCKETS);
+            while (true) {
+                Bucket bucket = buckets.get(slot);
+                if (bucket != null && bucket.epoch >= epoch) {
+                    // Outcomes recorded after their bucket has been replaced by a newer one are dropped
+                    if (bucket.epoch == epoch) {
+                        bucket.counts.addAndGet(failure ? REQUEST + FAILURE : REQUEST);
+                    }
+                    return;
+                }
+                buckets.compareAndSet(slot, bucket, new Bucket(epoch));
+            }
+        }
+
+        /** Whether there have been enough requests in the window, and the failure rate is at least the threshold. */
+        boolean exceeds(long nowNanos, double failureRateThreshold) {
+            long currentEpoch = Math.floorDiv(nowNanos, BUCKET_NANOS);
+            long requests = 0;
+            long failures = 0;
+            for (int slot = 0; slot < BUCKETS; slot++) {
+                Bucket bucket = buckets.get(slot);
+                if (bucket != null && currentEpoch - bucket.epoch < BUCKETS) {
+                    long counts = bucket.counts.get();
+                    requests += counts >>> 32;
+                    failures += counts & 0xFFFF_FFFFL;
+                }
+            }
+            return requests >= MIN_REQUESTS && failures >= failureRateThreshold * requests;
+        }
+
+        @Override
+        public String toString() {
+            return "Window{buckets=" + buckets + '}';
+        }
+    }
+
+    private static final class Bucket {
+        private final long epoch;
+        private final AtomicLong counts = new AtomicLong();
+
+        Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+
+        @Override
+        public String toString() {
+            long value = counts.get();
+            return "Bucket{epoch=" + epoch + ", requests=" + (value >>> 32) + ", failures=" + (value & 0xFFFF_FFFFL)
+                    + '}';
+        }
+    }
+}
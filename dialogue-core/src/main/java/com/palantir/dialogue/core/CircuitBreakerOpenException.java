@@ -0,0 +1,57 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.palantir.logsafe.Arg;
+import com.palantir.logsafe.Safe;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.SafeLoggable;
+import com.palantir.logsafe.exceptions.SafeExceptions;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Fails a request which the {@link CircuitBreakerChannel} did not send because recent requests to the endpoint have
+ * mostly failed. The request was never sent, but is not retried because it would almost certainly fail again.
+ */
+final class CircuitBreakerOpenException extends IOException implements SafeLoggable {
+    private static final String MESSAGE = "Circuit breaker is open, the request was not sent";
+
+    private final List<Arg<?>> arguments;
+
+    CircuitBreakerOpenException(@Safe String channelName, @Safe String serviceName, @Safe String endpointName) {
+        this(List.of(
+                SafeArg.of("channelName", channelName),
+                SafeArg.of("serviceName", serviceName),
+                SafeArg.of("endpoint", endpointName)));
+    }
+
+    private CircuitBreakerOpenException(List<Arg<?>> arguments) {
+        super(SafeExceptions.renderMessage(MESSAGE, arguments.toArray(new Arg<?>[0])));
+        this.arguments = arguments;
+    }
+
+    @Override
+    public @Safe String getLogMessage() {
+        return MESSAGE;
+    }
+
+    @Override
+    public List<Arg<?>> getArgs() {
+        return arguments;
+    }
+}
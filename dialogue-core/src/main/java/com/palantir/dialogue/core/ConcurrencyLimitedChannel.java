@@ -25,6 +25,7 @@ import com.palantir.dialogue.core.CautiousIncreaseAggressiveDecreaseConcurrencyL
 import com.palantir.dialogue.futures.DialogueFutures;
 import com.palantir.logsafe.SafeArg;
 import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
 import com.palantir.logsafe.logger.SafeLogger;
 import com.palantir.logsafe.logger.SafeLoggerFactory;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
@@ -40,12 +41,12 @@ final class ConcurrencyLimitedChannel implements LimitedChannel {
     private static final SafeLogger log = SafeLoggerFactory.get(ConcurrencyLimitedChannel.class);
 
     private final NeverThrowChannel delegate;
-    private final CautiousIncreaseAggressiveDecreaseConcurrencyLimiter limiter;
+    private final ConcurrencyLimiter limiter;
     private final String channelNameForLogging;
 
     static LimitedChannel createForHost(Config cf, Channel channel, int uriIndex) {
         TaggedMetricRegistry metrics = cf.clientConf().taggedMetricRegistry();
-        CautiousIncreaseAggressiveDecreaseConcurrencyLimiter limiter = createLimiter(Behavior.HOST_LEVEL);
+        ConcurrencyLimiter limiter = createLimiter(cf, Behavior.HOST_LEVEL);
         ConcurrencyLimitedChannelInstrumentation instrumentation =
                 new HostConcurrencyLimitedChannelInstrumentation(cf.channelName(), uriIndex, limiter, metrics);
         return new ConcurrencyLimitedChannel(channel, limiter, instrumentation);
@@ -55,33 +56,47 @@ final class ConcurrencyLimitedChannel implements LimitedChannel {
      * Creates a concurrency limited channel for per-endpoint limiting.
      * Metrics are not reported by this component per-endpoint, only by the per-endpoint queue.
      */
-    static LimitedChannel createForEndpoint(Channel channel, String channelName, int uriIndex, Endpoint endpoint) {
+    static LimitedChannel createForEndpoint(Config cf, Channel channel, int uriIndex, Endpoint endpoint) {
         return new ConcurrencyLimitedChannel(
                 channel,
-                createLimiter(Behavior.ENDPOINT_LEVEL),
-                new EndpointConcurrencyLimitedChannelInstrumentation(channelName, uriIndex, endpoint));
+                createLimiter(cf, Behavior.ENDPOINT_LEVEL),
+                new EndpointConcurrencyLimitedChannelInstrumentation(cf.channelName(), uriIndex, endpoint));
     }
 
     ConcurrencyLimitedChannel(
             Channel delegate,
-            CautiousIncreaseAggressiveDecreaseConcurrencyLimiter limiter,
+            ConcurrencyLimiter limiter,
             ConcurrencyLimitedChannelInstrumentation instrumentation) {
         this.delegate = new NeverThrowChannel(delegate);
         this.limiter = limiter;
         this.channelNameForLogging = instrumentation.channelNameForLogging();
     }
 
-    static CautiousIncreaseAggressiveDecreaseConcurrencyLimiter createLimiter(Behavior behavior) {
+    static ConcurrencyLimiter createLimiter(Behavior behavior) {
         return new CautiousIncreaseAggressiveDecreaseConcurrencyLimiter(behavior);
     }
 
+    static ConcurrencyLimiter createLimiter(Config cf, Behavior behavior) {
+        switch (cf.concurrencyLimiter()) {
+            case AIMD:
+                if (cf.concurrencyLimiterLeaseSize().isPresent()) {
+                    return new CautiousIncreaseAggressiveDecreaseConcurrencyLimiter(
+                            behavior, PermitLeases.create(cf.concurrencyLimiterLeaseSize().getAsInt()));
+                }
+                return createLimiter(behavior);
+            case GRADIENT:
+                return new RttGradientConcurrencyLimiter(behavior, cf.ticker());
+        }
+        throw new SafeIllegalStateException(
+                "Unknown concurrency limiter algorithm", SafeArg.of("algorithm", cf.concurrencyLimiter()));
+    }
+
     @Override
     public Optional<ListenableFuture<Response>> maybeExecute(
             Endpoint endpoint, Request request, LimitEnforcement limitEnforcement) {
-        Optional<CautiousIncreaseAggressiveDecreaseConcurrencyLimiter.Permit> maybePermit =
-                limiter.acquire(limitEnforcement);
+        Optional<? extends ConcurrencyLimiter.Permit> maybePermit = limiter.acquire(limitEnforcement);
         if (maybePermit.isPresent()) {
-            CautiousIncreaseAggressiveDecreaseConcurrencyLimiter.Permit permit = maybePermit.get();
+            ConcurrencyLimiter.Permit permit = maybePermit.get();
             logPermitAcquired();
             ListenableFuture<Response> result = delegate.execute(endpoint, request);
             DialogueFutures.addDirectCallback(result, permit);
@@ -129,7 +144,7 @@ final class ConcurrencyLimitedChannel implements LimitedChannel {
         HostConcurrencyLimitedChannelInstrumentation(
                 String channelName,
                 int uriIndex,
-                CautiousIncreaseAggressiveDecreaseConcurrencyLimiter limiter,
+                ConcurrencyLimiter limiter,
                 TaggedMetricRegistry taggedMetrics) {
             if (uriIndex == -1) {
                 throw new SafeIllegalArgumentException(
@@ -143,7 +158,7 @@ final class ConcurrencyLimitedChannel implements LimitedChannel {
                             .channelName(channelName)
                             .hostIndex(Integer.toString(uriIndex))
                             .buildMetricName(),
-                    CautiousIncreaseAggressiveDecreaseConcurrencyLimiter::getLimit,
+                    ConcurrencyLimiter::getLimit,
                     doubleStream -> doubleStream.min().orElse(0D),
                     limiter);
             DialogueInternalWeakReducingGauge.getOrCreate(
@@ -152,9 +167,30 @@ final class ConcurrencyLimitedChannel implements LimitedChannel {
                             .channelName(channelName)
                             .hostIndex(Integer.toString(uriIndex))
                             .buildMetricName(),
-                    CautiousIncreaseAggressiveDecreaseConcurrencyLimiter::getInflight,
+                    ConcurrencyLimiter::getInflight,
                     LongStream::sum,
                     limiter);
+            if (limiter instanceof RttGradientConcurrencyLimiter) {
+                RttGradientConcurrencyLimiter gradientLimiter = (RttGradientConcurrencyLimiter) limiter;
+                DialogueInternalWeakReducingGauge.getOrCreateDouble(
+                        taggedMetrics,
+                        metrics.shortRtt()
+                                .channelName(channelName)
+                                .hostIndex(Integer.toString(uriIndex))
+                                .buildMetricName(),
+                        RttGradientConcurrencyLimiter::getShortRttNanos,
+                        doubleStream -> doubleStream.max().orElse(0D),
+                        gradientLimiter);
+                DialogueInternalWeakReducingGauge.getOrCreateDouble(
+                        taggedMetrics,
+                        metrics.longRtt()
+                                .channelName(channelName)
+                                .hostIndex(Integer.toString(uriIndex))
+                                .buildMetricName(),
+                        RttGradientConcurrencyLimiter::getLongRttNanos,
+                        doubleStream -> doubleStream.max().orElse(0D),
+                        gradientLimiter);
+            }
         }
 
         @Override
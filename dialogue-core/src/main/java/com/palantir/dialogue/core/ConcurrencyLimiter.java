@@ -0,0 +1,48 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.core.LimitedChannel.LimitEnforcement;
+import java.util.Optional;
+
+/**
+ * Bounds the number of concurrent requests to a channel. Callers {@link #acquire} a permit before dispatching a
+ * request and release it exactly once when the corresponding {@link Response} completes, typically by registering
+ * the {@link Permit} as a callback on the response future.
+ */
+interface ConcurrencyLimiter {
+
+    /**
+     * Returns a new request permit if the number of {@link #getInflight in-flight} permits is smaller than the
+     * current {@link #getLimit upper limit}, or if {@code limitEnforcement} does not enforce limits.
+     */
+    Optional<? extends Permit> acquire(LimitEnforcement limitEnforcement);
+
+    /**
+     * Returns the current concurrency limit, i.e., the maximum number of concurrent {@link #getInflight in-flight}
+     * permits such that another permit can be {@link #acquire acquired}.
+     */
+    double getLimit();
+
+    /** Returns the current number of permits which have been acquired but not yet released. */
+    int getInflight();
+
+    /** Released by the outcome of the request it was acquired for. */
+    interface Permit extends FutureCallback<Response> {}
+}
@@ -0,0 +1,33 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+/** Algorithms available to adjust the per-host and per-endpoint concurrency limits of a {@link DialogueChannel}. */
+public enum ConcurrencyLimiterAlgorithm {
+    /**
+     * Loss-based additive increase, multiplicative decrease. The limit only shrinks when requests fail with
+     * QoS responses, server errors or IO failures. This is the default.
+     */
+    AIMD,
+
+    /**
+     * Latency-based limiter which compares a short-window and long-window average of response times, shrinking the
+     * limit when the short-window average grows, which indicates requests are queueing on the server. Failures
+     * shrink the limit in the same way as {@link #AIMD}.
+     */
+    GRADIENT;
+}
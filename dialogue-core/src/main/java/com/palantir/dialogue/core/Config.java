@@ -20,16 +20,22 @@ import com.github.benmanes.caffeine.cache.Ticker;
 import com.google.common.collect.ImmutableList;
 import com.palantir.conjure.java.client.config.ClientConfiguration;
 import com.palantir.conjure.java.client.config.ClientConfiguration.ClientQoS;
+import com.palantir.dialogue.Endpoint;
 import com.palantir.logsafe.DoNotLog;
 import com.palantir.logsafe.Preconditions;
 import com.palantir.logsafe.SafeArg;
 import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import com.palantir.random.SafeThreadLocalRandom;
 import com.palantir.refreshable.Refreshable;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
+import java.util.OptionalDouble;
 import java.util.OptionalInt;
+import java.util.OptionalLong;
 import java.util.Random;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.immutables.value.Value;
 
@@ -75,11 +81,25 @@ interface Config {
         return SafeThreadLocalRandom.get();
     }
 
+    /**
+     * Schedules retry backoff and outlier ejection probes. The shared default is a coarse hashed wheel which runs
+     * tasks up to ten milliseconds late, see {@link DialogueExecutors#newSharedHashedWheelScheduler}.
+     */
     @Value.Default
     default ScheduledExecutorService scheduler() {
         return RetryingChannel.sharedScheduler.get();
     }
 
+    /**
+     * Schedules hedged attempts, whose delays are often only a few milliseconds and must not wait for a tick of the
+     * coarse shared {@link #scheduler()}. An overridden {@link #scheduler()} is used as is.
+     */
+    @Value.Default
+    default ScheduledExecutorService hedgeScheduler() {
+        ScheduledExecutorService scheduler = scheduler();
+        return scheduler == RetryingChannel.sharedScheduler.get() ? HedgingChannel.sharedScheduler.get() : scheduler;
+    }
+
     @Value.Default
     default Ticker ticker() {
         return Ticker.systemTicker();
@@ -90,11 +110,165 @@ interface Config {
         return 100_000;
     }
 
+    /**
+     * When enabled, the per-endpoint decorators are applied by a single {@link FusedEndpointChannel} instead of a
+     * stack of individual channels.
+     */
+    @Value.Default
+    default boolean fusedEndpointPipeline() {
+        return false;
+    }
+
+    /**
+     * When enabled, the balanced node selection strategy compares two randomly chosen hosts per request instead of
+     * sorting all hosts by score.
+     */
+    @Value.Default
+    default boolean balancedPowerOfTwoChoices() {
+        return false;
+    }
+
+    /**
+     * Whether the balanced node selection strategy penalizes hosts which respond more slowly than the fastest host,
+     * in addition to in-flight requests and recent failures.
+     */
+    @Value.Default
+    default boolean balancedLatencyScoring() {
+        return false;
+    }
+
+    /** Whether requests are routed to hosts by affinity key, rather than using the configured strategy. */
+    @Value.Default
+    default boolean rendezvousHashNodeSelection() {
+        return false;
+    }
+
+    /** Window over which the share of requests sent to an added or recovered host ramps up to a full share. */
+    Optional<Duration> slowStart();
+
+    /** Whether hosts are ejected from node selection after consecutive failures, see {@link OutlierEjectionChannel}. */
+    @Value.Default
+    default boolean outlierEjection() {
+        return false;
+    }
+
+    /** Endpoint probed to decide when to readmit an ejected host, which is readmitted without a probe when empty. */
+    Optional<Endpoint> outlierEjectionProbe();
+
+    /** Largest fraction of the targets which may be ejected at once. */
+    @Value.Default
+    default double outlierEjectionMaxFraction() {
+        return 0.5;
+    }
+
+    /** Whether queues are drained by a single thread at a time rather than by every thread which schedules. */
+    @Value.Default
+    default boolean singleDrainerQueues() {
+        return false;
+    }
+
+    /** Queue time above which overloaded queues shed requests, queue time is unmanaged when empty. */
+    Optional<Duration> targetQueueTime();
+
+    /** Whether overloaded queues serve the newest requests first, only used if {@link #targetQueueTime} is set. */
+    @Value.Default
+    default boolean lifoQueueUnderOverload() {
+        return false;
+    }
+
+    /** Retries as a fraction of recent requests, when present retries are limited by a {@link RetryBudget}. */
+    OptionalDouble retryBudgetRatio();
+
+    /** Retries per second which the {@link RetryBudget} allows regardless of the number of requests. */
+    @Value.Default
+    default int retryBudgetMinRetriesPerSecond() {
+        return 10;
+    }
+
+    /** When present, idempotent requests slower than this quantile of recent responses are hedged. */
+    OptionalDouble hedgeLatencyQuantile();
+
+    /** Hedged attempts as a fraction of recent requests, see {@link HedgingChannel}. */
+    @Value.Default
+    default double hedgeRatio() {
+        return 0.05;
+    }
+
+    /** Timeouts of requests which don't have a {@link com.palantir.dialogue.RequestDeadlines deadline}, by endpoint. */
+    Optional<Function<Endpoint, Optional<Duration>>> defaultRequestTimeouts();
+
+    /** When present, endpoints fail requests locally once this fraction of recent requests have failed. */
+    OptionalDouble circuitBreakerFailureRate();
+
+    /** When true, identical in-flight {@code GET} and {@code HEAD} requests share a single call. */
+    @Value.Default
+    default boolean requestCoalescing() {
+        return false;
+    }
+
+    /** When present, {@code GET} responses are cached in memory, up to this many bytes in total. */
+    OptionalLong responseCacheMaxBytes();
+
+    /** Order in which queued requests are attempted. */
+    @Value.Default
+    default QueueDiscipline queueDiscipline() {
+        return QueueDiscipline.FIFO;
+    }
+
+    /** Algorithm used by the per-host and per-endpoint concurrency limiters. */
+    @Value.Default
+    default ConcurrencyLimiterAlgorithm concurrencyLimiter() {
+        return ConcurrencyLimiterAlgorithm.AIMD;
+    }
+
+    /** When present, {@link ConcurrencyLimiterAlgorithm#AIMD} limiters account permits using {@link PermitLeases}. */
+    OptionalInt concurrencyLimiterLeaseSize();
+
     OptionalInt overrideSingleHostIndex();
 
+    /** When present, host channels are only created for a {@link DeterministicSubset} of this many targets. */
+    OptionalInt subsetSize();
+
+    /** Identifies this client when choosing a {@link DeterministicSubset}, only used if {@link #subsetSize} is set. */
+    @Value.Default
+    default long subsetClientId() {
+        return 0;
+    }
+
     @Value.Check
     default void check() {
         Preconditions.checkArgument(maxQueueSize() > 0, "maxQueueSize must be positive");
+        Preconditions.checkArgument(
+                targetQueueTime().isEmpty() || targetQueueTime().get().compareTo(Duration.ZERO) > 0,
+                "targetQueueTime must be positive");
+        Preconditions.checkArgument(
+                slowStart().isEmpty() || slowStart().get().compareTo(Duration.ZERO) > 0, "slowStart must be positive");
+        Preconditions.checkArgument(
+                outlierEjectionMaxFraction() >= 0 && outlierEjectionMaxFraction() < 1,
+                "outlierEjectionMaxFraction must be at least zero and less than one");
+        Preconditions.checkArgument(
+                retryBudgetRatio().isEmpty() || retryBudgetRatio().getAsDouble() >= 0,
+                "retryBudgetRatio must not be negative");
+        Preconditions.checkArgument(
+                retryBudgetMinRetriesPerSecond() >= 0, "retryBudgetMinRetriesPerSecond must not be negative");
+        Preconditions.checkArgument(
+                hedgeLatencyQuantile().isEmpty()
+                        || (hedgeLatencyQuantile().getAsDouble() > 0 && hedgeLatencyQuantile().getAsDouble() < 1),
+                "hedgeLatencyQuantile must be between zero and one");
+        Preconditions.checkArgument(hedgeRatio() >= 0, "hedgeRatio must not be negative");
+        Preconditions.checkArgument(
+                circuitBreakerFailureRate().isEmpty()
+                        || (circuitBreakerFailureRate().getAsDouble() > 0
+                                && circuitBreakerFailureRate().getAsDouble() <= 1),
+                "circuitBreakerFailureRate must be greater than zero and at most one");
+        Preconditions.checkArgument(
+                !subsetSize().isPresent() || subsetSize().getAsInt() > 0, "subsetSize must be positive");
+        Preconditions.checkArgument(
+                concurrencyLimiterLeaseSize().isEmpty() || concurrencyLimiterLeaseSize().getAsInt() > 0,
+                "concurrencyLimiterLeaseSize must be positive");
+        Preconditions.checkArgument(
+                responseCacheMaxBytes().isEmpty() || responseCacheMaxBytes().getAsLong() > 0,
+                "responseCacheMaxBytes must be positive");
         Preconditions.checkArgument(rawConfig().userAgent().isPresent(), "userAgent must be specified");
         Preconditions.checkArgument(
                 rawConfig().retryOnSocketException() == ClientConfiguration.RetryOnSocketException.ENABLED,
@@ -34,7 +34,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.Optional;
 import java.util.function.BooleanSupplier;
-import java.util.zip.GZIPInputStream;
 import javax.annotation.Nullable;
 
 /**
@@ -51,10 +50,10 @@ final class ContentDecodingChannel implements EndpointChannel {
 
     private static final SafeLogger log = SafeLoggerFactory.get(ContentDecodingChannel.class);
 
-    private static final String ACCEPT_ENCODING = "accept-encoding";
+    static final String ACCEPT_ENCODING = "accept-encoding";
     private static final String CONTENT_ENCODING = "content-encoding";
     private static final String CONTENT_LENGTH = "content-length";
-    private static final String GZIP = "gzip";
+    static final String GZIP = "gzip";
     private static final String PREFER_COMPRESSED_RESPONSE_TAG = "prefer-compressed-response";
 
     private final EndpointChannel delegate;
@@ -70,7 +69,7 @@ final class ContentDecodingChannel implements EndpointChannel {
         return new ContentDecodingChannel(delegate, sendAcceptGzip);
     }
 
-    private static BooleanSupplier shouldSendAcceptGzip(Config cf, Endpoint endpoint) {
+    static BooleanSupplier shouldSendAcceptGzip(Config cf, Endpoint endpoint) {
         // If the override tag has been configured, always request gzipped responses.
         if (endpoint.tags().contains(PREFER_COMPRESSED_RESPONSE_TAG)) {
             return () -> true;
@@ -108,7 +107,7 @@ final class ContentDecodingChannel implements EndpointChannel {
                 .build();
     }
 
-    private static Response decompress(Response input) {
+    static Response decompress(Response input) {
         Optional<String> contentEncoding = input.getFirstHeader(CONTENT_ENCODING);
         if (contentEncoding.isPresent() && GZIP.equals(contentEncoding.get())) {
             return new ContentDecodingResponse(input);
@@ -186,7 +185,7 @@ final class ContentDecodingChannel implements EndpointChannel {
         }
     }
 
-    /** Wraps a {@link GZIPInputStream} deferring initialization until first byte is read. */
+    /** Wraps a pooled {@link GzipStreams#decompress gzip stream} deferring initialization until first byte is read. */
     private static class DeferredGzipInputStream extends InputStream {
         private static final int BUFFER_SIZE = 8 * 1024;
         private final InputStream original;
@@ -200,11 +199,8 @@ final class ContentDecodingChannel implements EndpointChannel {
 
         private InputStream getDelegate() throws IOException {
             if (delegate == null) {
-                // Buffer the GZIPInputStream contents in order to reduce expensive native Deflater interactions.
-                delegate = new BufferedInputStream(
-                        // Increase the buffer size from the default of 512 bytes
-                        new GZIPInputStream(original, BUFFER_SIZE /* input buffer size */),
-                        BUFFER_SIZE /* output buffer size */);
+                // Buffer the decompressed contents in order to reduce expensive native Inflater interactions.
+                delegate = new BufferedInputStream(GzipStreams.decompress(original), BUFFER_SIZE);
             }
             return delegate;
         }
@@ -213,7 +209,7 @@ final class ContentDecodingChannel implements EndpointChannel {
             try {
                 return getDelegate();
             } catch (IOException e) {
-                throw new SafeRuntimeException("Failed to create a GZIPInputStream", e);
+                throw new SafeRuntimeException("Failed to create a gzip input stream", e);
             }
         }
 
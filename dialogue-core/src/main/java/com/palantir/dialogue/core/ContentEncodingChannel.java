@@ -29,8 +29,6 @@ import java.io.IOException;
 import java.io.OutputStream;
 import java.util.Optional;
 import java.util.OptionalLong;
-import java.util.zip.Deflater;
-import java.util.zip.GZIPOutputStream;
 
 /**
  * Adds support for transparently encoding sending <code>Content-Encoding: gzip</code> requests
@@ -47,12 +45,16 @@ final class ContentEncodingChannel implements EndpointChannel {
 
     /** Wraps a delegate if the endpoint has opted into request compression. */
     static EndpointChannel of(EndpointChannel delegate, Endpoint endpoint) {
-        if (endpoint.tags().contains(ENABLEMENT_TAG)) {
+        if (isEnabled(endpoint)) {
             return new ContentEncodingChannel(delegate);
         }
         return delegate;
     }
 
+    static boolean isEnabled(Endpoint endpoint) {
+        return endpoint.tags().contains(ENABLEMENT_TAG);
+    }
+
     ContentEncodingChannel(EndpointChannel delegate) {
         this.delegate = Preconditions.checkNotNull(delegate, "Channel is required");
     }
@@ -65,17 +67,21 @@ final class ContentEncodingChannel implements EndpointChannel {
 
     static Request wrap(Request request) {
         Optional<RequestBody> body = request.body();
-        if (body.isEmpty()
-                || request.headerParams().containsKey(HttpHeaders.CONTENT_ENCODING)
-                || request.headerParams().containsKey(HttpHeaders.CONTENT_LENGTH)) {
+        if (body.isEmpty() || hasContentHeaders(request)) {
             // Do not replace existing content-encoding values
             return request;
         }
-        return Request.builder()
-                .from(request)
-                .putHeaderParams(HttpHeaders.CONTENT_ENCODING, GZIP)
-                .body(new ContentEncodingRequestBody(body.get()))
-                .build();
+        return wrap(Request.builder().from(request), body.get()).build();
+    }
+
+    static boolean hasContentHeaders(Request request) {
+        return request.headerParams().containsKey(HttpHeaders.CONTENT_ENCODING)
+                || request.headerParams().containsKey(HttpHeaders.CONTENT_LENGTH);
+    }
+
+    static Request.Builder wrap(Request.Builder builder, RequestBody body) {
+        return builder.putHeaderParams(HttpHeaders.CONTENT_ENCODING, GZIP)
+                .body(new ContentEncodingRequestBody(body));
     }
 
     private static final class ContentEncodingRequestBody implements RequestBody {
@@ -88,7 +94,7 @@ final class ContentEncodingChannel implements EndpointChannel {
 
         @Override
         public void writeTo(OutputStream output) throws IOException {
-            try (OutputStream gzipOutput = new BestSpeedGzipOutputStream(output);
+            try (OutputStream gzipOutput = GzipStreams.compress(output);
                     // Buffer inputs to the compressor to reduce native interaction overhead
                     OutputStream bufferedOutput = new BufferedOutputStream(gzipOutput, BUFFER_SIZE)) {
                 delegate.writeTo(bufferedOutput);
@@ -122,24 +128,6 @@ final class ContentEncodingChannel implements EndpointChannel {
         }
     }
 
-    /**
-     * Specialized implementation of {@link GZIPOutputStream} which uses {@link Deflater#BEST_SPEED} to reduce
-     * CPU utilization with a slight cost to compression ratio.
-     */
-    @SuppressWarnings("FilterOutputStreamSlowMultibyteWrite") // false positive
-    private static final class BestSpeedGzipOutputStream extends GZIPOutputStream {
-
-        BestSpeedGzipOutputStream(OutputStream out) throws IOException {
-            super(out, BUFFER_SIZE);
-            def.setLevel(Deflater.BEST_SPEED);
-        }
-
-        @Override
-        public String toString() {
-            return "BestSpeedGzipOutputStream{" + out + '}';
-        }
-    }
-
     @Override
     public String toString() {
         return "ContentEncodingChannel{" + delegate + '}';
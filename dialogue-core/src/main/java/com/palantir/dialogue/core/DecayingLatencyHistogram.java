@@ -0,0 +1,122 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.palantir.logsafe.Preconditions;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracks a quantile of recent latencies using a fixed set of logarithmic buckets, with four buckets per power of two
+ * microseconds, so the reported quantile overestimates the true value by at most 25%.
+ *
+ * Recording is a single atomic increment. The quantile is recomputed at most once per {@link #RECOMPUTE_INTERVAL} by
+ * the thread which happens to record at that time, after which all counts are halved so that older samples decay.
+ * Until {@link #MIN_SAMPLES} latencies have been recorded the quantile is unknown.
+ */
+final class DecayingLatencyHistogram {
+
+    static final long UNKNOWN = -1;
+
+    private static final Duration RECOMPUTE_INTERVAL = Duration.ofSeconds(1);
+    private static final int MIN_SAMPLES = 100;
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    // Latencies above 2^40 microseconds (roughly 12 days) share the last bucket.
+    private static final int NUM_BUCKETS = 40 * SUB_BUCKETS;
+
+    private final double quantile;
+    private final Ticker ticker;
+    private final AtomicLongArray counts = new AtomicLongArray(NUM_BUCKETS);
+    private final AtomicLong lastComputedNanos;
+    private volatile long quantileNanos = UNKNOWN;
+
+    DecayingLatencyHistogram(double quantile, Ticker ticker) {
+        Preconditions.checkArgument(quantile > 0 && quantile < 1, "quantile must be between zero and one");
+        this.quantile = quantile;
+        this.ticker = ticker;
+        this.lastComputedNanos = new AtomicLong(ticker.read());
+    }
+
+    void record(long latencyNanos) {
+        counts.incrementAndGet(bucket(TimeUnit.NANOSECONDS.toMicros(Math.max(0, latencyNanos))));
+        long now = ticker.read();
+        long last = lastComputedNanos.get();
+        // On CAS failure another thread is recomputing the quantile.
+        if (now - last >= RECOMPUTE_INTERVAL.toNanos() && lastComputedNanos.compareAndSet(last, now)) {
+            recompute();
+        }
+    }
+
+    /** The most recently computed quantile in nanoseconds, or {@link #UNKNOWN} before enough samples are recorded. */
+    long quantileNanos() {
+        return quantileNanos;
+    }
+
+    private void recompute() {
+        long[] snapshot = new long[NUM_BUCKETS];
+        long total = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        // Sparse samples accumulate rather than decaying, so endpoints with little traffic still produce a quantile.
+        if (total < MIN_SAMPLES) {
+            return;
+        }
+        long rank = (long) Math.ceil(quantile * total);
+        long cumulative = 0;
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            cumulative += snapshot[i];
+            if (cumulative >= rank) {
+                quantileNanos = TimeUnit.MICROSECONDS.toNanos(upperBoundMicros(i));
+                break;
+            }
+        }
+        for (int i = 0; i < NUM_BUCKETS; i++) {
+            // Increments which raced with the snapshot are retained.
+            counts.addAndGet(i, -(snapshot[i] / 2));
+        }
+    }
+
+    static int bucket(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(micros);
+        int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return Math.min(NUM_BUCKETS - 1, (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket);
+    }
+
+    /** Exclusive upper bound of the latencies recorded in a bucket. */
+    static long upperBoundMicros(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket + 1;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        int subBucket = bucket % SUB_BUCKETS;
+        return (long) (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    @Override
+    public String toString() {
+        return "DecayingLatencyHistogram{quantile=" + quantile + ", quantileNanos=" + quantileNanos + '}';
+    }
+}
@@ -30,7 +30,6 @@ import com.palantir.dialogue.futures.DialogueFutures;
 import com.palantir.logsafe.SafeArg;
 import com.palantir.logsafe.logger.SafeLogger;
 import com.palantir.logsafe.logger.SafeLoggerFactory;
-import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
 import java.time.Duration;
 import java.util.Optional;
 import java.util.function.Supplier;
@@ -52,19 +51,15 @@ final class DeprecationWarningChannel implements EndpointChannel {
     private static final Object SENTINEL = new Object();
 
     private final EndpointChannel delegate;
-    private final ClientMetrics metrics;
     private final FutureCallback<Response> callback;
 
-    private DeprecationWarningChannel(
-            EndpointChannel delegate, TaggedMetricRegistry metrics, Endpoint endpoint, String channelName) {
+    private DeprecationWarningChannel(EndpointChannel delegate, FutureCallback<Response> callback) {
         this.delegate = delegate;
-        this.metrics = ClientMetrics.of(metrics);
-        this.callback = createCallback(channelName, endpoint);
+        this.callback = callback;
     }
 
     static EndpointChannel create(Config cf, EndpointChannel delegate, Endpoint endpoint) {
-        TaggedMetricRegistry metrics = cf.clientConf().taggedMetricRegistry();
-        return new DeprecationWarningChannel(delegate, metrics, endpoint, cf.channelName());
+        return new DeprecationWarningChannel(delegate, createCallback(cf, endpoint));
     }
 
     @Override
@@ -74,7 +69,10 @@ final class DeprecationWarningChannel implements EndpointChannel {
         return future;
     }
 
-    private FutureCallback<Response> createCallback(String channelName, Endpoint endpoint) {
+    /** Creates the callback which inspects successful responses for the {@code deprecation} header. */
+    static FutureCallback<Response> createCallback(Config cf, Endpoint endpoint) {
+        String channelName = cf.channelName();
+        ClientMetrics metrics = ClientMetrics.of(cf.clientConf().taggedMetricRegistry());
         // lazily create meter metric name only if deprecated endpoint is accessed
         Supplier<Meter> meterSupplier = Suppliers.memoize(() -> metrics.deprecations(endpoint.serviceName()));
         return DialogueFutures.onSuccess(response -> {
@@ -108,7 +106,7 @@ final class DeprecationWarningChannel implements EndpointChannel {
      * penalty for failing to rate limit correctly is a few extra log lines, and we choose that penalty over the cost
      * of synchronization.
      */
-    private boolean tryAcquire(String channelName, Endpoint endpoint) {
+    private static boolean tryAcquire(String channelName, Endpoint endpoint) {
         LoggingRateLimiterKey key =
                 LoggingRateLimiterKey.of(channelName, endpoint.serviceName(), endpoint.endpointName());
         if (loggingRateLimiter.getIfPresent(key) == null) {
@@ -0,0 +1,60 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.primitives.Ints;
+import com.palantir.logsafe.Preconditions;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Chooses which targets a client should connect to when there are far more targets than a single client needs,
+ * so that each client only holds host channels (and the connections and limiters behind them) for a small subset.
+ *
+ * <p>Clients are grouped into rounds, where each round uses its own shuffle of the sorted target list and assigns
+ * every client in the round a distinct slice of {@code subsetSize} targets. When client ids are assigned sequentially,
+ * every target is used by roughly the same number of clients, and the subsets rotate from one round to the next, so
+ * the loss of a handful of targets is spread across many clients rather than concentrated on a few. Randomly chosen
+ * client ids give the same spread on average. The selection only depends on the client id and the
+ * set of targets, so it is stable across reloads which don't change the targets.
+ */
+final class DeterministicSubset {
+
+    private DeterministicSubset() {}
+
+    static List<TargetUri> select(List<TargetUri> targets, int subsetSize, long clientId) {
+        Preconditions.checkArgument(subsetSize > 0, "subsetSize must be positive");
+        if (targets.size() <= subsetSize) {
+            return targets;
+        }
+        int subsetsPerRound = targets.size() / subsetSize;
+        long round = Math.floorDiv(clientId, (long) subsetsPerRound);
+        int subsetId = Ints.checkedCast(Math.floorMod(clientId, (long) subsetsPerRound));
+
+        // Clients may observe targets in different orders, e.g. from DNS, so sort before shuffling. java.util.Random
+        // is specified to produce the same sequence for a seed in every JVM, so all clients agree on the shuffle.
+        List<TargetUri> shuffled = new ArrayList<>(targets);
+        Collections.sort(shuffled);
+        Collections.shuffle(shuffled, new Random(round));
+
+        int start = subsetId * subsetSize;
+        return ImmutableList.copyOf(shuffled.subList(start, start + subsetSize));
+    }
+}
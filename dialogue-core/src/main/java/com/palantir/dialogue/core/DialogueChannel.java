@@ -19,7 +19,10 @@ package com.palantir.dialogue.core;
 import com.codahale.metrics.Meter;
 import com.github.benmanes.caffeine.cache.Ticker;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableListMultimap;
+import com.google.common.collect.ListMultimap;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.errorprone.annotations.CheckReturnValue;
 import com.palantir.conjure.java.client.config.ClientConfiguration;
@@ -35,11 +38,17 @@ import com.palantir.logsafe.UnsafeArg;
 import com.palantir.logsafe.logger.SafeLogger;
 import com.palantir.logsafe.logger.SafeLoggerFactory;
 import com.palantir.refreshable.Refreshable;
+import java.time.Duration;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
 import java.util.OptionalInt;
 import java.util.Random;
+import java.util.Set;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.function.Function;
 import java.util.function.Supplier;
+import javax.annotation.concurrent.GuardedBy;
 
 public final class DialogueChannel implements Channel, EndpointChannelFactory {
     private static final SafeLogger log = SafeLoggerFactory.get(DialogueChannel.class);
@@ -134,6 +143,240 @@ public final class DialogueChannel implements Channel, EndpointChannelFactory {
             return this;
         }
 
+        /**
+         * Collapses the per-endpoint decorators (user agent, content encoding, tracing, timing, etc) into a single
+         * channel which allocates fewer intermediate requests, futures and callbacks per call. Behavior is identical
+         * to the default layered pipeline.
+         */
+        public Builder fusedEndpointPipeline(boolean enabled) {
+            builder.fusedEndpointPipeline(enabled);
+            return this;
+        }
+
+        /**
+         * Drains request queues from one thread at a time. Threads which submit or complete requests while another
+         * thread is draining only signal that more work is available, rather than contending to dequeue and
+         * execute requests themselves. Requests are dequeued in the same order as the default mode.
+         */
+        public Builder singleDrainerQueues(boolean enabled) {
+            builder.singleDrainerQueues(enabled);
+            return this;
+        }
+
+        /**
+         * Sheds queued requests once queues have been overloaded for a sustained period, rather than executing them
+         * after their callers have likely given up. A queue is overloaded when the request at its head has been
+         * queued for longer than {@code target} for at least 100 milliseconds, in which case requests queued for
+         * longer than the target fail with a retryable exception. Without a target, requests are only rejected when
+         * the queue is full, or when their {@link com.palantir.dialogue.RequestDeadlines deadline} has passed.
+         */
+        public Builder targetQueueTime(Duration target) {
+            builder.targetQueueTime(target);
+            return this;
+        }
+
+        /**
+         * Overloaded queues serve the newest requests first, which are the most likely to still be awaited, and shed
+         * the oldest requests. Only applies when a {@link #targetQueueTime} is set.
+         */
+        public Builder lifoQueueUnderOverload(boolean enabled) {
+            builder.lifoQueueUnderOverload(enabled);
+            return this;
+        }
+
+        /**
+         * Limits retries across all endpoints of this channel to {@code retryRatio} times the number of recent
+         * requests, plus {@code minRetriesPerSecond}, to avoid multiplying the load on an upstream which is failing
+         * because it is already overloaded. Failures which are not retried because the budget is exhausted are
+         * returned to the caller immediately. By default retries are only limited by the max number of retries of
+         * each request.
+         */
+        public Builder retryBudget(double retryRatio, int minRetriesPerSecond) {
+            builder.retryBudgetRatio(retryRatio).retryBudgetMinRetriesPerSecond(minRetriesPerSecond);
+            return this;
+        }
+
+        /**
+         * Sends a second attempt of slow {@code GET}, {@code HEAD} and {@code OPTIONS} requests to a different host
+         * once they have taken longer than {@code latencyQuantile} of the endpoint's recent responses, and uses
+         * whichever response arrives first. Hedged attempts are limited to {@code hedgeRatio} times the number of
+         * requests, and are only sent when the concurrency limiter of another host allows them immediately. Endpoints
+         * tagged {@code dialogue-hedge-requests} are hedged regardless of this option, at the 95th percentile by
+         * default.
+         */
+        public Builder hedgedRequests(double latencyQuantile, double hedgeRatio) {
+            builder.hedgeLatencyQuantile(latencyQuantile).hedgeRatio(hedgeRatio);
+            return this;
+        }
+
+        /**
+         * Sets a {@link com.palantir.dialogue.RequestDeadlines deadline} of {@code timeout} from when the call is made
+         * on requests which don't already have one. Requests are not queued or retried past their deadline, and the
+         * response timeout of each attempt is reduced to the time remaining. Read and connect timeouts from the
+         * {@link ClientConfiguration} still apply to each attempt.
+         */
+        public Builder defaultRequestTimeout(Duration timeout) {
+            return defaultRequestTimeouts(_endpoint -> Optional.of(timeout));
+        }
+
+        /**
+         * Like {@link #defaultRequestTimeout(Duration)}, but with a timeout for each endpoint. Endpoints for which
+         * {@code timeouts} returns empty only have a deadline when the caller sets one.
+         */
+        public Builder defaultRequestTimeouts(Function<Endpoint, Optional<Duration>> timeouts) {
+            builder.defaultRequestTimeouts(timeouts);
+            return this;
+        }
+
+        /**
+         * Fails requests to an endpoint immediately, without sending them, once at least {@code failureRateThreshold}
+         * of the endpoint's requests over the last 10 seconds have failed after retries, counting 5xx responses and
+         * IOExceptions as failures. Breakers only open after at least 20 requests in the window. After 5 seconds, up
+         * to 5 trial requests are sent: the breaker closes once they all succeed, and opens again if any fails. Each
+         * endpoint has its own breaker, so other endpoints of the same service are unaffected.
+         */
+        public Builder circuitBreaker(double failureRateThreshold) {
+            builder.circuitBreakerFailureRate(failureRateThreshold);
+            return this;
+        }
+
+        /**
+         * Coalesces identical {@code GET} and {@code HEAD} requests: a request sent while an equal request to the same
+         * endpoint is in flight receives a copy of its response instead of being sent. Bodies are buffered in memory
+         * up to 1 MiB, larger responses are only shared with the first request. Endpoints tagged with
+         * {@code dialogue-coalesce-requests} coalesce requests regardless of this option.
+         */
+        public Builder requestCoalescing(boolean enabled) {
+            builder.requestCoalescing(enabled);
+            return this;
+        }
+
+        /**
+         * Caches {@code GET} responses in memory, up to {@code maxBytes} across all endpoints of the channel. Fresh
+         * responses, according to their {@code Cache-Control: max-age}, are served without a request. Stale responses
+         * with an {@code ETag} or {@code Last-Modified} header are revalidated, and served from the cache when the
+         * server responds {@code 304 Not Modified}. Responses marked {@code no-store} and bodies over 1 MiB are not
+         * stored, and requests setting their own {@code Cache-Control} or conditional headers bypass the cache.
+         */
+        public Builder responseCache(long maxBytes) {
+            builder.responseCacheMaxBytes(maxBytes);
+            return this;
+        }
+
+        /**
+         * Selects the order in which queued requests are attempted when capacity becomes available, based on their
+         * {@link com.palantir.dialogue.RequestPriority}. Applies to the channel, per-endpoint and sticky queues.
+         * Defaults to {@link QueueDiscipline#FIFO}, which ignores request priorities.
+         */
+        public Builder queueDiscipline(QueueDiscipline discipline) {
+            builder.queueDiscipline(discipline);
+            return this;
+        }
+
+        /**
+         * Selects how per-host and per-endpoint concurrency limits are adjusted. Has no effect when client QoS is
+         * disabled. Defaults to {@link ConcurrencyLimiterAlgorithm#AIMD}.
+         */
+        public Builder concurrencyLimiter(ConcurrencyLimiterAlgorithm algorithm) {
+            builder.concurrencyLimiter(algorithm);
+            return this;
+        }
+
+        /**
+         * Accounts the in-flight requests of {@link ConcurrencyLimiterAlgorithm#AIMD} concurrency limiters in
+         * per-thread stripes, which lease up to {@code maxLeaseSize} permits from the limit at a time, rather than in a
+         * single counter shared by every thread. This reduces contention on hosts with many cores. The limit is still
+         * never exceeded, but near the limit a thread may take idle permits from other stripes, which is slower than
+         * the default. Intended for clients which send many concurrent requests to the same hosts from dozens of
+         * cores.
+         */
+        public Builder stripedConcurrencyLimiter(int maxLeaseSize) {
+            builder.concurrencyLimiterLeaseSize(maxLeaseSize);
+            return this;
+        }
+
+        /**
+         * When enabled, the {@code ROUND_ROBIN} (balanced) node selection strategy sends each request to the better
+         * of two randomly chosen hosts, rather than ranking every host. This avoids shuffling and sorting all hosts on
+         * each request, which becomes expensive for services with many nodes.
+         */
+        public Builder balancedPowerOfTwoChoices(boolean enabled) {
+            builder.balancedPowerOfTwoChoices(enabled);
+            return this;
+        }
+
+        /**
+         * When enabled, the {@code ROUND_ROBIN} (balanced) node selection strategy tracks a peak-sensitive moving
+         * average of each host's response times, and treats a host which is n times slower than the fastest host as
+         * if it had n times as many requests in flight. This moves load away from hosts which succeed, but slowly.
+         */
+        public Builder balancedLatencyScoring(boolean enabled) {
+            builder.balancedLatencyScoring(enabled);
+            return this;
+        }
+
+        /**
+         * When enabled, requests with a {@link com.palantir.dialogue.RequestAffinity} key are routed to the same host
+         * as other requests with that key using rendezvous hashing, which keeps caches on the hosts warm. Hosts with
+         * more than their share of requests in flight, or whose concurrency limiter refuses a request, pass the
+         * request on to the next host for the key. Requests without a key use the {@code ROUND_ROBIN} (balanced)
+         * strategy. Replaces the node selection strategy of the client configuration, but servers may still select
+         * a different strategy using the {@code Node-Selection-Strategy} response header.
+         */
+        public Builder rendezvousHashNodeSelection(boolean enabled) {
+            builder.rendezvousHashNodeSelection(enabled);
+            return this;
+        }
+
+        /**
+         * Hosts which are added by a target update, or which succeed after several consecutive failures, start with
+         * a tenth of their share of requests, which ramps up linearly to a full share over {@code window}. Freshly
+         * started servers are often slow until they have warmed up, and would otherwise fail again under a full share
+         * of requests. The {@code ROUND_ROBIN} (balanced) strategy weights the requests in flight on each host. Pinned
+         * strategies send a share of requests to the previously pinned host when a reshuffle pins a different host.
+         */
+        public Builder slowStart(Duration window) {
+            builder.slowStart(window);
+            return this;
+        }
+
+        /**
+         * Stops sending requests to a host after 5 consecutive 5xx responses or IOExceptions, as if its concurrency
+         * limit had been reached, so that requests are sent to other hosts instead. The host is readmitted once its
+         * ejection time has passed, which starts at 10 seconds and doubles, up to 5 minutes, every time it is ejected
+         * again soon after being readmitted. At most {@code maxEjectedFraction} of the hosts are ejected at once.
+         * Sticky requests are never refused. See {@link #outlierEjectionProbe} to readmit hosts only once they are
+         * known to be healthy.
+         */
+        public Builder outlierEjection(double maxEjectedFraction) {
+            builder.outlierEjection(true).outlierEjectionMaxFraction(maxEjectedFraction);
+            return this;
+        }
+
+        /**
+         * Enables {@link #outlierEjection}, and readmits an ejected host only once a request to {@code probe} has
+         * succeeded, rather than as soon as its ejection time has passed. Probes are sent to the ejected host without
+         * a body, bypass the concurrency limiters and time out after 5 seconds. A failed probe ejects the host again
+         * for twice as long. The endpoint should be cheap and reflect the health of the host, such as a liveness or
+         * readiness check, and must not have path or query parameters.
+         */
+        public Builder outlierEjectionProbe(Endpoint probe) {
+            builder.outlierEjection(true).outlierEjectionProbe(probe);
+            return this;
+        }
+
+        /**
+         * Only creates host channels, and therefore connections and concurrency limiters, for a subset of
+         * {@code subsetSize} of the targets, and selects nodes within that subset. The subset is chosen
+         * deterministically from {@code clientId} and the targets, such that clients with distinct (ideally
+         * sequential) ids spread their load evenly across all targets. Intended for services with hundreds of nodes
+         * and many clients, where connecting every client to every node is wasteful.
+         */
+        public Builder deterministicSubsetting(int subsetSize, long clientId) {
+            builder.subsetSize(subsetSize).subsetClientId(clientId);
+            return this;
+        }
+
         @VisibleForTesting
         Builder random(Random value) {
             builder.random(value);
@@ -171,9 +414,9 @@ public final class DialogueChannel implements Channel, EndpointChannelFactory {
                     .clientType("dialogue-channel-non-reloading")
                     .build();
 
-            // Reloading currently forgets channel state (pinned target, channel scores, concurrency limits, etc...)
-            // In a future change we should attempt to retain this state for channels that are retained between
-            // updates.
+            // Host channels, along with their concurrency limits and node selection state (pinned target, channel
+            // scores), are retained for targets which survive a reload.
+            HostChannels hostChannels = new HostChannels(cf);
             LimitedChannel nodeSelectionChannel = new SupplierChannel(cf.uris().map(targetUris -> {
                 reloadMeter.mark();
                 log.info(
@@ -183,14 +426,19 @@ public final class DialogueChannel implements Channel, EndpointChannelFactory {
                         SafeArg.of("numUris", cf.clientConf().uris().size()),
                         UnsafeArg.of("targets", targetUris),
                         SafeArg.of("numTargets", targetUris.size()));
-                ImmutableList<LimitedChannel> targetChannels = createHostChannels(cf, targetUris);
-                return NodeSelectionStrategyChannel.create(cf, targetChannels);
+                return hostChannels.update(targetUris);
             }));
 
             LimitedChannel stickyValidationChannel = new StickyValidationChannel(nodeSelectionChannel);
 
             Channel multiHostQueuedChannel = QueuedChannel.create(cf, stickyValidationChannel);
-            EndpointChannelFactory channelFactory = createEndpointChannelFactory(multiHostQueuedChannel, cf);
+            EndpointChannelFactory channelFactory = createEndpointChannelFactory(
+                    multiHostQueuedChannel,
+                    stickyValidationChannel,
+                    cf,
+                    RetryBudget.create(cf),
+                    HedgingChannel.createBudget(cf),
+                    ResponseCacheChannel.Store.create(cf));
 
             Supplier<Channel> stickyChannelSupplier =
                     StickyEndpointChannels2.create(cf, stickyValidationChannel, channelFactory);
@@ -205,53 +453,81 @@ public final class DialogueChannel implements Channel, EndpointChannelFactory {
             return new DialogueChannel(cf, channelFactory, stickyChannelSupplier);
         }
 
-        private static ImmutableList<LimitedChannel> createHostChannels(Config cf, List<TargetUri> targetUris) {
-            ImmutableList.Builder<LimitedChannel> perUriChannels = ImmutableList.builder();
-            for (int uriIndex = 0; uriIndex < targetUris.size(); uriIndex++) {
-                final int uriIndexForInstrumentation =
-                        cf.overrideSingleHostIndex().orElse(uriIndex);
-                TargetUri targetUri = targetUris.get(uriIndex);
-                Channel channel = cf.channelFactory()
-                        .create(DialogueChannelFactory.ChannelArgs.builder()
-                                .uri(targetUri.uri())
-                                .uriIndexForInstrumentation(uriIndexForInstrumentation)
-                                .resolvedAddress(targetUri.resolvedAddress())
-                                .build());
-                channel = RetryOtherValidatingChannel.create(cf, channel);
-                channel = HostMetricsChannel.create(cf, channel, targetUri.uri());
-                channel =
-                        new TraceEnrichingChannel(channel, DialogueTracing.tracingTags(cf, uriIndexForInstrumentation));
-
-                LimitedChannel limitedChannel;
-                if (cf.isConcurrencyLimitingEnabled()) {
-                    Channel unlimited = channel;
-                    channel = new ChannelToEndpointChannel(endpoint -> {
-                        if (endpoint.tags().contains("dialogue-disable-endpoint-concurrency-limiting")) {
-                            return unlimited;
-                        }
-                        LimitedChannel limited = ConcurrencyLimitedChannel.createForEndpoint(
-                                unlimited, cf.channelName(), uriIndexForInstrumentation, endpoint);
-                        return QueuedChannel.create(cf, endpoint, limited);
-                    });
-                    limitedChannel = ConcurrencyLimitedChannel.createForHost(cf, channel, uriIndexForInstrumentation);
-                } else {
-                    limitedChannel = new ChannelToLimitedChannelAdapter(channel);
-                }
-
-                perUriChannels.add(limitedChannel);
+        private static LimitedChannel createHostChannel(
+                Config cf,
+                TargetUri targetUri,
+                int uriIndex,
+                Optional<OutlierEjectionChannel.Ejections> ejections) {
+            final int uriIndexForInstrumentation = cf.overrideSingleHostIndex().orElse(uriIndex);
+            Channel channel = cf.channelFactory()
+                    .create(DialogueChannelFactory.ChannelArgs.builder()
+                            .uri(targetUri.uri())
+                            .uriIndexForInstrumentation(uriIndexForInstrumentation)
+                            .resolvedAddress(targetUri.resolvedAddress())
+                            .build());
+            channel = RetryOtherValidatingChannel.create(cf, channel);
+            channel = HostMetricsChannel.create(cf, channel, targetUri.uri());
+            channel = new TraceEnrichingChannel(channel, DialogueTracing.tracingTags(cf, uriIndexForInstrumentation));
+            Channel unlimited = channel;
+
+            LimitedChannel hostChannel;
+            if (cf.isConcurrencyLimitingEnabled()) {
+                channel = new ChannelToEndpointChannel(endpoint -> {
+                    if (endpoint.tags().contains("dialogue-disable-endpoint-concurrency-limiting")) {
+                        return unlimited;
+                    }
+                    LimitedChannel limited = ConcurrencyLimitedChannel.createForEndpoint(
+                            cf, unlimited, uriIndexForInstrumentation, endpoint);
+                    return QueuedChannel.create(cf, endpoint, limited);
+                });
+                hostChannel = ConcurrencyLimitedChannel.createForHost(cf, channel, uriIndexForInstrumentation);
+            } else {
+                hostChannel = new ChannelToLimitedChannelAdapter(channel);
+            }
+            if (ejections.isPresent()) {
+                return OutlierEjectionChannel.create(
+                        cf, ejections.get(), hostChannel, unlimited, uriIndexForInstrumentation);
             }
-            return perUriChannels.build();
+            return hostChannel;
         }
 
-        private static EndpointChannelFactory createEndpointChannelFactory(Channel multiHostQueuedChannel, Config cf) {
+        private static EndpointChannelFactory createEndpointChannelFactory(
+                Channel multiHostQueuedChannel,
+                LimitedChannel nodeSelectionChannel,
+                Config cf,
+                RetryBudget retryBudget,
+                RetryBudget hedgeBudget,
+                Optional<ResponseCacheChannel.Store> responseCache) {
             Channel queuedChannel = new QueueOverrideChannel(multiHostQueuedChannel);
+            if (cf.fusedEndpointPipeline()) {
+                return endpoint -> FusedEndpointChannel.create(
+                        cf,
+                        HedgingChannel.create(
+                                cf,
+                                new EndpointChannelAdapter(endpoint, queuedChannel),
+                                nodeSelectionChannel,
+                                endpoint,
+                                hedgeBudget),
+                        endpoint,
+                        retryBudget,
+                        responseCache);
+            }
             return endpoint -> {
-                EndpointChannel endpointChannel = new EndpointChannelAdapter(endpoint, queuedChannel);
+                EndpointChannel endpointChannel = HedgingChannel.create(
+                        cf,
+                        new EndpointChannelAdapter(endpoint, queuedChannel),
+                        nodeSelectionChannel,
+                        endpoint,
+                        hedgeBudget);
                 EndpointChannel channel = cf.clientConf()
                         .userAgent()
                         .map(userAgent -> UserAgentEndpointChannel.create(endpointChannel, endpoint, userAgent))
                         .orElse(endpointChannel);
-                channel = RetryingChannel.create(cf, channel, endpoint);
+                channel = RetryingChannel.create(cf, channel, endpoint, retryBudget);
+                channel = RequestDeadlineChannel.create(cf, channel, endpoint);
+                channel = CircuitBreakerChannel.create(cf, channel, endpoint);
+                channel = SingleFlightChannel.create(cf, channel, endpoint);
+                channel = ResponseCacheChannel.create(cf, channel, endpoint, responseCache);
                 channel = DeprecationWarningChannel.create(cf, channel, endpoint);
                 channel = ContentDecodingChannel.create(cf, channel, endpoint);
                 channel = new RangeAcceptsIdentityEncodingChannel(channel);
@@ -270,4 +546,95 @@ public final class DialogueChannel implements Channel, EndpointChannelFactory {
             return build();
         }
     }
+
+    /**
+     * Keeps the host channels of the most recent set of targets, keyed by {@link TargetUri}. On reload, targets which
+     * were already present reuse their existing host channel (including its concurrency limiters and per-endpoint
+     * queues) so that only added hosts start from scratch, and removed hosts are released. Retained host channels
+     * keep reporting metrics using the host index they were created with.
+     */
+    private static final class HostChannels {
+        private final Config cf;
+        private final Optional<OutlierEjectionChannel.Ejections> ejections;
+
+        @GuardedBy("this")
+        private ImmutableListMultimap<TargetUri, HostChannel> channels = ImmutableListMultimap.of();
+
+        @GuardedBy("this")
+        private Optional<LimitedChannel> nodeSelectionChannel = Optional.empty();
+
+        HostChannels(Config cf) {
+            this.cf = cf;
+            this.ejections = OutlierEjectionChannel.Ejections.create(cf);
+        }
+
+        synchronized LimitedChannel update(List<TargetUri> allTargetUris) {
+            List<TargetUri> targetUris = cf.subsetSize().isPresent()
+                    ? DeterministicSubset.select(allTargetUris, cf.subsetSize().getAsInt(), cf.subsetClientId())
+                    : allTargetUris;
+            ListMultimap<TargetUri, HostChannel> previous = ArrayListMultimap.create(channels);
+            HostChannel[] selected = new HostChannel[targetUris.size()];
+            Set<Integer> usedIndices = new HashSet<>();
+            int retained = 0;
+            for (int i = 0; i < targetUris.size(); i++) {
+                // A uri may be listed more than once, in which case each occurrence has its own host channel
+                List<HostChannel> previousChannels = previous.get(targetUris.get(i));
+                if (!previousChannels.isEmpty()) {
+                    selected[i] = previousChannels.remove(0);
+                    usedIndices.add(selected[i].uriIndex);
+                    retained++;
+                }
+            }
+            // Retained channels keep their index, so new channels take the lowest unused indices rather than their
+            // position, otherwise two hosts could share instrumentation tagged by host index.
+            int nextIndex = 0;
+            ImmutableListMultimap.Builder<TargetUri, HostChannel> updated = ImmutableListMultimap.builder();
+            ImmutableList.Builder<LimitedChannel> targetChannels = ImmutableList.builder();
+            ImmutableList.Builder<String> hostKeys = ImmutableList.builder();
+            ImmutableList.Builder<Integer> hostIndices = ImmutableList.builder();
+            for (int i = 0; i < targetUris.size(); i++) {
+                TargetUri targetUri = targetUris.get(i);
+                if (selected[i] == null) {
+                    while (usedIndices.contains(nextIndex)) {
+                        nextIndex++;
+                    }
+                    selected[i] = new HostChannel(
+                            Builder.createHostChannel(cf, targetUri, nextIndex, ejections), nextIndex);
+                    usedIndices.add(nextIndex);
+                }
+                updated.put(targetUri, selected[i]);
+                targetChannels.add(selected[i].channel);
+                hostKeys.add(RendezvousHashNodeSelectionStrategyChannel.hostKey(targetUri));
+                hostIndices.add(cf.overrideSingleHostIndex().orElse(selected[i].uriIndex));
+            }
+            channels = updated.build();
+            if (ejections.isPresent()) {
+                ejections.get().setHostCount(targetUris.size());
+                ejections.get().removeAll(previous.values().stream()
+                        .map(host -> host.channel)
+                        .collect(ImmutableList.toImmutableList()));
+            }
+            log.debug(
+                    "Updated host channels for channel '{}' (targets: {}, retained: {}, created: {}, removed: {})",
+                    SafeArg.of("channel", cf.channelName()),
+                    SafeArg.of("targets", allTargetUris.size()),
+                    SafeArg.of("retained", retained),
+                    SafeArg.of("created", targetUris.size() - retained),
+                    SafeArg.of("removed", previous.size()));
+            LimitedChannel current = NodeSelectionStrategyChannel.create(
+                    cf, targetChannels.build(), hostKeys.build(), hostIndices.build(), nodeSelectionChannel);
+            nodeSelectionChannel = Optional.of(current);
+            return current;
+        }
+    }
+
+    private static final class HostChannel {
+        private final LimitedChannel channel;
+        private final int uriIndex;
+
+        HostChannel(LimitedChannel channel, int uriIndex) {
+            this.channel = channel;
+            this.uriIndex = uriIndex;
+        }
+    }
 }
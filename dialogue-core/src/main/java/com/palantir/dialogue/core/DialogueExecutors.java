@@ -17,6 +17,7 @@
 package com.palantir.dialogue.core;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
 import java.time.Duration;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
@@ -27,6 +28,9 @@ import java.util.concurrent.TimeUnit;
 public final class DialogueExecutors {
 
     private static final Duration DEFAULT_KEEP_ALIVE = Duration.ofSeconds(10);
+    private static final Duration WHEEL_TICK_DURATION = Duration.ofMillis(10);
+    // Covers roughly five seconds per rotation, longer delays wait for multiple rotations.
+    private static final int WHEEL_TICKS = 512;
 
     /**
      * Create an executor which allows all threads to exit after a timeout has elapsed, this prevents thread leakage
@@ -52,5 +56,17 @@ public final class DialogueExecutors {
         return executor;
     }
 
+    /**
+     * Create a scheduler backed by a {@link HashedWheelScheduler}, which schedules and cancels tasks in constant time
+     * and runs them up to ten milliseconds late on a single thread. Like {@link #newSharedSingleThreadScheduler}, the
+     * thread exits once no tasks have been pending for a while. The coarse tick suits retry backoff, but not delays
+     * of only a few milliseconds such as hedges, which use {@link #newSharedSingleThreadScheduler} instead.
+     */
+    static ScheduledExecutorService newSharedHashedWheelScheduler(
+            ThreadFactory threadFactory, TaggedMetricRegistry metrics, String name) {
+        return new HashedWheelScheduler(
+                threadFactory, WHEEL_TICK_DURATION, WHEEL_TICKS, DEFAULT_KEEP_ALIVE, metrics, name);
+    }
+
     private DialogueExecutors() {}
 }
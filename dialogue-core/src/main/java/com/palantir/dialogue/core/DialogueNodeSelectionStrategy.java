@@ -35,6 +35,8 @@ enum DialogueNodeSelectionStrategy {
     PIN_UNTIL_ERROR,
     PIN_UNTIL_ERROR_WITHOUT_RESHUFFLE,
     BALANCED,
+    /** Routes requests by {@link com.palantir.dialogue.RequestAffinity} key, and balances requests without a key. */
+    RENDEZVOUS_HASH,
     UNKNOWN;
 
     private static final SafeLogger log = SafeLoggerFactory.get(DialogueNodeSelectionStrategy.class);
@@ -59,6 +61,9 @@ enum DialogueNodeSelectionStrategy {
         if ("BALANCED".equalsIgnoreCase(string)) {
             return BALANCED;
         }
+        if ("RENDEZVOUS_HASH".equalsIgnoreCase(string)) {
+            return RENDEZVOUS_HASH;
+        }
         log.info("Received unknown selection strategy {}", SafeArg.of("strategy", string));
         return UNKNOWN;
     }
@@ -0,0 +1,199 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.dialogue.Endpoint;
+import com.palantir.dialogue.EndpointChannel;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.RequestBody;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.futures.DialogueFutures;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import com.palantir.tracing.CloseableSpan;
+import com.palantir.tracing.DetachedSpan;
+import com.palantir.tracing.TagTranslator;
+import com.palantir.tracing.Tracer;
+import java.util.Optional;
+import java.util.function.BooleanSupplier;
+import javax.annotation.Nullable;
+
+/**
+ * Behaves identically to the layered stack of {@link NeverThrowEndpointChannel}, {@link InterruptionChannel},
+ * {@link RequestBodyValidationChannel}, {@link TimingEndpointChannel}, {@link TracedChannel},
+ * {@link ContentEncodingChannel}, {@link RangeAcceptsIdentityEncodingChannel}, {@link ContentDecodingChannel},
+ * {@link DeprecationWarningChannel} and {@link UserAgentEndpointChannel}, but applies all request mutations using a
+ * single {@link Request.Builder} and observes the result using a single callback. The layered implementation
+ * allocates a request copy, a future transformation, or a callback at nearly every step.
+ *
+ * <p>The {@link RetryingChannel}, {@link RequestDeadlineChannel}, {@link CircuitBreakerChannel},
+ * {@link SingleFlightChannel} and {@link ResponseCacheChannel} are not fused, they sit between this channel and the
+ * queue, so each attempt completes exactly one future.
+ */
+final class FusedEndpointChannel implements EndpointChannel {
+    private static final SafeLogger log = SafeLoggerFactory.get(FusedEndpointChannel.class);
+
+    private final EndpointChannel delegate;
+
+    @Nullable
+    private final String userAgent;
+
+    private final boolean compressRequest;
+    private final BooleanSupplier sendAcceptGzip;
+    private final FutureCallback<Response> deprecationCallback;
+    private final TimingEndpointChannel.ResponseTimer timer;
+    private final String operationName;
+    private final TagTranslator<Response> responseTranslator;
+    private final TagTranslator<Throwable> throwableTranslator;
+
+    private FusedEndpointChannel(Config cf, EndpointChannel delegate, Endpoint endpoint) {
+        this.delegate = delegate;
+        this.userAgent = cf.clientConf()
+                .userAgent()
+                .map(baseAgent -> UserAgentEndpointChannel.formatUserAgent(endpoint, baseAgent))
+                .orElse(null);
+        this.compressRequest = ContentEncodingChannel.isEnabled(endpoint);
+        this.sendAcceptGzip = ContentDecodingChannel.shouldSendAcceptGzip(cf, endpoint);
+        this.deprecationCallback = DeprecationWarningChannel.createCallback(cf, endpoint);
+        this.timer = TimingEndpointChannel.ResponseTimer.create(cf, endpoint);
+        this.operationName = TracedChannel.operationName(cf, endpoint);
+        ImmutableMap<String, String> tags = TracedChannel.tracingTags(cf, endpoint);
+        this.responseTranslator = DialogueTracing.responseTranslator(tags);
+        this.throwableTranslator = DialogueTracing.failureTranslator(tags);
+    }
+
+    /**
+     * Creates the fused pipeline for an endpoint. The user agent is applied before retries rather than on each
+     * attempt, which produces the same request because retries reuse the original request.
+     */
+    static EndpointChannel create(
+            Config cf,
+            EndpointChannel queuedChannel,
+            Endpoint endpoint,
+            RetryBudget retryBudget,
+            Optional<ResponseCacheChannel.Store> responseCache) {
+        EndpointChannel retrying = RetryingChannel.create(cf, queuedChannel, endpoint, retryBudget);
+        EndpointChannel deadline = RequestDeadlineChannel.create(cf, retrying, endpoint);
+        EndpointChannel breaker = CircuitBreakerChannel.create(cf, deadline, endpoint);
+        EndpointChannel coalescing = SingleFlightChannel.create(cf, breaker, endpoint);
+        return new FusedEndpointChannel(
+                cf, ResponseCacheChannel.create(cf, coalescing, endpoint, responseCache), endpoint);
+    }
+
+    @Override
+    public ListenableFuture<Response> execute(Request request) {
+        try {
+            if (Thread.currentThread().isInterrupted()) {
+                return Futures.immediateFailedFuture(new InterruptedException());
+            }
+            RequestBodyValidationChannel.validate(request);
+            long beforeNanos = timer.startNanos();
+            if (Tracer.hasUnobservableTrace()) {
+                return DialogueFutures.addDirectCallback(
+                        executeDecoded(augment(request)), new ResponseCallback(beforeNanos, null));
+            }
+            return executeSampled(request, beforeNanos);
+        } catch (RuntimeException | Error e) {
+            log.error("Dialogue channels should never throw. This may be a bug in the channel implementation", e);
+            return Futures.immediateFailedFuture(e);
+        }
+    }
+
+    private ListenableFuture<Response> executeSampled(Request request, long beforeNanos) {
+        DetachedSpan span = DetachedSpan.start(operationName);
+        try (CloseableSpan ignored = span.attach()) {
+            return DialogueFutures.addDirectCallback(
+                    executeDecoded(augment(request)), new ResponseCallback(beforeNanos, span));
+        } catch (Throwable t) {
+            span.complete(throwableTranslator, t);
+            throw t;
+        }
+    }
+
+    private ListenableFuture<Response> executeDecoded(Request request) {
+        // In cases where gzip is not expected, we continue to handle gzipped responses to avoid abrupt failures
+        // against servers which hard-code 'Content-Encoding: gzip' responses without checking request headers.
+        return DialogueFutures.transform(delegate.execute(request), ContentDecodingChannel::decompress);
+    }
+
+    /** Applies every request mutation from the layered pipeline, in the same order, using a single builder. */
+    private Request augment(Request request) {
+        Optional<RequestBody> body = request.body();
+        boolean encodeBody =
+                compressRequest && body.isPresent() && !ContentEncodingChannel.hasContentHeaders(request);
+        boolean acceptIdentity = RangeAcceptsIdentityEncodingChannel.isRangeRequestWithoutAcceptEncoding(request);
+        boolean acceptGzip = !acceptIdentity
+                && sendAcceptGzip.getAsBoolean()
+                && !request.headerParams().containsKey(ContentDecodingChannel.ACCEPT_ENCODING);
+        if (!encodeBody && !acceptIdentity && !acceptGzip && userAgent == null) {
+            return request;
+        }
+        Request.Builder builder = Request.builder().from(request);
+        if (encodeBody) {
+            ContentEncodingChannel.wrap(builder, body.get());
+        }
+        if (acceptIdentity) {
+            builder.putHeaderParams(HttpHeaders.ACCEPT_ENCODING, RangeAcceptsIdentityEncodingChannel.IDENTITY);
+        } else if (acceptGzip) {
+            builder.putHeaderParams(ContentDecodingChannel.ACCEPT_ENCODING, ContentDecodingChannel.GZIP);
+        }
+        if (userAgent != null) {
+            builder.putHeaderParams("user-agent", userAgent);
+        }
+        return builder.build();
+    }
+
+    @Override
+    public String toString() {
+        return "FusedEndpointChannel{operationName=" + operationName + ", delegate=" + delegate + '}';
+    }
+
+    private final class ResponseCallback implements FutureCallback<Response> {
+        private final long beforeNanos;
+
+        @Nullable
+        private final DetachedSpan span;
+
+        ResponseCallback(long beforeNanos, @Nullable DetachedSpan span) {
+            this.beforeNanos = beforeNanos;
+            this.span = span;
+        }
+
+        @Override
+        public void onSuccess(Response response) {
+            // Decoding only removes content-encoding and content-length, so deprecation headers are still visible.
+            deprecationCallback.onSuccess(response);
+            if (span != null) {
+                span.complete(responseTranslator, response);
+            }
+            timer.onSuccess(response, beforeNanos);
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {
+            if (span != null) {
+                span.complete(throwableTranslator, throwable);
+            }
+            timer.onFailure(throwable, beforeNanos);
+        }
+    }
+}
@@ -0,0 +1,442 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.google.common.annotations.VisibleForTesting;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Gzip streams equivalent to {@link java.util.zip.GZIPOutputStream} and {@link java.util.zip.GZIPInputStream}, which
+ * borrow their {@link Deflater} or {@link Inflater}, checksum and buffer from a {@link ZlibPool} rather than
+ * initializing native zlib state for every compressed request and response. Pooled state is returned when the stream
+ * is closed, streams which are never closed leave their state to be freed by the garbage collector.
+ *
+ * <p>Responses may be closed by another thread, for example when a call is cancelled, while a read is in progress.
+ * The reading thread still uses the state it borrowed, so in that case it is ended rather than returned to the pool,
+ * and the read fails like it would using the JDK streams.
+ */
+final class GzipStreams {
+    static final int BUFFER_SIZE = 8 * 1024;
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+    private static final byte[] HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+
+    // States of a stream, which may only use its pooled state while BUSY, or while closing from IDLE
+    private static final int IDLE = 0;
+    private static final int BUSY = 1;
+    private static final int CLOSED = 2;
+
+    @VisibleForTesting
+    static final ZlibPool<Compressor> compressors =
+            ZlibPool.create(Compressor::new, Compressor::reset, Compressor::end);
+
+    @VisibleForTesting
+    static final ZlibPool<Decompressor> decompressors =
+            ZlibPool.create(Decompressor::new, Decompressor::reset, Decompressor::end);
+
+    private GzipStreams() {}
+
+    /**
+     * Returns a stream writing a gzip member to {@code out}, compressed with {@link Deflater#BEST_SPEED} to reduce CPU
+     * utilization with a slight cost to compression ratio. The header is written immediately.
+     */
+    static OutputStream compress(OutputStream out) throws IOException {
+        return new PooledGzipOutputStream(out);
+    }
+
+    /**
+     * Returns a stream decompressing the gzip members read from {@code in}, ignoring trailing bytes which aren't a
+     * member. The first header is read immediately.
+     */
+    static InputStream decompress(InputStream in) throws IOException {
+        return new PooledGzipInputStream(in);
+    }
+
+    @VisibleForTesting
+    static final class Compressor {
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED, true);
+        private final CRC32 crc = new CRC32();
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        void reset() {
+            deflater.reset();
+            crc.reset();
+        }
+
+        void end() {
+            deflater.end();
+        }
+    }
+
+    @VisibleForTesting
+    static final class Decompressor {
+        private final Inflater inflater = new Inflater(true);
+        private final CRC32 crc = new CRC32();
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+
+        void reset() {
+            inflater.reset();
+            crc.reset();
+        }
+
+        void end() {
+            inflater.end();
+        }
+    }
+
+    private static final class PooledGzipOutputStream extends OutputStream {
+        private final OutputStream out;
+        private final byte[] singleByte = new byte[1];
+        private final Compressor compressor;
+        private final AtomicInteger state = new AtomicInteger(IDLE);
+
+        PooledGzipOutputStream(OutputStream out) throws IOException {
+            this.out = out;
+            out.write(HEADER);
+            this.compressor = compressors.acquire();
+        }
+
+        @Override
+        public void write(int value) throws IOException {
+            singleByte[0] = (byte) value;
+            write(singleByte, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] bytes, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, bytes.length);
+            if (len == 0) {
+                checkOpen(state);
+                return;
+            }
+            begin(state);
+            try {
+                compressor.crc.update(bytes, off, len);
+                compressor.deflater.setInput(bytes, off, len);
+                while (!compressor.deflater.needsInput()) {
+                    deflate();
+                }
+            } finally {
+                end(state);
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            checkOpen(state);
+            out.flush();
+        }
+
+        private void finish() throws IOException {
+            compressor.deflater.finish();
+            while (!compressor.deflater.finished()) {
+                deflate();
+            }
+            byte[] trailer = compressor.buffer;
+            writeIntLittleEndian(trailer, 0, (int) compressor.crc.getValue());
+            writeIntLittleEndian(trailer, 4, (int) compressor.deflater.getBytesRead());
+            out.write(trailer, 0, 8);
+        }
+
+        private void deflate() throws IOException {
+            int length = compressor.deflater.deflate(compressor.buffer, 0, compressor.buffer.length);
+            if (length > 0) {
+                out.write(compressor.buffer, 0, length);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            int previous = markClosed(state);
+            if (previous == CLOSED) {
+                return;
+            }
+            if (previous == BUSY) {
+                // The member can't be finished while another thread is writing it
+                try {
+                    compressor.end();
+                } finally {
+                    out.close();
+                }
+                return;
+            }
+            try {
+                finish();
+            } finally {
+                compressors.release(compressor);
+            }
+            out.close();
+        }
+
+        private static void writeIntLittleEndian(byte[] buffer, int offset, int value) {
+            buffer[offset] = (byte) value;
+            buffer[offset + 1] = (byte) (value >> 8);
+            buffer[offset + 2] = (byte) (value >> 16);
+            buffer[offset + 3] = (byte) (value >> 24);
+        }
+
+        @Override
+        public String toString() {
+            return "PooledGzipOutputStream{" + out + '}';
+        }
+    }
+
+    private static final class PooledGzipInputStream extends InputStream {
+        private final InputStream in;
+        private final byte[] singleByte = new byte[1];
+        private final Decompressor decompressor;
+        private final AtomicInteger state = new AtomicInteger(IDLE);
+
+        /** Compressed bytes in the buffer which have not been read, nor passed to the inflater. */
+        private int position;
+
+        private int limit;
+        private boolean eos;
+
+        PooledGzipInputStream(InputStream in) throws IOException {
+            this.in = in;
+            Decompressor current = decompressors.acquire();
+            this.decompressor = current;
+            try {
+                readHeader(current, readUnsignedByte(current));
+            } catch (IOException | RuntimeException e) {
+                state.set(CLOSED);
+                decompressors.release(current);
+                throw e;
+            }
+        }
+
+        @Override
+        public int read() throws IOException {
+            return read(singleByte, 0, 1) == -1 ? -1 : singleByte[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int off, int len) throws IOException {
+            Objects.checkFromIndexSize(off, len, bytes.length);
+            begin(state);
+            try {
+                return read(decompressor, bytes, off, len);
+            } finally {
+                end(state);
+            }
+        }
+
+        private int read(Decompressor current, byte[] bytes, int off, int len) throws IOException {
+            if (eos) {
+                return -1;
+            }
+            if (len == 0) {
+                return 0;
+            }
+            while (true) {
+                int length = inflate(current, bytes, off, len);
+                if (length > 0) {
+                    current.crc.update(bytes, off, length);
+                    return length;
+                }
+                if (current.inflater.finished()) {
+                    if (readTrailer(current)) {
+                        eos = true;
+                        return -1;
+                    }
+                } else if (current.inflater.needsDictionary()) {
+                    throw new ZipException("Unexpected preset dictionary");
+                } else if (current.inflater.needsInput()) {
+                    if (position == limit && !fill(current)) {
+                        throw new EOFException("Unexpected end of ZLIB input stream");
+                    }
+                    current.inflater.setInput(current.buffer, position, limit - position);
+                    position = limit;
+                }
+            }
+        }
+
+        @Override
+        public int available() throws IOException {
+            checkOpen(state);
+            return eos ? 0 : 1;
+        }
+
+        private static int inflate(Decompressor current, byte[] bytes, int off, int len) throws ZipException {
+            try {
+                return current.inflater.inflate(bytes, off, len);
+            } catch (DataFormatException e) {
+                String message = e.getMessage();
+                throw new ZipException(message != null ? message : "Invalid ZLIB data format");
+            }
+        }
+
+        private void readHeader(Decompressor current, int first) throws IOException {
+            current.crc.reset();
+            current.crc.update(first);
+            if (first != 0x1f || readHeaderByte(current) != 0x8b) {
+                throw new ZipException("Not in GZIP format");
+            }
+            if (readHeaderByte(current) != Deflater.DEFLATED) {
+                throw new ZipException("Unsupported compression method");
+            }
+            int flags = readHeaderByte(current);
+            // Modification time, extra flags and operating system
+            skipHeaderBytes(current, 6);
+            if ((flags & FEXTRA) != 0) {
+                skipHeaderBytes(current, readHeaderByte(current) | (readHeaderByte(current) << 8));
+            }
+            if ((flags & FNAME) != 0) {
+                skipZeroTerminated(current);
+            }
+            if ((flags & FCOMMENT) != 0) {
+                skipZeroTerminated(current);
+            }
+            if ((flags & FHCRC) != 0) {
+                int expected = (int) current.crc.getValue() & 0xffff;
+                if ((readUnsignedByte(current) | (readUnsignedByte(current) << 8)) != expected) {
+                    throw new ZipException("Corrupt GZIP header");
+                }
+            }
+            current.crc.reset();
+        }
+
+        /** Verifies the trailer of the current member and starts the next one, returning true at the end. */
+        private boolean readTrailer(Decompressor current) throws IOException {
+            position = limit - current.inflater.getRemaining();
+            long crc = readUnsignedInt(current);
+            long size = readUnsignedInt(current);
+            if (crc != current.crc.getValue() || size != (current.inflater.getBytesWritten() & 0xffffffffL)) {
+                throw new ZipException("Corrupt GZIP trailer");
+            }
+            // Like GZIPInputStream, only look for another member when it can be read without blocking, and ignore
+            // trailing bytes which aren't a member.
+            if (position == limit && (in.available() <= 0 || !fill(current))) {
+                return true;
+            }
+            try {
+                readHeader(current, current.buffer[position++] & 0xff);
+            } catch (IOException e) {
+                return true;
+            }
+            current.inflater.reset();
+            return false;
+        }
+
+        private int readHeaderByte(Decompressor current) throws IOException {
+            int value = readUnsignedByte(current);
+            current.crc.update(value);
+            return value;
+        }
+
+        private void skipHeaderBytes(Decompressor current, int count) throws IOException {
+            for (int i = 0; i < count; i++) {
+                readHeaderByte(current);
+            }
+        }
+
+        private void skipZeroTerminated(Decompressor current) throws IOException {
+            int value;
+            do {
+                value = readHeaderByte(current);
+            } while (value != 0);
+        }
+
+        private long readUnsignedInt(Decompressor current) throws IOException {
+            long value = 0;
+            for (int i = 0; i < 4; i++) {
+                value |= ((long) readUnsignedByte(current)) << (8 * i);
+            }
+            return value;
+        }
+
+        private int readUnsignedByte(Decompressor current) throws IOException {
+            if (position == limit && !fill(current)) {
+                throw new EOFException("Unexpected end of GZIP stream");
+            }
+            return current.buffer[position++] & 0xff;
+        }
+
+        private boolean fill(Decompressor current) throws IOException {
+            int length = in.read(current.buffer, 0, current.buffer.length);
+            if (length <= 0) {
+                return false;
+            }
+            position = 0;
+            limit = length;
+            return true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            int previous = markClosed(state);
+            if (previous == CLOSED) {
+                return;
+            }
+            try {
+                in.close();
+            } finally {
+                if (previous == BUSY) {
+                    decompressor.end();
+                } else {
+                    decompressors.release(decompressor);
+                }
+            }
+        }
+
+        @Override
+        public String toString() {
+            return "PooledGzipInputStream{" + in + '}';
+        }
+    }
+
+    /** Marks a stream as using its pooled state, which streams don't support from multiple threads at once. */
+    private static void begin(AtomicInteger state) throws IOException {
+        if (!state.compareAndSet(IDLE, BUSY)) {
+            checkOpen(state);
+            throw new IOException("Stream is in use by another thread");
+        }
+    }
+
+    /** Returns the state to idle, unless the stream was closed by another thread in the meantime. */
+    private static void end(AtomicInteger state) {
+        state.compareAndSet(BUSY, IDLE);
+    }
+
+    private static void checkOpen(AtomicInteger state) throws IOException {
+        if (state.get() == CLOSED) {
+            throw new IOException("Stream closed");
+        }
+    }
+
+    /**
+     * Closes a stream, returning its previous state. Only the caller which observed {@code IDLE} may go on to use the
+     * pooled state, and then return it to the pool, a caller which observed {@code BUSY} must end it instead.
+     */
+    private static int markClosed(AtomicInteger state) {
+        return state.getAndSet(CLOSED);
+    }
+}
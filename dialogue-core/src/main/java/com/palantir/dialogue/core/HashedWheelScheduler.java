@@ -0,0 +1,438 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.codahale.metrics.Counter;
+import com.codahale.metrics.Timer;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.math.LongMath;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.time.Duration;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RunnableScheduledFuture;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nullable;
+
+/**
+ * A {@link ScheduledExecutorService} backed by a hashed wheel timer, which schedules and cancels tasks in constant
+ * time regardless of the number of pending tasks, at the cost of running tasks up to one tick late. This suits large
+ * numbers of coarse delays, such as retry backoff during an incident with a large retry fan-out, where a
+ * {@link java.util.concurrent.ScheduledThreadPoolExecutor} maintains a heap under a single lock.
+ *
+ * Scheduling threads only append tasks to a lock-free queue, and cancellation only marks the task and appends it to a
+ * second queue. A single worker thread advances the wheel once per tick, moves new tasks into the bucket of their
+ * deadline, unlinks cancelled tasks and runs the tasks of the current bucket, so tasks must not block. The worker
+ * exits once no tasks have been pending for the keep-alive time, and is restarted by the next scheduled task, so
+ * that no threads are leaked when dialogue is packaged as a dynamically loaded plugin.
+ *
+ * Unlike {@link java.util.concurrent.ScheduledThreadPoolExecutor}, delayed tasks are cancelled rather than run on
+ * shutdown, and {@link #shutdownNow} doesn't return the tasks which never ran.
+ */
+final class HashedWheelScheduler extends AbstractExecutorService implements ScheduledExecutorService {
+
+    private static final SafeLogger log = SafeLoggerFactory.get(HashedWheelScheduler.class);
+
+    private static final int IDLE = 0;
+    private static final int RUNNING = 1;
+    private static final int SHUTDOWN = 2;
+
+    // Bounds the time spent moving new tasks into the wheel on each tick, remaining tasks are moved on the next tick.
+    private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+    private final ThreadFactory threadFactory;
+    private final long tickNanos;
+    private final long keepAliveTicks;
+    private final Bucket[] wheel;
+    private final int mask;
+    private final long startNanos = System.nanoTime();
+    private final Queue<WheelTask<?>> incoming = new ConcurrentLinkedQueue<>();
+    private final Queue<WheelTask<?>> cancelled = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger state = new AtomicInteger(IDLE);
+    private final AtomicLong pendingTasks = new AtomicLong();
+    private final CountDownLatch terminated = new CountDownLatch(1);
+    private final Counter pending;
+    private final Timer lag;
+
+    @Nullable
+    private volatile Thread worker;
+
+    // Only accessed by the worker thread, which hands over to its successor by updating the state.
+    private long tick;
+
+    HashedWheelScheduler(
+            ThreadFactory threadFactory,
+            Duration tickDuration,
+            int ticksPerWheel,
+            Duration keepAliveTime,
+            TaggedMetricRegistry metrics,
+            String name) {
+        Preconditions.checkArgument(!tickDuration.isNegative() && !tickDuration.isZero(), "tick must be positive");
+        Preconditions.checkArgument(
+                ticksPerWheel > 0 && Integer.bitCount(ticksPerWheel) == 1,
+                "ticksPerWheel must be a power of two",
+                SafeArg.of("ticksPerWheel", ticksPerWheel));
+        this.threadFactory = threadFactory;
+        this.tickNanos = tickDuration.toNanos();
+        this.keepAliveTicks = Math.max(1, keepAliveTime.toNanos() / tickNanos);
+        this.wheel = new Bucket[ticksPerWheel];
+        for (int i = 0; i < ticksPerWheel; i++) {
+            wheel[i] = new Bucket();
+        }
+        this.mask = ticksPerWheel - 1;
+        DialogueSchedulerMetrics schedulerMetrics = DialogueSchedulerMetrics.of(metrics);
+        this.pending = schedulerMetrics.pending(name);
+        this.lag = schedulerMetrics.lag(name);
+    }
+
+    @Override
+    public ScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+        return enqueue(new WheelTask<>(Executors.callable(command, null), deadline(delay, unit), 0));
+    }
+
+    @Override
+    public <V> ScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+        return enqueue(new WheelTask<>(callable, deadline(delay, unit), 0));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period, TimeUnit unit) {
+        Preconditions.checkArgument(period > 0, "period must be positive");
+        return enqueue(new WheelTask<>(
+                Executors.callable(command, null), deadline(initialDelay, unit), unit.toNanos(period)));
+    }
+
+    @Override
+    public ScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay, TimeUnit unit) {
+        Preconditions.checkArgument(delay > 0, "delay must be positive");
+        // Negative periods are relative to the end of the previous execution, matching ScheduledThreadPoolExecutor.
+        return enqueue(new WheelTask<>(
+                Executors.callable(command, null), deadline(initialDelay, unit), -unit.toNanos(delay)));
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        schedule(command, 0, TimeUnit.NANOSECONDS);
+    }
+
+    @Override
+    public void shutdown() {
+        int previous = state.getAndSet(SHUTDOWN);
+        // A running worker cancels the remaining tasks as it exits
+        if (previous != RUNNING) {
+            cancelIncoming();
+            terminated.countDown();
+        }
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        shutdown();
+        Thread current = worker;
+        if (current != null) {
+            current.interrupt();
+        }
+        return ImmutableList.of();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return state.get() == SHUTDOWN;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return terminated.getCount() == 0;
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return terminated.await(timeout, unit);
+    }
+
+    @VisibleForTesting
+    long pendingTasks() {
+        return pendingTasks.get();
+    }
+
+    private <V> WheelTask<V> enqueue(WheelTask<V> task) {
+        if (state.get() == SHUTDOWN) {
+            throw new RejectedExecutionException("Scheduler has been shut down");
+        }
+        pendingTasks.incrementAndGet();
+        pending.inc();
+        incoming.add(task);
+        int current = state.get();
+        if (current == IDLE && state.compareAndSet(IDLE, RUNNING)) {
+            startWorker();
+        } else if (current == SHUTDOWN) {
+            // Raced with shutdown, which may have already cancelled the incoming tasks
+            task.cancel(false);
+        }
+        return task;
+    }
+
+    private void startWorker() {
+        Thread thread = threadFactory.newThread(new Worker());
+        worker = thread;
+        thread.start();
+    }
+
+    private long deadline(long delay, TimeUnit unit) {
+        return LongMath.saturatedAdd(elapsedNanos(), Math.max(0, unit.toNanos(delay)));
+    }
+
+    private long elapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    private void onRemoved() {
+        pendingTasks.decrementAndGet();
+        pending.dec();
+    }
+
+    private void cancelIncoming() {
+        WheelTask<?> task;
+        while ((task = incoming.poll()) != null) {
+            task.cancel(false);
+            onRemoved();
+        }
+    }
+
+    private final class Worker implements Runnable {
+        @Override
+        public void run() {
+            // Buckets are empty when a new worker starts, so ticks which passed while idle are skipped.
+            tick = elapsedNanos() / tickNanos;
+            long idleTicks = 0;
+            while (waitForNextTick()) {
+                transferIncoming();
+                removeCancelled();
+                expire(wheel[(int) (tick & mask)]);
+                tick++;
+                if (pendingTasks.get() > 0) {
+                    idleTicks = 0;
+                } else if (++idleTicks >= keepAliveTicks && tryIdle()) {
+                    return;
+                }
+            }
+            for (Bucket bucket : wheel) {
+                WheelTask<?> task;
+                while ((task = bucket.head) != null) {
+                    bucket.remove(task);
+                    task.cancel(false);
+                    onRemoved();
+                }
+            }
+            cancelIncoming();
+            terminated.countDown();
+        }
+
+        /** Sleeps until the end of the current tick, returning false once the scheduler has been shut down. */
+        private boolean waitForNextTick() {
+            long endOfTick = (tick + 1) * tickNanos;
+            while (state.get() == RUNNING) {
+                long sleepNanos = endOfTick - elapsedNanos();
+                if (sleepNanos <= 0) {
+                    return true;
+                }
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    // Only expected from shutdownNow, which has already updated the state
+                    log.debug("Scheduler worker interrupted", e);
+                }
+            }
+            return false;
+        }
+
+        private boolean tryIdle() {
+            if (!state.compareAndSet(RUNNING, IDLE)) {
+                return false;
+            }
+            // Tasks scheduled while this worker was running have failed to start a new one, so this worker continues
+            // unless another thread has already started a new worker since the state changed.
+            return incoming.isEmpty() || !state.compareAndSet(IDLE, RUNNING);
+        }
+
+        private void transferIncoming() {
+            for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+                WheelTask<?> task = incoming.poll();
+                if (task == null) {
+                    return;
+                }
+                if (task.isCancelled()) {
+                    onRemoved();
+                    continue;
+                }
+                long deadlineTick = task.deadlineNanos / tickNanos;
+                task.remainingRounds = (deadlineTick - tick) / wheel.length;
+                // Tasks whose deadline has already passed run on the current tick
+                wheel[(int) (Math.max(deadlineTick, tick) & mask)].add(task);
+            }
+        }
+
+        private void removeCancelled() {
+            WheelTask<?> task;
+            while ((task = cancelled.poll()) != null) {
+                Bucket bucket = task.bucket;
+                // Tasks which haven't been placed yet are discarded when they are transferred
+                if (bucket != null) {
+                    bucket.remove(task);
+                    onRemoved();
+                }
+            }
+        }
+
+        private void expire(Bucket bucket) {
+            WheelTask<?> task = bucket.head;
+            while (task != null) {
+                // Running a task may cancel the next one, but only the worker removes tasks from buckets
+                WheelTask<?> next = task.next;
+                if (task.isCancelled()) {
+                    bucket.remove(task);
+                    onRemoved();
+                } else if (task.remainingRounds <= 0) {
+                    bucket.remove(task);
+                    lag.update(Math.max(0, elapsedNanos() - task.deadlineNanos), TimeUnit.NANOSECONDS);
+                    task.run();
+                } else {
+                    task.remainingRounds--;
+                }
+                task = next;
+            }
+        }
+    }
+
+    private static final class Bucket {
+        @Nullable
+        private WheelTask<?> head;
+
+        @Nullable
+        private WheelTask<?> tail;
+
+        void add(WheelTask<?> task) {
+            task.bucket = this;
+            if (tail == null) {
+                head = task;
+            } else {
+                tail.next = task;
+                task.prev = tail;
+            }
+            tail = task;
+        }
+
+        void remove(WheelTask<?> task) {
+            WheelTask<?> prev = task.prev;
+            WheelTask<?> next = task.next;
+            if (prev == null) {
+                head = next;
+            } else {
+                prev.next = next;
+            }
+            if (next == null) {
+                tail = prev;
+            } else {
+                next.prev = prev;
+            }
+            task.prev = null;
+            task.next = null;
+            task.bucket = null;
+        }
+    }
+
+    private final class WheelTask<V> extends FutureTask<V> implements RunnableScheduledFuture<V> {
+        /** Positive for fixed rate tasks, negative for fixed delay tasks, and zero for one-shot tasks. */
+        private final long periodNanos;
+
+        private volatile long deadlineNanos;
+
+        // Only accessed by the worker thread
+        private long remainingRounds;
+
+        @Nullable
+        private Bucket bucket;
+
+        @Nullable
+        private WheelTask<?> prev;
+
+        @Nullable
+        private WheelTask<?> next;
+
+        WheelTask(Callable<V> callable, long deadlineNanos, long periodNanos) {
+            super(callable);
+            this.deadlineNanos = deadlineNanos;
+            this.periodNanos = periodNanos;
+        }
+
+        @Override
+        public boolean isPeriodic() {
+            return periodNanos != 0;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(deadlineNanos - elapsedNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(getDelay(TimeUnit.NANOSECONDS), other.getDelay(TimeUnit.NANOSECONDS));
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean wasCancelled = super.cancel(mayInterruptIfRunning);
+            if (wasCancelled) {
+                cancelled.add(this);
+            }
+            return wasCancelled;
+        }
+
+        /** Only called by the worker thread, once the task has been removed from its bucket. */
+        @Override
+        public void run() {
+            if (!isPeriodic()) {
+                onRemoved();
+                super.run();
+            } else if (runAndReset()) {
+                deadlineNanos = periodNanos > 0 ? deadlineNanos + periodNanos : elapsedNanos() - periodNanos;
+                incoming.add(this);
+            } else {
+                onRemoved();
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.RequestAttachmentKey;
+import javax.annotation.CheckForNull;
+import javax.annotation.Nullable;
+
+/**
+ * Allows a {@link HedgingChannel} to send its hedged attempt to a different host than the first attempt. Node
+ * selection strategies which choose between hosts record the host of the first attempt, and skip it for the hedge.
+ */
+final class HedgeAttachments {
+    private static final RequestAttachmentKey<HedgeState> HEDGE_STATE = RequestAttachmentKey.create(HedgeState.class);
+    private static final RequestAttachmentKey<Boolean> ATTEMPTED = RequestAttachmentKey.create(Boolean.class);
+
+    private HedgeAttachments() {}
+
+    /** Replaces any state from previous attempts of the request, as each retry may be hedged independently. */
+    static HedgeState start(Request request) {
+        HedgeState state = new HedgeState();
+        request.attachments().put(HEDGE_STATE, state);
+        return state;
+    }
+
+    /**
+     * Returns true only the first time the request is executed. Retries reuse the request, and its attachments, so
+     * they must not add to the hedge budget as if they were new requests.
+     */
+    static boolean markAttempted(Request request) {
+        return request.attachments().put(ATTEMPTED, Boolean.TRUE) == null;
+    }
+
+    @CheckForNull
+    static HedgeState get(Request request) {
+        return request.attachments().getOrDefault(HEDGE_STATE, null);
+    }
+
+    static final class HedgeState {
+        @Nullable
+        private volatile Object firstAttemptHost;
+
+        private volatile boolean hedging;
+
+        private HedgeState() {}
+
+        /** Called by node selection once an attempt has been sent to {@code host}. */
+        void onHostSelected(Object host) {
+            if (!hedging) {
+                firstAttemptHost = host;
+            }
+        }
+
+        /** Whether node selection must not send the current attempt to {@code host}. */
+        boolean excludes(Object host) {
+            return hedging && host == firstAttemptHost;
+        }
+
+        /** Whether the first attempt was sent to a host which a hedged attempt can avoid. */
+        boolean canHedge() {
+            return firstAttemptHost != null;
+        }
+
+        void startHedge() {
+            hedging = true;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.codahale.metrics.Meter;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Suppliers;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.dialogue.Endpoint;
+import com.palantir.dialogue.EndpointChannel;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.RequestBody;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.core.HedgeAttachments.HedgeState;
+import com.palantir.dialogue.core.LimitedChannel.LimitEnforcement;
+import com.palantir.dialogue.futures.DialogueFutures;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import com.palantir.tritium.metrics.MetricRegistries;
+import com.palantir.tritium.metrics.registry.SharedTaggedMetricRegistries;
+import java.util.Optional;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * Sends a second, hedged attempt of an idempotent request to a different host once the first attempt has taken
+ * longer than a quantile of the endpoint's recent response times, which cuts the tail latency caused by
+ * occasional slow hosts. The first response wins, and the other attempt is cancelled and its response closed.
+ *
+ * Hedges never amplify load during an outage. They are limited to a fraction of requests by a {@link RetryBudget}
+ * shared by all endpoints of the channel, and bypass the queue: a hedge is only sent if the concurrency limiter of
+ * another host allows it immediately. Hedges require the first attempt to have been sent by a node selection
+ * strategy which balances between hosts, so requests to a single host, sticky requests and requests using
+ * {@code PIN_UNTIL_ERROR} are never hedged.
+ */
+final class HedgingChannel implements EndpointChannel {
+
+    private static final SafeLogger log = SafeLoggerFactory.get(HedgingChannel.class);
+
+    /** Endpoint tag which opts idempotent endpoints into hedging, regardless of client configuration. */
+    static final String HEDGE_TAG = "dialogue-hedge-requests";
+
+    static final double DEFAULT_LATENCY_QUANTILE = 0.95;
+
+    private static final String SCHEDULER_NAME = "dialogue-HedgingChannel-scheduler";
+
+    /*
+     * Shared single thread executor is reused between all hedging channels. Unlike the hashed wheel used for retry
+     * backoff, it runs tasks when they are due, which matters for hedge delays of a few milliseconds.
+     */
+    @SuppressWarnings("deprecation") // Singleton registry for a singleton executor
+    static final Supplier<ScheduledExecutorService> sharedScheduler =
+            Suppliers.memoize(() -> DialogueExecutors.newSharedSingleThreadScheduler(MetricRegistries.instrument(
+                    SharedTaggedMetricRegistries.getSingleton(),
+                    new ThreadFactoryBuilder()
+                            .setNameFormat(SCHEDULER_NAME + "-%d")
+                            .setDaemon(true)
+                            .build(),
+                    SCHEDULER_NAME)));
+
+    private final EndpointChannel delegate;
+    private final LimitedChannel hedgeChannel;
+    private final Endpoint endpoint;
+    private final RetryBudget hedgeBudget;
+    private final DecayingLatencyHistogram latencies;
+    private final ScheduledExecutorService scheduler;
+    private final Ticker ticker;
+    private final Supplier<Meter> hedgeSent;
+    private final Supplier<Meter> hedgeWon;
+    private final Supplier<Meter> hedgeLimited;
+    private final Supplier<Meter> hedgeBudgetExhausted;
+
+    @VisibleForTesting
+    HedgingChannel(
+            EndpointChannel delegate,
+            LimitedChannel hedgeChannel,
+            Endpoint endpoint,
+            RetryBudget hedgeBudget,
+            double latencyQuantile,
+            ScheduledExecutorService scheduler,
+            Ticker ticker,
+            DialogueClientMetrics metrics,
+            String channelName) {
+        this.delegate = delegate;
+        this.hedgeChannel = hedgeChannel;
+        this.endpoint = endpoint;
+        this.hedgeBudget = hedgeBudget;
+        this.latencies = new DecayingLatencyHistogram(latencyQuantile, ticker);
+        this.scheduler = scheduler;
+        this.ticker = ticker;
+        this.hedgeSent = Suppliers.memoize(() -> hedgeMeter(metrics, channelName, "sent"));
+        this.hedgeWon = Suppliers.memoize(() -> hedgeMeter(metrics, channelName, "won"));
+        this.hedgeLimited = Suppliers.memoize(() -> hedgeMeter(metrics, channelName, "limited"));
+        this.hedgeBudgetExhausted = Suppliers.memoize(() -> hedgeMeter(metrics, channelName, "budgetExhausted"));
+    }
+
+    /**
+     * Hedges requests to endpoints tagged with {@link #HEDGE_TAG}, and when configured, to all {@code GET},
+     * {@code HEAD} and {@code OPTIONS} endpoints. Hedged attempts are sent to {@code hedgeChannel} directly, which
+     * must select between hosts.
+     */
+    static EndpointChannel create(
+            Config cf, EndpointChannel delegate, LimitedChannel hedgeChannel, Endpoint endpoint, RetryBudget budget) {
+        if (!isEnabled(cf, endpoint)) {
+            return delegate;
+        }
+        return new HedgingChannel(
+                delegate,
+                hedgeChannel,
+                endpoint,
+                budget,
+                cf.hedgeLatencyQuantile().orElse(DEFAULT_LATENCY_QUANTILE),
+                cf.hedgeScheduler(),
+                cf.ticker(),
+                DialogueClientMetrics.of(cf.clientConf().taggedMetricRegistry()),
+                cf.channelName());
+    }
+
+    /** Creates the budget shared by the hedging channels of all endpoints of a channel. */
+    static RetryBudget createBudget(Config cf) {
+        // A small floor allows clients with little traffic to hedge occasionally.
+        return RetryBudget.create(cf.hedgeRatio(), 1, cf.ticker());
+    }
+
+    private static boolean isEnabled(Config cf, Endpoint endpoint) {
+        if (endpoint.tags().contains(HEDGE_TAG)) {
+            return true;
+        }
+        if (cf.hedgeLatencyQuantile().isEmpty()) {
+            return false;
+        }
+        switch (endpoint.httpMethod()) {
+            case GET:
+            case HEAD:
+            case OPTIONS:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public ListenableFuture<Response> execute(Request request) {
+        // Bodies which can't be written twice are sent without a hedge.
+        if (!request.body().map(RequestBody::repeatable).orElse(true)) {
+            return delegate.execute(request);
+        }
+        if (HedgeAttachments.markAttempted(request)) {
+            hedgeBudget.onFirstAttempt();
+        }
+        long startNanos = ticker.read();
+        long delayNanos = latencies.quantileNanos();
+        if (delayNanos == DecayingLatencyHistogram.UNKNOWN) {
+            ListenableFuture<Response> future = delegate.execute(request);
+            return DialogueFutures.addDirectListener(future, () -> recordLatency(future, startNanos));
+        }
+        HedgeState state = HedgeAttachments.start(request);
+        ListenableFuture<Response> firstAttempt = delegate.execute(request);
+        if (firstAttempt.isDone()) {
+            recordLatency(firstAttempt, startNanos);
+            return firstAttempt;
+        }
+        return new HedgedCall(request, state, startNanos, firstAttempt).schedule(delayNanos);
+    }
+
+    private void recordLatency(ListenableFuture<Response> future, long startNanos) {
+        // Failures such as timeouts and cancellations don't describe how long a response takes.
+        if (succeeded(future)) {
+            latencies.record(ticker.read() - startNanos);
+        }
+    }
+
+    private static boolean succeeded(ListenableFuture<Response> future) {
+        if (!future.isDone() || future.isCancelled()) {
+            return false;
+        }
+        try {
+            Futures.getDone(future);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static Meter hedgeMeter(DialogueClientMetrics metrics, String channelName, String outcome) {
+        return metrics.requestHedge()
+                .channelName(channelName)
+                .outcome(outcome)
+                .build();
+    }
+
+    @Override
+    public String toString() {
+        return "HedgingChannel{delegate=" + delegate + ", endpoint=" + endpoint.serviceName() + '.'
+                + endpoint.endpointName() + ", latencies=" + latencies + '}';
+    }
+
+    private final class HedgedCall implements Runnable {
+        private final Request request;
+        private final HedgeState state;
+        private final long startNanos;
+        private final ListenableFuture<Response> firstAttempt;
+        private final SettableFuture<Response> result = SettableFuture.create();
+
+        @Nullable
+        private volatile ListenableFuture<Response> hedge;
+
+        @Nullable
+        private volatile ScheduledFuture<?> timer;
+
+        HedgedCall(Request request, HedgeState state, long startNanos, ListenableFuture<Response> firstAttempt) {
+            this.request = request;
+            this.state = state;
+            this.startNanos = startNanos;
+            this.firstAttempt = firstAttempt;
+        }
+
+        ListenableFuture<Response> schedule(long delayNanos) {
+            timer = scheduler.schedule(this, delayNanos, TimeUnit.NANOSECONDS);
+            DialogueFutures.addDirectListener(firstAttempt, () -> onAttemptComplete(firstAttempt, false));
+            DialogueFutures.addDirectListener(result, () -> {
+                if (result.isCancelled()) {
+                    cancel(firstAttempt);
+                    cancel(hedge);
+                    cancel(timer);
+                }
+            });
+            return result;
+        }
+
+        /** Sends the hedged attempt, unless the first attempt has completed or can't be hedged. */
+        @Override
+        public void run() {
+            if (result.isDone() || !state.canHedge()) {
+                return;
+            }
+            if (!hedgeBudget.tryAcquireRetry()) {
+                hedgeBudgetExhausted.get().mark();
+                return;
+            }
+            state.startHedge();
+            Optional<ListenableFuture<Response>> maybeHedge =
+                    hedgeChannel.maybeExecute(endpoint, request, LimitEnforcement.DEFAULT_ENABLED);
+            if (maybeHedge.isEmpty()) {
+                hedgeBudget.releaseRetry();
+                hedgeLimited.get().mark();
+                return;
+            }
+            hedgeSent.get().mark();
+            ListenableFuture<Response> attempt = maybeHedge.get();
+            hedge = attempt;
+            // The first attempt may have completed while the hedge was sent, in which case it has already won.
+            if (result.isDone()) {
+                attempt.cancel(false);
+            }
+            DialogueFutures.addDirectListener(attempt, () -> onAttemptComplete(attempt, true));
+            if (log.isDebugEnabled()) {
+                log.debug(
+                        "Hedged a slow request",
+                        SafeArg.of("serviceName", endpoint.serviceName()),
+                        SafeArg.of("endpoint", endpoint.endpointName()),
+                        SafeArg.of("elapsedNanos", ticker.read() - startNanos));
+            }
+        }
+
+        private void onAttemptComplete(ListenableFuture<Response> attempt, boolean isHedge) {
+            ListenableFuture<Response> other = isHedge ? firstAttempt : hedge;
+            // A failed attempt only completes the call if the other attempt won't produce a response.
+            if (!succeeded(attempt) && other != null && !other.isDone()) {
+                return;
+            }
+            if (result.setFuture(attempt)) {
+                cancel(timer);
+                cancel(other);
+                recordLatency(attempt, startNanos);
+                if (isHedge && succeeded(attempt)) {
+                    hedgeWon.get().mark();
+                }
+            } else {
+                closeQuietly(attempt);
+            }
+        }
+
+        private void closeQuietly(ListenableFuture<Response> attempt) {
+            if (succeeded(attempt)) {
+                Futures.getUnchecked(attempt).close();
+            }
+        }
+
+        private void cancel(@Nullable Future<?> future) {
+            if (future != null) {
+                future.cancel(false);
+            }
+        }
+    }
+}
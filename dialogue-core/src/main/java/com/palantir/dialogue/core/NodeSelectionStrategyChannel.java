@@ -29,6 +29,7 @@ import com.palantir.logsafe.SafeArg;
 import com.palantir.logsafe.exceptions.SafeIllegalStateException;
 import com.palantir.logsafe.exceptions.SafeRuntimeException;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.Random;
@@ -49,6 +50,10 @@ final class NodeSelectionStrategyChannel implements LimitedChannel {
     private final TaggedMetricRegistry metrics;
     private final DialogueNodeselectionMetrics nodeSelectionMetrics;
     private final ImmutableList<LimitedChannel> channels;
+    private final ImmutableList<String> hostKeys;
+    private final ImmutableList<Integer> hostIndices;
+    private final BalancedOptions balancedOptions;
+    private final Optional<Duration> slowStart;
 
     @SuppressWarnings("NullAway")
     private final LimitedChannel delegate =
@@ -63,6 +68,35 @@ final class NodeSelectionStrategyChannel implements LimitedChannel {
             Ticker tick,
             TaggedMetricRegistry metrics,
             ImmutableList<LimitedChannel> channels) {
+        this(
+                strategySelector,
+                initialStrategy,
+                null,
+                BalancedOptions.defaults(),
+                Optional.empty(),
+                channelName,
+                random,
+                tick,
+                metrics,
+                channels,
+                RendezvousHashNodeSelectionStrategyChannel.indexHostKeys(channels.size()),
+                BalancedScoreTracker.positionalHostIndices(channels.size()));
+    }
+
+    @VisibleForTesting
+    NodeSelectionStrategyChannel(
+            NodeSelectionStrategyChooser strategySelector,
+            DialogueNodeSelectionStrategy initialStrategy,
+            @Nullable LimitedChannel previousNodeSelectionStrategy,
+            BalancedOptions balancedOptions,
+            Optional<Duration> slowStart,
+            String channelName,
+            Random random,
+            Ticker tick,
+            TaggedMetricRegistry metrics,
+            ImmutableList<LimitedChannel> channels,
+            ImmutableList<String> hostKeys,
+            ImmutableList<Integer> hostIndices) {
         this.strategySelector = strategySelector;
         this.channelName = channelName;
         this.random = random;
@@ -70,10 +104,36 @@ final class NodeSelectionStrategyChannel implements LimitedChannel {
         this.metrics = metrics;
         this.nodeSelectionMetrics = DialogueNodeselectionMetrics.of(metrics);
         this.channels = channels;
-        this.nodeSelectionStrategy.set(createNodeSelectionChannel(null, initialStrategy));
+        this.hostKeys = hostKeys;
+        this.hostIndices = hostIndices;
+        this.balancedOptions = balancedOptions;
+        this.slowStart = slowStart;
+        this.nodeSelectionStrategy.set(createNodeSelectionChannel(previousNodeSelectionStrategy, initialStrategy));
     }
 
     static LimitedChannel create(Config cf, ImmutableList<LimitedChannel> channels) {
+        return create(
+                cf,
+                channels,
+                RendezvousHashNodeSelectionStrategyChannel.indexHostKeys(channels.size()),
+                BalancedScoreTracker.positionalHostIndices(channels.size()),
+                Optional.empty());
+    }
+
+    /**
+     * Creates a node selection channel for updated targets. When the previous channel also selected between
+     * multiple hosts, its strategy (which may have been chosen by the server), pinned host and scores of the host
+     * channels present in both are carried over. This relies on host channels being reused across updates.
+     * {@code hostKeys} identify the host of each channel for the rendezvous hash strategy, see
+     * {@link RendezvousHashNodeSelectionStrategyChannel#hostKey}, and {@code hostIndices} the index their metrics are
+     * tagged with, which host channels retain across updates.
+     */
+    static LimitedChannel create(
+            Config cf,
+            ImmutableList<LimitedChannel> channels,
+            ImmutableList<String> hostKeys,
+            ImmutableList<Integer> hostIndices,
+            Optional<LimitedChannel> previousChannel) {
         if (channels.isEmpty()) {
             if (cf.clientConf().uris().isEmpty()) {
                 // In this case the configuration lists no URIs. The exception should not be retryable
@@ -100,14 +160,40 @@ final class NodeSelectionStrategyChannel implements LimitedChannel {
             return new StickyChannelHandler(new StickyTokenHandler(channels.get(0)));
         }
 
+        if (previousChannel.isPresent() && previousChannel.get() instanceof NodeSelectionStrategyChannel) {
+            NodeSelectionChannel previous = ((NodeSelectionStrategyChannel) previousChannel.get())
+                    .nodeSelectionStrategy
+                    .get();
+            return new NodeSelectionStrategyChannel(
+                    NodeSelectionStrategyChannel::getFirstKnownStrategy,
+                    previous.strategy(),
+                    previous.channel(),
+                    BalancedOptions.from(cf),
+                    cf.slowStart(),
+                    cf.channelName(),
+                    cf.random(),
+                    cf.ticker(),
+                    cf.clientConf().taggedMetricRegistry(),
+                    channels,
+                    hostKeys,
+                    hostIndices);
+        }
+
         return new NodeSelectionStrategyChannel(
                 NodeSelectionStrategyChannel::getFirstKnownStrategy,
-                DialogueNodeSelectionStrategy.of(cf.clientConf().nodeSelectionStrategy()),
+                cf.rendezvousHashNodeSelection()
+                        ? DialogueNodeSelectionStrategy.RENDEZVOUS_HASH
+                        : DialogueNodeSelectionStrategy.of(cf.clientConf().nodeSelectionStrategy()),
+                null,
+                BalancedOptions.from(cf),
+                cf.slowStart(),
                 cf.channelName(),
                 cf.random(),
                 cf.ticker(),
                 cf.clientConf().taggedMetricRegistry(),
-                channels);
+                channels,
+                hostKeys,
+                hostIndices);
     }
 
     @Override
@@ -144,7 +230,9 @@ final class NodeSelectionStrategyChannel implements LimitedChannel {
                                     pinuntilerrorMetrics,
                                     random,
                                     tick,
-                                    channelName))
+                                    channelName,
+                                    slowStart,
+                                    metrics))
                             .build();
                 } else {
                     return channelBuilder
@@ -155,20 +243,46 @@ final class NodeSelectionStrategyChannel implements LimitedChannel {
                                     pinuntilerrorMetrics,
                                     random,
                                     tick,
-                                    channelName))
+                                    channelName,
+                                    slowStart,
+                                    metrics))
                             .build();
                 }
             case BALANCED:
                 // When people ask for 'ROUND_ROBIN', they usually just want something to load balance better.
                 // We used to have a naive RoundRobinChannel, then tried RandomSelection and now use this heuristic:
+                // Scores of hosts which were previously balanced between are retained
                 return channelBuilder
-                        .channel(new BalancedNodeSelectionStrategyChannel(channels, random, tick, metrics, channelName))
+                        .channel(createBalanced(previousNodeSelectionStrategy))
+                        .build();
+            case RENDEZVOUS_HASH:
+                return channelBuilder
+                        .channel(new RendezvousHashNodeSelectionStrategyChannel(
+                                channels,
+                                hostKeys,
+                                createBalanced(previousNodeSelectionStrategy),
+                                metrics,
+                                channelName))
                         .build();
             case UNKNOWN:
         }
         throw new SafeRuntimeException("Unknown NodeSelectionStrategy", SafeArg.of("unknown", strategy));
     }
 
+    /** Requests without an affinity key are balanced by the rendezvous hash strategy, so it also carries scores. */
+    private BalancedNodeSelectionStrategyChannel createBalanced(@Nullable LimitedChannel previous) {
+        Optional<BalancedNodeSelectionStrategyChannel> previousBalanced;
+        if (previous instanceof BalancedNodeSelectionStrategyChannel) {
+            previousBalanced = Optional.of((BalancedNodeSelectionStrategyChannel) previous);
+        } else if (previous instanceof RendezvousHashNodeSelectionStrategyChannel) {
+            previousBalanced = Optional.of(((RendezvousHashNodeSelectionStrategyChannel) previous).keyless());
+        } else {
+            previousBalanced = Optional.empty();
+        }
+        return new BalancedNodeSelectionStrategyChannel(
+                channels, hostIndices, previousBalanced, balancedOptions, random, tick, metrics, channelName);
+    }
+
     @VisibleForTesting
     static Optional<DialogueNodeSelectionStrategy> getFirstKnownStrategy(
             List<DialogueNodeSelectionStrategy> strategies) {
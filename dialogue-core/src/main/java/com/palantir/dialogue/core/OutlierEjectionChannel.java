@@ -0,0 +1,366 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.codahale.metrics.Meter;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.dialogue.Channel;
+import com.palantir.dialogue.Endpoint;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.futures.DialogueFutures;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Ejects a host from node selection after {@link #CONSECUTIVE_FAILURES} consecutive 5xx responses or
+ * {@link IOException IOExceptions}, by refusing requests as if its concurrency limit had been reached. Node selection
+ * strategies already move refused requests to other hosts, so user requests no longer discover that the host is
+ * still failing.
+ *
+ * <p>The host is readmitted once its ejection time has passed, which doubles every time the host is ejected again
+ * within {@link #MAX_EJECTION} of being readmitted. When a probe endpoint is configured, the host is only readmitted
+ * after a probe request to that endpoint succeeds, and a failed probe ejects the host again. Probes bypass the
+ * concurrency limiters and are scheduled on the shared scheduler. At most a fraction of the hosts of a channel are
+ * ejected at once, see {@link Ejections}, so an outage of every host still surfaces to callers rather than
+ * queueing requests indefinitely.
+ *
+ * <p>Sticky requests, which are sent with {@link LimitEnforcement#DANGEROUS_BYPASS_LIMITS}, are never refused.
+ */
+final class OutlierEjectionChannel implements LimitedChannel {
+    private static final SafeLogger log = SafeLoggerFactory.get(OutlierEjectionChannel.class);
+
+    static final int CONSECUTIVE_FAILURES = 5;
+    static final Duration BASE_EJECTION = Duration.ofSeconds(10);
+    static final Duration MAX_EJECTION = Duration.ofMinutes(5);
+    static final Duration PROBE_TIMEOUT = Duration.ofSeconds(5);
+
+    private final LimitedChannel delegate;
+    private final Channel probeChannel;
+    private final Optional<Endpoint> probeEndpoint;
+    private final Ejections ejections;
+    private final ScheduledExecutorService scheduler;
+    private final Ticker ticker;
+    private final String channelName;
+    private final int hostIndex;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+
+    /** Number of ejections since the host was last readmitted for at least {@link #MAX_EJECTION}. */
+    private final AtomicInteger recentEjections = new AtomicInteger();
+
+    private final FutureCallback<Response> observer = new Observer();
+    private final Meter ejectionMeter;
+    private final Meter readmissionMeter;
+    private final Meter probeSuccessMeter;
+    private final Meter probeFailureMeter;
+
+    private volatile boolean ejected;
+
+    private volatile long readmittedNanos;
+
+    @VisibleForTesting
+    OutlierEjectionChannel(
+            LimitedChannel delegate,
+            Channel probeChannel,
+            Optional<Endpoint> probeEndpoint,
+            Ejections ejections,
+            ScheduledExecutorService scheduler,
+            Ticker ticker,
+            TaggedMetricRegistry taggedMetrics,
+            String channelName,
+            int hostIndex) {
+        this.delegate = delegate;
+        this.probeChannel = probeChannel;
+        this.probeEndpoint = probeEndpoint;
+        this.ejections = ejections;
+        this.scheduler = scheduler;
+        this.ticker = ticker;
+        this.channelName = channelName;
+        this.hostIndex = hostIndex;
+        DialogueOutlierejectionMetrics metrics = DialogueOutlierejectionMetrics.of(taggedMetrics);
+        String host = Integer.toString(hostIndex);
+        this.ejectionMeter =
+                metrics.ejection().channelName(channelName).hostIndex(host).build();
+        this.readmissionMeter =
+                metrics.readmission().channelName(channelName).hostIndex(host).build();
+        this.probeSuccessMeter = metrics.probe()
+                .channelName(channelName)
+                .hostIndex(host)
+                .result("success")
+                .build();
+        this.probeFailureMeter = metrics.probe()
+                .channelName(channelName)
+                .hostIndex(host)
+                .result("failure")
+                .build();
+        // Weak gauges ensure the channel can be GCd once its host is removed. Channels which share a name are summed.
+        DialogueInternalWeakReducingGauge.getOrCreate(
+                taggedMetrics,
+                metrics.ejected()
+                        .channelName(channelName)
+                        .hostIndex(host)
+                        .buildMetricName(),
+                channel -> channel.ejected ? 1 : 0,
+                LongStream::sum,
+                this);
+    }
+
+    /**
+     * Wraps the limited channel of a host, where {@code probeChannel} sends requests to the same host without
+     * concurrency limits.
+     */
+    static LimitedChannel create(
+            Config cf, Ejections ejections, LimitedChannel delegate, Channel probeChannel, int hostIndex) {
+        return new OutlierEjectionChannel(
+                delegate,
+                probeChannel,
+                cf.outlierEjectionProbe(),
+                ejections,
+                cf.scheduler(),
+                cf.ticker(),
+                cf.clientConf().taggedMetricRegistry(),
+                cf.channelName(),
+                hostIndex);
+    }
+
+    @Override
+    public Optional<ListenableFuture<Response>> maybeExecute(
+            Endpoint endpoint, Request request, LimitEnforcement limitEnforcement) {
+        if (ejected && limitEnforcement.enforceLimits()) {
+            return Optional.empty();
+        }
+        Optional<ListenableFuture<Response>> maybe = delegate.maybeExecute(endpoint, request, limitEnforcement);
+        if (maybe.isPresent()) {
+            DialogueFutures.addDirectCallback(maybe.get(), observer);
+        }
+        return maybe;
+    }
+
+    /** Whether {@code channel} is an {@link OutlierEjectionChannel} which currently refuses requests. */
+    static boolean isEjected(LimitedChannel channel) {
+        return channel instanceof OutlierEjectionChannel && ((OutlierEjectionChannel) channel).ejected;
+    }
+
+    private void onSuccess() {
+        // Avoids contending on the counter while the host is healthy
+        if (consecutiveFailures.get() != 0) {
+            consecutiveFailures.set(0);
+        }
+    }
+
+    private void onFailure() {
+        if (consecutiveFailures.incrementAndGet() >= CONSECUTIVE_FAILURES && !ejected && ejections.tryEject(this)) {
+            ejected = true;
+            consecutiveFailures.set(0);
+            if (ticker.read() - readmittedNanos > MAX_EJECTION.toNanos()) {
+                recentEjections.set(0);
+            }
+            ejectionMeter.mark();
+            scheduleProbe();
+        }
+    }
+
+    private void scheduleProbe() {
+        int count = recentEjections.incrementAndGet();
+        // Doubles from the base ejection time, the shift is bounded to avoid overflow long after reaching the max
+        long ejectionNanos =
+                Math.min(MAX_EJECTION.toNanos(), BASE_EJECTION.toNanos() << Math.min(count - 1, 10));
+        log.info(
+                "Ejected host",
+                SafeArg.of("channelName", channelName),
+                SafeArg.of("hostIndex", hostIndex),
+                SafeArg.of("ejections", count),
+                SafeArg.of("ejectionMillis", TimeUnit.NANOSECONDS.toMillis(ejectionNanos)));
+        scheduler.schedule(this::probe, ejectionNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private void probe() {
+        if (!ejections.isEjected(this)) {
+            // The host was removed from the targets while ejected
+            return;
+        }
+        if (probeEndpoint.isEmpty()) {
+            readmit();
+            return;
+        }
+        ListenableFuture<Response> probe;
+        try {
+            probe = Futures.withTimeout(
+                    probeChannel.execute(probeEndpoint.get(), Request.builder().build()),
+                    PROBE_TIMEOUT.toNanos(),
+                    TimeUnit.NANOSECONDS,
+                    scheduler);
+        } catch (RuntimeException e) {
+            log.warn("Outlier ejection probe threw", SafeArg.of("channelName", channelName), e);
+            probeFailed();
+            return;
+        }
+        DialogueFutures.addDirectCallback(probe, new FutureCallback<>() {
+            @Override
+            public void onSuccess(Response response) {
+                boolean failed = Responses.isServerErrorRange(response);
+                response.close();
+                if (failed) {
+                    log.debug(
+                            "Outlier ejection probe failed",
+                            SafeArg.of("channelName", channelName),
+                            SafeArg.of("hostIndex", hostIndex),
+                            SafeArg.of("status", response.code()));
+                    probeFailed();
+                } else {
+                    probeSuccessMeter.mark();
+                    readmit();
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable throwable) {
+                log.debug(
+                        "Outlier ejection probe failed",
+                        SafeArg.of("channelName", channelName),
+                        SafeArg.of("hostIndex", hostIndex),
+                        throwable);
+                probeFailed();
+            }
+        });
+    }
+
+    private void probeFailed() {
+        probeFailureMeter.mark();
+        scheduleProbe();
+    }
+
+    private void readmit() {
+        readmittedNanos = ticker.read();
+        consecutiveFailures.set(0);
+        ejected = false;
+        ejections.readmit(this);
+        readmissionMeter.mark();
+        log.info(
+                "Readmitted ejected host",
+                SafeArg.of("channelName", channelName),
+                SafeArg.of("hostIndex", hostIndex));
+    }
+
+    @Override
+    public String toString() {
+        return "OutlierEjectionChannel{ejected=" + ejected + ", hostIndex=" + hostIndex + ", delegate=" + delegate
+                + '}';
+    }
+
+    private final class Observer implements FutureCallback<Response> {
+        @Override
+        public void onSuccess(Response response) {
+            if (Responses.isServerErrorRange(response)) {
+                OutlierEjectionChannel.this.onFailure();
+            } else {
+                OutlierEjectionChannel.this.onSuccess();
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {
+            if (isFailure(throwable)) {
+                OutlierEjectionChannel.this.onFailure();
+            }
+        }
+    }
+
+    /**
+     * Requests shed by the endpoint queues of this host, or by a circuit breaker, were never sent, so they say
+     * nothing about the health of the host.
+     */
+    private static boolean isFailure(Throwable throwable) {
+        return throwable instanceof IOException
+                && !(throwable instanceof QueueShedException)
+                && !(throwable instanceof CircuitBreakerOpenException);
+    }
+
+    /**
+     * Tracks the ejected hosts of a channel, which are shared by the host channels of every target update, and
+     * caps the number ejected at once to {@link Config#outlierEjectionMaxFraction} of the current targets.
+     */
+    static final class Ejections {
+        private final double maxFraction;
+        private final Meter limitedMeter;
+
+        @GuardedBy("this")
+        private final Set<LimitedChannel> ejected = new HashSet<>();
+
+        @GuardedBy("this")
+        private int hostCount;
+
+        @VisibleForTesting
+        Ejections(String channelName, double maxFraction, TaggedMetricRegistry taggedMetrics) {
+            this.maxFraction = maxFraction;
+            this.limitedMeter = DialogueOutlierejectionMetrics.of(taggedMetrics).limited(channelName);
+        }
+
+        static Optional<Ejections> create(Config cf) {
+            if (!cf.outlierEjection()) {
+                return Optional.empty();
+            }
+            return Optional.of(new Ejections(
+                    cf.channelName(), cf.outlierEjectionMaxFraction(), cf.clientConf().taggedMetricRegistry()));
+        }
+
+        synchronized void setHostCount(int value) {
+            hostCount = value;
+        }
+
+        /** Stops tracking host channels which have been removed from the targets, along with their probes. */
+        synchronized void removeAll(Collection<LimitedChannel> removed) {
+            ejected.removeAll(removed);
+        }
+
+        synchronized boolean tryEject(LimitedChannel channel) {
+            if (ejected.contains(channel)) {
+                return false;
+            }
+            if (ejected.size() + 1 > hostCount * maxFraction) {
+                limitedMeter.mark();
+                return false;
+            }
+            return ejected.add(channel);
+        }
+
+        synchronized boolean isEjected(LimitedChannel channel) {
+            return ejected.contains(channel);
+        }
+
+        synchronized void readmit(LimitedChannel channel) {
+            ejected.remove(channel);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * A peak-sensitive exponentially weighted moving average of response times. Samples slower than the current average
+ * replace it immediately, so a host which slows down is penalized straight away, while faster samples only pull the
+ * average down gradually. The average also decays towards zero while no samples are recorded, which ensures a host
+ * that was slow in the past is eventually attempted again rather than being starved of the traffic needed to observe
+ * its recovery.
+ */
+final class PeakEwmaLatency {
+
+    private final LongSupplier nanoClock;
+    private final double decayNanos;
+
+    // Written under the monitor, read without it. A reader may observe a new average with the previous timestamp,
+    // which only results in slightly more decay being applied to a single read.
+    private volatile double averageNanos;
+    private volatile long lastUpdateNanos;
+
+    PeakEwmaLatency(LongSupplier nanoClock, Duration decay) {
+        this.nanoClock = nanoClock;
+        this.decayNanos = decay.toNanos();
+        this.lastUpdateNanos = nanoClock.getAsLong();
+    }
+
+    synchronized void update(long latencyNanos) {
+        long now = nanoClock.getAsLong();
+        double current = averageNanos;
+        if (latencyNanos > current) {
+            averageNanos = latencyNanos;
+        } else {
+            double weight = weight(now);
+            averageNanos = current * weight + latencyNanos * (1 - weight);
+        }
+        lastUpdateNanos = now;
+    }
+
+    /** Returns the current average in nanoseconds, or zero if no samples have been recorded recently. */
+    double getNanos() {
+        return averageNanos * weight(nanoClock.getAsLong());
+    }
+
+    private double weight(long now) {
+        // nanoTime values wrap, so only the difference is meaningful
+        long elapsed = Math.max(0, now - lastUpdateNanos);
+        return Math.exp(-elapsed / decayNanos);
+    }
+
+    @Override
+    public String toString() {
+        return "PeakEwmaLatency{averageNanos=" + averageNanos + '}';
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.math.IntMath;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * In-flight accounting for a concurrency limiter which avoids a single contended counter on hosts with many cores.
+ * Permits are leased from the limit in batches of up to {@code maxLeaseSize} into per-thread stripes, and acquired
+ * from and released into the stripe of the current thread, so most acquisitions only update a counter shared with the
+ * few other threads of the same stripe.
+ *
+ * The number of leased permits never exceeds the limit when it is enforced, so there are never more permits in flight
+ * than the limit. However, up to {@code maxLeaseSize} permits per stripe may be idle in other stripes, in which case a
+ * thread which finds no capacity takes an idle permit from another stripe. When the limit decreases below the leased
+ * permits, idle permits are returned rather than used. Batches shrink as the limit is approached,
+ * down to a single permit, and released permits are returned to the limit once a stripe holds more than a batch.
+ */
+final class PermitLeases {
+
+    // Stripe counters are 64 bytes apart to avoid false sharing between stripes
+    private static final int STRIDE = 16;
+    private static final int MAX_STRIPES = 32;
+
+    private final int mask;
+    private final int maxLeaseSize;
+
+    /** Permits taken from the limit, either in flight or idle in a stripe. */
+    private final AtomicInteger leased = new AtomicInteger();
+
+    /** Idle permits of each stripe. */
+    private final AtomicIntegerArray idle;
+
+    @VisibleForTesting
+    PermitLeases(int stripes, int maxLeaseSize) {
+        Preconditions.checkArgument(
+                stripes > 0 && Integer.bitCount(stripes) == 1,
+                "stripes must be a power of two",
+                SafeArg.of("stripes", stripes));
+        Preconditions.checkArgument(
+                maxLeaseSize > 0, "maxLeaseSize must be positive", SafeArg.of("maxLeaseSize", maxLeaseSize));
+        this.mask = stripes - 1;
+        this.maxLeaseSize = maxLeaseSize;
+        this.idle = new AtomicIntegerArray(stripes * STRIDE);
+    }
+
+    /** Creates leases with one stripe per two available processors. */
+    static PermitLeases create(int maxLeaseSize) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        int stripes = Math.min(MAX_STRIPES, IntMath.ceilingPowerOfTwo(Math.max(1, processors / 2)));
+        return new PermitLeases(stripes, maxLeaseSize);
+    }
+
+    /**
+     * Acquires a permit if fewer than {@code limit} are in flight, or regardless of the limit unless
+     * {@code enforceLimit}. Returns an upper bound of the number of permits in flight including this one, or zero if
+     * no permit was acquired.
+     */
+    int tryAcquire(int limit, boolean enforceLimit) {
+        int stripe = stripe();
+        int currentLeased = leased.get();
+        if (currentLeased > limit) {
+            // The limit has decreased, so idle permits of this stripe are returned rather than used
+            returnIdle(stripe);
+        } else if (takeIdle(stripe)) {
+            return currentLeased;
+        }
+        while (true) {
+            int current = leased.get();
+            int headroom = limit - current;
+            if (enforceLimit && headroom < 0) {
+                // The limit has decreased below the leased permits, which may be idle in stripes whose threads
+                // aren't acquiring permits anymore
+                if (reclaimIdle()) {
+                    continue;
+                }
+                return 0;
+            }
+            if (enforceLimit && headroom == 0) {
+                return stealIdle(stripe) ? current : 0;
+            }
+            // Lease a share of the remaining headroom, so that stripes don't hold permits other stripes need
+            int batch = Math.max(1, Math.min(maxLeaseSize, headroom / (mask + 1)));
+            if (leased.compareAndSet(current, current + batch)) {
+                if (batch > 1) {
+                    idle.addAndGet(stripe * STRIDE, batch - 1);
+                }
+                return current + batch;
+            }
+        }
+    }
+
+    /** Releases a permit acquired by {@link #tryAcquire}. */
+    void release(int limit) {
+        if (leased.get() > limit) {
+            leased.decrementAndGet();
+            return;
+        }
+        int index = stripe() * STRIDE;
+        int stripeIdle = idle.incrementAndGet(index);
+        if (stripeIdle > maxLeaseSize) {
+            int surplus = stripeIdle - maxLeaseSize / 2;
+            if (idle.compareAndSet(index, stripeIdle, stripeIdle - surplus)) {
+                leased.addAndGet(-surplus);
+            }
+        }
+    }
+
+    /** Returns the number of permits in flight, which requires reading every stripe. */
+    int inFlight() {
+        int idleTotal = 0;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            idleTotal += idle.get(stripe * STRIDE);
+        }
+        return Math.max(0, leased.get() - idleTotal);
+    }
+
+    private boolean takeIdle(int stripe) {
+        int index = stripe * STRIDE;
+        while (true) {
+            int current = idle.get(index);
+            if (current <= 0) {
+                return false;
+            }
+            if (idle.compareAndSet(index, current, current - 1)) {
+                return true;
+            }
+        }
+    }
+
+    private boolean stealIdle(int stripe) {
+        for (int i = 1; i <= mask; i++) {
+            if (takeIdle((stripe + i) & mask)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean reclaimIdle() {
+        boolean reclaimed = false;
+        for (int stripe = 0; stripe <= mask; stripe++) {
+            reclaimed |= returnIdle(stripe);
+        }
+        return reclaimed;
+    }
+
+    private boolean returnIdle(int stripe) {
+        int returned = idle.getAndSet(stripe * STRIDE, 0);
+        if (returned > 0) {
+            leased.addAndGet(-returned);
+            return true;
+        }
+        return false;
+    }
+
+    private int stripe() {
+        // Spreads the identity hash, which is stable for the lifetime of the thread and cheap after the first call
+        int hash = System.identityHashCode(Thread.currentThread()) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    @Override
+    public String toString() {
+        return "PermitLeases{stripes=" + (mask + 1) + ", maxLeaseSize=" + maxLeaseSize + ", leased=" + leased + '}';
+    }
+}
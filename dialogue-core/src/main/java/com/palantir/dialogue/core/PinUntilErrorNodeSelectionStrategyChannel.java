@@ -31,6 +31,8 @@ import com.palantir.logsafe.UnsafeArg;
 import com.palantir.logsafe.exceptions.SafeIllegalArgumentException;
 import com.palantir.logsafe.logger.SafeLogger;
 import com.palantir.logsafe.logger.SafeLoggerFactory;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -40,6 +42,7 @@ import java.util.OptionalInt;
 import java.util.Random;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.IntStream;
 import javax.annotation.Nullable;
 import org.immutables.value.Value;
@@ -55,7 +58,8 @@ import org.immutables.value.Value;
  *     <li>when a node is restarted (and clients see 500s/connect exceptions), they will _all_ pin to a different node
  * </ul>
  *
- * To alleviate the second downside, we reshuffle all nodes every 10 minutes.
+ * To alleviate the second downside, we reshuffle all nodes every 10 minutes. When slow start is enabled, a reshuffle
+ * which pins a different node moves requests over gradually, see {@link SlowStartPins}.
  */
 final class PinUntilErrorNodeSelectionStrategyChannel implements LimitedChannel {
     private static final SafeLogger log = SafeLoggerFactory.get(PinUntilErrorNodeSelectionStrategyChannel.class);
@@ -67,12 +71,26 @@ final class PinUntilErrorNodeSelectionStrategyChannel implements LimitedChannel
     private final NodeList nodeList;
     private final Instrumentation instrumentation;
 
+    @Nullable
+    private final SlowStartPins slowStartPins;
+
     @VisibleForTesting
     PinUntilErrorNodeSelectionStrategyChannel(
             NodeList nodeList, int initialPin, DialoguePinuntilerrorMetrics metrics, String channelName) {
+        this(nodeList, initialPin, metrics, channelName, null);
+    }
+
+    @VisibleForTesting
+    PinUntilErrorNodeSelectionStrategyChannel(
+            NodeList nodeList,
+            int initialPin,
+            DialoguePinuntilerrorMetrics metrics,
+            String channelName,
+            @Nullable SlowStartPins slowStartPins) {
         this.nodeList = nodeList;
         this.currentPin = new AtomicInteger(initialPin);
         this.instrumentation = new Instrumentation(nodeList.size(), metrics, channelName);
+        this.slowStartPins = slowStartPins;
         if (nodeList.size() < 2) {
             throw new SafeIllegalArgumentException("PinUntilError is pointless if you have zero or 1 channels."
                     + " Use an always throwing channel or just pick the only channel in the list.");
@@ -91,6 +109,28 @@ final class PinUntilErrorNodeSelectionStrategyChannel implements LimitedChannel
             Random random,
             Ticker ticker,
             String channelName) {
+        return of(
+                initialChannel,
+                strategy,
+                channels,
+                metrics,
+                random,
+                ticker,
+                channelName,
+                Optional.empty(),
+                new DefaultTaggedMetricRegistry());
+    }
+
+    static PinUntilErrorNodeSelectionStrategyChannel of(
+            Optional<LimitedChannel> initialChannel,
+            DialogueNodeSelectionStrategy strategy,
+            List<LimitedChannel> channels,
+            DialoguePinuntilerrorMetrics metrics,
+            Random random,
+            Ticker ticker,
+            String channelName,
+            Optional<Duration> slowStart,
+            TaggedMetricRegistry taggedMetrics) {
         // We preserve the 'stableIndex' so that calls can be attributed to one host even across reshuffles
         List<PinChannel> pinChannels = IntStream.range(0, channels.size())
                 .mapToObj(index -> ImmutablePinChannel.builder()
@@ -113,7 +153,18 @@ final class PinUntilErrorNodeSelectionStrategyChannel implements LimitedChannel
 
         if (strategy == DialogueNodeSelectionStrategy.PIN_UNTIL_ERROR) {
             NodeList shuffling = ReshufflingNodeList.of(initialShuffle, random, ticker, metrics, channelName);
-            return new PinUntilErrorNodeSelectionStrategyChannel(shuffling, initialPin, metrics, channelName);
+            // Only reshuffles pin a different node without an error, so only they are ramped
+            SlowStartPins slowStartPins = slowStart
+                    .map(window -> new SlowStartPins(
+                            initialShuffle.get(initialPin),
+                            channels.size(),
+                            ticker,
+                            window,
+                            taggedMetrics,
+                            channelName))
+                    .orElse(null);
+            return new PinUntilErrorNodeSelectionStrategyChannel(
+                    shuffling, initialPin, metrics, channelName, slowStartPins);
         } else if (strategy == DialogueNodeSelectionStrategy.PIN_UNTIL_ERROR_WITHOUT_RESHUFFLE) {
             NodeList constant = new ConstantNodeList(initialShuffle);
             return new PinUntilErrorNodeSelectionStrategyChannel(constant, initialPin, metrics, channelName);
@@ -132,24 +183,31 @@ final class PinUntilErrorNodeSelectionStrategyChannel implements LimitedChannel
         int pin = currentPin.get();
         PinChannel channel = nodeList.get(pin);
 
+        if (slowStartPins != null) {
+            Optional<ListenableFuture<Response>> maybePrevious =
+                    slowStartPins.maybeExecuteOnPrevious(channel, endpoint, request, limitEnforcement);
+            if (maybePrevious.isPresent()) {
+                return maybePrevious;
+            }
+        }
+
         // n.b. StickyAttachments.maybeExecute uses the delegate PinChannel, which bypasses the FutureCallback
         // instrumentation below on subsequent "sticky" requests.
         Optional<ListenableFuture<Response>> maybeResponse =
                 StickyAttachments.maybeAddStickyToken(channel, endpoint, request, limitEnforcement);
         if (!maybeResponse.isPresent()) {
+            // Unlike a concurrency limit, an ejection lasts long after the requests in flight complete
+            if (OutlierEjectionChannel.isEjected(channel.delegate())) {
+                OptionalInt next = incrementHostIfNecessary(pin);
+                instrumentation.ejected(pin, channel, next);
+            }
             return Optional.empty();
         }
 
         DialogueFutures.addDirectCallback(maybeResponse.get(), new FutureCallback<>() {
             @Override
             public void onSuccess(Response response) {
-                // We specifically don't switch  429 responses to support transactional
-                // workflows where it is important for a large number of requests to all land on the same node,
-                // even if a couple of them get rate limited in the middle.
-                if (Responses.isServerErrorRange(response)
-                        || (Responses.isQosStatus(response)
-                                && !Responses.isQosDueToCustom(response)
-                                && !Responses.isTooManyRequests(response))) {
+                if (isError(response)) {
                     OptionalInt next = incrementHostIfNecessary(pin);
                     instrumentation.receivedErrorStatus(pin, channel, response, next);
                 } else {
@@ -166,6 +224,17 @@ final class PinUntilErrorNodeSelectionStrategyChannel implements LimitedChannel
         return maybeResponse;
     }
 
+    /**
+     * We specifically don't switch on 429 responses to support transactional workflows where it is important for a
+     * large number of requests to all land on the same node, even if a couple of them get rate limited in the middle.
+     */
+    private static boolean isError(Response response) {
+        return Responses.isServerErrorRange(response)
+                || (Responses.isQosStatus(response)
+                        && !Responses.isQosDueToCustom(response)
+                        && !Responses.isTooManyRequests(response));
+    }
+
     /**
      * If we have some reason to think the currentIndex is bad, we want to move to the next host. This is done with a
      * compareAndSet to ensure that out of order responses which signal information about a previous host don't kick
@@ -174,6 +243,9 @@ final class PinUntilErrorNodeSelectionStrategyChannel implements LimitedChannel
     private OptionalInt incrementHostIfNecessary(int pin) {
         int nextIndex = (pin + 1) % nodeList.size();
         boolean saved = currentPin.compareAndSet(pin, nextIndex);
+        if (saved && slowStartPins != null) {
+            slowStartPins.onError();
+        }
         return saved ? OptionalInt.of(nextIndex) : OptionalInt.empty(); // we've moved on already
     }
 
@@ -296,6 +368,127 @@ final class PinUntilErrorNodeSelectionStrategyChannel implements LimitedChannel
         }
     }
 
+    /**
+     * Ramps requests over from the previously pinned node when a reshuffle pins a different node, which may not have
+     * received requests from this client for a long time. Requests are sent to the newly pinned node in proportion to
+     * its {@link SlowStart} weight, and the rest continue to be sent to the previous node until the window has passed.
+     * The ramp ends early if the previous node fails, whereas nodes pinned after an error are never ramped because
+     * the previous node is likely unhealthy.
+     */
+    @VisibleForTesting
+    static final class SlowStartPins {
+        private final SlowStart[] slowStartsByStableIndex;
+        private final AtomicReference<PinState> state;
+        private final AtomicLong requests = new AtomicLong();
+
+        SlowStartPins(
+                PinChannel initialPin,
+                int size,
+                Ticker ticker,
+                Duration window,
+                TaggedMetricRegistry taggedMetrics,
+                String channelName) {
+            this.slowStartsByStableIndex = new SlowStart[size];
+            for (int stableIndex = 0; stableIndex < size; stableIndex++) {
+                SlowStart slowStart = new SlowStart(ticker, window);
+                if (size <= 10) {
+                    slowStart.registerGauge(taggedMetrics, channelName, stableIndex);
+                }
+                slowStartsByStableIndex[stableIndex] = slowStart;
+            }
+            this.state = new AtomicReference<>(new PinState(initialPin, null));
+        }
+
+        /** Sends the request to the previously pinned node if the pinned node is ramping up, and it is its turn. */
+        Optional<ListenableFuture<Response>> maybeExecuteOnPrevious(
+                PinChannel pinned, Endpoint endpoint, Request request, LimitEnforcement limitEnforcement) {
+            PinState current = state.get();
+            if (current.pinned != pinned) {
+                current = onPinChanged(current, pinned);
+            }
+            PinChannel previous = current.previous;
+            if (previous == null) {
+                return Optional.empty();
+            }
+            double weight = slowStartsByStableIndex[pinned.stableIndex()].weight();
+            if (weight >= 1) {
+                state.compareAndSet(current, new PinState(pinned, null));
+                return Optional.empty();
+            }
+            // Spreads the requests to the pinned node evenly, rather than sending them in bursts
+            long turn = requests.getAndIncrement();
+            if ((long) ((turn + 1) * weight) > (long) (turn * weight)) {
+                return Optional.empty();
+            }
+            Optional<ListenableFuture<Response>> maybe =
+                    StickyAttachments.maybeAddStickyToken(previous, endpoint, request, limitEnforcement);
+            if (maybe.isPresent()) {
+                PinState ramping = current;
+                DialogueFutures.addDirectCallback(maybe.get(), new FutureCallback<>() {
+                    @Override
+                    public void onSuccess(Response response) {
+                        if (isError(response)) {
+                            state.compareAndSet(ramping, new PinState(ramping.pinned, null));
+                        }
+                    }
+
+                    @Override
+                    public void onFailure(Throwable _throwable) {
+                        state.compareAndSet(ramping, new PinState(ramping.pinned, null));
+                    }
+                });
+            }
+            return maybe;
+        }
+
+        /**
+         * Reshuffles replace the node at the pinned index and errors move the pin to the next node, both are observed
+         * here as a different pinned node. Only changes which weren't preceded by an error are ramped.
+         */
+        private PinState onPinChanged(PinState current, PinChannel pinned) {
+            boolean reshuffled = !current.erroredSince;
+            PinState updated = new PinState(pinned, reshuffled ? current.pinned : null);
+            if (!state.compareAndSet(current, updated)) {
+                return state.get();
+            }
+            if (reshuffled) {
+                slowStartsByStableIndex[pinned.stableIndex()].start();
+            }
+            return updated;
+        }
+
+        /** Marks that the pin is about to move to the next node because the pinned node failed. */
+        void onError() {
+            PinState current = state.get();
+            if (!current.erroredSince) {
+                state.compareAndSet(current, current.withError());
+            }
+        }
+    }
+
+    private static final class PinState {
+        private final PinChannel pinned;
+
+        @Nullable
+        private final PinChannel previous;
+
+        private final boolean erroredSince;
+
+        PinState(PinChannel pinned, @Nullable PinChannel previous) {
+            this(pinned, previous, false);
+        }
+
+        private PinState(PinChannel pinned, @Nullable PinChannel previous, boolean erroredSince) {
+            this.pinned = pinned;
+            this.previous = previous;
+            this.erroredSince = erroredSince;
+        }
+
+        PinState withError() {
+            return new PinState(pinned, null, true);
+        }
+    }
+
     /** Returns a new shuffled list, without mutating the input list (which may be immutable). */
     private static <T> ImmutableList<T> shuffleImmutableList(List<T> sourceList, Random random) {
         List<T> mutableList = new ArrayList<>(sourceList);
@@ -311,6 +504,7 @@ final class PinUntilErrorNodeSelectionStrategyChannel implements LimitedChannel
         private final Meter reshuffleMeter;
         private final Meter nextNodeBecauseResponseCode;
         private final Meter nextNodeBecauseThrowable;
+        private final Meter nextNodeBecauseEjected;
         private final String channelName;
         private final int numChannels;
 
@@ -326,6 +520,10 @@ final class PinUntilErrorNodeSelectionStrategyChannel implements LimitedChannel
                     .channelName(channelName)
                     .reason("throwable")
                     .build();
+            this.nextNodeBecauseEjected = metrics.nextNode()
+                    .channelName(channelName)
+                    .reason("ejected")
+                    .build();
 
             if (numChannels < 10) {
                 // hard limit ensures we don't create unbounded tags
@@ -407,6 +605,20 @@ final class PinUntilErrorNodeSelectionStrategyChannel implements LimitedChannel
             }
         }
 
+        private void ejected(int pin, PinChannel channel, OptionalInt next) {
+            if (next.isPresent()) {
+                nextNodeBecauseEjected.mark();
+                log.info(
+                        "Pinned channel is ejected, switching to next channel",
+                        SafeArg.of("stableIndex", channel.stableIndex()),
+                        SafeArg.of("pin", pin),
+                        UnsafeArg.of("channel", channel),
+                        SafeArg.of("nextIndex", next.getAsInt()),
+                        SafeArg.of("channelName", channelName),
+                        SafeArg.of("numChannels", numChannels));
+            }
+        }
+
         private void successfulResponse(int currentIndex) {
             if (successesPerHost != null) {
                 successesPerHost[currentIndex].mark();
@@ -0,0 +1,182 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.palantir.dialogue.RequestPriority;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+import java.util.Deque;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import javax.annotation.Nullable;
+
+/**
+ * Unbounded concurrent deque of queued calls, ordered by a {@link QueueDiscipline}. Values of each
+ * {@link RequestPriority} are held in their own deque and are always polled in order within it, the discipline only
+ * decides which deque is polled next. With {@link QueueDiscipline#FIFO} all priorities share a single deque.
+ */
+final class PriorityDeque<T> {
+
+    // Smooth weighted round-robin order of the priority weights, which interleaves priorities rather than serving
+    // each in bursts.
+    @VisibleForTesting
+    static final ImmutableList<RequestPriority> WEIGHTED_ORDER = weightedOrder();
+
+    private final QueueDiscipline discipline;
+    private final Function<? super T, RequestPriority> priority;
+    private final ImmutableList<Deque<T>> deques;
+    // Position in WEIGHTED_ORDER, only advanced when a polled value is executed, so that attempts which are rejected
+    // by the limiter and offered back don't skip a priority's turn.
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    PriorityDeque(QueueDiscipline discipline, Function<? super T, RequestPriority> priority) {
+        this.discipline = discipline;
+        this.priority = priority;
+        int numDeques = discipline == QueueDiscipline.FIFO ? 1 : RequestPriority.values().length;
+        ImmutableList.Builder<Deque<T>> builder = ImmutableList.builderWithExpectedSize(numDeques);
+        for (int i = 0; i < numDeques; i++) {
+            // Do _not_ call size on a ConcurrentLinkedDeque. Unlike other collections, size is an O(n) operation.
+            builder.add(new ProtectedConcurrentLinkedDeque<>());
+        }
+        this.deques = builder.build();
+    }
+
+    /** Adds a value to the tail of its priority's deque. */
+    boolean offer(T value) {
+        return deque(value).offerLast(value);
+    }
+
+    /** Adds a value to the head of its priority's deque, used to retain the position of values which are polled. */
+    boolean offerFirst(T value) {
+        return deque(value).offerFirst(value);
+    }
+
+    /** Removes the next value according to the discipline, or returns null when every deque is empty. */
+    @Nullable
+    T poll() {
+        switch (discipline) {
+            case FIFO:
+                return deques.get(0).poll();
+            case STRICT_PRIORITY:
+                return pollInPriorityOrder(-1);
+            case WEIGHTED_FAIR:
+                return pollWeighted();
+        }
+        throw new SafeIllegalStateException("Unknown queue discipline", SafeArg.of("discipline", discipline));
+    }
+
+    /** Records that the last value returned by {@link #poll} was executed rather than offered back. */
+    void onExecuted() {
+        if (discipline == QueueDiscipline.WEIGHTED_FAIR) {
+            cursor.incrementAndGet();
+        }
+    }
+
+    /** Number of deques which can be inspected using {@link #pollLast(int)}. */
+    int numDeques() {
+        return deques.size();
+    }
+
+    /** Removes the newest value of the given deque, or returns null when it is empty. */
+    @Nullable
+    T pollLast(int dequeIndex) {
+        return deques.get(dequeIndex).pollLast();
+    }
+
+    boolean isEmpty() {
+        for (int i = 0; i < deques.size(); i++) {
+            if (!deques.get(i).isEmpty()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Nullable
+    private T pollWeighted() {
+        int preferred = WEIGHTED_ORDER
+                .get(Math.floorMod(cursor.get(), WEIGHTED_ORDER.size()))
+                .ordinal();
+        T value = deques.get(preferred).poll();
+        // Work conserving, the turn of an empty priority goes to the highest priority with queued values.
+        return value != null ? value : pollInPriorityOrder(preferred);
+    }
+
+    @Nullable
+    private T pollInPriorityOrder(int skipIndex) {
+        for (int i = 0; i < deques.size(); i++) {
+            if (i != skipIndex) {
+                T value = deques.get(i).poll();
+                if (value != null) {
+                    return value;
+                }
+            }
+        }
+        return null;
+    }
+
+    private Deque<T> deque(T value) {
+        return deques.size() == 1 ? deques.get(0) : deques.get(priority.apply(value).ordinal());
+    }
+
+    private static int weight(RequestPriority priority) {
+        switch (priority) {
+            case INTERACTIVE:
+                return 4;
+            case DEFAULT:
+                return 2;
+            case BATCH:
+                return 1;
+        }
+        throw new SafeIllegalStateException("Unknown request priority", SafeArg.of("priority", priority));
+    }
+
+    private static ImmutableList<RequestPriority> weightedOrder() {
+        RequestPriority[] priorities = RequestPriority.values();
+        int totalWeight = 0;
+        for (RequestPriority value : priorities) {
+            totalWeight += weight(value);
+        }
+        int[] current = new int[priorities.length];
+        ImmutableList.Builder<RequestPriority> order = ImmutableList.builderWithExpectedSize(totalWeight);
+        for (int turn = 0; turn < totalWeight; turn++) {
+            int selected = 0;
+            for (int i = 0; i < priorities.length; i++) {
+                current[i] += weight(priorities[i]);
+            }
+            for (int i = 1; i < priorities.length; i++) {
+                if (current[i] > current[selected]) {
+                    selected = i;
+                }
+            }
+            current[selected] -= totalWeight;
+            order.add(priorities[selected]);
+        }
+        return order.build();
+    }
+
+    private static final class ProtectedConcurrentLinkedDeque<T> extends ConcurrentLinkedDeque<T> {
+
+        @Override
+        public int size() {
+            throw new UnsupportedOperationException("size should never be called on a ConcurrentLinkedDeque");
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.palantir.dialogue.RequestPriority;
+
+/** Orders requests queued by a {@link DialogueChannel} while concurrency limits are saturated. */
+public enum QueueDiscipline {
+    /** Requests are attempted in the order they were queued, regardless of their {@link RequestPriority}. */
+    FIFO,
+
+    /**
+     * Requests of a higher {@link RequestPriority} are always attempted before requests of a lower priority, which
+     * are starved for as long as higher priority requests are queued.
+     */
+    STRICT_PRIORITY,
+
+    /**
+     * Capacity is shared between priorities in proportion to their weights, 4 for {@link RequestPriority#INTERACTIVE},
+     * 2 for {@link RequestPriority#DEFAULT} and 1 for {@link RequestPriority#BATCH}. Capacity which isn't used by a
+     * priority is shared by the others, so no priority is starved.
+     */
+    WEIGHTED_FAIR;
+}
@@ -0,0 +1,73 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.time.Duration;
+import java.util.Optional;
+import org.immutables.value.Value;
+
+/** Opt-in behaviours of the {@link QueuedChannel}, configured on {@link DialogueChannel}. */
+@Value.Immutable
+interface QueueOptions {
+
+    /** See {@link DialogueChannel.Builder#singleDrainerQueues}. */
+    @Value.Default
+    default boolean singleDrainer() {
+        return false;
+    }
+
+    /** See {@link DialogueChannel.Builder#targetQueueTime}. */
+    Optional<Duration> targetQueueTime();
+
+    /** See {@link DialogueChannel.Builder#lifoQueueUnderOverload}. */
+    @Value.Default
+    default boolean lifoUnderOverload() {
+        return false;
+    }
+
+    /** See {@link DialogueChannel.Builder#queueDiscipline}. */
+    @Value.Default
+    default QueueDiscipline discipline() {
+        return QueueDiscipline.FIFO;
+    }
+
+    @Value.Default
+    default Ticker ticker() {
+        return Ticker.systemTicker();
+    }
+
+    static QueueOptions defaults() {
+        return builder().build();
+    }
+
+    static QueueOptions from(Config cf) {
+        return builder()
+                .singleDrainer(cf.singleDrainerQueues())
+                .targetQueueTime(cf.targetQueueTime())
+                .lifoUnderOverload(cf.lifoQueueUnderOverload())
+                .discipline(cf.queueDiscipline())
+                .ticker(cf.ticker())
+                .build();
+    }
+
+    class Builder extends ImmutableQueueOptions.Builder {}
+
+    static Builder builder() {
+        return new Builder();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.palantir.logsafe.Arg;
+import com.palantir.logsafe.Safe;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.SafeLoggable;
+import com.palantir.logsafe.exceptions.SafeExceptions;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Fails a request which the {@link QueuedChannel} dropped before it was executed. Requests shed because the queue is
+ * overloaded are safe to retry, because they were never sent. Requests shed because their deadline passed are not.
+ */
+final class QueueShedException extends IOException implements SafeLoggable {
+    private static final String MESSAGE = "Request was shed from the queue before execution";
+
+    private final Reason reason;
+    private final List<Arg<?>> arguments;
+
+    QueueShedException(Reason reason, @Safe String channelName, long queuedNanos) {
+        this(reason, List.of(
+                SafeArg.of("reason", reason.tag()),
+                SafeArg.of("channelName", channelName),
+                SafeArg.of("queuedMillis", queuedNanos / 1_000_000)));
+    }
+
+    private QueueShedException(Reason reason, List<Arg<?>> arguments) {
+        super(SafeExceptions.renderMessage(MESSAGE, arguments.toArray(new Arg<?>[0])));
+        this.reason = reason;
+        this.arguments = arguments;
+    }
+
+    Reason reason() {
+        return reason;
+    }
+
+    boolean isRetryable() {
+        return reason.retryable;
+    }
+
+    @Override
+    public @Safe String getLogMessage() {
+        return MESSAGE;
+    }
+
+    @Override
+    public List<Arg<?>> getArgs() {
+        return arguments;
+    }
+
+    enum Reason {
+        /** The queue has been above its target queue time for longer than the overload interval. */
+        QUEUE_TIME("queueTime", true),
+        /** The request deadline set using {@link com.palantir.dialogue.RequestDeadlines} has passed. */
+        DEADLINE("deadline", false);
+
+        private final String tag;
+        private final boolean retryable;
+
+        Reason(String tag, boolean retryable) {
+            this.tag = tag;
+            this.retryable = retryable;
+        }
+
+        @Safe
+        String tag() {
+            return tag;
+        }
+    }
+}
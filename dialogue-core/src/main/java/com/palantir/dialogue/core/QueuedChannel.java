@@ -17,8 +17,11 @@
 package com.palantir.dialogue.core;
 
 import com.codahale.metrics.Counter;
+import com.codahale.metrics.Meter;
 import com.codahale.metrics.Timer;
+import com.github.benmanes.caffeine.cache.Ticker;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ascii;
 import com.google.common.base.Suppliers;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
@@ -27,6 +30,8 @@ import com.google.common.util.concurrent.SettableFuture;
 import com.palantir.dialogue.Channel;
 import com.palantir.dialogue.Endpoint;
 import com.palantir.dialogue.Request;
+import com.palantir.dialogue.RequestDeadlines;
+import com.palantir.dialogue.RequestPriority;
 import com.palantir.dialogue.Response;
 import com.palantir.dialogue.core.LimitedChannel.LimitEnforcement;
 import com.palantir.dialogue.futures.DialogueFutures;
@@ -38,13 +43,16 @@ import com.palantir.logsafe.logger.SafeLoggerFactory;
 import com.palantir.tracing.CloseableSpan;
 import com.palantir.tracing.DetachedSpan;
 import com.palantir.tracing.TagTranslator;
-import java.util.Deque;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.concurrent.CancellationException;
-import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
+import javax.annotation.Nullable;
 import org.immutables.value.Value;
 
 /**
@@ -62,12 +70,31 @@ import org.immutables.value.Value;
  *     <li>Schedule in a spin loop: this would allow us to schedule without delay, but requires a thread constantly
  *     doing work, much of which will be wasted</li>
  * </ul>
+ *
+ * By default every thread which triggers the schedule loop drains the queue, so under saturation many threads
+ * contend on the head of the queue and attempt requests the delegate will reject. With {@code singleDrainer}, a
+ * work-in-progress counter elects one thread to drain at a time, other threads increment the counter to signal that
+ * the drainer must make another pass before it releases ownership. Queued requests are attempted in the same order
+ * in both modes.
+ *
+ * With a {@code targetQueueTime}, queue time is managed in the style of CoDel: once the request at the head of the
+ * queue has waited longer than the target for an entire {@link #OVERLOAD_INTERVAL}, the queue is overloaded and
+ * requests which have waited longer than the target are shed with a retryable {@link QueueShedException} rather than
+ * sent long after their callers have given up. Optionally, an overloaded queue serves the newest requests first, and
+ * sheds the oldest. Requests are always shed when their {@link com.palantir.dialogue.RequestDeadlines deadline}
+ * passes while queued.
+ *
+ * With a {@link QueueDiscipline} other than {@link QueueDiscipline#FIFO}, each {@link RequestPriority} is queued
+ * separately, and the discipline decides which priority is attempted when capacity becomes available. Queue size and
+ * queue time are additionally reported per priority.
  */
 final class QueuedChannel implements Channel {
     private static final SafeLogger log = SafeLoggerFactory.get(QueuedChannel.class);
     private static final LimitEnforcement DO_NOT_SKIP_LIMITS = LimitEnforcement.DEFAULT_ENABLED;
+    // Matches the CoDel default interval, long enough to ride out bursts which drain within a round trip.
+    private static final long OVERLOAD_INTERVAL = Duration.ofMillis(100).toNanos();
 
-    private final Deque<DeferredCall> queuedCalls;
+    private final PriorityDeque<DeferredCall> queuedCalls;
     private final NeverThrowLimitedChannel delegate;
 
     @Safe
@@ -77,9 +104,23 @@ final class QueuedChannel implements Channel {
     private final String queueType;
     // Tracks requests that are current executing in delegate and are not tracked in queuedCalls
     private final AtomicInteger queueSizeEstimate = new AtomicInteger(0);
+    // Number of schedule requests since the current drainer took ownership, only used with singleDrainer.
+    private final AtomicInteger drainRequests = new AtomicInteger(0);
+    private final boolean singleDrainer;
+    private final long targetQueueNanos;
+    private final boolean lifoUnderOverload;
+    private final Ticker ticker;
+    private final boolean prioritized;
+    private final QueuedChannelInstrumentation metrics;
+    // Ticker value after which the queue is overloaded if the queue time stays above the target, or zero.
+    private volatile long overloadedAfterNanos;
+    private volatile boolean overloaded;
     private final int maxQueueSize;
     private final Supplier<Counter> queueSizeCounter;
     private final Timer queuedTime;
+    // Only populated when prioritized
+    private final Map<RequestPriority, Supplier<Counter>> priorityQueueSizeCounters;
+    private final Map<RequestPriority, Supplier<Timer>> priorityQueuedTimes;
     private final Supplier<ListenableFuture<Response>> limitedResultSupplier;
     // Metrics aren't reported until the queue is first used, allowing per-endpoint queues to
     // avoid creating unnecessary data.
@@ -91,16 +132,39 @@ final class QueuedChannel implements Channel {
             @Safe String queueType,
             QueuedChannelInstrumentation metrics,
             int maxQueueSize) {
+        this(delegate, channelName, queueType, metrics, maxQueueSize, QueueOptions.defaults());
+    }
+
+    QueuedChannel(
+            LimitedChannel delegate,
+            @Safe String channelName,
+            @Safe String queueType,
+            QueuedChannelInstrumentation metrics,
+            int maxQueueSize,
+            QueueOptions options) {
         this.delegate = new NeverThrowLimitedChannel(delegate);
         this.channelName = channelName;
         this.queueType = queueType;
-        // Do _not_ call size on a ConcurrentLinkedDeque. Unlike other collections, size is an O(n) operation.
-        this.queuedCalls = new ProtectedConcurrentLinkedDeque<>();
+        this.queuedCalls = new PriorityDeque<>(options.discipline(), DeferredCall::priority);
         this.maxQueueSize = maxQueueSize;
+        this.singleDrainer = options.singleDrainer();
+        this.targetQueueNanos = options.targetQueueTime().map(Duration::toNanos).orElse(0L);
+        this.lifoUnderOverload = options.lifoUnderOverload();
+        this.ticker = options.ticker();
+        this.prioritized = options.discipline() != QueueDiscipline.FIFO;
+        this.metrics = metrics;
         // Lazily create the counter. Unlike meters, timers, and histograms, counters cannot be ignored when they have
         // zero interactions because they support both increment and decrement operations.
         this.queueSizeCounter = Suppliers.memoize(metrics::requestsQueued);
         this.queuedTime = metrics.requestQueuedTime();
+        this.priorityQueueSizeCounters = new EnumMap<>(RequestPriority.class);
+        this.priorityQueuedTimes = new EnumMap<>(RequestPriority.class);
+        if (prioritized) {
+            for (RequestPriority priority : RequestPriority.values()) {
+                priorityQueueSizeCounters.put(priority, Suppliers.memoize(() -> metrics.requestsQueued(priority)));
+                priorityQueuedTimes.put(priority, Suppliers.memoize(() -> metrics.requestQueuedTime(priority)));
+            }
+        }
         this.limitedResultSupplier = () -> Futures.immediateFailedFuture(new SafeRuntimeException(
                 "Unable to make a request (queue is full)", SafeArg.of("maxQueueSize", maxQueueSize)));
     }
@@ -110,8 +174,9 @@ final class QueuedChannel implements Channel {
             String channelName,
             int maxQueueSize,
             QueuedChannelInstrumentation queuedChannelInstrumentation,
-            LimitedChannel delegate) {
-        return new QueuedChannel(delegate, channelName, "sticky", queuedChannelInstrumentation, maxQueueSize);
+            LimitedChannel delegate,
+            QueueOptions options) {
+        return new QueuedChannel(delegate, channelName, "sticky", queuedChannelInstrumentation, maxQueueSize, options);
     }
 
     static QueuedChannel create(Config cf, LimitedChannel delegate) {
@@ -121,7 +186,8 @@ final class QueuedChannel implements Channel {
                 "channel",
                 channelInstrumentation(
                         DialogueClientMetrics.of(cf.clientConf().taggedMetricRegistry()), cf.channelName()),
-                cf.maxQueueSize());
+                cf.maxQueueSize(),
+                QueueOptions.from(cf));
     }
 
     static QueuedChannel create(Config cf, Endpoint endpoint, LimitedChannel delegate) {
@@ -134,7 +200,8 @@ final class QueuedChannel implements Channel {
                         cf.channelName(),
                         endpoint.serviceName(),
                         endpoint.endpointName()),
-                cf.maxQueueSize());
+                cf.maxQueueSize(),
+                QueueOptions.from(cf));
     }
 
     @Override
@@ -159,6 +226,12 @@ final class QueuedChannel implements Channel {
                 // While the queue was avoid, this is equivalent to spending zero time on the queue.
                 if (shouldRecordQueueMetrics) {
                     queuedTime.update(0, TimeUnit.NANOSECONDS);
+                    if (prioritized) {
+                        priorityQueuedTimes
+                                .get(RequestPriority.of(endpoint, request))
+                                .get()
+                                .update(0, TimeUnit.NANOSECONDS);
+                    }
                 }
                 return maybeResult;
             }
@@ -172,19 +245,28 @@ final class QueuedChannel implements Channel {
 
         shouldRecordQueueMetrics = true;
 
+        if (isPastDeadline(request)) {
+            metrics.requestsShed(QueueShedException.Reason.DEADLINE).mark();
+            return Optional.of(Futures.immediateFailedFuture(
+                    new QueueShedException(QueueShedException.Reason.DEADLINE, channelName, 0)));
+        }
+
         DeferredCall components = DeferredCall.builder()
                 .endpoint(endpoint)
                 .request(request)
                 .response(SettableFuture.create())
                 .span(DetachedSpan.start("Dialogue-request-enqueued"))
                 .timer(queuedTime.time())
+                .enqueuedNanos(ticker.read())
+                .priority(prioritized ? RequestPriority.of(endpoint, request) : RequestPriority.DEFAULT)
                 .build();
 
-        if (!queuedCalls.offer(components)) {
+        boolean lifo = lifoUnderOverload && overloaded;
+        if (!(lifo ? queuedCalls.offerFirst(components) : queuedCalls.offer(components))) {
             // Should never happen, ConcurrentLinkedDeque has no maximum size
             return Optional.empty();
         }
-        int newSize = incrementQueueSize();
+        int newSize = incrementQueueSize(components);
 
         if (log.isDebugEnabled()) {
             log.debug(
@@ -207,6 +289,25 @@ final class QueuedChannel implements Channel {
      */
     @VisibleForTesting
     void schedule() {
+        if (!singleDrainer) {
+            drain();
+            return;
+        }
+        if (drainRequests.getAndIncrement() != 0) {
+            // Another thread owns the queue and will make another pass for this request.
+            return;
+        }
+        int handled = 1;
+        do {
+            drain();
+            handled = drainRequests.addAndGet(-handled);
+        } while (handled != 0);
+    }
+
+    private void drain() {
+        if (lifoUnderOverload && overloaded) {
+            shedStaleTail();
+        }
         int numScheduled = 0;
         while (scheduleNextTask()) {
             numScheduled++;
@@ -220,14 +321,25 @@ final class QueuedChannel implements Channel {
         }
     }
 
-    private int incrementQueueSize() {
+    private int incrementQueueSize(DeferredCall call) {
         queueSizeCounter.get().inc();
+        if (prioritized) {
+            priorityQueueSizeCounters.get(call.priority()).get().inc();
+        }
         return queueSizeEstimate.incrementAndGet();
     }
 
-    private void decrementQueueSize() {
+    /** Called once for every call which leaves the queue, whether it was executed, cancelled, or failed. */
+    private void decrementQueueSize(DeferredCall call) {
         queueSizeEstimate.decrementAndGet();
         queueSizeCounter.get().dec();
+        if (prioritized) {
+            priorityQueueSizeCounters.get(call.priority()).get().dec();
+            priorityQueuedTimes
+                    .get(call.priority())
+                    .get()
+                    .update(ticker.read() - call.enqueuedNanos(), TimeUnit.NANOSECONDS);
+        }
     }
 
     /**
@@ -238,6 +350,10 @@ final class QueuedChannel implements Channel {
     private boolean scheduleNextTask() {
         DeferredCall queueHead = queuedCalls.poll();
         if (queueHead == null) {
+            if (overloadedAfterNanos != 0) {
+                // An empty queue is never overloaded
+                endOverload();
+            }
             return false;
         }
         SettableFuture<Response> queuedResponse = queueHead.response();
@@ -245,18 +361,24 @@ final class QueuedChannel implements Channel {
         // There's a race where cancel may be invoked between this check and execution, but the scheduled
         // request will be quickly cancelled in that case.
         if (queuedResponse.isDone()) {
-            decrementQueueSize();
+            decrementQueueSize(queueHead);
             queueHead.span().complete(QueuedChannelTagTranslator.INSTANCE, this);
             queueHead.timer().stop();
             return true;
         }
+        QueueShedException.Reason shedReason = shedReason(queueHead);
+        if (shedReason != null) {
+            shed(queueHead, shedReason);
+            return true;
+        }
         try (CloseableSpan ignored = queueHead.span().attach()) {
             Endpoint endpoint = queueHead.endpoint();
             Optional<ListenableFuture<Response>> maybeResponse =
                     delegate.maybeExecute(endpoint, queueHead.request(), DO_NOT_SKIP_LIMITS);
 
             if (maybeResponse.isPresent()) {
-                decrementQueueSize();
+                queuedCalls.onExecuted();
+                decrementQueueSize(queueHead);
                 ListenableFuture<Response> response = maybeResponse.get();
                 queueHead.span().complete(QueuedChannelTagTranslator.INSTANCE, this);
                 queueHead.timer().stop();
@@ -285,7 +407,7 @@ final class QueuedChannel implements Channel {
                             SafeArg.of("channel", channelName),
                             SafeArg.of("service", endpoint.serviceName()),
                             SafeArg.of("endpoint", endpoint.endpointName()));
-                    decrementQueueSize();
+                    decrementQueueSize(queueHead);
                     queueHead.timer().stop();
                     if (!queuedResponse.setException(new SafeRuntimeException(
                             "Failed to req-queue request",
@@ -306,6 +428,106 @@ final class QueuedChannel implements Channel {
         }
     }
 
+    /**
+     * Returns the reason the request at the head of the queue should be shed, if any, and updates the overload state
+     * based on how long it has been queued. While serving newest requests first, the head has only been queued
+     * briefly, so the overload state is instead updated by {@link #shedStaleTail}.
+     */
+    @Nullable
+    private QueueShedException.Reason shedReason(DeferredCall call) {
+        if (targetQueueNanos <= 0 && !hasDeadline(call)) {
+            return null;
+        }
+        if (isPastDeadline(call.request())) {
+            return QueueShedException.Reason.DEADLINE;
+        }
+        long nowNanos = ticker.read();
+        if (targetQueueNanos <= 0 || (lifoUnderOverload && overloaded)) {
+            return null;
+        }
+        if (nowNanos - call.enqueuedNanos() < targetQueueNanos) {
+            endOverload();
+            return null;
+        }
+        long overloadedAfter = overloadedAfterNanos;
+        if (overloadedAfter == 0) {
+            overloadedAfterNanos = nowNanos + OVERLOAD_INTERVAL;
+            return null;
+        }
+        if (nowNanos - overloadedAfter < 0) {
+            return null;
+        }
+        overloaded = true;
+        return QueueShedException.Reason.QUEUE_TIME;
+    }
+
+    /**
+     * Sheds requests from the tail of the queue of each priority, which holds the oldest requests while the newest
+     * are served first, until it finds one which has been queued for less than the target. The overload ends once
+     * the queue is empty.
+     */
+    private void shedStaleTail() {
+        for (int i = 0; i < queuedCalls.numDeques(); i++) {
+            shedStaleTail(i);
+        }
+        if (queuedCalls.isEmpty()) {
+            endOverload();
+        }
+    }
+
+    private void shedStaleTail(int dequeIndex) {
+        DeferredCall tail;
+        while ((tail = queuedCalls.pollLast(dequeIndex)) != null) {
+            long nowNanos = ticker.read();
+            if (tail.response().isDone()) {
+                decrementQueueSize(tail);
+                tail.span().complete(QueuedChannelTagTranslator.INSTANCE, this);
+                tail.timer().stop();
+            } else if (isPastDeadline(tail.request())) {
+                shed(tail, QueueShedException.Reason.DEADLINE);
+            } else if (nowNanos - tail.enqueuedNanos() >= targetQueueNanos) {
+                shed(tail, QueueShedException.Reason.QUEUE_TIME);
+            } else {
+                queuedCalls.offer(tail);
+                return;
+            }
+        }
+    }
+
+    private void endOverload() {
+        overloadedAfterNanos = 0;
+        overloaded = false;
+    }
+
+    private void shed(DeferredCall call, QueueShedException.Reason reason) {
+        decrementQueueSize(call);
+        call.span().complete(QueuedChannelTagTranslator.INSTANCE, this);
+        call.timer().stop();
+        metrics.requestsShed(reason).mark();
+        long queuedNanos = ticker.read() - call.enqueuedNanos();
+        if (!call.response().setException(new QueueShedException(reason, channelName, queuedNanos))
+                && log.isDebugEnabled()) {
+            log.debug(
+                    "Shed request had already been completed",
+                    SafeArg.of("channel", channelName),
+                    SafeArg.of("service", call.endpoint().serviceName()),
+                    SafeArg.of("endpoint", call.endpoint().endpointName()));
+        }
+    }
+
+    private static boolean hasDeadline(DeferredCall call) {
+        return RequestDeadlines.getDeadlineNanos(call.request()).isPresent();
+    }
+
+    /**
+     * Deadlines are {@link System#nanoTime()} values shared with other layers, so they are compared against the system
+     * clock rather than the configurable {@link QueueOptions#ticker()}, which only measures time spent queued.
+     */
+    private static boolean isPastDeadline(Request request) {
+        OptionalLong deadline = RequestDeadlines.getDeadlineNanos(request);
+        return deadline.isPresent() && System.nanoTime() - deadline.getAsLong() >= 0;
+    }
+
     @Override
     public String toString() {
         return "QueuedChannel{queueSizeEstimate="
@@ -358,6 +580,10 @@ final class QueuedChannel implements Channel {
 
         Timer.Context timer();
 
+        long enqueuedNanos();
+
+        RequestPriority priority();
+
         class Builder extends ImmutableDeferredCall.Builder {}
 
         static Builder builder() {
@@ -365,18 +591,18 @@ final class QueuedChannel implements Channel {
         }
     }
 
-    private static final class ProtectedConcurrentLinkedDeque<T> extends ConcurrentLinkedDeque<T> {
-
-        @Override
-        public int size() {
-            throw new UnsupportedOperationException("size should never be called on a ConcurrentLinkedDeque");
-        }
-    }
-
     interface QueuedChannelInstrumentation {
         Counter requestsQueued();
 
         Timer requestQueuedTime();
+
+        Meter requestsShed(QueueShedException.Reason reason);
+
+        /** Number of queued requests of the given priority, only used with a priority {@link QueueDiscipline}. */
+        Counter requestsQueued(RequestPriority priority);
+
+        /** Queue time of requests of the given priority, only used with a priority {@link QueueDiscipline}. */
+        Timer requestQueuedTime(RequestPriority priority);
     }
 
     static QueuedChannelInstrumentation channelInstrumentation(DialogueClientMetrics metrics, String channelName) {
@@ -390,6 +616,29 @@ final class QueuedChannel implements Channel {
             public Timer requestQueuedTime() {
                 return metrics.requestQueuedTime(channelName);
             }
+
+            @Override
+            public Meter requestsShed(QueueShedException.Reason reason) {
+                return shedMeter(metrics, channelName, reason);
+            }
+
+            @Override
+            public Counter requestsQueued(RequestPriority priority) {
+                return metrics.requestsPriorityQueued()
+                        .channelName(channelName)
+                        .queueType("channel")
+                        .priority(priorityTag(priority))
+                        .build();
+            }
+
+            @Override
+            public Timer requestQueuedTime(RequestPriority priority) {
+                return metrics.requestPriorityQueuedTime()
+                        .channelName(channelName)
+                        .queueType("channel")
+                        .priority(priorityTag(priority))
+                        .build();
+            }
         };
     }
 
@@ -406,6 +655,29 @@ final class QueuedChannel implements Channel {
             public Timer requestQueuedTime() {
                 return metrics.requestStickyQueuedTime(channelName);
             }
+
+            @Override
+            public Meter requestsShed(QueueShedException.Reason reason) {
+                return shedMeter(metrics, channelName, reason);
+            }
+
+            @Override
+            public Counter requestsQueued(RequestPriority priority) {
+                return metrics.requestsPriorityQueued()
+                        .channelName(channelName)
+                        .queueType("sticky")
+                        .priority(priorityTag(priority))
+                        .build();
+            }
+
+            @Override
+            public Timer requestQueuedTime(RequestPriority priority) {
+                return metrics.requestPriorityQueuedTime()
+                        .channelName(channelName)
+                        .queueType("sticky")
+                        .priority(priorityTag(priority))
+                        .build();
+            }
         });
     }
 
@@ -429,17 +701,64 @@ final class QueuedChannel implements Channel {
                         .endpoint(endpoint)
                         .build();
             }
+
+            @Override
+            public Meter requestsShed(QueueShedException.Reason reason) {
+                return shedMeter(metrics, channelName, reason);
+            }
+
+            @Override
+            public Counter requestsQueued(RequestPriority priority) {
+                return metrics.requestsPriorityQueued()
+                        .channelName(channelName)
+                        .queueType("endpoint")
+                        .priority(priorityTag(priority))
+                        .build();
+            }
+
+            @Override
+            public Timer requestQueuedTime(RequestPriority priority) {
+                return metrics.requestPriorityQueuedTime()
+                        .channelName(channelName)
+                        .queueType("endpoint")
+                        .priority(priorityTag(priority))
+                        .build();
+            }
         };
     }
 
+    private static Meter shedMeter(
+            DialogueClientMetrics metrics, String channelName, QueueShedException.Reason reason) {
+        return metrics.requestShed()
+                .channelName(channelName)
+                .reason(reason.tag())
+                .build();
+    }
+
+    private static String priorityTag(RequestPriority priority) {
+        return Ascii.toLowerCase(priority.name());
+    }
+
     private static final class MemoizedQueuedChannelInstrumentation implements QueuedChannelInstrumentation {
 
         private final Supplier<Counter> requestsQueuedSupplier;
         private final Supplier<Timer> requestQueuedTimeSupplier;
+        private final Map<RequestPriority, Supplier<Counter>> priorityRequestsQueuedSuppliers;
+        private final Map<RequestPriority, Supplier<Timer>> priorityRequestQueuedTimeSuppliers;
+        private final QueuedChannelInstrumentation delegate;
 
         MemoizedQueuedChannelInstrumentation(QueuedChannelInstrumentation delegate) {
             this.requestsQueuedSupplier = Suppliers.memoize(delegate::requestsQueued);
             this.requestQueuedTimeSupplier = Suppliers.memoize(delegate::requestQueuedTime);
+            this.priorityRequestsQueuedSuppliers = new EnumMap<>(RequestPriority.class);
+            this.priorityRequestQueuedTimeSuppliers = new EnumMap<>(RequestPriority.class);
+            for (RequestPriority priority : RequestPriority.values()) {
+                priorityRequestsQueuedSuppliers.put(
+                        priority, Suppliers.memoize(() -> delegate.requestsQueued(priority)));
+                priorityRequestQueuedTimeSuppliers.put(
+                        priority, Suppliers.memoize(() -> delegate.requestQueuedTime(priority)));
+            }
+            this.delegate = delegate;
         }
 
         @Override
@@ -451,6 +770,22 @@ final class QueuedChannel implements Channel {
         public Timer requestQueuedTime() {
             return requestQueuedTimeSupplier.get();
         }
+
+        @Override
+        public Meter requestsShed(QueueShedException.Reason reason) {
+            // Shedding is rare, there's no need to memoize
+            return delegate.requestsShed(reason);
+        }
+
+        @Override
+        public Counter requestsQueued(RequestPriority priority) {
+            return priorityRequestsQueuedSuppliers.get(priority).get();
+        }
+
+        @Override
+        public Timer requestQueuedTime(RequestPriority priority) {
+            return priorityRequestQueuedTimeSuppliers.get(priority).get();
+        }
     }
 
     private enum QueuedChannelTagTranslator implements TagTranslator<QueuedChannel> {
@@ -29,6 +29,8 @@ import com.palantir.dialogue.Response;
  */
 final class RangeAcceptsIdentityEncodingChannel implements EndpointChannel {
 
+    static final String IDENTITY = "identity";
+
     private final EndpointChannel delegate;
 
     RangeAcceptsIdentityEncodingChannel(EndpointChannel delegate) {
@@ -42,7 +44,7 @@ final class RangeAcceptsIdentityEncodingChannel implements EndpointChannel {
         return delegate.execute(delegateRequest);
     }
 
-    private static boolean isRangeRequestWithoutAcceptEncoding(Request request) {
+    static boolean isRangeRequestWithoutAcceptEncoding(Request request) {
         ListMultimap<String, String> requestHeaders = request.headerParams();
         return requestHeaders.containsKey(HttpHeaders.RANGE)
                 && !requestHeaders.containsKey(HttpHeaders.ACCEPT_ENCODING);
@@ -51,7 +53,7 @@ final class RangeAcceptsIdentityEncodingChannel implements EndpointChannel {
     private static Request withIdentityEncoding(Request request) {
         return Request.builder()
                 .from(request)
-                .putHeaderParams(HttpHeaders.ACCEPT_ENCODING, "identity")
+                .putHeaderParams(HttpHeaders.ACCEPT_ENCODING, IDENTITY)
                 .build();
     }
 }
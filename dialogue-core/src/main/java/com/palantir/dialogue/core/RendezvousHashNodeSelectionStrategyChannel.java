@@ -0,0 +1,214 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.codahale.metrics.Meter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.dialogue.Endpoint;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.RequestAffinity;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.futures.DialogueFutures;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.UnsafeArg;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
+
+/**
+ * Routes requests with a {@link RequestAffinity} key to the same host, using rendezvous (highest random weight)
+ * hashing: every host is scored by hashing the key together with the host, and hosts are attempted in order of
+ * decreasing score. Scores only depend on the key and the host, so all clients agree on the preferred host for a key,
+ * and adding or removing one of n hosts only moves the keys which prefer that host, roughly 1/n of them.
+ *
+ * <p>Hashing alone overloads the hosts which happen to own popular keys, so load is bounded: a host is skipped when it
+ * has more than {@link #LOAD_FACTOR} times its share of the affinity requests in flight, and the key spills over to its
+ * next host. The same happens when the concurrency limiter of a host refuses the request. Requests without a key are
+ * balanced using the {@link BalancedNodeSelectionStrategyChannel}.
+ */
+final class RendezvousHashNodeSelectionStrategyChannel implements LimitedChannel {
+    private static final SafeLogger log = SafeLoggerFactory.get(RendezvousHashNodeSelectionStrategyChannel.class);
+    private static final HashFunction HASH = Hashing.murmur3_128();
+
+    /** Hosts may have up to this factor of the mean number of affinity requests in flight. */
+    @VisibleForTesting
+    static final double LOAD_FACTOR = 1.25;
+
+    private final ImmutableList<LimitedChannel> channels;
+    private final long[] hostHashes;
+    private final BalancedNodeSelectionStrategyChannel keyless;
+    private final AtomicIntegerArray inflight;
+    private final AtomicInteger totalInflight = new AtomicInteger();
+    private final Meter preferredMeter;
+    private final Meter spilloverLoadMeter;
+    private final Meter spilloverLimitedMeter;
+
+    RendezvousHashNodeSelectionStrategyChannel(
+            ImmutableList<LimitedChannel> channels,
+            ImmutableList<String> hostKeys,
+            BalancedNodeSelectionStrategyChannel keyless,
+            TaggedMetricRegistry taggedMetrics,
+            String channelName) {
+        Preconditions.checkArgument(
+                channels.size() == hostKeys.size(),
+                "Every channel requires a host key",
+                SafeArg.of("channels", channels.size()),
+                SafeArg.of("hostKeys", hostKeys.size()));
+        this.channels = channels;
+        this.hostHashes = hostKeys.stream()
+                .mapToLong(RendezvousHashNodeSelectionStrategyChannel::hash)
+                .toArray();
+        this.keyless = keyless;
+        this.inflight = new AtomicIntegerArray(channels.size());
+        DialogueRendezvoushashMetrics metrics = DialogueRendezvoushashMetrics.of(taggedMetrics);
+        this.preferredMeter = metrics.preferred(channelName);
+        this.spilloverLoadMeter =
+                metrics.spillover().channelName(channelName).reason("load").build();
+        this.spilloverLimitedMeter =
+                metrics.spillover().channelName(channelName).reason("limited").build();
+        log.debug("Initialized", SafeArg.of("count", channels.size()), UnsafeArg.of("hostKeys", hostKeys));
+    }
+
+    /**
+     * Identifies a host consistently across clients and updates. Hosts are commonly listed by DNS name, so the
+     * resolved address is included to distinguish the hosts behind a name.
+     */
+    static String hostKey(TargetUri targetUri) {
+        return targetUri
+                .resolvedAddress()
+                .map(address -> targetUri.uri() + '@' + address.getHostAddress())
+                .orElseGet(targetUri::uri);
+    }
+
+    /** Host keys for channels which aren't associated with a {@link TargetUri}. */
+    static ImmutableList<String> indexHostKeys(int size) {
+        return IntStream.range(0, size).mapToObj(Integer::toString).collect(ImmutableList.toImmutableList());
+    }
+
+    BalancedNodeSelectionStrategyChannel keyless() {
+        return keyless;
+    }
+
+    @Override
+    public Optional<ListenableFuture<Response>> maybeExecute(
+            Endpoint endpoint, Request request, LimitEnforcement limitEnforcement) {
+        Optional<String> affinityKey = RequestAffinity.getKey(request);
+        if (!affinityKey.isPresent()) {
+            return keyless.maybeExecute(endpoint, request, limitEnforcement);
+        }
+        long keyHash = hash(affinityKey.get());
+        int size = channels.size();
+        // Scores are non-negative, attempted hosts are marked with -1
+        long[] scores = new long[size];
+        for (int i = 0; i < size; i++) {
+            scores[i] = score(keyHash, hostHashes[i]);
+        }
+        int maxInflight = maxInflight(totalInflight.get(), size);
+        boolean spilledOver = false;
+        for (int attempt = 0; attempt < size; attempt++) {
+            int index = highestScore(scores);
+            scores[index] = -1;
+            if (inflight.get(index) >= maxInflight) {
+                spilledOver = true;
+                spilloverLoadMeter.mark();
+                continue;
+            }
+            Optional<ListenableFuture<Response>> maybe = maybeExecuteOn(index, endpoint, request, limitEnforcement);
+            if (maybe.isPresent()) {
+                if (!spilledOver) {
+                    preferredMeter.mark();
+                }
+                return maybe;
+            }
+            spilledOver = true;
+            spilloverLimitedMeter.mark();
+        }
+        return Optional.empty();
+    }
+
+    private Optional<ListenableFuture<Response>> maybeExecuteOn(
+            int index, Endpoint endpoint, Request request, LimitEnforcement limitEnforcement) {
+        inflight.incrementAndGet(index);
+        totalInflight.incrementAndGet();
+        Optional<ListenableFuture<Response>> maybe =
+                StickyAttachments.maybeAddStickyToken(channels.get(index), endpoint, request, limitEnforcement);
+        if (!maybe.isPresent()) {
+            onComplete(index);
+            return maybe;
+        }
+        return Optional.of(DialogueFutures.addDirectListener(maybe.get(), () -> onComplete(index)));
+    }
+
+    private void onComplete(int index) {
+        inflight.decrementAndGet(index);
+        totalInflight.decrementAndGet();
+    }
+
+    /**
+     * The bound of consistent hashing with bounded loads: with {@code total} requests in flight, including the new
+     * request, every host may have {@code ceil(LOAD_FACTOR * total / hosts)}. Hosts below the mean always have
+     * capacity, so at least one host is eligible.
+     */
+    @VisibleForTesting
+    static int maxInflight(int totalInflight, int hosts) {
+        return (int) Math.ceil(LOAD_FACTOR * (totalInflight + 1) / hosts);
+    }
+
+    private static int highestScore(long[] scores) {
+        int best = 0;
+        for (int i = 1; i < scores.length; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    @VisibleForTesting
+    static long score(long keyHash, long hostHash) {
+        return mix(keyHash ^ hostHash) >>> 1;
+    }
+
+    private static long hash(String value) {
+        return HASH.hashUnencodedChars(value).asLong();
+    }
+
+    /** The murmur3 64-bit finalizer, which spreads every input bit across the output. */
+    private static long mix(long value) {
+        long result = value;
+        result ^= result >>> 33;
+        result *= 0xff51afd7ed558ccdL;
+        result ^= result >>> 33;
+        result *= 0xc4ceb9fe1a85ec53L;
+        result ^= result >>> 33;
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return "RendezvousHashNodeSelectionStrategyChannel{channels=" + channels + '}';
+    }
+}
@@ -44,7 +44,7 @@ final class RequestBodyValidationChannel implements EndpointChannel {
         return delegate.execute(request);
     }
 
-    private static void validate(Request request) {
+    static void validate(Request request) {
         Optional<RequestBody> body = request.body();
         body.ifPresent(BODY_VALIDATOR);
     }
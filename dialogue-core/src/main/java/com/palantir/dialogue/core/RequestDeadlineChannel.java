@@ -0,0 +1,72 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.dialogue.Endpoint;
+import com.palantir.dialogue.EndpointChannel;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.RequestDeadlines;
+import com.palantir.dialogue.Response;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Applies the endpoint's default timeout to requests which don't already have a {@link RequestDeadlines deadline}.
+ * Must be applied outside the {@link RetryingChannel}, so that retries share the deadline of the original request.
+ */
+final class RequestDeadlineChannel implements EndpointChannel {
+
+    private final EndpointChannel delegate;
+    private final long timeoutNanos;
+
+    private RequestDeadlineChannel(EndpointChannel delegate, long timeoutNanos) {
+        this.delegate = delegate;
+        this.timeoutNanos = timeoutNanos;
+    }
+
+    static EndpointChannel create(Config cf, EndpointChannel delegate, Endpoint endpoint) {
+        Optional<Duration> timeout = cf.defaultRequestTimeouts().flatMap(timeouts -> timeouts.apply(endpoint));
+        if (timeout.isEmpty()) {
+            return delegate;
+        }
+        Preconditions.checkArgument(
+                timeout.get().compareTo(Duration.ZERO) > 0,
+                "Request timeout must be positive",
+                SafeArg.of("channel", cf.channelName()),
+                SafeArg.of("service", endpoint.serviceName()),
+                SafeArg.of("endpoint", endpoint.endpointName()),
+                SafeArg.of("timeout", timeout.get()));
+        return new RequestDeadlineChannel(delegate, timeout.get().toNanos());
+    }
+
+    @Override
+    public ListenableFuture<Response> execute(Request request) {
+        if (RequestDeadlines.getDeadlineNanos(request).isPresent()) {
+            return delegate.execute(request);
+        }
+        // Callers may execute the same request more than once, so the deadline must not be written to its attachments
+        return delegate.execute(RequestDeadlines.withDeadlineNanos(request, System.nanoTime() + timeoutNanos));
+    }
+
+    @Override
+    public String toString() {
+        return "RequestDeadlineChannel{timeoutNanos=" + timeoutNanos + ", delegate=" + delegate + '}';
+    }
+}
@@ -0,0 +1,451 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.codahale.metrics.Meter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ListMultimap;
+import com.google.common.collect.MultimapBuilder;
+import com.google.common.collect.Multimaps;
+import com.google.common.net.HttpHeaders;
+import com.google.common.primitives.Ints;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.dialogue.Endpoint;
+import com.palantir.dialogue.EndpointChannel;
+import com.palantir.dialogue.HttpMethod;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.futures.DialogueFutures;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Serves {@code GET} responses from memory while they are fresh according to their {@code Cache-Control: max-age},
+ * and revalidates stale responses with {@code If-None-Match} and {@code If-Modified-Since}, serving a
+ * {@code 304 Not Modified} response from the cache. Only {@code 200} responses with a {@code max-age}, an
+ * {@code ETag} or a {@code Last-Modified} header are stored, and never when marked {@code no-store}. Responses marked
+ * {@code no-cache} are revalidated on every request. Requests with a body or their own {@code Cache-Control},
+ * conditional or range headers bypass the cache.
+ *
+ * <p>Responses are keyed by endpoint and by the path, query and header parameters of the request, so a response is
+ * never served for different credentials. This channel sits below {@link ContentDecodingChannel}, so compressed
+ * bodies are stored compressed and decompressed on every read. Bodies are read into memory on the thread completing
+ * the call, and bodies larger than {@link #MAX_ENTRY_BYTES} are streamed without being stored.
+ *
+ * <p>All endpoints of a channel share a {@link Store}, bounded by the total weight of the stored bodies and headers.
+ */
+final class ResponseCacheChannel implements EndpointChannel {
+    static final int MAX_ENTRY_BYTES = 1024 * 1024;
+
+    /** How long stale responses with validators are kept for revalidation. */
+    static final Duration STALE_RETENTION = Duration.ofMinutes(10);
+
+    private final EndpointChannel delegate;
+    private final Endpoint endpoint;
+    private final Store store;
+    private final Meter hitMeter;
+    private final Meter missMeter;
+    private final Meter revalidatedMeter;
+
+    @VisibleForTesting
+    ResponseCacheChannel(
+            EndpointChannel delegate,
+            Endpoint endpoint,
+            String channelName,
+            Store store,
+            TaggedMetricRegistry taggedMetrics) {
+        this.delegate = delegate;
+        this.endpoint = endpoint;
+        this.store = store;
+        DialogueResponsecacheMetrics metrics = DialogueResponsecacheMetrics.of(taggedMetrics);
+        this.hitMeter = requestMeter(metrics, channelName, endpoint, "hit");
+        this.missMeter = requestMeter(metrics, channelName, endpoint, "miss");
+        this.revalidatedMeter = requestMeter(metrics, channelName, endpoint, "revalidated");
+    }
+
+    static EndpointChannel create(Config cf, EndpointChannel delegate, Endpoint endpoint, Optional<Store> store) {
+        if (store.isEmpty() || endpoint.httpMethod() != HttpMethod.GET) {
+            return delegate;
+        }
+        return new ResponseCacheChannel(
+                delegate, endpoint, cf.channelName(), store.get(), cf.clientConf().taggedMetricRegistry());
+    }
+
+    @Override
+    public ListenableFuture<Response> execute(Request request) {
+        if (bypassesCache(request)) {
+            return delegate.execute(request);
+        }
+        Key key = new Key(endpoint, request);
+        Entry entry = store.cache.getIfPresent(key);
+        if (entry != null && entry.isFresh(store.ticker.read())) {
+            hitMeter.mark();
+            return Futures.immediateFuture(entry.toResponse());
+        }
+        if (entry == null || !entry.hasValidators()) {
+            missMeter.mark();
+            return DialogueFutures.transformAsync(
+                    delegate.execute(request), response -> Futures.immediateFuture(store(key, response)));
+        }
+        return DialogueFutures.transformAsync(
+                delegate.execute(entry.conditional(request)),
+                response -> Futures.immediateFuture(revalidated(key, entry, response)));
+    }
+
+    private static boolean bypassesCache(Request request) {
+        ListMultimap<String, String> headers = request.headerParams();
+        return request.body().isPresent()
+                || headers.containsKey(HttpHeaders.CACHE_CONTROL)
+                || headers.containsKey(HttpHeaders.IF_NONE_MATCH)
+                || headers.containsKey(HttpHeaders.IF_MODIFIED_SINCE)
+                || headers.containsKey(HttpHeaders.RANGE);
+    }
+
+    private Response revalidated(Key key, Entry entry, Response response) throws IOException {
+        if (response.code() != 304) {
+            missMeter.mark();
+            store.cache.invalidate(key);
+            return store(key, response);
+        }
+        revalidatedMeter.mark();
+        CacheControl cacheControl = CacheControl.of(response);
+        response.close();
+        if (cacheControl.noStore) {
+            store.cache.invalidate(key);
+            return entry.toResponse();
+        }
+        Entry refreshed = entry.refresh(store.ticker.read(), cacheControl);
+        store.cache.put(key, refreshed);
+        return refreshed.toResponse();
+    }
+
+    private Response store(Key key, Response response) throws IOException {
+        if (response.code() != 200) {
+            return response;
+        }
+        CacheControl cacheControl = CacheControl.of(response);
+        Optional<String> etag = response.getFirstHeader(HttpHeaders.ETAG);
+        Optional<String> lastModified = response.getFirstHeader(HttpHeaders.LAST_MODIFIED);
+        if (cacheControl.noStore || (cacheControl.freshNanos <= 0 && etag.isEmpty() && lastModified.isEmpty())) {
+            return response;
+        }
+        OptionalLong contentLength = contentLength(response);
+        if (contentLength.isPresent() && contentLength.getAsLong() > store.maxEntryBytes) {
+            return response;
+        }
+        byte[] body;
+        try {
+            body = BufferedResponse.readPrefix(response.body(), store.maxEntryBytes);
+        } catch (IOException | RuntimeException e) {
+            response.close();
+            throw e;
+        }
+        if (body.length > store.maxEntryBytes) {
+            return BufferedResponse.streaming(response, body);
+        }
+        response.close();
+        Entry entry = new Entry(
+                response.code(),
+                copyHeaders(response.headers()),
+                body,
+                etag,
+                lastModified,
+                store.ticker.read(),
+                cacheControl.freshNanos);
+        store.cache.put(key, entry);
+        return entry.toResponse();
+    }
+
+    private static OptionalLong contentLength(Response response) {
+        Optional<String> value = response.getFirstHeader(HttpHeaders.CONTENT_LENGTH);
+        if (value.isEmpty()) {
+            return OptionalLong.empty();
+        }
+        try {
+            return OptionalLong.of(Long.parseLong(value.get().trim()));
+        } catch (NumberFormatException e) {
+            return OptionalLong.empty();
+        }
+    }
+
+    private static ListMultimap<String, String> copyHeaders(ListMultimap<String, String> headers) {
+        ListMultimap<String, String> copy = MultimapBuilder.treeKeys(String.CASE_INSENSITIVE_ORDER)
+                .arrayListValues()
+                .build();
+        copy.putAll(headers);
+        return Multimaps.unmodifiableListMultimap(copy);
+    }
+
+    private static Meter requestMeter(
+            DialogueResponsecacheMetrics metrics, String channelName, Endpoint endpoint, String result) {
+        return metrics.request()
+                .channelName(channelName)
+                .serviceName(endpoint.serviceName())
+                .endpoint(endpoint.endpointName())
+                .result(result)
+                .build();
+    }
+
+    @Override
+    public String toString() {
+        return "ResponseCacheChannel{delegate=" + delegate + ", endpoint=" + endpoint + '}';
+    }
+
+    /** Cached responses of every endpoint of a channel, bounded by their total size in bytes. */
+    static final class Store {
+        private final Cache<Key, Entry> cache;
+        private final Ticker ticker;
+        private final long maxBytes;
+        private final int maxEntryBytes;
+
+        @VisibleForTesting
+        Store(String channelName, long maxBytes, Ticker ticker, TaggedMetricRegistry taggedMetrics) {
+            this.ticker = ticker;
+            this.maxBytes = maxBytes;
+            this.maxEntryBytes = Ints.saturatedCast(Math.min(MAX_ENTRY_BYTES, maxBytes));
+            this.cache = Caffeine.newBuilder()
+                    .maximumWeight(maxBytes)
+                    .weigher((Key _key, Entry entry) -> entry.weight)
+                    .expireAfter(new EntryExpiry())
+                    .ticker(ticker)
+                    .build();
+            DialogueResponsecacheMetrics metrics = DialogueResponsecacheMetrics.of(taggedMetrics);
+            // Weak gauges ensure the store can be GCd along with its channel.
+            DialogueInternalWeakReducingGauge.getOrCreate(
+                    taggedMetrics,
+                    metrics.memory().channelName(channelName).type("used").buildMetricName(),
+                    Store::weightedSize,
+                    LongStream::sum,
+                    this);
+            DialogueInternalWeakReducingGauge.getOrCreate(
+                    taggedMetrics,
+                    metrics.memory().channelName(channelName).type("max").buildMetricName(),
+                    store -> store.maxBytes,
+                    stream -> stream.max().orElse(0L),
+                    this);
+        }
+
+        static Optional<Store> create(Config cf) {
+            OptionalLong maxBytes = cf.responseCacheMaxBytes();
+            if (maxBytes.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(new Store(
+                    cf.channelName(),
+                    maxBytes.getAsLong(),
+                    cf.ticker(),
+                    cf.clientConf().taggedMetricRegistry()));
+        }
+
+        @VisibleForTesting
+        long weightedSize() {
+            return cache.policy().eviction().map(eviction -> eviction.weightedSize().orElse(0L)).orElse(0L);
+        }
+
+        @VisibleForTesting
+        void cleanUp() {
+            cache.cleanUp();
+        }
+    }
+
+    private static final class Key {
+        private final String serviceName;
+        private final String endpointName;
+        private final ListMultimap<String, String> pathParams;
+        private final ListMultimap<String, String> queryParams;
+        private final ListMultimap<String, String> headerParams;
+        private final int hashCode;
+
+        Key(Endpoint endpoint, Request request) {
+            this.serviceName = endpoint.serviceName();
+            this.endpointName = endpoint.endpointName();
+            this.pathParams = request.pathParameters();
+            this.queryParams = request.queryParams();
+            this.headerParams = request.headerParams();
+            this.hashCode = Objects.hash(serviceName, endpointName, pathParams, queryParams, headerParams);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+            }
+            if (other == null || getClass() != other.getClass()) {
+                return false;
+            }
+            Key key = (Key) other;
+            return hashCode == key.hashCode
+                    && serviceName.equals(key.serviceName)
+                    && endpointName.equals(key.endpointName)
+                    && pathParams.equals(key.pathParams)
+                    && queryParams.equals(key.queryParams)
+                    && headerParams.equals(key.headerParams);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static final class Entry {
+        // Rough allowance for the entry, key and cache node objects.
+        private static final int OVERHEAD_BYTES = 256;
+
+        private final int code;
+        private final ListMultimap<String, String> headers;
+        private final byte[] body;
+        private final Optional<String> etag;
+        private final Optional<String> lastModified;
+        private final long validatedNanos;
+        private final long freshNanos;
+        private final int weight;
+
+        Entry(
+                int code,
+                ListMultimap<String, String> headers,
+                byte[] body,
+                Optional<String> etag,
+                Optional<String> lastModified,
+                long validatedNanos,
+                long freshNanos) {
+            this.code = code;
+            this.headers = headers;
+            this.body = body;
+            this.etag = etag;
+            this.lastModified = lastModified;
+            this.validatedNanos = validatedNanos;
+            this.freshNanos = freshNanos;
+            this.weight = weigh(headers, body);
+        }
+
+        boolean isFresh(long nowNanos) {
+            return nowNanos - validatedNanos < freshNanos;
+        }
+
+        boolean hasValidators() {
+            return etag.isPresent() || lastModified.isPresent();
+        }
+
+        /** Nanoseconds the entry is kept for after it was stored or last revalidated. */
+        long retentionNanos() {
+            return hasValidators() ? Math.max(freshNanos, 0) + STALE_RETENTION.toNanos() : freshNanos;
+        }
+
+        Request conditional(Request request) {
+            Request.Builder builder = Request.builder().from(request);
+            etag.ifPresent(value -> builder.putHeaderParams(HttpHeaders.IF_NONE_MATCH, value));
+            lastModified.ifPresent(value -> builder.putHeaderParams(HttpHeaders.IF_MODIFIED_SINCE, value));
+            return builder.build();
+        }
+
+        /** Restarts freshness after a {@code 304}, keeping the previous lifetime if it has no new directives. */
+        Entry refresh(long nowNanos, CacheControl cacheControl) {
+            long lifetime = cacheControl.present ? cacheControl.freshNanos : freshNanos;
+            return new Entry(code, headers, body, etag, lastModified, nowNanos, lifetime);
+        }
+
+        Response toResponse() {
+            return BufferedResponse.of(code, headers, body);
+        }
+
+        private static int weigh(ListMultimap<String, String> headers, byte[] body) {
+            long weight = OVERHEAD_BYTES + body.length;
+            for (Map.Entry<String, String> header : headers.entries()) {
+                // Strings hold up to two bytes per character.
+                weight += 2L * (header.getKey().length() + header.getValue().length());
+            }
+            return Ints.saturatedCast(weight);
+        }
+    }
+
+    private static final class EntryExpiry implements Expiry<Key, Entry> {
+        @Override
+        public long expireAfterCreate(Key _key, Entry entry, long _currentTime) {
+            return entry.retentionNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Key _key, Entry entry, long _currentTime, long _currentDuration) {
+            return entry.retentionNanos();
+        }
+
+        @Override
+        public long expireAfterRead(Key _key, Entry _entry, long _currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /** The {@code Cache-Control} directives of a response which this cache honors. */
+    private static final class CacheControl {
+        private final boolean present;
+        private final boolean noStore;
+        private final long freshNanos;
+
+        private CacheControl(boolean present, boolean noStore, long freshNanos) {
+            this.present = present;
+            this.noStore = noStore;
+            this.freshNanos = freshNanos;
+        }
+
+        static CacheControl of(Response response) {
+            List<String> headers = response.headers().get(HttpHeaders.CACHE_CONTROL);
+            boolean noStore = false;
+            boolean noCache = false;
+            long maxAgeSeconds = 0;
+            for (String header : headers) {
+                for (String directive : header.split(",")) {
+                    String trimmed = directive.trim().toLowerCase(Locale.ROOT);
+                    if (trimmed.equals("no-store")) {
+                        noStore = true;
+                    } else if (trimmed.equals("no-cache")) {
+                        noCache = true;
+                    } else if (trimmed.startsWith("max-age=")) {
+                        maxAgeSeconds = parseSeconds(trimmed.substring("max-age=".length()));
+                    }
+                }
+            }
+            long ageSeconds = response.getFirstHeader(HttpHeaders.AGE)
+                    .map(CacheControl::parseSeconds)
+                    .orElse(0L);
+            long freshSeconds = noCache ? 0 : Math.max(maxAgeSeconds - ageSeconds, 0);
+            return new CacheControl(!headers.isEmpty(), noStore, TimeUnit.SECONDS.toNanos(freshSeconds));
+        }
+
+        private static long parseSeconds(String value) {
+            try {
+                return Math.max(Long.parseLong(value.trim()), 0);
+            } catch (NumberFormatException e) {
+                return 0;
+            }
+        }
+    }
+}
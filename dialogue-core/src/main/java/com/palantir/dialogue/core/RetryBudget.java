@@ -0,0 +1,172 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.DoubleStream;
+
+/**
+ * Limits the retries of all {@link RetryingChannel retrying channels} of a {@link DialogueChannel} to a fraction of
+ * recent first attempts, plus a small floor, so that a globally degraded upstream doesn't receive
+ * {@code 1 + maxNumRetries} times its usual load exactly when it has the least capacity.
+ *
+ * This is a lock-free token bucket. Each first attempt deposits {@code retryRatio} tokens, each retry withdraws one
+ * token, and {@code minRetriesPerSecond} tokens are added every second. The balance is capped at ten seconds worth
+ * of the floor, and at least ten tokens, so budget which was saved up while the upstream was healthy is quickly spent
+ * once it starts failing.
+ */
+final class RetryBudget {
+
+    private static final RetryBudget UNLIMITED = new RetryBudget(0, 0, Ticker.disabledTicker());
+
+    // Tokens are stored in thousandths, so fractional retry ratios don't require floating point arithmetic.
+    private static final long TOKEN = 1000;
+    private static final Duration WINDOW = Duration.ofSeconds(10);
+    private static final long MIN_CAPACITY = 10 * TOKEN;
+
+    private final long depositPerRequest;
+    private final long refillNanosPerToken;
+    private final long maxBalance;
+    private final Ticker ticker;
+    private final AtomicLong balance;
+    private final AtomicLong lastRefillNanos;
+
+    private RetryBudget(double retryRatio, int minRetriesPerSecond, Ticker ticker) {
+        this.depositPerRequest = Math.round(retryRatio * TOKEN);
+        this.refillNanosPerToken = minRetriesPerSecond == 0 ? 0 : Duration.ofSeconds(1).toNanos() / minRetriesPerSecond;
+        this.maxBalance = Math.max(MIN_CAPACITY, minRetriesPerSecond * WINDOW.toSeconds() * TOKEN);
+        this.ticker = ticker;
+        // Start full, a new client hasn't made first attempts yet, but is allowed to retry its first failures.
+        this.balance = new AtomicLong(maxBalance);
+        this.lastRefillNanos = new AtomicLong(ticker.read());
+    }
+
+    /** Creates the budget shared by all endpoints of a channel, unlimited unless a retry ratio is configured. */
+    static RetryBudget create(Config cf) {
+        if (cf.retryBudgetRatio().isEmpty()) {
+            return UNLIMITED;
+        }
+        RetryBudget budget = create(
+                cf.retryBudgetRatio().getAsDouble(), cf.retryBudgetMinRetriesPerSecond(), cf.ticker());
+        budget.registerGauges(cf.clientConf().taggedMetricRegistry(), cf.channelName());
+        return budget;
+    }
+
+    /** Creates a budget without gauges, also used to limit hedged attempts, see {@link HedgingChannel}. */
+    static RetryBudget create(double retryRatio, int minRetriesPerSecond, Ticker ticker) {
+        Preconditions.checkArgument(retryRatio >= 0, "retryRatio must not be negative");
+        Preconditions.checkArgument(minRetriesPerSecond >= 0, "minRetriesPerSecond must not be negative");
+        return new RetryBudget(retryRatio, minRetriesPerSecond, ticker);
+    }
+
+    static RetryBudget unlimited() {
+        return UNLIMITED;
+    }
+
+    /** Records a first attempt, which adds to the budget available for retries. */
+    void onFirstAttempt() {
+        if (this != UNLIMITED) {
+            deposit(depositPerRequest);
+        }
+    }
+
+    /** Withdraws a token for a retry, returning false if the budget is exhausted and the retry should not be sent. */
+    boolean tryAcquireRetry() {
+        if (this == UNLIMITED) {
+            return true;
+        }
+        refill();
+        while (true) {
+            long current = balance.get();
+            if (current < TOKEN) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - TOKEN)) {
+                return true;
+            }
+        }
+    }
+
+    /** Returns a token acquired by {@link #tryAcquireRetry()} for a retry which was not sent after all. */
+    void releaseRetry() {
+        if (this != UNLIMITED) {
+            deposit(TOKEN);
+        }
+    }
+
+    /** Number of retries which are currently available. */
+    double availableRetries() {
+        return this == UNLIMITED ? Double.POSITIVE_INFINITY : (double) balance.get() / TOKEN;
+    }
+
+    private void refill() {
+        if (refillNanosPerToken == 0) {
+            return;
+        }
+        long last = lastRefillNanos.get();
+        long tokens = (ticker.read() - last) / refillNanosPerToken;
+        // Only the thread which advances the refill time deposits, the remainder is kept for the next refill.
+        if (tokens > 0 && lastRefillNanos.compareAndSet(last, last + tokens * refillNanosPerToken)) {
+            deposit(Math.min(tokens, maxBalance / TOKEN) * TOKEN);
+        }
+    }
+
+    private void deposit(long amount) {
+        while (true) {
+            long current = balance.get();
+            if (current >= maxBalance) {
+                return;
+            }
+            if (balance.compareAndSet(current, Math.min(maxBalance, current + amount))) {
+                return;
+            }
+        }
+    }
+
+    private void registerGauges(TaggedMetricRegistry registry, String channelName) {
+        DialogueClientMetrics metrics = DialogueClientMetrics.of(registry);
+        // Weak gauges ensure the budget can be GCd along with its channel. Budgets of channels which share a name
+        // are summed.
+        DialogueInternalWeakReducingGauge.getOrCreateDouble(
+                registry,
+                metrics.retryBudget()
+                        .channelName(channelName)
+                        .type("available")
+                        .buildMetricName(),
+                RetryBudget::availableRetries,
+                DoubleStream::sum,
+                this);
+        DialogueInternalWeakReducingGauge.getOrCreateDouble(
+                registry,
+                metrics.retryBudget()
+                        .channelName(channelName)
+                        .type("capacity")
+                        .buildMetricName(),
+                budget -> (double) budget.maxBalance / TOKEN,
+                DoubleStream::sum,
+                this);
+    }
+
+    @Override
+    public String toString() {
+        return "RetryBudget{availableRetries=" + availableRetries() + '}';
+    }
+}
@@ -32,6 +32,7 @@ import com.palantir.dialogue.EndpointChannel;
 import com.palantir.dialogue.HttpMethod;
 import com.palantir.dialogue.Request;
 import com.palantir.dialogue.RequestBody;
+import com.palantir.dialogue.RequestDeadlines;
 import com.palantir.dialogue.Response;
 import com.palantir.dialogue.futures.DialogueFutures;
 import com.palantir.logsafe.SafeArg;
@@ -63,27 +64,36 @@ import java.util.function.Function;
 import java.util.function.Supplier;
 import javax.annotation.Nullable;
 
-/** Retries failed requests by scheduling them onto a ScheduledExecutorService after an exponential backoff. */
+/**
+ * Retries failed requests by scheduling them onto a ScheduledExecutorService after an exponential backoff. Retries
+ * are limited by a {@link RetryBudget} shared by all endpoints of a channel, when the budget is exhausted the failure
+ * is returned immediately. Failures are also returned immediately when the backoff would end after the request's
+ * {@link RequestDeadlines deadline}, since the caller will have stopped waiting by the time the retry is sent.
+ */
 final class RetryingChannel implements EndpointChannel {
 
     private static final SafeLogger log = SafeLoggerFactory.get(RetryingChannel.class);
     private static final String SCHEDULER_NAME = "dialogue-RetryingChannel-scheduler";
 
     /*
-     * Shared single thread executor is reused between all retrying channels. If it becomes oversaturated
-     * we may wait longer than expected before resuming requests, but this is an
-     * edge case where services are already operating in a degraded state and we should not
-     * spam servers.
+     * Shared hashed wheel timer is reused between all retrying channels. Scheduling and cancelling backoff is constant
+     * time regardless of the number of pending retries, which matters during incidents with a large retry fan-out.
+     * Retries are executed on the single timer thread, so if it becomes oversaturated we may wait longer than
+     * expected before resuming requests, but this is an edge case where services are already operating in a
+     * degraded state and we should not spam servers.
      */
     @SuppressWarnings("deprecation") // Singleton registry for a singleton executor
     static final Supplier<ScheduledExecutorService> sharedScheduler =
-            Suppliers.memoize(() -> DialogueExecutors.newSharedSingleThreadScheduler(MetricRegistries.instrument(
+            Suppliers.memoize(() -> DialogueExecutors.newSharedHashedWheelScheduler(
+                    MetricRegistries.instrument(
+                            SharedTaggedMetricRegistries.getSingleton(),
+                            new ThreadFactoryBuilder()
+                                    .setNameFormat(SCHEDULER_NAME + "-%d")
+                                    .setDaemon(true)
+                                    .build(),
+                            SCHEDULER_NAME),
                     SharedTaggedMetricRegistries.getSingleton(),
-                    new ThreadFactoryBuilder()
-                            .setNameFormat(SCHEDULER_NAME + "-%d")
-                            .setDaemon(true)
-                            .build(),
-                    SCHEDULER_NAME)));
+                    SCHEDULER_NAME));
 
     @SuppressWarnings("UnnecessaryLambda") // no allocations
     private static final BiFunction<Endpoint, Response, Throwable> qosThrowable = (_endpoint, response) ->
@@ -108,8 +118,11 @@ final class RetryingChannel implements EndpointChannel {
     private final Supplier<Meter> retryDueToServerError;
     private final Supplier<Meter> retryDueToQosResponse;
     private final Function<Throwable, Meter> retryDueToThrowable;
+    private final RetryBudget retryBudget;
+    private final Supplier<Meter> retryBudgetExhausted;
+    private final Supplier<Meter> retryPastDeadline;
 
-    static EndpointChannel create(Config cf, EndpointChannel channel, Endpoint endpoint) {
+    static EndpointChannel create(Config cf, EndpointChannel channel, Endpoint endpoint, RetryBudget retryBudget) {
         ClientConfiguration clientConf = cf.clientConf();
         if (clientConf.maxNumRetries() == 0) {
             return channel;
@@ -135,7 +148,8 @@ final class RetryingChannel implements EndpointChannel {
                 clientConf.serverQoS(),
                 clientConf.retryOnTimeout(),
                 cf.scheduler(),
-                cf.random()::nextDouble);
+                cf.random()::nextDouble,
+                retryBudget);
     }
 
     @VisibleForTesting
@@ -156,8 +170,32 @@ final class RetryingChannel implements EndpointChannel {
                 backoffSlotSize,
                 serverQoS,
                 retryOnTimeout,
+                RetryBudget.unlimited());
+    }
+
+    @VisibleForTesting
+    RetryingChannel(
+            EndpointChannel delegate,
+            Endpoint endpoint,
+            String channelName,
+            TaggedMetricRegistry metrics,
+            int maxRetries,
+            Duration backoffSlotSize,
+            ClientConfiguration.ServerQoS serverQoS,
+            ClientConfiguration.RetryOnTimeout retryOnTimeout,
+            RetryBudget retryBudget) {
+        this(
+                delegate,
+                endpoint,
+                channelName,
+                metrics,
+                maxRetries,
+                backoffSlotSize,
+                serverQoS,
+                retryOnTimeout,
                 sharedScheduler.get(),
-                () -> ThreadLocalRandom.current().nextDouble());
+                () -> ThreadLocalRandom.current().nextDouble(),
+                retryBudget);
     }
 
     private RetryingChannel(
@@ -170,7 +208,8 @@ final class RetryingChannel implements EndpointChannel {
             ClientConfiguration.ServerQoS serverQoS,
             ClientConfiguration.RetryOnTimeout retryOnTimeout,
             ScheduledExecutorService scheduler,
-            DoubleSupplier jitter) {
+            DoubleSupplier jitter,
+            RetryBudget retryBudget) {
         this.delegate = delegate;
         this.endpoint = endpoint;
         this.channelName = channelName;
@@ -196,6 +235,17 @@ final class RetryingChannel implements EndpointChannel {
                 .channelName(channelName)
                 .reason(throwable.getClass().getSimpleName())
                 .build();
+        this.retryBudget = retryBudget;
+        this.retryBudgetExhausted = Suppliers.memoize(() -> dialogueClientMetrics
+                .requestRetry()
+                .channelName(channelName)
+                .reason("budgetExhausted")
+                .build());
+        this.retryPastDeadline = Suppliers.memoize(() -> dialogueClientMetrics
+                .requestRetry()
+                .channelName(channelName)
+                .reason("pastDeadline")
+                .build());
     }
 
     @Override
@@ -238,6 +288,7 @@ final class RetryingChannel implements EndpointChannel {
         }
 
         ListenableFuture<Response> execute() {
+            retryBudget.onFirstAttempt();
             ListenableFuture<Response> result = wrap(delegate.execute(request));
             result.addListener(
                     () -> {
@@ -286,8 +337,17 @@ final class RetryingChannel implements EndpointChannel {
             if (++failures <= maxRetries) {
                 if (requestCanBeRetried() && shouldAttemptToRetry(clientSideThrowable)) {
                     callsiteStacktrace.ifPresent(clientSideThrowable::addSuppressed);
-                    Meter retryReason = retryDueToThrowable.apply(clientSideThrowable);
                     long backoffNanoseconds = getBackoffNanoseconds();
+                    if (isPastDeadline(backoffNanoseconds)) {
+                        onRetrySkipped(retryPastDeadline, "deadline", OptionalInt.empty(), clientSideThrowable);
+                        return Futures.immediateFailedFuture(clientSideThrowable);
+                    }
+                    if (!retryBudget.tryAcquireRetry()) {
+                        onRetrySkipped(
+                                retryBudgetExhausted, "budgetExhausted", OptionalInt.empty(), clientSideThrowable);
+                        return Futures.immediateFailedFuture(clientSideThrowable);
+                    }
+                    Meter retryReason = retryDueToThrowable.apply(clientSideThrowable);
                     infoLogRetry(backoffNanoseconds, OptionalInt.empty(), clientSideThrowable);
                     return scheduleRetry(retryReason, backoffNanoseconds);
                 } else if (log.isDebugEnabled()) {
@@ -308,9 +368,21 @@ final class RetryingChannel implements EndpointChannel {
         private ListenableFuture<Response> incrementFailuresAndMaybeRetry(
                 Response response, BiFunction<Endpoint, Response, Throwable> failureSupplier, Meter meter) {
             if (++failures <= maxRetries) {
+                // Redirects to another node don't add load to a degraded node, so they don't use the budget
+                boolean retryOther = Responses.isRetryOther(response);
+                long backoffNanos = retryOther ? 0 : getBackoffNanoseconds();
+                if (isPastDeadline(backoffNanos)) {
+                    onRetrySkipped(retryPastDeadline, "deadline", OptionalInt.of(response.code()), null);
+                    // not closing response because ConjureBodySerde will need to deserialize it
+                    return Futures.immediateFuture(response);
+                }
+                if (!retryOther && !retryBudget.tryAcquireRetry()) {
+                    onRetrySkipped(retryBudgetExhausted, "budgetExhausted", OptionalInt.of(response.code()), null);
+                    // not closing response because ConjureBodySerde will need to deserialize it
+                    return Futures.immediateFuture(response);
+                }
                 response.close();
                 Throwable throwableToLog = log.isTraceEnabled() ? failureSupplier.apply(endpoint, response) : null;
-                long backoffNanos = Responses.isRetryOther(response) ? 0 : getBackoffNanoseconds();
                 infoLogRetry(backoffNanos, OptionalInt.of(response.code()), throwableToLog);
                 return scheduleRetry(meter, backoffNanos);
             }
@@ -370,6 +442,12 @@ final class RetryingChannel implements EndpointChannel {
             return wrap(responseFuture);
         }
 
+        /** Whether a retry sent after {@code backoffNanoseconds} would be sent after the request's deadline. */
+        private boolean isPastDeadline(long backoffNanoseconds) {
+            OptionalLong deadlineNanos = RequestDeadlines.getDeadlineNanos(request);
+            return deadlineNanos.isPresent() && System.nanoTime() + backoffNanoseconds - deadlineNanos.getAsLong() >= 0;
+        }
+
         private long getBackoffNanoseconds() {
             if (failures == 0) {
                 return 0L;
@@ -393,6 +471,9 @@ final class RetryingChannel implements EndpointChannel {
         }
 
         private boolean shouldAttemptToRetry(Throwable throwable) {
+            if (throwable instanceof QueueShedException) {
+                return ((QueueShedException) throwable).isRetryable();
+            }
             if (retryOnTimeout == ClientConfiguration.RetryOnTimeout.DISABLED) {
                 if (throwable instanceof SocketTimeoutException) {
                     // non-connect timeouts should not be retried
@@ -425,6 +506,23 @@ final class RetryingChannel implements EndpointChannel {
             }
         }
 
+        private void onRetrySkipped(
+                Supplier<Meter> meter, String reason, OptionalInt responseStatus, @Nullable Throwable throwable) {
+            meter.get().mark();
+            if (log.isDebugEnabled()) {
+                log.debug(
+                        "Not retrying failure {}/{} due to {}, channel: {}, service: {}, endpoint: {}, status: {}",
+                        SafeArg.of("failures", failures),
+                        SafeArg.of("maxRetries", maxRetries),
+                        SafeArg.of("reason", reason),
+                        SafeArg.of("channelName", channelName),
+                        SafeArg.of("serviceName", endpoint.serviceName()),
+                        SafeArg.of("endpoint", endpoint.endpointName()),
+                        SafeArg.of("status", responseStatus.isPresent() ? responseStatus.getAsInt() : null),
+                        throwable);
+            }
+        }
+
         private void infoLogRetry(long backoffNanoseconds, OptionalInt responseStatus, @Nullable Throwable throwable) {
             if (log.isInfoEnabled()) {
                 log.info(
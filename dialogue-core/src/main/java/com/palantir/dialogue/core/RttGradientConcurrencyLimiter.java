@@ -0,0 +1,230 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.AtomicDouble;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.core.CautiousIncreaseAggressiveDecreaseConcurrencyLimiter.Behavior;
+import com.palantir.dialogue.core.CautiousIncreaseAggressiveDecreaseConcurrencyLimiter.PermitControl;
+import com.palantir.dialogue.core.LimitedChannel.LimitEnforcement;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.logsafe.logger.SafeLogger;
+import com.palantir.logsafe.logger.SafeLoggerFactory;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free latency-based concurrency limiter. Response times of successful requests are tracked using a
+ * short-window and a long-window exponentially weighted moving average. While the short-window average stays close
+ * to the long-window average the limit grows in proportion to the square root of the limit, and when the short-window
+ * average rises above the long-window average (requests are queueing somewhere) the limit shrinks in proportion,
+ * before the server starts failing requests.
+ *
+ * Requests which are {@link PermitControl#dropped dropped} by the {@link Behavior} shrink the limit multiplicatively,
+ * exactly like {@link CautiousIncreaseAggressiveDecreaseConcurrencyLimiter}.
+ *
+ * This class is loosely based on the Gradient2 limit from the
+ * <a href="https://github.com/Netflix/concurrency-limits">Netflix concurrency-limits library</a>.
+ */
+final class RttGradientConcurrencyLimiter implements ConcurrencyLimiter {
+
+    private static final SafeLogger log = SafeLoggerFactory.get(RttGradientConcurrencyLimiter.class);
+    private static final double INITIAL_LIMIT = 20;
+    private static final double BACKOFF_RATIO = .9D;
+    private static final double MIN_LIMIT = 1;
+    private static final double MAX_LIMIT = 1_000_000D;
+
+    /** Smoothing factors equivalent to a 10 and 600 sample moving average. */
+    private static final double SHORT_WINDOW_ALPHA = 2D / (10 + 1);
+
+    private static final double LONG_WINDOW_ALPHA = 2D / (600 + 1);
+
+    /** Latency may grow by this ratio over the long-window average before the limit is reduced. */
+    private static final double RTT_TOLERANCE = 1.5D;
+
+    /** Weight of each new limit estimate, so a single slow response cannot halve the limit. */
+    private static final double LIMIT_SMOOTHING = .2D;
+
+    /**
+     * Once latency recovers we don't want to wait hundreds of samples for the long-window average to catch up,
+     * as the limit would keep growing unchecked against a stale baseline.
+     */
+    private static final double LONG_WINDOW_RECOVERY_RATIO = 2D;
+
+    private static final double LONG_WINDOW_DECAY = .95D;
+
+    private final AtomicDouble limit = new AtomicDouble(INITIAL_LIMIT);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicDouble shortRttNanos = new AtomicDouble();
+    private final AtomicDouble longRttNanos = new AtomicDouble();
+
+    private final Behavior behavior;
+    private final Ticker ticker;
+
+    RttGradientConcurrencyLimiter(Behavior behavior, Ticker ticker) {
+        this.behavior = behavior;
+        this.ticker = ticker;
+    }
+
+    @Override
+    public Optional<Permit> acquire(LimitEnforcement limitEnforcement) {
+        AtomicInteger localInFlight = inFlight;
+        // Wait until there is capacity for one whole request, see CautiousIncreaseAggressiveDecreaseConcurrencyLimiter
+        int currentLimit = (int) getLimit();
+        while (true) {
+            int currentInFlight = localInFlight.get();
+            if (limitEnforcement.enforceLimits() && currentInFlight >= currentLimit) {
+                return Optional.empty();
+            }
+
+            int newInFlight = currentInFlight + 1;
+            if (localInFlight.compareAndSet(currentInFlight, newInFlight)) {
+                return Optional.of(new Permit(newInFlight, ticker.read()));
+            }
+        }
+    }
+
+    final class Permit implements PermitControl, ConcurrencyLimiter.Permit {
+        private final int inFlightSnapshot;
+        private final long startNanos;
+
+        Permit(int inFlightSnapshot, long startNanos) {
+            this.inFlightSnapshot = inFlightSnapshot;
+            this.startNanos = startNanos;
+        }
+
+        @Override
+        public void onSuccess(Response result) {
+            behavior.onSuccess(result, this);
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {
+            behavior.onFailure(throwable, this);
+        }
+
+        @Override
+        public void ignore() {
+            inFlight.decrementAndGet();
+        }
+
+        @Override
+        public void dropped() {
+            inFlight.decrementAndGet();
+            double newLimit = decreaseLimit();
+            if (log.isDebugEnabled()) {
+                log.debug("Decreasing limit {}", SafeArg.of("newLimit", newLimit));
+            }
+        }
+
+        @Override
+        public void success() {
+            inFlight.decrementAndGet();
+            double newLimit = onSample(ticker.read() - startNanos, inFlightSnapshot);
+            if (log.isDebugEnabled()) {
+                log.debug("Updated limit {}", SafeArg.of("newLimit", newLimit));
+            }
+        }
+    }
+
+    @VisibleForTesting
+    double onSample(long rttNanos, int inFlightSnapshot) {
+        double shortRtt = updateAverage(shortRttNanos, rttNanos, SHORT_WINDOW_ALPHA);
+        double longRtt = updateAverage(longRttNanos, rttNanos, LONG_WINDOW_ALPHA);
+        if (shortRtt > 0 && longRtt / shortRtt > LONG_WINDOW_RECOVERY_RATIO) {
+            longRtt = updateAverage(longRttNanos, shortRtt, 1 - LONG_WINDOW_DECAY);
+        }
+
+        double gradient = gradient(shortRtt, longRtt);
+        AtomicDouble localLimit = limit;
+        while (true) {
+            double limitSnapshot = localLimit.get();
+            // Don't grow the limit when the client isn't sending enough requests to use it, the samples say nothing
+            // about how the server behaves closer to the limit.
+            if (inFlightSnapshot < limitSnapshot / 2) {
+                return limitSnapshot;
+            }
+            double estimate = limitSnapshot * gradient + Math.sqrt(limitSnapshot);
+            double newLimit = limitSnapshot * (1 - LIMIT_SMOOTHING) + estimate * LIMIT_SMOOTHING;
+            newLimit = Math.max(MIN_LIMIT, Math.min(MAX_LIMIT, newLimit));
+            if (localLimit.compareAndSet(limitSnapshot, newLimit)) {
+                return newLimit;
+            }
+        }
+    }
+
+    /**
+     * Ratio by which the limit should shrink, between 0.5 when the short-window average is far above the long-window
+     * average, and 1 when latency is within tolerance of the long-window average.
+     */
+    private static double gradient(double shortRtt, double longRtt) {
+        if (shortRtt <= 0) {
+            return 1D;
+        }
+        return Math.max(.5D, Math.min(1D, RTT_TOLERANCE * longRtt / shortRtt));
+    }
+
+    private double decreaseLimit() {
+        AtomicDouble localLimit = limit;
+        while (true) {
+            double limitSnapshot = localLimit.get();
+            // Floor the new value to avoid effectively no-op decreases when the limit close to 1.
+            double newLimit = Math.max(MIN_LIMIT, Math.floor(limitSnapshot * BACKOFF_RATIO));
+            if (localLimit.compareAndSet(limitSnapshot, newLimit)) {
+                return newLimit;
+            }
+        }
+    }
+
+    private static double updateAverage(AtomicDouble average, double sample, double alpha) {
+        while (true) {
+            double current = average.get();
+            double updated = current == 0 ? sample : current + alpha * (sample - current);
+            if (average.compareAndSet(current, updated)) {
+                return updated;
+            }
+        }
+    }
+
+    @Override
+    public double getLimit() {
+        return limit.get();
+    }
+
+    @Override
+    public int getInflight() {
+        return inFlight.get();
+    }
+
+    /** Short-window average response time of successful requests, in nanoseconds. */
+    double getShortRttNanos() {
+        return shortRttNanos.get();
+    }
+
+    /** Long-window average response time of successful requests, in nanoseconds. */
+    double getLongRttNanos() {
+        return longRttNanos.get();
+    }
+
+    @Override
+    public String toString() {
+        return "RttGradientConcurrencyLimiter{limit=" + limit + ", inFlight=" + inFlight + ", shortRttNanos="
+                + shortRttNanos + ", longRttNanos=" + longRttNanos + '}';
+    }
+}
@@ -0,0 +1,328 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.codahale.metrics.Meter;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.dialogue.Endpoint;
+import com.palantir.dialogue.EndpointChannel;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.RequestDeadlines;
+import com.palantir.dialogue.RequestPriority;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.futures.DialogueFutures;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.GuardedBy;
+
+/**
+ * Coalesces identical in-flight requests, so requests sent while an equal request (same path, query and header
+ * parameters, including credentials) is in flight wait for its response rather than sending their own. Only applies to
+ * {@code GET} and {@code HEAD} endpoints tagged with {@link #COALESCE_TAG}, or all of them when configured, and never
+ * to requests with a body. Completed responses are not reused, a request sent after the response arrived is sent again.
+ *
+ * <p>When other requests joined the call, the body is read into memory on the thread completing the call, up to
+ * {@link #MAX_BUFFERED_BYTES}, and each request receives a {@link Response} replaying the buffered body, which can be
+ * read and closed independently of the others. Bodies which exceed the limit are streamed to the first request, and
+ * the other requests are sent separately. Failures are shared by every request.
+ *
+ * <p>Each request receives its own future, cancelling it only cancels the shared call once every request waiting on
+ * the call has been cancelled.
+ *
+ * <p>Requests only join a call with the same {@link RequestPriority}, and which can't be failed by its
+ * {@link RequestDeadlines deadline} before their own: a request without a deadline only joins calls without one.
+ * A request which joins a call with a later deadline, or none, fails with a {@link QueueShedException} once its own
+ * deadline passes, without affecting the call.
+ */
+final class SingleFlightChannel implements EndpointChannel {
+    static final String COALESCE_TAG = "dialogue-coalesce-requests";
+    static final int MAX_BUFFERED_BYTES = 1024 * 1024;
+
+    private final EndpointChannel delegate;
+    private final Endpoint endpoint;
+    private final String channelName;
+    private final int maxBufferedBytes;
+    private final ScheduledExecutorService scheduler;
+    private final Meter hitMeter;
+    private final Meter missMeter;
+    private final ConcurrentMap<Request, Flight> flights = new ConcurrentHashMap<>();
+
+    @VisibleForTesting
+    SingleFlightChannel(
+            EndpointChannel delegate,
+            Endpoint endpoint,
+            String channelName,
+            int maxBufferedBytes,
+            ScheduledExecutorService scheduler,
+            TaggedMetricRegistry taggedMetrics) {
+        this.delegate = delegate;
+        this.endpoint = endpoint;
+        this.channelName = channelName;
+        this.maxBufferedBytes = maxBufferedBytes;
+        this.scheduler = scheduler;
+        DialogueSingleflightMetrics metrics = DialogueSingleflightMetrics.of(taggedMetrics);
+        this.hitMeter = metrics.request()
+                .channelName(channelName)
+                .serviceName(endpoint.serviceName())
+                .endpoint(endpoint.endpointName())
+                .result("hit")
+                .build();
+        this.missMeter = metrics.request()
+                .channelName(channelName)
+                .serviceName(endpoint.serviceName())
+                .endpoint(endpoint.endpointName())
+                .result("miss")
+                .build();
+    }
+
+    static EndpointChannel create(Config cf, EndpointChannel delegate, Endpoint endpoint) {
+        if (!isEnabled(cf, endpoint)) {
+            return delegate;
+        }
+        return new SingleFlightChannel(
+                delegate,
+                endpoint,
+                cf.channelName(),
+                MAX_BUFFERED_BYTES,
+                cf.scheduler(),
+                cf.clientConf().taggedMetricRegistry());
+    }
+
+    private static boolean isEnabled(Config cf, Endpoint endpoint) {
+        switch (endpoint.httpMethod()) {
+            case GET:
+            case HEAD:
+                return cf.requestCoalescing() || endpoint.tags().contains(COALESCE_TAG);
+            default:
+                return false;
+        }
+    }
+
+    @Override
+    public ListenableFuture<Response> execute(Request request) {
+        if (request.body().isPresent()) {
+            return delegate.execute(request);
+        }
+        RequestPriority priority = RequestPriority.of(endpoint, request);
+        OptionalLong deadlineNanos = RequestDeadlines.getDeadlineNanos(request);
+        Flight flight = new Flight(request, priority, deadlineNanos);
+        Flight existing = flights.putIfAbsent(request, flight);
+        if (existing != null) {
+            ListenableFuture<Response> joined =
+                    existing.accepts(priority, deadlineNanos) ? existing.join(deadlineNanos) : null;
+            if (joined != null) {
+                hitMeter.mark();
+                return joined;
+            }
+            // The call completed concurrently, so its response can no longer be shared, or the request must not
+            // share its priority or deadline.
+            missMeter.mark();
+            return delegate.execute(request);
+        }
+        missMeter.mark();
+        return flight.start();
+    }
+
+    @VisibleForTesting
+    int inFlight() {
+        return flights.size();
+    }
+
+    @Override
+    public String toString() {
+        return "SingleFlightChannel{delegate=" + delegate + ", maxBufferedBytes=" + maxBufferedBytes + '}';
+    }
+
+    private final class Flight implements FutureCallback<Response> {
+        private final Request request;
+        private final RequestPriority priority;
+        private final OptionalLong deadlineNanos;
+
+        @GuardedBy("this")
+        private final List<SettableFuture<Response>> waiters = new ArrayList<>(2);
+
+        @GuardedBy("this")
+        private boolean closed;
+
+        @Nullable
+        @GuardedBy("this")
+        private ListenableFuture<Response> upstream;
+
+        Flight(Request request, RequestPriority priority, OptionalLong deadlineNanos) {
+            this.request = request;
+            this.priority = priority;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Returns true if a request with the given priority and deadline may join, which requires that the call isn't
+         * failed by its deadline before the deadline of the request, and that the request's deadline hasn't passed.
+         */
+        boolean accepts(RequestPriority requestPriority, OptionalLong requestDeadlineNanos) {
+            if (requestPriority != priority) {
+                return false;
+            }
+            if (requestDeadlineNanos.isEmpty()) {
+                return deadlineNanos.isEmpty();
+            }
+            long requestDeadline = requestDeadlineNanos.getAsLong();
+            return System.nanoTime() - requestDeadline < 0
+                    && (deadlineNanos.isEmpty() || requestDeadline - deadlineNanos.getAsLong() <= 0);
+        }
+
+        ListenableFuture<Response> start() {
+            // Nothing can close the flight before the first future has been returned. The deadline of the first
+            // request is enforced by the call itself.
+            SettableFuture<Response> first = join(OptionalLong.empty());
+            ListenableFuture<Response> call = delegate.execute(request);
+            synchronized (this) {
+                upstream = call;
+            }
+            DialogueFutures.addDirectCallback(call, this);
+            return first;
+        }
+
+        /**
+         * Returns a future for the shared response, or null once the flight can no longer be joined. The future fails
+         * once {@code waiterDeadlineNanos} passes, if present.
+         */
+        @Nullable
+        SettableFuture<Response> join(OptionalLong waiterDeadlineNanos) {
+            SettableFuture<Response> waiter = SettableFuture.create();
+            synchronized (this) {
+                if (closed) {
+                    return null;
+                }
+                waiters.add(waiter);
+            }
+            waiter.addListener(
+                    () -> {
+                        if (waiter.isCancelled()) {
+                            leave(waiter);
+                        }
+                    },
+                    MoreExecutors.directExecutor());
+            if (waiterDeadlineNanos.isPresent()) {
+                long joinedNanos = System.nanoTime();
+                Future<?> timeout = scheduler.schedule(
+                        () -> {
+                            QueueShedException exception = new QueueShedException(
+                                    QueueShedException.Reason.DEADLINE, channelName, System.nanoTime() - joinedNanos);
+                            if (waiter.setException(exception)) {
+                                leave(waiter);
+                            }
+                        },
+                        waiterDeadlineNanos.getAsLong() - joinedNanos,
+                        TimeUnit.NANOSECONDS);
+                waiter.addListener(() -> timeout.cancel(false), MoreExecutors.directExecutor());
+            }
+            return waiter;
+        }
+
+        /** Removes a waiter which no longer needs the response, and cancels the call once no waiters remain. */
+        private void leave(SettableFuture<Response> waiter) {
+            ListenableFuture<Response> call;
+            synchronized (this) {
+                if (closed || !waiters.remove(waiter) || !waiters.isEmpty()) {
+                    return;
+                }
+                closed = true;
+                call = upstream;
+            }
+            flights.remove(request, this);
+            if (call != null) {
+                call.cancel(false);
+            }
+        }
+
+        private List<SettableFuture<Response>> close() {
+            flights.remove(request, this);
+            synchronized (this) {
+                closed = true;
+                return ImmutableList.copyOf(waiters);
+            }
+        }
+
+        @Override
+        public void onSuccess(Response response) {
+            List<SettableFuture<Response>> current = close();
+            if (current.isEmpty()) {
+                response.close();
+            } else if (current.size() == 1) {
+                // Nothing joined the call, so the response is passed through without buffering.
+                complete(current.get(0), response);
+            } else {
+                share(response, current);
+            }
+        }
+
+        @Override
+        public void onFailure(Throwable throwable) {
+            for (SettableFuture<Response> waiter : close()) {
+                waiter.setException(throwable);
+            }
+        }
+
+        private void share(Response response, List<SettableFuture<Response>> current) {
+            byte[] buffered;
+            try {
+                buffered = BufferedResponse.readPrefix(response.body(), maxBufferedBytes);
+            } catch (IOException | RuntimeException e) {
+                response.close();
+                for (SettableFuture<Response> waiter : current) {
+                    waiter.setException(e);
+                }
+                return;
+            }
+            if (buffered.length > maxBufferedBytes) {
+                complete(current.get(0), BufferedResponse.streaming(response, buffered));
+                for (int i = 1; i < current.size(); i++) {
+                    SettableFuture<Response> waiter = current.get(i);
+                    if (!waiter.isDone()) {
+                        waiter.setFuture(delegate.execute(request));
+                    }
+                }
+                return;
+            }
+            response.close();
+            for (SettableFuture<Response> waiter : current) {
+                complete(waiter, BufferedResponse.of(response.code(), response.headers(), buffered));
+            }
+        }
+    }
+
+    private static void complete(SettableFuture<Response> waiter, Response response) {
+        if (!waiter.set(response)) {
+            // The waiter was cancelled while the response was arriving.
+            response.close();
+        }
+    }
+}
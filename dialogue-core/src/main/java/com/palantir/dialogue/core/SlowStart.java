@@ -0,0 +1,106 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import com.google.common.annotations.VisibleForTesting;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import com.palantir.tritium.metrics.registry.MetricName;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the effective weight of a single host which was just added or has just recovered, which ramps linearly from
+ * {@link #MIN_WEIGHT} to full over the slow start window. Freshly started servers are often slow until their JIT and
+ * caches warm up, and would time out and be marked as failed again if they immediately received a full share of
+ * requests. Node selection strategies send each host a share of requests proportional to its weight.
+ *
+ * <p>A host counts as recovered when it succeeds after {@link #RECOVERY_FAILURES} consecutive failures.
+ */
+final class SlowStart {
+    @VisibleForTesting
+    static final double MIN_WEIGHT = 0.1;
+
+    private static final int RECOVERY_FAILURES = 3;
+    private static final long NOT_RAMPING = Long.MIN_VALUE;
+
+    private final Ticker clock;
+    private final long windowNanos;
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong rampStartNanos = new AtomicLong(NOT_RAMPING);
+
+    SlowStart(Ticker clock, Duration window) {
+        Preconditions.checkArgument(
+                !window.isNegative() && !window.isZero(),
+                "Slow start window must be positive",
+                SafeArg.of("window", window));
+        this.clock = clock;
+        this.windowNanos = window.toNanos();
+    }
+
+    /** Restarts the ramp from {@link #MIN_WEIGHT}. */
+    void start() {
+        rampStartNanos.set(clock.read());
+    }
+
+    /** Returns the current weight, between {@link #MIN_WEIGHT} and 1. */
+    double weight() {
+        long start = rampStartNanos.get();
+        if (start == NOT_RAMPING) {
+            return 1;
+        }
+        long elapsed = clock.read() - start;
+        if (elapsed >= windowNanos) {
+            // Avoids reading the clock once the ramp is complete, unless the ramp was restarted concurrently
+            rampStartNanos.compareAndSet(start, NOT_RAMPING);
+            return 1;
+        }
+        return MIN_WEIGHT + (1 - MIN_WEIGHT) * elapsed / windowNanos;
+    }
+
+    /** Records a successful response, which starts the ramp if the host has just recovered. */
+    void onSuccess() {
+        if (consecutiveFailures.get() != 0 && consecutiveFailures.getAndSet(0) >= RECOVERY_FAILURES) {
+            start();
+        }
+    }
+
+    /** Records a failed request, or a response which indicates the host is unhealthy. */
+    void onFailure() {
+        consecutiveFailures.incrementAndGet();
+    }
+
+    /** Registers the {@code dialogue.nodeselection.slowStartWeight} gauge of the host with the given index. */
+    void registerGauge(TaggedMetricRegistry taggedMetrics, String channelName, int hostIndex) {
+        MetricName metricName = DialogueNodeselectionMetrics.of(taggedMetrics)
+                .slowStartWeight()
+                .channelName(channelName)
+                .hostIndex(Integer.toString(hostIndex))
+                .buildMetricName();
+        // Weak gauge ensures this object can be GCd when the host is removed
+        DialogueInternalWeakReducingGauge.getOrCreateDouble(
+                taggedMetrics, metricName, SlowStart::weight, weights -> weights.min().orElse(1), this);
+    }
+
+    @Override
+    public String toString() {
+        return "SlowStart{weight=" + weight() + ", consecutiveFailures=" + consecutiveFailures + '}';
+    }
+}
@@ -20,6 +20,7 @@ import com.github.benmanes.caffeine.cache.Ticker;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.palantir.dialogue.Channel;
 import com.palantir.dialogue.Endpoint;
@@ -118,10 +119,10 @@ public final class StickyEndpointChannels implements Supplier<Channel> {
 
         @Override
         public ListenableFuture<Response> execute(Request request) {
-            tracker.startRequest();
+            FutureCallback<Response> callback = tracker.startRequest();
             ListenableFuture<Response> future = delegate.execute(request);
             tracker.observability().markRequestMade();
-            DialogueFutures.addDirectCallback(future, tracker);
+            DialogueFutures.addDirectCallback(future, callback);
             return future;
         }
 
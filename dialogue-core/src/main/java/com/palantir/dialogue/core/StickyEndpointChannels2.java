@@ -61,12 +61,14 @@ final class StickyEndpointChannels2 implements Supplier<Channel> {
 
         private final String channelName;
         private final int maxQueueSize;
+        private final QueueOptions queueOptions;
         private final QueuedChannelInstrumentation queuedChannelInstrumentation;
         private final LimitedChannel nodeSelectionChannel;
 
         private QueueOverrideSupplier(Config cf, LimitedChannel nodeSelectionChannel) {
             this.channelName = cf.channelName();
             this.maxQueueSize = cf.maxQueueSize();
+            this.queueOptions = QueueOptions.from(cf);
             this.queuedChannelInstrumentation = QueuedChannel.stickyInstrumentation(
                     DialogueClientMetrics.of(cf.clientConf().taggedMetricRegistry()), channelName);
             this.nodeSelectionChannel = nodeSelectionChannel;
@@ -77,7 +79,7 @@ final class StickyEndpointChannels2 implements Supplier<Channel> {
             LimitedChannel stickyLimitedChannel =
                     StickyConcurrencyLimitedChannel.create(nodeSelectionChannel, channelName);
             return QueuedChannel.createForSticky(
-                    channelName, maxQueueSize, queuedChannelInstrumentation, stickyLimitedChannel);
+                    channelName, maxQueueSize, queuedChannelInstrumentation, stickyLimitedChannel, queueOptions);
         }
     }
 
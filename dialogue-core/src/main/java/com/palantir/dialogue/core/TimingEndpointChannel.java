@@ -41,9 +41,7 @@ final class TimingEndpointChannel implements EndpointChannel {
     private static final RateLimiter unknownThrowableLoggingRateLimiter = RateLimiter.create(1);
 
     private final EndpointChannel delegate;
-    private final Supplier<Timer> successTimer;
-    private final Supplier<Timer> failureTimer;
-    private final Ticker ticker;
+    private final ResponseTimer timer;
 
     TimingEndpointChannel(
             EndpointChannel delegate,
@@ -52,20 +50,7 @@ final class TimingEndpointChannel implements EndpointChannel {
             String channelName,
             Endpoint endpoint) {
         this.delegate = delegate;
-        this.ticker = ticker;
-        ClientMetrics metrics = ClientMetrics.of(taggedMetrics);
-        this.successTimer = Suppliers.memoize(() -> metrics.response()
-                .channelName(channelName)
-                .serviceName(endpoint.serviceName())
-                .endpoint(endpoint.endpointName())
-                .status("success")
-                .build());
-        this.failureTimer = Suppliers.memoize(() -> metrics.response()
-                .channelName(channelName)
-                .serviceName(endpoint.serviceName())
-                .endpoint(endpoint.endpointName())
-                .status("failure")
-                .build());
+        this.timer = new ResponseTimer(ticker, taggedMetrics, channelName, endpoint);
     }
 
     static EndpointChannel create(Config cf, EndpointChannel delegate, Endpoint endpoint) {
@@ -75,39 +60,77 @@ final class TimingEndpointChannel implements EndpointChannel {
 
     @Override
     public ListenableFuture<Response> execute(Request request) {
-        long beforeNanos = ticker.read();
+        long beforeNanos = timer.startNanos();
         ListenableFuture<Response> response = delegate.execute(request);
 
         return DialogueFutures.addDirectCallback(response, new FutureCallback<>() {
             @Override
-            @SuppressWarnings("PreferJavaTimeOverload")
             public void onSuccess(Response response) {
-                if (Responses.isSuccess(response)) {
-                    updateTimer(successTimer);
-                } else if (Responses.isQosStatus(response) || Responses.isInternalServerError(response)) {
-                    updateTimer(failureTimer);
-                }
+                timer.onSuccess(response, beforeNanos);
             }
 
             @Override
             public void onFailure(Throwable throwable) {
-                if (throwable instanceof IOException) {
-                    updateTimer(failureTimer);
-                } else {
-                    if (unknownThrowableLoggingRateLimiter.tryAcquire()) {
-                        log.info(
-                                "Unknown failure",
-                                SafeArg.of(
-                                        "exceptionClass", throwable.getClass().getName()));
-                    }
-                }
+                timer.onFailure(throwable, beforeNanos);
             }
+        });
+    }
+
+    /** Records the {@code client.response} timer for a single endpoint. */
+    static final class ResponseTimer {
+        private final Supplier<Timer> successTimer;
+        private final Supplier<Timer> failureTimer;
+        private final Ticker ticker;
+
+        ResponseTimer(Ticker ticker, TaggedMetricRegistry taggedMetrics, String channelName, Endpoint endpoint) {
+            this.ticker = ticker;
+            ClientMetrics metrics = ClientMetrics.of(taggedMetrics);
+            this.successTimer = Suppliers.memoize(() -> metrics.response()
+                    .channelName(channelName)
+                    .serviceName(endpoint.serviceName())
+                    .endpoint(endpoint.endpointName())
+                    .status("success")
+                    .build());
+            this.failureTimer = Suppliers.memoize(() -> metrics.response()
+                    .channelName(channelName)
+                    .serviceName(endpoint.serviceName())
+                    .endpoint(endpoint.endpointName())
+                    .status("failure")
+                    .build());
+        }
+
+        static ResponseTimer create(Config cf, Endpoint endpoint) {
+            return new ResponseTimer(cf.ticker(), cf.clientConf().taggedMetricRegistry(), cf.channelName(), endpoint);
+        }
 
-            @SuppressWarnings("PreferJavaTimeOverload") // performance sensitive
-            private void updateTimer(Supplier<Timer> timer) {
-                timer.get().update(ticker.read() - beforeNanos, TimeUnit.NANOSECONDS);
+        long startNanos() {
+            return ticker.read();
+        }
+
+        void onSuccess(Response response, long beforeNanos) {
+            if (Responses.isSuccess(response)) {
+                updateTimer(successTimer, beforeNanos);
+            } else if (Responses.isQosStatus(response) || Responses.isInternalServerError(response)) {
+                updateTimer(failureTimer, beforeNanos);
             }
-        });
+        }
+
+        void onFailure(Throwable throwable, long beforeNanos) {
+            if (throwable instanceof IOException) {
+                updateTimer(failureTimer, beforeNanos);
+            } else {
+                if (unknownThrowableLoggingRateLimiter.tryAcquire()) {
+                    log.info(
+                            "Unknown failure",
+                            SafeArg.of("exceptionClass", throwable.getClass().getName()));
+                }
+            }
+        }
+
+        @SuppressWarnings("PreferJavaTimeOverload") // performance sensitive
+        private void updateTimer(Supplier<Timer> timer, long beforeNanos) {
+            timer.get().update(ticker.read() - beforeNanos, TimeUnit.NANOSECONDS);
+        }
     }
 
     @Override
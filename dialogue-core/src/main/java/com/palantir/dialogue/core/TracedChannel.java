@@ -43,16 +43,18 @@ final class TracedChannel implements EndpointChannel {
     }
 
     static EndpointChannel create(Config cf, EndpointChannel delegate, Endpoint endpoint) {
-        String operationName =
-                "Dialogue: request " + endpoint.serviceName() + "#" + endpoint.endpointName() + meshSuffix(cf.mesh());
-        return new TracedChannel(delegate, operationName, tracingTags(cf, endpoint));
+        return new TracedChannel(delegate, operationName(cf, endpoint), tracingTags(cf, endpoint));
+    }
+
+    static String operationName(Config cf, Endpoint endpoint) {
+        return "Dialogue: request " + endpoint.serviceName() + "#" + endpoint.endpointName() + meshSuffix(cf.mesh());
     }
 
     private static String meshSuffix(MeshMode meshMode) {
         return meshMode == MeshMode.USE_EXTERNAL_MESH ? " (Mesh)" : "";
     }
 
-    private static ImmutableMap<String, String> tracingTags(Config cf, Endpoint endpoint) {
+    static ImmutableMap<String, String> tracingTags(Config cf, Endpoint endpoint) {
         ImmutableMap<String, String> endpointTags = DialogueTracing.tracingTags(endpoint);
         ImmutableMap<String, String> configTags = DialogueTracing.tracingTags(cf);
         return ImmutableMap.<String, String>builderWithExpectedSize(endpointTags.size() + configTags.size())
@@ -49,8 +49,12 @@ final class UserAgentEndpointChannel implements EndpointChannel {
     }
 
     static EndpointChannel create(EndpointChannel delegate, Endpoint endpoint, UserAgent baseAgent) {
-        String userAgent = UserAgents.format(augmentUserAgent(baseAgent, endpoint));
-        return new UserAgentEndpointChannel(delegate, userAgent);
+        return new UserAgentEndpointChannel(delegate, formatUserAgent(endpoint, baseAgent));
+    }
+
+    /** Returns the formatted {@code user-agent} header value used for requests to the given {@link Endpoint}. */
+    static String formatUserAgent(Endpoint endpoint, UserAgent baseAgent) {
+        return UserAgents.format(augmentUserAgent(baseAgent, endpoint));
     }
 
     @Override
@@ -0,0 +1,114 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.math.IntMath;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.logsafe.SafeArg;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import javax.annotation.Nullable;
+
+/**
+ * A bounded pool of objects holding native zlib state, such as a {@link java.util.zip.Deflater}, which is expensive to
+ * initialize and only freed by {@code end()} or, eventually, a {@link java.lang.ref.Cleaner}. Idle instances are held
+ * in a small array of slots, and threads acquire from and release into the slots nearest their own, so pooling
+ * doesn't add a contended lock. Instances are reset when released, and ended when every nearby slot is full.
+ *
+ * <p>A slot per processor, rather than a slot per thread, bounds the idle native memory regardless of the number of
+ * threads, which matters for virtual threads.
+ */
+final class ZlibPool<T> {
+
+    private static final int MAX_SLOTS = 16;
+    private static final int PROBES = 4;
+
+    private final Supplier<T> factory;
+    private final Consumer<T> reset;
+    private final Consumer<T> end;
+    private final AtomicReferenceArray<T> slots;
+    private final int mask;
+
+    @VisibleForTesting
+    ZlibPool(int slots, Supplier<T> factory, Consumer<T> reset, Consumer<T> end) {
+        Preconditions.checkArgument(
+                slots > 0 && Integer.bitCount(slots) == 1, "slots must be a power of two", SafeArg.of("slots", slots));
+        this.factory = factory;
+        this.reset = reset;
+        this.end = end;
+        this.slots = new AtomicReferenceArray<>(slots);
+        this.mask = slots - 1;
+    }
+
+    /** Creates a pool with one slot per available processor. */
+    static <T> ZlibPool<T> create(Supplier<T> factory, Consumer<T> reset, Consumer<T> end) {
+        int processors = Runtime.getRuntime().availableProcessors();
+        return new ZlibPool<>(Math.min(MAX_SLOTS, IntMath.ceilingPowerOfTwo(processors)), factory, reset, end);
+    }
+
+    /** Returns an idle instance, or a new one when the slots near this thread are empty. */
+    T acquire() {
+        int start = slot();
+        for (int i = 0; i < Math.min(PROBES, mask + 1); i++) {
+            int index = (start + i) & mask;
+            T value = slots.get(index);
+            if (value != null && slots.compareAndSet(index, value, null)) {
+                return value;
+            }
+        }
+        return factory.get();
+    }
+
+    /** Resets {@code value} and makes it available to other threads, or ends it if the pool is full. */
+    void release(@Nullable T value) {
+        if (value == null) {
+            return;
+        }
+        try {
+            reset.accept(value);
+        } catch (RuntimeException e) {
+            end.accept(value);
+            throw e;
+        }
+        int start = slot();
+        for (int i = 0; i < Math.min(PROBES, mask + 1); i++) {
+            if (slots.compareAndSet((start + i) & mask, null, value)) {
+                return;
+            }
+        }
+        end.accept(value);
+    }
+
+    @VisibleForTesting
+    int idle() {
+        int idle = 0;
+        for (int i = 0; i <= mask; i++) {
+            if (slots.get(i) != null) {
+                idle++;
+            }
+        }
+        return idle;
+    }
+
+    private int slot() {
+        // Spreads the identity hash, which is stable for the lifetime of the thread and cheap after the first call
+        int hash = System.identityHashCode(Thread.currentThread()) * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
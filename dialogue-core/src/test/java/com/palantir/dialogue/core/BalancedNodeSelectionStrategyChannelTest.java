@@ -19,6 +19,7 @@ package com.palantir.dialogue.core;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -40,6 +41,7 @@ import java.util.Optional;
 import java.util.Random;
 import java.util.concurrent.ExecutionException;
 import java.util.function.Consumer;
+import java.util.stream.IntStream;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -209,6 +211,155 @@ class BalancedNodeSelectionStrategyChannelTest {
                 .containsExactly(0, 0);
     }
 
+    @Test
+    void two_choices_when_one_channel_is_in_use_prefer_the_other() {
+        BalancedNodeSelectionStrategyChannel twoChoices = twoChoices(ImmutableList.of(chan1, chan2));
+        set200(chan1);
+        SettableFuture<Response> settableFuture = SettableFuture.create();
+        when(chan2.maybeExecute(any(), any(), eq(LimitEnforcement.DEFAULT_ENABLED)))
+                .thenReturn(Optional.of(settableFuture));
+
+        for (int i = 0; i < 200; i++) {
+            twoChoices.maybeExecute(endpoint, request, LimitEnforcement.DEFAULT_ENABLED);
+        }
+        verify(chan1, times(199)).maybeExecute(eq(endpoint), any(), eq(LimitEnforcement.DEFAULT_ENABLED));
+        verify(chan2, times(1)).maybeExecute(eq(endpoint), any(), eq(LimitEnforcement.DEFAULT_ENABLED));
+    }
+
+    @Test
+    void two_choices_when_candidates_refuse_walk_remaining_channels() {
+        LimitedChannel chan3 = mock(LimitedChannel.class);
+        LimitedChannel chan4 = mock(LimitedChannel.class);
+        BalancedNodeSelectionStrategyChannel twoChoices = twoChoices(ImmutableList.of(chan1, chan2, chan3, chan4));
+        for (LimitedChannel chan : ImmutableList.of(chan1, chan2, chan3, chan4)) {
+            when(chan.maybeExecute(any(), any(), eq(LimitEnforcement.DEFAULT_ENABLED)))
+                    .thenReturn(Optional.empty());
+        }
+
+        assertThat(twoChoices.maybeExecute(endpoint, request, LimitEnforcement.DEFAULT_ENABLED))
+                .isNotPresent();
+        for (LimitedChannel chan : ImmutableList.of(chan1, chan2, chan3, chan4)) {
+            verify(chan, times(1)).maybeExecute(eq(endpoint), any(), eq(LimitEnforcement.DEFAULT_ENABLED));
+        }
+    }
+
+    @Test
+    void two_choices_spreads_load_evenly() {
+        ImmutableList<LimitedChannel> channels = IntStream.range(0, 8)
+                .mapToObj(_i -> mock(LimitedChannel.class))
+                .collect(ImmutableList.toImmutableList());
+        BalancedNodeSelectionStrategyChannel twoChoices = twoChoices(channels);
+        for (LimitedChannel chan : channels) {
+            when(chan.maybeExecute(any(), any(), eq(LimitEnforcement.DEFAULT_ENABLED)))
+                    .thenAnswer(_invocation -> Optional.of(SettableFuture.create()));
+        }
+
+        for (int i = 0; i < 800; i++) {
+            assertThat(twoChoices.maybeExecute(endpoint, request, LimitEnforcement.DEFAULT_ENABLED))
+                    .isPresent();
+        }
+        assertThat(twoChoices.getScoresForTesting())
+                .describedAs("Requests never complete, so the scores are the number of requests sent to each channel")
+                .allSatisfy(score -> assertThat(score).isBetween(90, 110));
+    }
+
+    @Test
+    void latency_scoring_penalizes_slower_channel() {
+        BalancedNodeSelectionStrategyChannel latencyChannel = new BalancedNodeSelectionStrategyChannel(
+                ImmutableList.of(chan1, chan2),
+                Optional.empty(),
+                BalancedOptions.builder().latencyScoring(true).build(),
+                random,
+                clock,
+                new DefaultTaggedMetricRegistry(),
+                "channelName");
+        SettableFuture<Response> fast = SettableFuture.create();
+        SettableFuture<Response> slow = SettableFuture.create();
+        when(chan1.maybeExecute(any(), any(), eq(LimitEnforcement.DEFAULT_ENABLED)))
+                .thenReturn(Optional.of(fast));
+        when(chan2.maybeExecute(any(), any(), eq(LimitEnforcement.DEFAULT_ENABLED)))
+                .thenReturn(Optional.of(slow));
+
+        latencyChannel.maybeExecute(endpoint, request, LimitEnforcement.DEFAULT_ENABLED);
+        latencyChannel.maybeExecute(endpoint, request, LimitEnforcement.DEFAULT_ENABLED);
+        incrementClockBy(Duration.ofMillis(100));
+        fast.set(new TestResponse().code(200));
+        incrementClockBy(Duration.ofMillis(200));
+        slow.set(new TestResponse().code(200));
+
+        assertThat(latencyChannel.getScoresForTesting())
+                .describedAs("A channel three times slower costs as much as three requests")
+                .containsExactly(0, 2);
+    }
+
+    @Test
+    void slow_start_ramps_up_added_channels() {
+        LimitedChannel chan3 = mock(LimitedChannel.class);
+        BalancedOptions options = BalancedOptions.builder().slowStart(Duration.ofSeconds(10)).build();
+        BalancedNodeSelectionStrategyChannel initial = new BalancedNodeSelectionStrategyChannel(
+                ImmutableList.of(chan1, chan2),
+                Optional.empty(),
+                options,
+                random,
+                clock,
+                new DefaultTaggedMetricRegistry(),
+                "channelName");
+        assertThat(initial.getScoresForTesting())
+                .describedAs("Initial channels are not ramped")
+                .containsExactly(0, 0);
+
+        BalancedNodeSelectionStrategyChannel updated = new BalancedNodeSelectionStrategyChannel(
+                ImmutableList.of(chan1, chan2, chan3),
+                Optional.of(initial),
+                options,
+                random,
+                clock,
+                new DefaultTaggedMetricRegistry(),
+                "channelName");
+        assertThat(updated.getScoresForTesting())
+                .describedAs("An added channel starts at a tenth of the weight")
+                .containsExactly(0, 0, 9);
+
+        incrementClockBy(Duration.ofSeconds(5));
+        assertThat(updated.getScoresForTesting()).containsExactly(0, 0, 1);
+
+        incrementClockBy(Duration.ofSeconds(5));
+        assertThat(updated.getScoresForTesting()).containsExactly(0, 0, 0);
+    }
+
+    @Test
+    void gauges_are_tagged_with_host_indices() {
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        new BalancedNodeSelectionStrategyChannel(
+                ImmutableList.of(chan1, chan2),
+                ImmutableList.of(3, 1),
+                Optional.empty(),
+                BalancedOptions.defaults(),
+                random,
+                clock,
+                registry,
+                "channelName");
+        DialogueBalancedMetrics metrics = DialogueBalancedMetrics.of(registry);
+        assertThat(registry.getMetrics())
+                .describedAs("Retained host channels keep their index rather than their position")
+                .containsKeys(
+                        metrics.score().channelName("channelName").hostIndex("3").buildMetricName(),
+                        metrics.score().channelName("channelName").hostIndex("1").buildMetricName())
+                .doesNotContainKey(
+                        metrics.score().channelName("channelName").hostIndex("0").buildMetricName());
+    }
+
+    private BalancedNodeSelectionStrategyChannel twoChoices(ImmutableList<LimitedChannel> channels) {
+        return new BalancedNodeSelectionStrategyChannel(
+                channels,
+                Optional.empty(),
+                BalancedOptions.builder().powerOfTwoChoices(true).build(),
+                random,
+                clock,
+                new DefaultTaggedMetricRegistry(),
+                "channelName");
+    }
+
     private static void set200(LimitedChannel chan) {
         when(chan.maybeExecute(any(), any(), eq(LimitEnforcement.DEFAULT_ENABLED)))
                 .thenReturn(http(200));
@@ -53,6 +53,20 @@ public class CautiousIncreaseAggressiveDecreaseConcurrencyLimiterTest {
         return new CautiousIncreaseAggressiveDecreaseConcurrencyLimiter(behavior);
     }
 
+    @Test
+    public void success_withPermitLeases_doesNotIncreaseLimitUnderLowConcurrency() {
+        // A single stripe leases most of the limit at once, leaving the permits it doesn't use idle
+        CautiousIncreaseAggressiveDecreaseConcurrencyLimiter limiter =
+                new CautiousIncreaseAggressiveDecreaseConcurrencyLimiter(Behavior.HOST_LEVEL, new PermitLeases(1, 32));
+        double initialLimit = limiter.getLimit();
+        for (int i = 0; i < 1000; i++) {
+            Permit permit = limiter.acquire(LimitEnforcement.DEFAULT_ENABLED).get();
+            assertThat(permit.inFlightSnapshot()).isOne();
+            permit.success();
+        }
+        assertThat(limiter.getLimit()).isEqualTo(initialLimit);
+    }
+
     @ParameterizedTest
     @EnumSource(Behavior.class)
     void acquire_returnsPermitsWhileInflightPermitLimitNotReached(Behavior behavior) {
@@ -108,6 +122,30 @@ public class CautiousIncreaseAggressiveDecreaseConcurrencyLimiterTest {
         assertThat(limiter.getInflight()).isEqualTo((int) (max + 1));
     }
 
+    @Test
+    public void acquire_withPermitLeases_respectsLimit() {
+        CautiousIncreaseAggressiveDecreaseConcurrencyLimiter limiter =
+                new CautiousIncreaseAggressiveDecreaseConcurrencyLimiter(Behavior.HOST_LEVEL, new PermitLeases(4, 4));
+        double max = limiter.getLimit();
+        List<Permit> permits = new ArrayList<>();
+        for (int i = 0; i < max; ++i) {
+            Optional<Permit> permit = limiter.acquire(LimitEnforcement.DEFAULT_ENABLED);
+            assertThat(permit).isPresent();
+            permits.add(permit.get());
+        }
+        assertThat(limiter.acquire(LimitEnforcement.DEFAULT_ENABLED)).isEmpty();
+        assertThat(limiter.getInflight()).isEqualTo((int) max);
+
+        permits.remove(0).dropped();
+        assertThat(limiter.getLimit()).isEqualTo((int) (max * 0.9));
+        permits.forEach(Permit::ignore);
+        assertThat(limiter.getInflight()).isZero();
+        for (int i = 0; i < (int) (max * 0.9); ++i) {
+            assertThat(limiter.acquire(LimitEnforcement.DEFAULT_ENABLED)).isPresent();
+        }
+        assertThat(limiter.acquire(LimitEnforcement.DEFAULT_ENABLED)).isEmpty();
+    }
+
     @ParameterizedTest
     @EnumSource(Behavior.class)
     public void ignore_releasesPermit(Behavior behavior) {
@@ -0,0 +1,175 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.dialogue.EndpointChannel;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.TestEndpoint;
+import com.palantir.dialogue.TestResponse;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+final class CircuitBreakerChannelTest {
+
+    @Mock
+    private EndpointChannel delegate;
+
+    private final AtomicLong now = new AtomicLong();
+    private final Request request = Request.builder().build();
+    private CircuitBreakerChannel channel;
+
+    @BeforeEach
+    void beforeEach() {
+        channel = new CircuitBreakerChannel(
+                delegate, TestEndpoint.GET, "channel", 0.5, now::get, new DefaultTaggedMetricRegistry());
+    }
+
+    @Test
+    void opens_once_failure_rate_reaches_threshold() {
+        execute(200, 10);
+        execute(500, CircuitBreakerChannel.MIN_REQUESTS - 11);
+        assertThat(channel.stateValue()).describedAs("Too few requests").isZero();
+
+        execute(500, 1);
+        assertThat(channel.stateValue()).isOne();
+
+        Mockito.reset(delegate);
+        assertThat(channel.execute(request))
+                .failsWithin(Duration.ZERO)
+                .withThrowableOfType(ExecutionException.class)
+                .withCauseInstanceOf(CircuitBreakerOpenException.class);
+        verify(delegate, never()).execute(any());
+    }
+
+    @Test
+    void io_exceptions_are_failures_but_client_errors_are_not() {
+        execute(400, CircuitBreakerChannel.MIN_REQUESTS);
+        assertThat(channel.stateValue()).isZero();
+
+        when(delegate.execute(any())).thenReturn(Futures.immediateFailedFuture(new IOException("connect timed out")));
+        for (int i = 0; i < CircuitBreakerChannel.MIN_REQUESTS; i++) {
+            channel.execute(request);
+        }
+        assertThat(channel.stateValue()).isOne();
+    }
+
+    @Test
+    void locally_shed_requests_are_not_failures() {
+        when(delegate.execute(any()))
+                .thenReturn(Futures.immediateFailedFuture(
+                        new QueueShedException(QueueShedException.Reason.DEADLINE, "channel", 0)))
+                .thenReturn(Futures.immediateFailedFuture(
+                        new CircuitBreakerOpenException("channel", "service", "endpoint")));
+        for (int i = 0; i < CircuitBreakerChannel.MIN_REQUESTS; i++) {
+            channel.execute(request);
+        }
+        assertThat(channel.stateValue()).isZero();
+    }
+
+    @Test
+    void failures_outside_window_are_forgotten() {
+        execute(500, CircuitBreakerChannel.MIN_REQUESTS - 1);
+        now.addAndGet(CircuitBreakerChannel.WINDOW.toNanos());
+        execute(500, 1);
+
+        assertThat(channel.stateValue()).isZero();
+    }
+
+    @Test
+    void half_open_closes_after_successful_trials() {
+        open();
+        now.addAndGet(CircuitBreakerChannel.OPEN_DURATION.toNanos());
+
+        List<SettableFuture<Response>> trials = new ArrayList<>();
+        Mockito.reset(delegate);
+        when(delegate.execute(any())).thenAnswer(_invocation -> {
+            SettableFuture<Response> trial = SettableFuture.create();
+            trials.add(trial);
+            return trial;
+        });
+        for (int i = 0; i < CircuitBreakerChannel.TRIAL_REQUESTS; i++) {
+            assertThat(channel.execute(request)).isNotDone();
+        }
+        assertThat(channel.stateValue()).isEqualTo(2);
+        assertThat(channel.execute(request))
+                .describedAs("Only trial requests are sent")
+                .isDone();
+
+        trials.forEach(trial -> trial.set(new TestResponse().code(200)));
+        assertThat(channel.stateValue()).isZero();
+    }
+
+    @Test
+    void half_open_reopens_on_failed_trial() {
+        open();
+        now.addAndGet(CircuitBreakerChannel.OPEN_DURATION.toNanos());
+
+        execute(503, 1);
+        assertThat(channel.stateValue()).isOne();
+    }
+
+    @Test
+    void cancelled_trials_release_their_permit() {
+        open();
+        now.addAndGet(CircuitBreakerChannel.OPEN_DURATION.toNanos());
+        Mockito.reset(delegate);
+        when(delegate.execute(any())).thenAnswer(_invocation -> SettableFuture.create());
+
+        List<ListenableFuture<Response>> trials = new ArrayList<>();
+        for (int i = 0; i < CircuitBreakerChannel.TRIAL_REQUESTS; i++) {
+            trials.add(channel.execute(request));
+        }
+        trials.get(0).cancel(true);
+
+        assertThat(channel.execute(request)).isNotDone();
+    }
+
+    private void open() {
+        execute(500, CircuitBreakerChannel.MIN_REQUESTS);
+        assertThat(channel.stateValue()).isOne();
+    }
+
+    private void execute(int status, int times) {
+        Mockito.reset(delegate);
+        when(delegate.execute(any())).thenReturn(Futures.immediateFuture(new TestResponse().code(status)));
+        for (int i = 0; i < times; i++) {
+            channel.execute(request);
+        }
+    }
+}
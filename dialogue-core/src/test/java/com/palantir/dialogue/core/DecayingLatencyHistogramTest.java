@@ -0,0 +1,78 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+final class DecayingLatencyHistogramTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void testBucketsBoundLatencies() {
+        for (long micros : new long[] {0, 1, 3, 4, 7, 8, 9, 1000, 123_456, 10_000_000}) {
+            int bucket = DecayingLatencyHistogram.bucket(micros);
+            assertThat(DecayingLatencyHistogram.upperBoundMicros(bucket)).isGreaterThan(micros);
+            if (bucket > 0) {
+                assertThat(DecayingLatencyHistogram.upperBoundMicros(bucket - 1))
+                        .isLessThanOrEqualTo(micros);
+            }
+        }
+    }
+
+    @Test
+    void testQuantileUnknownUntilEnoughSamples() {
+        DecayingLatencyHistogram histogram = new DecayingLatencyHistogram(0.9, now::get);
+        for (int i = 0; i < 99; i++) {
+            histogram.record(Duration.ofMillis(10).toNanos());
+        }
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        histogram.record(Duration.ofMillis(10).toNanos());
+        assertThat(histogram.quantileNanos()).isEqualTo(DecayingLatencyHistogram.UNKNOWN);
+    }
+
+    @Test
+    void testQuantile() {
+        DecayingLatencyHistogram histogram = new DecayingLatencyHistogram(0.9, now::get);
+        for (int i = 0; i < 1000; i++) {
+            histogram.record(Duration.ofMillis(i % 10 == 0 ? 1000 : 10).toNanos());
+        }
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        histogram.record(Duration.ofMillis(10).toNanos());
+        assertThat(histogram.quantileNanos())
+                .isBetween(Duration.ofMillis(10).toNanos(), Duration.ofMillis(13).toNanos());
+    }
+
+    @Test
+    void testOldSamplesDecay() {
+        DecayingLatencyHistogram histogram = new DecayingLatencyHistogram(0.5, now::get);
+        for (int i = 0; i < 1000; i++) {
+            histogram.record(Duration.ofMillis(10).toNanos());
+        }
+        for (int second = 0; second < 10; second++) {
+            now.addAndGet(Duration.ofSeconds(1).toNanos());
+            for (int i = 0; i < 1000; i++) {
+                histogram.record(Duration.ofMillis(100).toNanos());
+            }
+        }
+        assertThat(histogram.quantileNanos()).isGreaterThanOrEqualTo(Duration.ofMillis(100).toNanos());
+    }
+}
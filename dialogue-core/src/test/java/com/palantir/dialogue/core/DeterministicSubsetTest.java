@@ -0,0 +1,67 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Multiset;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+class DeterministicSubsetTest {
+
+    private static final List<TargetUri> TARGETS = IntStream.range(0, 200)
+            .mapToObj(i -> TargetUri.of("https://node" + i + ":8443"))
+            .collect(ImmutableList.toImmutableList());
+
+    @Test
+    void returns_all_targets_when_not_larger_than_subset() {
+        List<TargetUri> targets = TARGETS.subList(0, 5);
+        assertThat(DeterministicSubset.select(targets, 5, 123)).isSameAs(targets);
+    }
+
+    @Test
+    void selection_does_not_depend_on_target_order() {
+        List<TargetUri> subset = DeterministicSubset.select(TARGETS, 10, 12345);
+        assertThat(subset).hasSize(10).doesNotHaveDuplicates();
+        assertThat(DeterministicSubset.select(Lists.reverse(TARGETS), 10, 12345))
+                .containsExactlyElementsOf(subset);
+    }
+
+    @Test
+    void sequential_clients_spread_evenly() {
+        Multiset<TargetUri> clientsPerTarget = HashMultiset.create();
+        // 500 clients with subsets of 10 out of 200 targets, i.e. 25 clients per target
+        for (long clientId = 0; clientId < 500; clientId++) {
+            clientsPerTarget.addAll(DeterministicSubset.select(TARGETS, 10, clientId));
+        }
+        assertThat(TARGETS.stream().map(clientsPerTarget::count).collect(Collectors.toSet()))
+                .containsExactly(25);
+    }
+
+    @Test
+    void consecutive_rounds_rotate_subsets() {
+        // Clients 0 and 20 both take the first subset of their round, which uses a different shuffle
+        assertThat(DeterministicSubset.select(TARGETS, 10, 0))
+                .isNotEqualTo(DeterministicSubset.select(TARGETS, 10, 20));
+    }
+}
@@ -18,6 +18,7 @@ package com.palantir.dialogue.core;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.entry;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.lenient;
@@ -43,6 +44,7 @@ import com.palantir.dialogue.Channel;
 import com.palantir.dialogue.Endpoint;
 import com.palantir.dialogue.Request;
 import com.palantir.dialogue.RequestBody;
+import com.palantir.dialogue.RequestDeadlines;
 import com.palantir.dialogue.Response;
 import com.palantir.dialogue.TestEndpoint;
 import com.palantir.dialogue.TestResponse;
@@ -51,6 +53,7 @@ import com.palantir.logsafe.exceptions.SafeIllegalStateException;
 import com.palantir.logsafe.exceptions.SafeNullPointerException;
 import com.palantir.logsafe.exceptions.SafeRuntimeException;
 import com.palantir.refreshable.Refreshable;
+import com.palantir.refreshable.SettableRefreshable;
 import com.palantir.tracing.TestTracing;
 import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
@@ -60,9 +63,13 @@ import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.nio.file.Paths;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.OptionalLong;
 import java.util.Random;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -80,7 +87,7 @@ import org.mockito.stubbing.Answer;
 
 @SuppressWarnings("DirectInvocationOnMock")
 @ExtendWith(MockitoExtension.class)
-public final class DialogueChannelTest {
+public class DialogueChannelTest {
 
     public static final UserAgent USER_AGENT = UserAgent.of(UserAgent.Agent.of("foo", "1.0.0"));
     private static final SslConfiguration SSL_CONFIG = SslConfiguration.of(
@@ -105,9 +112,14 @@ public final class DialogueChannelTest {
     private Request request = Request.builder().build();
     private DialogueChannel channel;
 
+    /** Overridden by {@link FusedDialogueChannelTest} to run every test against the fused endpoint pipeline. */
+    DialogueChannel.Builder builder() {
+        return DialogueChannel.builder();
+    }
+
     @BeforeEach
     public void before() {
-        channel = DialogueChannel.builder()
+        channel = builder()
                 .channelName("my-channel")
                 .clientConfiguration(stubConfig)
                 .factory(_args -> mockChannel)
@@ -131,7 +143,7 @@ public final class DialogueChannelTest {
             }
         };
 
-        channel = DialogueChannel.builder()
+        channel = builder()
                 .channelName("my-channel")
                 .clientConfiguration(stubConfig)
                 .factory(_args -> badUserImplementation)
@@ -185,7 +197,7 @@ public final class DialogueChannelTest {
             }
         };
 
-        channel = DialogueChannel.builder()
+        channel = builder()
                 .channelName("my-channel")
                 .clientConfiguration(stubConfig)
                 .factory(_args -> badUserImplementation)
@@ -202,7 +214,7 @@ public final class DialogueChannelTest {
     public void when_thread_is_interrupted_no_calls_to_delegate() {
         Channel delegate = mock(Channel.class);
 
-        channel = DialogueChannel.builder()
+        channel = builder()
                 .channelName("my-channel")
                 .clientConfiguration(stubConfig)
                 .factory(_args -> delegate)
@@ -219,7 +231,7 @@ public final class DialogueChannelTest {
     @Test
     void test_queue_rejection_is_not_retried() {
         when(mockChannel.execute(any(), any())).thenReturn(SettableFuture.create());
-        channel = DialogueChannel.builder()
+        channel = builder()
                 .channelName("my-channel")
                 .clientConfiguration(stubConfig)
                 .factory(_args -> mockChannel)
@@ -243,6 +255,43 @@ public final class DialogueChannelTest {
                 .hasMessageContaining("queue is full");
     }
 
+    @Test
+    void test_default_request_timeout_sets_deadline() throws ExecutionException, InterruptedException {
+        List<Request> executed = new ArrayList<>();
+        when(mockChannel.execute(eq(endpoint), any())).thenAnswer(invocation -> {
+            executed.add(invocation.getArgument(1));
+            return Futures.immediateFuture(response);
+        });
+        channel = builder()
+                .channelName("my-channel")
+                .clientConfiguration(stubConfig)
+                .factory(_args -> mockChannel)
+                .defaultRequestTimeouts(
+                        target -> target.equals(endpoint) ? Optional.of(Duration.ofMinutes(1)) : Optional.empty())
+                .build();
+        long beforeNanos = System.nanoTime();
+        assertThat(channel.execute(endpoint, request).get()).isNotNull();
+        OptionalLong deadline = RequestDeadlines.getDeadlineNanos(executed.get(0));
+        assertThat(deadline).isPresent();
+        assertThat(deadline.getAsLong() - beforeNanos).isGreaterThanOrEqualTo(Duration.ofMinutes(1).toNanos());
+
+        // The caller's request is not modified, so executing it again applies a new deadline
+        assertThat(RequestDeadlines.getDeadlineNanos(request)).isEmpty();
+        long secondNanos = System.nanoTime();
+        assertThat(channel.execute(endpoint, request).get()).isNotNull();
+        OptionalLong secondDeadline = RequestDeadlines.getDeadlineNanos(executed.get(1));
+        assertThat(secondDeadline).isPresent();
+        assertThat(secondDeadline.getAsLong() - secondNanos).isGreaterThanOrEqualTo(Duration.ofMinutes(1).toNanos());
+        assertThat(RequestDeadlines.getDeadlineNanos(request)).isEmpty();
+
+        // Deadlines set by the caller take precedence
+        Request withDeadline = Request.builder().build();
+        long callerDeadline = beforeNanos + Duration.ofHours(1).toNanos();
+        RequestDeadlines.setDeadlineNanos(withDeadline, callerDeadline);
+        assertThat(channel.execute(endpoint, withDeadline).get()).isNotNull();
+        assertThat(RequestDeadlines.getDeadlineNanos(executed.get(2))).hasValue(callerDeadline);
+    }
+
     static class ThrowingOutputStream extends OutputStream {
         private final Supplier<IOException> supplier;
 
@@ -263,7 +312,7 @@ public final class DialogueChannelTest {
 
     private ListenableFuture<Response> makeStructuredRequestToClosedConnection(Supplier<IOException> failure) {
         AtomicInteger channelInteractions = new AtomicInteger();
-        channel = DialogueChannel.builder()
+        channel = builder()
                 .channelName("my-channel")
                 .clientConfiguration(stubConfig)
                 .factory(_args -> (_endpoint, currentRequest) -> {
@@ -315,7 +364,7 @@ public final class DialogueChannelTest {
 
     @Test
     void constructing_a_client_with_zero_uris_causes_immediate_failures() {
-        channel = DialogueChannel.builder()
+        channel = builder()
                 .channelName("my-channel")
                 .clientConfiguration(ClientConfiguration.builder()
                         .from(stubConfig)
@@ -338,7 +387,7 @@ public final class DialogueChannelTest {
                 .channelName(channelName)
                 .reason("SafeUnknownHostException")
                 .build();
-        channel = DialogueChannel.builder()
+        channel = builder()
                 .channelName(channelName)
                 .clientConfiguration(ClientConfiguration.builder()
                         .from(stubConfig)
@@ -356,15 +405,70 @@ public final class DialogueChannelTest {
         assertThat(retries.getCount()).isEqualTo(maxRetries);
     }
 
+    @Test
+    void reloading_targets_retains_host_channels() throws Exception {
+        List<String> createdUris = new ArrayList<>();
+        SettableRefreshable<List<TargetUri>> targets =
+                Refreshable.create(ImmutableList.of(TargetUri.of("https://a"), TargetUri.of("https://b")));
+        channel = builder()
+                .channelName("my-channel")
+                .clientConfiguration(ClientConfiguration.builder()
+                        .from(stubConfig)
+                        .uris(ImmutableList.of("https://a", "https://b", "https://c"))
+                        .build())
+                .factory(args -> {
+                    createdUris.add(args.uri());
+                    return (_endpoint, _request) -> Futures.immediateFuture(new TestResponse().code(200));
+                })
+                .uris(targets)
+                .build();
+        assertThat(channel.execute(endpoint, request).get().code()).isEqualTo(200);
+
+        targets.update(ImmutableList.of(TargetUri.of("https://b"), TargetUri.of("https://c")));
+        assertThat(channel.execute(endpoint, request).get().code()).isEqualTo(200);
+        targets.update(ImmutableList.of(TargetUri.of("https://c"), TargetUri.of("https://b")));
+        assertThat(channel.execute(endpoint, request).get().code()).isEqualTo(200);
+
+        assertThat(createdUris)
+                .describedAs("Only targets which weren't previously present should create new host channels")
+                .containsExactly("https://a", "https://b", "https://c");
+    }
+
+    @Test
+    void reloaded_host_channels_do_not_share_indices_with_retained_channels() throws Exception {
+        Map<String, Integer> indices = new LinkedHashMap<>();
+        SettableRefreshable<List<TargetUri>> targets =
+                Refreshable.create(ImmutableList.of(TargetUri.of("https://a"), TargetUri.of("https://b")));
+        channel = builder()
+                .channelName("my-channel")
+                .clientConfiguration(ClientConfiguration.builder()
+                        .from(stubConfig)
+                        .uris(ImmutableList.of("https://a", "https://b", "https://c"))
+                        .build())
+                .factory(args -> {
+                    indices.put(args.uri(), args.uriIndexForInstrumentation().orElse(-1));
+                    return (_endpoint, _request) -> Futures.immediateFuture(new TestResponse().code(200));
+                })
+                .uris(targets)
+                .build();
+        assertThat(channel.execute(endpoint, request).get().code()).isEqualTo(200);
+
+        // b keeps index 1, so c takes the index a no longer uses rather than its position
+        targets.update(ImmutableList.of(TargetUri.of("https://b"), TargetUri.of("https://c")));
+        assertThat(channel.execute(endpoint, request).get().code()).isEqualTo(200);
+
+        assertThat(indices).containsExactly(entry("https://a", 0), entry("https://b", 1), entry("https://c", 0));
+    }
+
     @Test
     void nice_tostring() {
         DialogueChannelFactory factory = _args -> mockChannel;
-        channel = DialogueChannel.builder()
+        channel = builder()
                 .channelName("my-channel")
                 .clientConfiguration(stubConfig)
                 .factory(factory)
                 .build();
-        DialogueChannel channel2 = DialogueChannel.builder()
+        DialogueChannel channel2 = builder()
                 .channelName("my-channel")
                 .clientConfiguration(stubConfig)
                 .factory(factory)
@@ -401,7 +505,7 @@ public final class DialogueChannelTest {
                             Futures.immediateFuture(TestResponse.withBody(null).withHeader(uriHeader, args.uri())));
             return mockChannel;
         };
-        channel = DialogueChannel.builder()
+        channel = builder()
                 .channelName("my-channel")
                 .clientConfiguration(ClientConfiguration.builder()
                         .uris(uris)
@@ -450,7 +554,7 @@ public final class DialogueChannelTest {
 
     @Test
     public void test_request_gzip_by_default() {
-        channel = DialogueChannel.builder()
+        channel = builder()
                 .channelName("my-channel")
                 .clientConfiguration(stubConfig)
                 .factory(_args -> (_endpoint, req) -> {
@@ -468,7 +572,7 @@ public final class DialogueChannelTest {
 
     @Test
     public void test_accepts_identity_with_range() {
-        channel = DialogueChannel.builder()
+        channel = builder()
                 .channelName("my-channel")
                 .clientConfiguration(stubConfig)
                 .factory(_args -> (_endpoint, req) -> {
@@ -490,7 +594,7 @@ public final class DialogueChannelTest {
 
     @Test
     public void test_allows_custom_accept_with_range_request() {
-        channel = DialogueChannel.builder()
+        channel = builder()
                 .channelName("my-channel")
                 .clientConfiguration(stubConfig)
                 .factory(_args -> (_endpoint, req) -> {
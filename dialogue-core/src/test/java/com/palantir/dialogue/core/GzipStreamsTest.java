@@ -0,0 +1,175 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.primitives.Bytes;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+final class GzipStreamsTest {
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 1000, GzipStreams.BUFFER_SIZE, GzipStreams.BUFFER_SIZE + 1, 1_000_000})
+    void compressed_streams_are_readable_by_gzip_input_stream(int size) throws IOException {
+        byte[] data = data(size);
+        byte[] compressed = compress(data);
+        try (InputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertThat(ByteStreams.toByteArray(input)).isEqualTo(data);
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {0, 1, 1000, GzipStreams.BUFFER_SIZE, GzipStreams.BUFFER_SIZE + 1, 1_000_000})
+    void decompresses_gzip_output_stream(int size) throws IOException {
+        byte[] data = data(size);
+        assertThat(decompress(gzip(data))).isEqualTo(data);
+    }
+
+    @Test
+    void decompresses_concatenated_members() throws IOException {
+        byte[] first = data(100);
+        byte[] second = data(200);
+        assertThat(decompress(Bytes.concat(gzip(first), gzip(second)))).isEqualTo(Bytes.concat(first, second));
+    }
+
+    @Test
+    void ignores_trailing_bytes() throws IOException {
+        byte[] data = data(100);
+        assertThat(decompress(Bytes.concat(gzip(data), new byte[] {1, 2, 3}))).isEqualTo(data);
+    }
+
+    @Test
+    void rejects_corrupt_trailers() throws IOException {
+        byte[] compressed = gzip(data(100));
+        compressed[compressed.length - 5] ^= 1;
+        assertThatThrownBy(() -> decompress(compressed))
+                .isInstanceOf(ZipException.class)
+                .hasMessage("Corrupt GZIP trailer");
+    }
+
+    @Test
+    void rejects_other_formats() {
+        assertThatThrownBy(() -> GzipStreams.decompress(new ByteArrayInputStream(new byte[] {1, 2, 3})))
+                .isInstanceOf(ZipException.class)
+                .hasMessage("Not in GZIP format");
+    }
+
+    @Test
+    void closed_streams_return_their_state_to_the_pool() throws IOException {
+        byte[] compressed = compress(data(100));
+        assertThat(GzipStreams.compressors.idle()).isPositive();
+        InputStream input = GzipStreams.decompress(new ByteArrayInputStream(compressed));
+        input.close();
+        assertThat(GzipStreams.decompressors.idle()).isPositive();
+        assertThatThrownBy(input::read).isInstanceOf(IOException.class).hasMessage("Stream closed");
+    }
+
+    @Test
+    void streams_closed_during_a_read_end_their_state() throws Exception {
+        byte[] compressed = compress(data(100));
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch closed = new CountDownLatch(1);
+        InputStream blocking = new InputStream() {
+            @Override
+            public int read() {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public int read(byte[] _bytes, int _off, int _len) throws IOException {
+                reading.countDown();
+                try {
+                    if (!closed.await(10, TimeUnit.SECONDS)) {
+                        throw new IOException("Timed out waiting for close");
+                    }
+                } catch (InterruptedException e) {
+                    throw new InterruptedIOException();
+                }
+                return -1;
+            }
+        };
+        // The header is read up front, so the first read blocks waiting for the compressed data
+        InputStream input = GzipStreams.decompress(
+                new SequenceInputStream(new ByteArrayInputStream(compressed, 0, 10), blocking));
+        int idle = GzipStreams.decompressors.idle();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> read = executor.submit(() -> input.read());
+            assertThat(reading.await(10, TimeUnit.SECONDS)).isTrue();
+            input.close();
+            closed.countDown();
+            assertThatThrownBy(read::get).hasCauseInstanceOf(IOException.class);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(GzipStreams.decompressors.idle()).isEqualTo(idle);
+        assertThatThrownBy(input::read).isInstanceOf(IOException.class).hasMessage("Stream closed");
+    }
+
+    private static byte[] data(int size) {
+        // Compressible, but not trivially
+        Random random = new Random(size);
+        byte[] data = new byte[size];
+        for (int i = 0; i < size; i++) {
+            data[i] = (byte) random.nextInt(16);
+        }
+        return data;
+    }
+
+    private static byte[] compress(byte[] data) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (OutputStream gzip = GzipStreams.compress(output)) {
+            gzip.write(data);
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (OutputStream gzip = new GZIPOutputStream(output)) {
+            gzip.write(data);
+        }
+        return output.toByteArray();
+    }
+
+    private static byte[] decompress(byte[] compressed) throws IOException {
+        try (InputStream input = GzipStreams.decompress(new ByteArrayInputStream(compressed))) {
+            return ByteStreams.toByteArray(input);
+        }
+    }
+}
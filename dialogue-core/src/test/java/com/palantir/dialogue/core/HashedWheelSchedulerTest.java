@@ -0,0 +1,128 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.util.concurrent.Runnables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.awaitility.Awaitility;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+final class HashedWheelSchedulerTest {
+    // Unique per test, so that workers of previous tests which are still exiting aren't counted
+    private final String threadPrefix = "dialogue-wheel-" + System.identityHashCode(this) + "-";
+
+    private final HashedWheelScheduler scheduler = new HashedWheelScheduler(
+            new ThreadFactoryBuilder()
+                    .setNameFormat(threadPrefix + "%d")
+                    .setDaemon(true)
+                    .build(),
+            Duration.ofMillis(10),
+            8,
+            Duration.ofMillis(100),
+            new DefaultTaggedMetricRegistry(),
+            "test");
+
+    @AfterEach
+    void afterEach() throws InterruptedException {
+        scheduler.shutdownNow();
+        assertThat(scheduler.awaitTermination(1, TimeUnit.SECONDS))
+                .as("Scheduler failed to stop")
+                .isTrue();
+    }
+
+    @Test
+    void testRunsTasksAfterDelay() throws Exception {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        // Longer than a rotation of the wheel
+        ScheduledFuture<String> future = scheduler.schedule(() -> "done", 150, TimeUnit.MILLISECONDS);
+        assertThat(future.get(1, TimeUnit.SECONDS)).isEqualTo("done");
+        assertThat(stopwatch.elapsed()).isGreaterThanOrEqualTo(Duration.ofMillis(150));
+        assertThat(scheduler.pendingTasks()).isZero();
+    }
+
+    @Test
+    void testCancelledTasksDoNotRun() {
+        AtomicInteger counter = new AtomicInteger();
+        ScheduledFuture<?> cancelled = scheduler.schedule(counter::incrementAndGet, 50, TimeUnit.MILLISECONDS);
+        assertThat(cancelled.cancel(false)).isTrue();
+        ScheduledFuture<?> later = scheduler.schedule(Runnables.doNothing(), 100, TimeUnit.MILLISECONDS);
+
+        Awaitility.waitAtMost(Duration.ofSeconds(1))
+                .untilAsserted(() -> assertThat(scheduler.pendingTasks()).isZero());
+        assertThat(later).isDone();
+        assertThat(counter).hasValue(0);
+    }
+
+    @Test
+    void testPeriodicTasks() {
+        AtomicInteger counter = new AtomicInteger();
+        ScheduledFuture<?> future =
+                scheduler.scheduleWithFixedDelay(counter::incrementAndGet, 0, 10, TimeUnit.MILLISECONDS);
+        Awaitility.waitAtMost(Duration.ofSeconds(1)).untilAsserted(() -> assertThat(counter)
+                .hasValueGreaterThanOrEqualTo(5));
+
+        future.cancel(false);
+        Awaitility.waitAtMost(Duration.ofSeconds(1))
+                .untilAsserted(() -> assertThat(scheduler.pendingTasks()).isZero());
+    }
+
+    @Test
+    void testThreadTimeout() throws Exception {
+        assertThat(countWorkerThreads()).isZero();
+        AtomicInteger counter = new AtomicInteger();
+        ScheduledFuture<Integer> first = scheduler.schedule(counter::incrementAndGet, 10, TimeUnit.MILLISECONDS);
+        assertThat(countWorkerThreads()).isOne();
+        assertThat(first.get(1, TimeUnit.SECONDS)).isEqualTo(1);
+
+        Awaitility.waitAtMost(Duration.ofSeconds(1)).untilAsserted(() -> assertThat(countWorkerThreads())
+                .as("Created threads should time out")
+                .isZero());
+
+        // Test scheduling once the worker has exited
+        ScheduledFuture<Integer> second = scheduler.schedule(counter::incrementAndGet, 10, TimeUnit.MILLISECONDS);
+        assertThat(second.get(1, TimeUnit.SECONDS)).isEqualTo(2);
+    }
+
+    @Test
+    void testShutdownCancelsPendingTasks() throws InterruptedException {
+        ScheduledFuture<?> future = scheduler.schedule(Runnables.doNothing(), 1, TimeUnit.HOURS);
+        scheduler.shutdown();
+
+        assertThat(scheduler.awaitTermination(1, TimeUnit.SECONDS)).isTrue();
+        assertThat(future).isCancelled();
+        assertThat(scheduler.pendingTasks()).isZero();
+        assertThatThrownBy(() -> scheduler.schedule(Runnables.doNothing(), 1, TimeUnit.SECONDS))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    private long countWorkerThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .filter(thread -> thread.getName().startsWith(threadPrefix))
+                .count();
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.TestEndpoint;
+import com.palantir.dialogue.TestResponse;
+import com.palantir.dialogue.core.HedgeAttachments.HedgeState;
+import com.palantir.dialogue.core.LimitedChannel.LimitEnforcement;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+final class HedgingChannelTest {
+
+    private static final Object FIRST_ATTEMPT_HOST = new Object();
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    @Mock
+    private LimitedChannel hedgeChannel;
+
+    private final AtomicLong now = new AtomicLong();
+    private final TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+    private final Request request = Request.builder().build();
+    private final SettableFuture<Response> firstAttempt = SettableFuture.create();
+    private ListenableFuture<Response> nextAttempt = Futures.immediateFuture(new TestResponse().code(200));
+
+    @Test
+    void testHedgeWinsWhenFirstAttemptIsSlow() {
+        HedgingChannel channel = primedChannel(RetryBudget.unlimited());
+        TestResponse hedgeResponse = new TestResponse().code(200);
+        when(hedgeChannel.maybeExecute(TestEndpoint.GET, request, LimitEnforcement.DEFAULT_ENABLED))
+                .thenReturn(Optional.of(Futures.immediateFuture(hedgeResponse)));
+
+        ListenableFuture<Response> result = channel.execute(request);
+        assertThat(result).isNotDone();
+        scheduledHedge().run();
+
+        assertThat(result).isDone();
+        assertThat(Futures.getUnchecked(result)).isSameAs(hedgeResponse);
+        assertThat(firstAttempt).isCancelled();
+        assertThat(hedgeCount("sent")).isOne();
+        assertThat(hedgeCount("won")).isOne();
+    }
+
+    @Test
+    void testFirstResponseWinsAndLosingResponseIsClosed() {
+        HedgingChannel channel = primedChannel(RetryBudget.unlimited());
+        SettableFuture<Response> hedge = SettableFuture.create();
+        when(hedgeChannel.maybeExecute(TestEndpoint.GET, request, LimitEnforcement.DEFAULT_ENABLED))
+                .thenReturn(Optional.of(hedge));
+
+        ListenableFuture<Response> result = channel.execute(request);
+        scheduledHedge().run();
+        TestResponse firstResponse = new TestResponse().code(200);
+        firstAttempt.set(firstResponse);
+
+        assertThat(Futures.getUnchecked(result)).isSameAs(firstResponse);
+        assertThat(hedge).isCancelled();
+        assertThat(hedgeCount("won")).isZero();
+    }
+
+    @Test
+    void testFailedAttemptWaitsForOtherAttempt() {
+        HedgingChannel channel = primedChannel(RetryBudget.unlimited());
+        SettableFuture<Response> hedge = SettableFuture.create();
+        when(hedgeChannel.maybeExecute(TestEndpoint.GET, request, LimitEnforcement.DEFAULT_ENABLED))
+                .thenReturn(Optional.of(hedge));
+
+        ListenableFuture<Response> result = channel.execute(request);
+        scheduledHedge().run();
+        firstAttempt.setException(new RuntimeException());
+        assertThat(result).isNotDone();
+
+        TestResponse hedgeResponse = new TestResponse().code(200);
+        hedge.set(hedgeResponse);
+        assertThat(Futures.getUnchecked(result)).isSameAs(hedgeResponse);
+    }
+
+    @Test
+    void testHedgeNotSentWhenLimited() {
+        HedgingChannel channel = primedChannel(RetryBudget.unlimited());
+        when(hedgeChannel.maybeExecute(TestEndpoint.GET, request, LimitEnforcement.DEFAULT_ENABLED))
+                .thenReturn(Optional.empty());
+
+        ListenableFuture<Response> result = channel.execute(request);
+        scheduledHedge().run();
+        assertThat(hedgeCount("limited")).isOne();
+
+        TestResponse firstResponse = new TestResponse().code(200);
+        firstAttempt.set(firstResponse);
+        assertThat(Futures.getUnchecked(result)).isSameAs(firstResponse);
+    }
+
+    @Test
+    void testBudgetReturnedWhenLimited() {
+        RetryBudget budget = RetryBudget.create(0, 0, now::get);
+        HedgingChannel channel = primedChannel(budget);
+        double available = budget.availableRetries();
+        when(hedgeChannel.maybeExecute(TestEndpoint.GET, request, LimitEnforcement.DEFAULT_ENABLED))
+                .thenReturn(Optional.empty());
+
+        channel.execute(request);
+        scheduledHedge().run();
+
+        assertThat(hedgeCount("limited")).isOne();
+        assertThat(budget.availableRetries()).isEqualTo(available);
+    }
+
+    @Test
+    void testRetriesDoNotAddToBudget() {
+        RetryBudget budget = RetryBudget.create(1, 0, now::get);
+        HedgingChannel channel = channel(budget);
+        while (budget.availableRetries() >= 1) {
+            assertThat(budget.tryAcquireRetry()).isTrue();
+        }
+        Request retried = Request.builder().build();
+
+        channel.execute(retried);
+        channel.execute(retried);
+        channel.execute(retried);
+
+        assertThat(budget.availableRetries()).isEqualTo(1);
+    }
+
+    @Test
+    void testHedgeNotSentWhenBudgetExhausted() {
+        RetryBudget budget = RetryBudget.create(0, 0, now::get);
+        HedgingChannel channel = primedChannel(budget);
+        while (budget.availableRetries() >= 1) {
+            assertThat(budget.tryAcquireRetry()).isTrue();
+        }
+
+        ListenableFuture<Response> result = channel.execute(request);
+        scheduledHedge().run();
+
+        assertThat(hedgeCount("budgetExhausted")).isOne();
+        verify(hedgeChannel, never()).maybeExecute(any(), any(), any());
+        assertThat(result).isNotDone();
+    }
+
+    @Test
+    void testNotHedgedWithoutLatencyQuantile() {
+        HedgingChannel channel = channel(RetryBudget.unlimited());
+        nextAttempt = firstAttempt;
+
+        ListenableFuture<Response> result = channel.execute(request);
+
+        assertThat(result).isNotDone();
+        verify(scheduler, never()).schedule(any(Runnable.class), anyLong(), any());
+    }
+
+    private HedgingChannel channel(RetryBudget budget) {
+        return new HedgingChannel(
+                req -> {
+                    HedgeState state = HedgeAttachments.get(req);
+                    if (state != null) {
+                        state.onHostSelected(FIRST_ATTEMPT_HOST);
+                    }
+                    return nextAttempt;
+                },
+                hedgeChannel,
+                TestEndpoint.GET,
+                budget,
+                0.9,
+                scheduler,
+                now::get,
+                DialogueClientMetrics.of(registry),
+                "channel");
+    }
+
+    /** Records enough instant responses for the channel to hedge requests after one microsecond. */
+    private HedgingChannel primedChannel(RetryBudget budget) {
+        HedgingChannel channel = channel(budget);
+        for (int i = 0; i < 100; i++) {
+            channel.execute(request);
+        }
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        channel.execute(request);
+        nextAttempt = firstAttempt;
+        return channel;
+    }
+
+    private Runnable scheduledHedge() {
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        // Instant responses fall in the lowest bucket, which ends at one microsecond
+        verify(scheduler).schedule(captor.capture(), eq(1000L), eq(TimeUnit.NANOSECONDS));
+        return captor.getValue();
+    }
+
+    private long hedgeCount(String outcome) {
+        return DialogueClientMetrics.of(registry)
+                .requestHedge()
+                .channelName("channel")
+                .outcome(outcome)
+                .build()
+                .getCount();
+    }
+}
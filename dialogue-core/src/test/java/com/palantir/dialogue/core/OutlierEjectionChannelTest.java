@@ -0,0 +1,232 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.palantir.dialogue.Channel;
+import com.palantir.dialogue.Endpoint;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.TestEndpoint;
+import com.palantir.dialogue.TestResponse;
+import com.palantir.dialogue.core.LimitedChannel.LimitEnforcement;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+final class OutlierEjectionChannelTest {
+
+    @Mock
+    private LimitedChannel delegate;
+
+    @Mock
+    private Channel probeChannel;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    private final AtomicLong now = new AtomicLong();
+    private final TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+    private final Request request = Request.builder().build();
+    private OutlierEjectionChannel.Ejections ejections;
+
+    @BeforeEach
+    void beforeEach() {
+        ejections = new OutlierEjectionChannel.Ejections("channel", 0.5, registry);
+        ejections.setHostCount(2);
+    }
+
+    @Test
+    void ejects_after_consecutive_failures() {
+        OutlierEjectionChannel channel = channel(Optional.empty());
+        respond(delegate, 500);
+
+        execute(channel, OutlierEjectionChannel.CONSECUTIVE_FAILURES - 1);
+        assertThat(OutlierEjectionChannel.isEjected(channel)).isFalse();
+
+        execute(channel, 1);
+        assertThat(OutlierEjectionChannel.isEjected(channel)).isTrue();
+        assertThat(channel.maybeExecute(TestEndpoint.GET, request, LimitEnforcement.DEFAULT_ENABLED))
+                .isEmpty();
+        assertThat(channel.maybeExecute(TestEndpoint.GET, request, LimitEnforcement.DANGEROUS_BYPASS_LIMITS))
+                .describedAs("Sticky requests are never refused")
+                .isPresent();
+    }
+
+    @Test
+    void io_exceptions_count_as_failures() {
+        OutlierEjectionChannel channel = channel(Optional.empty());
+        when(delegate.maybeExecute(any(), any(), any()))
+                .thenReturn(Optional.of(Futures.immediateFailedFuture(new IOException("connection refused"))));
+
+        execute(channel, OutlierEjectionChannel.CONSECUTIVE_FAILURES);
+        assertThat(OutlierEjectionChannel.isEjected(channel)).isTrue();
+    }
+
+    @Test
+    void locally_shed_requests_are_not_failures() {
+        OutlierEjectionChannel channel = channel(Optional.empty());
+        when(delegate.maybeExecute(any(), any(), any()))
+                .thenReturn(Optional.of(Futures.immediateFailedFuture(
+                        new QueueShedException(QueueShedException.Reason.QUEUE_TIME, "channel", 0))))
+                .thenReturn(Optional.of(Futures.immediateFailedFuture(
+                        new QueueShedException(QueueShedException.Reason.DEADLINE, "channel", 0))))
+                .thenReturn(Optional.of(Futures.immediateFailedFuture(
+                        new CircuitBreakerOpenException("channel", "service", "endpoint"))));
+
+        execute(channel, OutlierEjectionChannel.CONSECUTIVE_FAILURES * 2);
+        assertThat(OutlierEjectionChannel.isEjected(channel)).isFalse();
+    }
+
+    @Test
+    void success_resets_consecutive_failures() {
+        OutlierEjectionChannel channel = channel(Optional.empty());
+        respond(delegate, 500);
+        execute(channel, OutlierEjectionChannel.CONSECUTIVE_FAILURES - 1);
+        respond(delegate, 200);
+        execute(channel, 1);
+        respond(delegate, 500);
+        execute(channel, OutlierEjectionChannel.CONSECUTIVE_FAILURES - 1);
+
+        assertThat(OutlierEjectionChannel.isEjected(channel)).isFalse();
+    }
+
+    @Test
+    void readmits_once_ejection_has_passed_without_probe() {
+        OutlierEjectionChannel channel = channel(Optional.empty());
+        eject(channel);
+
+        scheduled(OutlierEjectionChannel.BASE_EJECTION).run();
+        assertThat(OutlierEjectionChannel.isEjected(channel)).isFalse();
+        assertThat(ejections.isEjected(channel)).isFalse();
+    }
+
+    @Test
+    void failed_probe_doubles_ejection() {
+        OutlierEjectionChannel channel = channel(Optional.of(TestEndpoint.GET));
+        eject(channel);
+
+        when(probeChannel.execute(eq(TestEndpoint.GET), any()))
+                .thenReturn(Futures.immediateFuture(new TestResponse().code(503)));
+        scheduled(OutlierEjectionChannel.BASE_EJECTION).run();
+        assertThat(OutlierEjectionChannel.isEjected(channel)).isTrue();
+
+        Mockito.reset(probeChannel);
+        when(probeChannel.execute(eq(TestEndpoint.GET), any()))
+                .thenReturn(Futures.immediateFuture(new TestResponse().code(200)));
+        scheduled(OutlierEjectionChannel.BASE_EJECTION.multipliedBy(2)).run();
+        assertThat(OutlierEjectionChannel.isEjected(channel)).isFalse();
+    }
+
+    @Test
+    void ejection_doubles_when_ejected_soon_after_readmission() {
+        OutlierEjectionChannel channel = channel(Optional.empty());
+        eject(channel);
+        scheduled(OutlierEjectionChannel.BASE_EJECTION).run();
+
+        Mockito.reset(scheduler);
+        eject(channel);
+        scheduled(OutlierEjectionChannel.BASE_EJECTION.multipliedBy(2)).run();
+
+        now.addAndGet(OutlierEjectionChannel.MAX_EJECTION.toNanos() + 1);
+        Mockito.reset(scheduler);
+        eject(channel);
+        scheduled(OutlierEjectionChannel.BASE_EJECTION);
+    }
+
+    @Test
+    void ejects_at_most_max_fraction_of_hosts() {
+        OutlierEjectionChannel first = channel(Optional.empty());
+        LimitedChannel otherDelegate = mock(LimitedChannel.class);
+        OutlierEjectionChannel second = channel(otherDelegate, Optional.empty());
+        respond(delegate, 500);
+        respond(otherDelegate, 500);
+
+        execute(first, OutlierEjectionChannel.CONSECUTIVE_FAILURES);
+        execute(second, OutlierEjectionChannel.CONSECUTIVE_FAILURES);
+
+        assertThat(OutlierEjectionChannel.isEjected(first)).isTrue();
+        assertThat(OutlierEjectionChannel.isEjected(second))
+                .describedAs("Half of the hosts are already ejected")
+                .isFalse();
+    }
+
+    @Test
+    void removed_hosts_are_not_probed() {
+        OutlierEjectionChannel channel = channel(Optional.of(TestEndpoint.GET));
+        eject(channel);
+
+        ejections.removeAll(ImmutableList.of(channel));
+        scheduled(OutlierEjectionChannel.BASE_EJECTION).run();
+        verify(probeChannel, never()).execute(any(), any());
+    }
+
+    private OutlierEjectionChannel channel(Optional<Endpoint> probe) {
+        return channel(delegate, probe);
+    }
+
+    private OutlierEjectionChannel channel(LimitedChannel limited, Optional<Endpoint> probe) {
+        return new OutlierEjectionChannel(
+                limited, probeChannel, probe, ejections, scheduler, now::get, registry, "channel", 0);
+    }
+
+    private void eject(OutlierEjectionChannel channel) {
+        respond(delegate, 500);
+        execute(channel, OutlierEjectionChannel.CONSECUTIVE_FAILURES);
+        assertThat(OutlierEjectionChannel.isEjected(channel)).isTrue();
+    }
+
+    private void execute(OutlierEjectionChannel channel, int times) {
+        for (int i = 0; i < times; i++) {
+            assertThat(channel.maybeExecute(TestEndpoint.GET, request, LimitEnforcement.DEFAULT_ENABLED))
+                    .isPresent();
+        }
+    }
+
+    private Runnable scheduled(Duration delay) {
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        verify(scheduler).schedule(captor.capture(), eq(delay.toNanos()), eq(TimeUnit.NANOSECONDS));
+        return captor.getValue();
+    }
+
+    private static void respond(LimitedChannel channel, int status) {
+        Mockito.reset(channel);
+        when(channel.maybeExecute(any(), any(), any()))
+                .thenReturn(Optional.of(Futures.immediateFuture(new TestResponse().code(status))));
+    }
+}
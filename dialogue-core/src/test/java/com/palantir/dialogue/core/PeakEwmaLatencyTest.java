@@ -0,0 +1,63 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.assertj.core.data.Offset;
+import org.junit.jupiter.api.Test;
+
+class PeakEwmaLatencyTest {
+
+    @Test
+    void testPeak_replacesAverage() {
+        AtomicLong clock = new AtomicLong();
+        PeakEwmaLatency latency = new PeakEwmaLatency(clock::get, Duration.ofNanos(10));
+        assertThat(latency.getNanos()).isZero();
+        latency.update(100);
+        assertThat(latency.getNanos()).isEqualTo(100);
+        latency.update(300);
+        assertThat(latency.getNanos()).isEqualTo(300);
+    }
+
+    @Test
+    void testFasterSample_decaysTowardsSample() {
+        AtomicLong clock = new AtomicLong();
+        PeakEwmaLatency latency = new PeakEwmaLatency(clock::get, Duration.ofNanos(10));
+        latency.update(100);
+        latency.update(50);
+        assertThat(latency.getNanos())
+                .as("A faster sample immediately after the last has no effect")
+                .isEqualTo(100);
+        clock.set(10);
+        latency.update(50);
+        assertThat(latency.getNanos()).isEqualTo(50 + 50 * Math.exp(-1), Offset.offset(.001));
+    }
+
+    @Test
+    void testDecay_toZeroWithoutSamples() {
+        AtomicLong clock = new AtomicLong();
+        PeakEwmaLatency latency = new PeakEwmaLatency(clock::get, Duration.ofNanos(10));
+        latency.update(100);
+        clock.set(10);
+        assertThat(latency.getNanos()).isEqualTo(100 * Math.exp(-1), Offset.offset(.001));
+        clock.set(300000);
+        assertThat(latency.getNanos()).isZero();
+    }
+}
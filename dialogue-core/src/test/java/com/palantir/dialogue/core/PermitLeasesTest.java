@@ -0,0 +1,128 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+class PermitLeasesTest {
+
+    private static final int LIMIT = 20;
+
+    private final PermitLeases leases = new PermitLeases(4, 4);
+
+    @Test
+    void testAcquiresUpToLimit() {
+        for (int i = 0; i < LIMIT; i++) {
+            assertThat(leases.tryAcquire(LIMIT, true)).isBetween(i + 1, LIMIT);
+        }
+        assertThat(leases.tryAcquire(LIMIT, true)).isZero();
+        assertThat(leases.inFlight()).isEqualTo(LIMIT);
+
+        leases.release(LIMIT);
+        assertThat(leases.inFlight()).isEqualTo(LIMIT - 1);
+        assertThat(leases.tryAcquire(LIMIT, true)).isPositive();
+        assertThat(leases.tryAcquire(LIMIT, true)).isZero();
+    }
+
+    @Test
+    void testUnenforcedLimit() {
+        for (int i = 0; i < LIMIT; i++) {
+            assertThat(leases.tryAcquire(LIMIT, true)).isPositive();
+        }
+        assertThat(leases.tryAcquire(LIMIT, false)).isEqualTo(LIMIT + 1);
+        assertThat(leases.inFlight()).isEqualTo(LIMIT + 1);
+    }
+
+    @Test
+    void testLimitDecrease() {
+        for (int i = 0; i < LIMIT; i++) {
+            assertThat(leases.tryAcquire(LIMIT, true)).isPositive();
+        }
+        for (int i = 0; i < LIMIT; i++) {
+            leases.release(5);
+        }
+        assertThat(leases.inFlight()).isZero();
+        for (int i = 0; i < 5; i++) {
+            assertThat(leases.tryAcquire(5, true)).isPositive();
+        }
+        assertThat(leases.tryAcquire(5, true)).isZero();
+        assertThat(leases.inFlight()).isEqualTo(5);
+    }
+
+    @Test
+    void testIdlePermitsAreTakenFromOtherThreads() throws Exception {
+        for (int i = 0; i < LIMIT; i++) {
+            assertThat(leases.tryAcquire(LIMIT, true)).isPositive();
+        }
+        // Releasing on other threads leaves idle permits in their stripes, which this thread must be able to use
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < LIMIT; i++) {
+                futures.add(executor.submit(() -> leases.release(LIMIT)));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(leases.inFlight()).isZero();
+        for (int i = 0; i < LIMIT; i++) {
+            assertThat(leases.tryAcquire(LIMIT, true)).isPositive();
+        }
+        assertThat(leases.tryAcquire(LIMIT, true)).isZero();
+    }
+
+    @Test
+    void testConcurrentUseNeverExceedsLimit() throws Exception {
+        int threads = 16;
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        if (leases.tryAcquire(LIMIT, true) > 0) {
+                            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                            inFlight.decrementAndGet();
+                            leases.release(LIMIT);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(maxInFlight).hasValueBetween(1, LIMIT);
+        assertThat(leases.inFlight()).isZero();
+    }
+}
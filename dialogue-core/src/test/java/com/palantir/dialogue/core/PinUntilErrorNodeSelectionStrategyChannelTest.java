@@ -211,6 +211,66 @@ public class PinUntilErrorNodeSelectionStrategyChannelTest {
                 .contains(204, 204, 204, 204, 204, 204);
     }
 
+    @Test
+    public void reshuffle_with_slow_start_moves_requests_gradually() {
+        ImmutableList<PinUntilErrorNodeSelectionStrategyChannel.PinChannel> channels =
+                ImmutableList.of(channel1, channel2);
+        PinUntilErrorNodeSelectionStrategyChannel.ReshufflingNodeList shufflingList =
+                PinUntilErrorNodeSelectionStrategyChannel.ReshufflingNodeList.of(
+                        channels, new Random(12893712L), clock, metrics, channelName);
+        PinUntilErrorNodeSelectionStrategyChannel.SlowStartPins slowStartPins =
+                new PinUntilErrorNodeSelectionStrategyChannel.SlowStartPins(
+                        channel2, 2, clock, Duration.ofMinutes(1), new DefaultTaggedMetricRegistry(), channelName);
+        PinUntilErrorNodeSelectionStrategyChannel slowStart =
+                new PinUntilErrorNodeSelectionStrategyChannel(shufflingList, 1, metrics, channelName, slowStartPins);
+        setResponse(channel1, 100);
+        setResponse(channel2, 204);
+
+        assertThat(IntStream.range(0, 10).map(_number -> getCode(slowStart)))
+                .describedAs("First batch on channel2")
+                .containsOnly(204);
+
+        when(clock.read()).thenReturn(Duration.ofMinutes(11).toNanos());
+        assertThat(IntStream.range(0, 10).map(_number -> getCode(slowStart)))
+                .describedAs("Reshuffle gave us channel1, which starts with a tenth of requests")
+                .filteredOn(code -> code == 100)
+                .hasSize(1);
+
+        when(clock.read()).thenReturn(Duration.ofMinutes(11).plusSeconds(30).toNanos());
+        assertThat(IntStream.range(0, 100).map(_number -> getCode(slowStart)))
+                .describedAs("Halfway through the window")
+                .filteredOn(code -> code == 100)
+                .hasSize(55);
+
+        when(clock.read()).thenReturn(Duration.ofMinutes(12).toNanos());
+        assertThat(IntStream.range(0, 10).map(_number -> getCode(slowStart)))
+                .describedAs("Ramp is complete")
+                .containsOnly(100);
+    }
+
+    @Test
+    public void slow_start_ramp_ends_when_previous_node_fails() {
+        ImmutableList<PinUntilErrorNodeSelectionStrategyChannel.PinChannel> channels =
+                ImmutableList.of(channel1, channel2);
+        PinUntilErrorNodeSelectionStrategyChannel.ReshufflingNodeList shufflingList =
+                PinUntilErrorNodeSelectionStrategyChannel.ReshufflingNodeList.of(
+                        channels, new Random(12893712L), clock, metrics, channelName);
+        PinUntilErrorNodeSelectionStrategyChannel.SlowStartPins slowStartPins =
+                new PinUntilErrorNodeSelectionStrategyChannel.SlowStartPins(
+                        channel2, 2, clock, Duration.ofMinutes(1), new DefaultTaggedMetricRegistry(), channelName);
+        PinUntilErrorNodeSelectionStrategyChannel slowStart =
+                new PinUntilErrorNodeSelectionStrategyChannel(shufflingList, 1, metrics, channelName, slowStartPins);
+        setResponse(channel1, 100);
+        setResponse(channel2, 204);
+        assertThat(getCode(slowStart)).isEqualTo(204);
+
+        when(clock.read()).thenReturn(Duration.ofMinutes(11).toNanos());
+        setResponse(channel2, 500);
+        assertThat(IntStream.range(0, 10).map(_number -> getCode(slowStart)))
+                .describedAs("The first request sent to channel2 fails, ending the ramp")
+                .containsExactly(500, 100, 100, 100, 100, 100, 100, 100, 100, 100);
+    }
+
     @Test
     public void out_of_order_responses_dont_cause_us_to_switch_channel() {
         setResponse(channel1, 100);
@@ -29,12 +29,20 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import com.palantir.dialogue.Endpoint;
 import com.palantir.dialogue.Request;
+import com.palantir.dialogue.RequestDeadlines;
+import com.palantir.dialogue.RequestPriority;
 import com.palantir.dialogue.Response;
 import com.palantir.dialogue.core.LimitedChannel.LimitEnforcement;
 import com.palantir.tracing.TestTracing;
 import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -56,8 +64,8 @@ public class QueuedChannelTest {
     @Mock
     private Endpoint endpoint;
 
-    @Mock
-    private Request request;
+    // Not a mock, queued requests may have deadline attachments
+    private final Request request = Request.builder().build();
 
     @Mock
     private Response mockResponse;
@@ -306,6 +314,360 @@ public class QueuedChannelTest {
         verify(delegate, times(2)).maybeExecute(endpoint, queued, DO_NOT_SKIP_LIMITS);
     }
 
+    @Test
+    public void testSingleDrainerSignalsOwnerInsteadOfReentering() {
+        queuedChannel = singleDrainerChannel();
+        mockNoCapacity();
+        queuedChannel.maybeExecute(endpoint, request);
+        verify(delegate, times(2)).maybeExecute(endpoint, request, DO_NOT_SKIP_LIMITS);
+
+        AtomicInteger depth = new AtomicInteger();
+        AtomicInteger attempts = new AtomicInteger();
+        when(delegate.maybeExecute(endpoint, request, DO_NOT_SKIP_LIMITS))
+                .thenAnswer((Answer<Optional<ListenableFuture<Response>>>) _invocation -> {
+                    assertThat(depth.incrementAndGet()).isOne();
+                    if (attempts.getAndIncrement() == 0) {
+                        // Simulates a request completing on another thread while this thread drains the queue
+                        queuedChannel.schedule();
+                    }
+                    depth.decrementAndGet();
+                    return Optional.empty();
+                });
+        queuedChannel.schedule();
+
+        // The signal results in a second pass by the draining thread
+        verify(delegate, times(4)).maybeExecute(endpoint, request, DO_NOT_SKIP_LIMITS);
+    }
+
+    @Test
+    public void testSingleDrainerExecutesInQueueOrder() {
+        queuedChannel = singleDrainerChannel();
+        Request first = Request.builder().putHeaderParams("order", "first").build();
+        Request second = Request.builder().putHeaderParams("order", "second").build();
+        when(delegate.maybeExecute(endpoint, first, DO_NOT_SKIP_LIMITS)).thenReturn(Optional.empty());
+        ListenableFuture<Response> firstResult =
+                queuedChannel.maybeExecute(endpoint, first).get();
+        ListenableFuture<Response> secondResult =
+                queuedChannel.maybeExecute(endpoint, second).get();
+        assertThat(firstResult).isNotDone();
+        assertThat(secondResult).isNotDone();
+
+        List<Request> executed = new ArrayList<>();
+        Answer<Optional<ListenableFuture<Response>>> execute = invocation -> {
+            executed.add(invocation.getArgument(1));
+            return Optional.of(Futures.immediateFuture(mockResponse));
+        };
+        when(delegate.maybeExecute(endpoint, first, DO_NOT_SKIP_LIMITS)).thenAnswer(execute);
+        when(delegate.maybeExecute(endpoint, second, DO_NOT_SKIP_LIMITS)).thenAnswer(execute);
+        queuedChannel.maybeExecute(endpoint, request);
+
+        assertThat(executed).containsExactly(first, second);
+        assertThat(firstResult).isDone();
+        assertThat(secondResult).isDone();
+        // The second request was never attempted before the first, so it was only attempted once
+        verify(delegate, times(1)).maybeExecute(endpoint, second, DO_NOT_SKIP_LIMITS);
+    }
+
+    @Test
+    public void testShedsAfterSustainedQueueTime() {
+        DialogueClientMetrics metrics = DialogueClientMetrics.of(new DefaultTaggedMetricRegistry());
+        AtomicLong now = new AtomicLong();
+        queuedChannel = targetQueueTimeChannel(metrics, now, false);
+        mockNoCapacity();
+        ListenableFuture<Response> result =
+                queuedChannel.maybeExecute(endpoint, request).get();
+
+        // Above the target, but not yet for a sustained period
+        now.set(Duration.ofMillis(20).toNanos());
+        queuedChannel.schedule();
+        assertThat(result).isNotDone();
+
+        now.set(Duration.ofMillis(130).toNanos());
+        queuedChannel.schedule();
+        assertThat(result).isDone();
+        assertThatThrownBy(result::get)
+                .hasCauseInstanceOf(QueueShedException.class)
+                .satisfies(throwable -> assertThat(((QueueShedException) throwable.getCause()).isRetryable())
+                        .isTrue());
+        assertThat(shedCount(metrics, "queueTime")).isOne();
+        // The shed request was not attempted again
+        verify(delegate, times(3)).maybeExecute(endpoint, request, DO_NOT_SKIP_LIMITS);
+    }
+
+    @Test
+    public void testQueueTimeBelowTargetEndsOverload() {
+        DialogueClientMetrics metrics = DialogueClientMetrics.of(new DefaultTaggedMetricRegistry());
+        AtomicLong now = new AtomicLong();
+        queuedChannel = targetQueueTimeChannel(metrics, now, false);
+        mockNoCapacity();
+        ListenableFuture<Response> first =
+                queuedChannel.maybeExecute(endpoint, request).get();
+        now.set(Duration.ofMillis(20).toNanos());
+        queuedChannel.schedule();
+
+        // Capacity becomes available, so the request is executed rather than shed
+        mockHasCapacity();
+        now.set(Duration.ofMillis(30).toNanos());
+        queuedChannel.schedule();
+        assertThat(first).isNotDone();
+        futureResponse.set(mockResponse);
+        assertThat(first).isDone();
+
+        mockNoCapacity();
+        ListenableFuture<Response> second =
+                queuedChannel.maybeExecute(endpoint, request).get();
+        now.set(Duration.ofMillis(140).toNanos());
+        queuedChannel.schedule();
+        // The overload ended when the queue emptied, so the interval starts again for the second request
+        now.set(Duration.ofMillis(200).toNanos());
+        queuedChannel.schedule();
+        assertThat(second).isNotDone();
+        assertThat(shedCount(metrics, "queueTime")).isZero();
+    }
+
+    @Test
+    public void testShedsQueuedRequestPastDeadline() {
+        DialogueClientMetrics metrics = DialogueClientMetrics.of(new DefaultTaggedMetricRegistry());
+        AtomicLong now = new AtomicLong();
+        queuedChannel = new QueuedChannel(
+                delegate,
+                "my-channel",
+                "queue-type",
+                QueuedChannel.channelInstrumentation(metrics, "my-channel"),
+                100_000,
+                QueueOptions.builder().ticker(now::get).build());
+        RequestDeadlines.setDeadlineNanos(request, System.nanoTime() + Duration.ofMinutes(1).toNanos());
+        mockNoCapacity();
+        ListenableFuture<Response> result =
+                queuedChannel.maybeExecute(endpoint, request).get();
+        assertThat(result).isNotDone();
+
+        // Deadlines use the system clock, the ticker only measures time spent queued
+        now.set(Duration.ofMinutes(2).toNanos());
+        queuedChannel.schedule();
+        assertThat(result).isNotDone();
+
+        RequestDeadlines.setDeadlineNanos(request, System.nanoTime());
+        queuedChannel.schedule();
+        assertThatThrownBy(result::get)
+                .hasCauseInstanceOf(QueueShedException.class)
+                .satisfies(throwable -> assertThat(((QueueShedException) throwable.getCause()).isRetryable())
+                        .isFalse());
+        assertThat(shedCount(metrics, "deadline")).isOne();
+
+        // Requests submitted after their deadline are not queued
+        assertThat(queuedChannel.maybeExecute(endpoint, request))
+                .hasValueSatisfying(future -> assertThatThrownBy(future::get)
+                        .hasCauseInstanceOf(QueueShedException.class));
+        assertThat(shedCount(metrics, "deadline")).isEqualTo(2);
+    }
+
+    @Test
+    public void testLifoUnderOverloadServesNewestAndShedsOldest() {
+        DialogueClientMetrics metrics = DialogueClientMetrics.of(new DefaultTaggedMetricRegistry());
+        AtomicLong now = new AtomicLong();
+        queuedChannel = targetQueueTimeChannel(metrics, now, true);
+        Request second = Request.builder().putHeaderParams("order", "second").build();
+        Request third = Request.builder().putHeaderParams("order", "third").build();
+        Request fourth = Request.builder().putHeaderParams("order", "fourth").build();
+        mockNoCapacity();
+        when(delegate.maybeExecute(endpoint, second, DO_NOT_SKIP_LIMITS)).thenReturn(Optional.empty());
+        when(delegate.maybeExecute(endpoint, third, DO_NOT_SKIP_LIMITS)).thenReturn(Optional.empty());
+        when(delegate.maybeExecute(endpoint, fourth, DO_NOT_SKIP_LIMITS)).thenReturn(Optional.empty());
+
+        ListenableFuture<Response> firstResult =
+                queuedChannel.maybeExecute(endpoint, request).get();
+        now.set(Duration.ofMillis(5).toNanos());
+        ListenableFuture<Response> secondResult =
+                queuedChannel.maybeExecute(endpoint, second).get();
+        now.set(Duration.ofMillis(20).toNanos());
+        queuedChannel.schedule();
+        now.set(Duration.ofMillis(130).toNanos());
+        queuedChannel.schedule();
+        // The queue is now overloaded, the head was shed, the remaining request is left for tail shedding
+        assertThat(firstResult).isDone();
+        assertThat(secondResult).isNotDone();
+
+        now.set(Duration.ofMillis(131).toNanos());
+        ListenableFuture<Response> thirdResult =
+                queuedChannel.maybeExecute(endpoint, third).get();
+        assertThat(secondResult).isDone();
+        assertThat(shedCount(metrics, "queueTime")).isEqualTo(2);
+
+        now.set(Duration.ofMillis(132).toNanos());
+        ListenableFuture<Response> fourthResult =
+                queuedChannel.maybeExecute(endpoint, fourth).get();
+        // The newest request is attempted first, so the third request is not attempted again
+        verify(delegate, times(1)).maybeExecute(endpoint, third, DO_NOT_SKIP_LIMITS);
+        verify(delegate, times(1)).maybeExecute(endpoint, fourth, DO_NOT_SKIP_LIMITS);
+
+        List<Request> executed = new ArrayList<>();
+        Answer<Optional<ListenableFuture<Response>>> execute = invocation -> {
+            executed.add(invocation.getArgument(1));
+            return Optional.of(Futures.immediateFuture(mockResponse));
+        };
+        when(delegate.maybeExecute(endpoint, third, DO_NOT_SKIP_LIMITS)).thenAnswer(execute);
+        when(delegate.maybeExecute(endpoint, fourth, DO_NOT_SKIP_LIMITS)).thenAnswer(execute);
+        now.set(Duration.ofMillis(133).toNanos());
+        queuedChannel.schedule();
+        assertThat(executed).containsExactly(fourth, third);
+        assertThat(thirdResult).isDone();
+        assertThat(fourthResult).isDone();
+    }
+
+    @Test
+    public void testStrictPriorityExecutesHigherPrioritiesFirst() {
+        DialogueClientMetrics metrics = DialogueClientMetrics.of(new DefaultTaggedMetricRegistry());
+        queuedChannel = priorityChannel(metrics, QueueDiscipline.STRICT_PRIORITY);
+        Request batch = priorityRequest(RequestPriority.BATCH, 0);
+        Request interactive = priorityRequest(RequestPriority.INTERACTIVE, 0);
+        AtomicBoolean hasCapacity = new AtomicBoolean();
+        List<Request> executed = new ArrayList<>();
+        Answer<Optional<ListenableFuture<Response>>> execute = executeIfCapacity(hasCapacity, executed);
+        when(delegate.maybeExecute(endpoint, request, DO_NOT_SKIP_LIMITS)).thenAnswer(execute);
+        when(delegate.maybeExecute(endpoint, batch, DO_NOT_SKIP_LIMITS)).thenAnswer(execute);
+        when(delegate.maybeExecute(endpoint, interactive, DO_NOT_SKIP_LIMITS)).thenAnswer(execute);
+
+        queuedChannel.maybeExecute(endpoint, batch);
+        queuedChannel.maybeExecute(endpoint, request);
+        queuedChannel.maybeExecute(endpoint, interactive);
+        assertThat(priorityQueued(metrics, "batch")).isOne();
+        assertThat(priorityQueued(metrics, "default")).isOne();
+        assertThat(priorityQueued(metrics, "interactive")).isOne();
+
+        hasCapacity.set(true);
+        queuedChannel.schedule();
+        assertThat(executed).containsExactly(interactive, request, batch);
+        assertThat(priorityQueued(metrics, "batch")).isZero();
+        assertThat(metrics.requestPriorityQueuedTime()
+                        .channelName("my-channel")
+                        .queueType("channel")
+                        .priority("batch")
+                        .build()
+                        .getCount())
+                .isOne();
+    }
+
+    @Test
+    public void testWeightedFairSharesCapacityByWeight() {
+        queuedChannel = priorityChannel(
+                DialogueClientMetrics.of(new DefaultTaggedMetricRegistry()), QueueDiscipline.WEIGHTED_FAIR);
+        AtomicBoolean hasCapacity = new AtomicBoolean();
+        List<Request> executed = new ArrayList<>();
+        Answer<Optional<ListenableFuture<Response>>> execute = executeIfCapacity(hasCapacity, executed);
+        when(delegate.maybeExecute(endpoint, request, DO_NOT_SKIP_LIMITS)).thenAnswer(execute);
+        queuedChannel.maybeExecute(endpoint, request);
+        List<Request> requests = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            requests.add(priorityRequest(RequestPriority.INTERACTIVE, i));
+        }
+        for (int i = 0; i < 3; i++) {
+            requests.add(priorityRequest(RequestPriority.DEFAULT, i));
+        }
+        for (int i = 0; i < 3; i++) {
+            requests.add(priorityRequest(RequestPriority.BATCH, i));
+        }
+        for (Request queued : requests) {
+            when(delegate.maybeExecute(endpoint, queued, DO_NOT_SKIP_LIMITS)).thenAnswer(execute);
+            queuedChannel.maybeExecute(endpoint, queued);
+        }
+
+        // Rejected attempts while the requests were queued must not have used up any priority's turn
+        hasCapacity.set(true);
+        queuedChannel.schedule();
+        assertThat(executed)
+                .extracting(executedRequest -> RequestPriority.of(endpoint, executedRequest))
+                .containsExactly(
+                        RequestPriority.INTERACTIVE,
+                        RequestPriority.DEFAULT,
+                        RequestPriority.INTERACTIVE,
+                        RequestPriority.BATCH,
+                        RequestPriority.INTERACTIVE,
+                        RequestPriority.DEFAULT,
+                        RequestPriority.INTERACTIVE,
+                        RequestPriority.INTERACTIVE,
+                        RequestPriority.DEFAULT,
+                        RequestPriority.INTERACTIVE,
+                        RequestPriority.BATCH,
+                        RequestPriority.INTERACTIVE,
+                        RequestPriority.DEFAULT,
+                        RequestPriority.INTERACTIVE,
+                        // Other priorities are empty, so the last batch request runs without waiting for its turn
+                        RequestPriority.BATCH);
+    }
+
+    private QueuedChannel targetQueueTimeChannel(DialogueClientMetrics metrics, AtomicLong now, boolean lifo) {
+        return new QueuedChannel(
+                delegate,
+                "my-channel",
+                "queue-type",
+                QueuedChannel.channelInstrumentation(metrics, "my-channel"),
+                100_000,
+                QueueOptions.builder()
+                        .targetQueueTime(Duration.ofMillis(10))
+                        .lifoUnderOverload(lifo)
+                        .ticker(now::get)
+                        .build());
+    }
+
+    private QueuedChannel priorityChannel(DialogueClientMetrics metrics, QueueDiscipline discipline) {
+        return new QueuedChannel(
+                delegate,
+                "my-channel",
+                "channel",
+                QueuedChannel.channelInstrumentation(metrics, "my-channel"),
+                100_000,
+                QueueOptions.builder().discipline(discipline).build());
+    }
+
+    private static Request priorityRequest(RequestPriority priority, int index) {
+        Request priorityRequest = Request.builder()
+                .putHeaderParams("priority", priority.name())
+                .putHeaderParams("index", Integer.toString(index))
+                .build();
+        RequestPriority.set(priorityRequest, priority);
+        return priorityRequest;
+    }
+
+    private Answer<Optional<ListenableFuture<Response>>> executeIfCapacity(
+            AtomicBoolean hasCapacity, List<Request> executed) {
+        return invocation -> {
+            if (!hasCapacity.get()) {
+                return Optional.empty();
+            }
+            executed.add(invocation.getArgument(1));
+            return Optional.of(Futures.immediateFuture(mockResponse));
+        };
+    }
+
+    private static long priorityQueued(DialogueClientMetrics metrics, String priority) {
+        return metrics.requestsPriorityQueued()
+                .channelName("my-channel")
+                .queueType("channel")
+                .priority(priority)
+                .build()
+                .getCount();
+    }
+
+    private static long shedCount(DialogueClientMetrics metrics, String reason) {
+        return metrics.requestShed()
+                .channelName("my-channel")
+                .reason(reason)
+                .build()
+                .getCount();
+    }
+
+    private QueuedChannel singleDrainerChannel() {
+        return new QueuedChannel(
+                delegate,
+                "my-channel",
+                "queue-type",
+                QueuedChannel.channelInstrumentation(
+                        DialogueClientMetrics.of(new DefaultTaggedMetricRegistry()), "my-channel"),
+                100_000,
+                QueueOptions.builder().singleDrainer(true).build());
+    }
+
     private OngoingStubbing<Optional<ListenableFuture<Response>>> mockHasCapacity() {
         return when(delegate.maybeExecute(endpoint, request, DO_NOT_SKIP_LIMITS))
                 .thenReturn(maybeResponse);
@@ -0,0 +1,190 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.Futures;
+import com.palantir.dialogue.EndpointChannel;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.TestEndpoint;
+import com.palantir.dialogue.TestResponse;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+final class ResponseCacheChannelTest {
+
+    @Mock
+    private EndpointChannel delegate;
+
+    private final AtomicLong now = new AtomicLong();
+    private final Request request = Request.builder().putQueryParams("key", "value").build();
+    private ResponseCacheChannel.Store store;
+    private ResponseCacheChannel channel;
+
+    @BeforeEach
+    void beforeEach() {
+        TaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        store = new ResponseCacheChannel.Store("channel", 1_000_000, now::get, registry);
+        channel = new ResponseCacheChannel(delegate, TestEndpoint.GET, "channel", store, registry);
+    }
+
+    @Test
+    void fresh_responses_are_served_from_the_cache() throws Exception {
+        TestResponse response =
+                TestResponse.withBody("body").code(200).withHeader(HttpHeaders.CACHE_CONTROL, "max-age=60");
+        respond(response);
+        assertThat(body(execute())).isEqualTo("body");
+        assertThat(response.isClosed()).isTrue();
+
+        now.addAndGet(Duration.ofSeconds(59).toNanos());
+        Response cached = execute();
+        assertThat(cached.code()).isEqualTo(200);
+        assertThat(cached.getFirstHeader(HttpHeaders.CACHE_CONTROL)).hasValue("max-age=60");
+        assertThat(body(cached)).isEqualTo("body");
+        assertThat(body(execute())).describedAs("Each response reads its own copy").isEqualTo("body");
+        verify(delegate, times(1)).execute(any());
+    }
+
+    @Test
+    void stale_responses_are_revalidated() throws Exception {
+        respond(TestResponse.withBody("body")
+                .code(200)
+                .withHeader(HttpHeaders.CACHE_CONTROL, "max-age=60")
+                .withHeader(HttpHeaders.ETAG, "\"v1\""));
+        execute().close();
+
+        now.addAndGet(Duration.ofSeconds(60).toNanos());
+        Mockito.reset(delegate);
+        TestResponse notModified = new TestResponse().code(304);
+        respond(notModified);
+        assertThat(body(execute())).isEqualTo("body");
+        assertThat(notModified.isClosed()).isTrue();
+
+        ArgumentCaptor<Request> captor = ArgumentCaptor.forClass(Request.class);
+        verify(delegate).execute(captor.capture());
+        assertThat(captor.getValue().headerParams().get(HttpHeaders.IF_NONE_MATCH)).containsExactly("\"v1\"");
+
+        // The 304 did not change the lifetime, so the response is fresh for another minute.
+        now.addAndGet(Duration.ofSeconds(59).toNanos());
+        assertThat(body(execute())).isEqualTo("body");
+        verify(delegate, times(1)).execute(any());
+    }
+
+    @Test
+    void modified_responses_replace_the_cached_response() throws Exception {
+        respond(TestResponse.withBody("old").code(200).withHeader(HttpHeaders.LAST_MODIFIED, "yesterday"));
+        execute().close();
+
+        Mockito.reset(delegate);
+        respond(TestResponse.withBody("new").code(200).withHeader(HttpHeaders.LAST_MODIFIED, "today"));
+        assertThat(body(execute())).isEqualTo("new");
+
+        ArgumentCaptor<Request> captor = ArgumentCaptor.forClass(Request.class);
+        verify(delegate).execute(captor.capture());
+        assertThat(captor.getValue().headerParams().get(HttpHeaders.IF_MODIFIED_SINCE))
+                .containsExactly("yesterday");
+
+        Mockito.reset(delegate);
+        respond(new TestResponse().code(304));
+        assertThat(body(execute())).isEqualTo("new");
+    }
+
+    @Test
+    void responses_without_freshness_or_validators_are_not_stored() throws Exception {
+        respond(TestResponse.withBody("body").code(200));
+        execute().close();
+        execute().close();
+        verify(delegate, times(2)).execute(any());
+    }
+
+    @Test
+    void no_store_responses_are_not_stored() throws Exception {
+        respond(TestResponse.withBody("body").code(200).withHeader(HttpHeaders.CACHE_CONTROL, "max-age=60, no-store"));
+        execute().close();
+        execute().close();
+        verify(delegate, times(2)).execute(any());
+    }
+
+    @Test
+    void requests_with_other_credentials_are_not_served_from_the_cache() throws Exception {
+        respond(TestResponse.withBody("body").code(200).withHeader(HttpHeaders.CACHE_CONTROL, "max-age=60"));
+        execute().close();
+        Request other = Request.builder().from(request).putHeaderParams("Authorization", "Bearer other").build();
+        channel.execute(other).get().close();
+        verify(delegate, times(2)).execute(any());
+    }
+
+    @Test
+    void bodies_over_the_entry_limit_are_streamed_without_being_stored() throws Exception {
+        byte[] large = new byte[ResponseCacheChannel.MAX_ENTRY_BYTES + 1];
+        TestResponse response = new TestResponse(large).code(200).withHeader(HttpHeaders.CACHE_CONTROL, "max-age=60");
+        respond(response);
+        Response streamed = execute();
+        assertThat(ByteStreams.toByteArray(streamed.body())).hasSize(large.length);
+        assertThat(response.isClosed()).isFalse();
+        streamed.close();
+        assertThat(response.isClosed()).isTrue();
+
+        Mockito.reset(delegate);
+        respond(TestResponse.withBody("small").code(200));
+        execute().close();
+        verify(delegate).execute(any());
+    }
+
+    @Test
+    void weight_includes_stored_bodies() throws Exception {
+        respond(TestResponse.withBody("body").code(200).withHeader(HttpHeaders.CACHE_CONTROL, "max-age=60"));
+        execute().close();
+        store.cleanUp();
+        assertThat(store.weightedSize()).isGreaterThan(4);
+    }
+
+    private void respond(TestResponse response) {
+        when(delegate.execute(any())).thenReturn(Futures.immediateFuture(response));
+    }
+
+    private Response execute() throws ExecutionException, InterruptedException {
+        return channel.execute(request).get();
+    }
+
+    private static String body(Response response) throws IOException {
+        try (response) {
+            return new String(ByteStreams.toByteArray(response.body()), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+final class RetryBudgetTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void testRetriesLimitedToRatioOfFirstAttempts() {
+        RetryBudget budget = RetryBudget.create(0.2, 0, now::get);
+        // Budgets start full
+        assertThat(drain(budget)).isEqualTo(10);
+
+        for (int i = 0; i < 10; i++) {
+            budget.onFirstAttempt();
+        }
+        assertThat(budget.tryAcquireRetry()).isTrue();
+        assertThat(budget.tryAcquireRetry()).isTrue();
+        assertThat(budget.tryAcquireRetry()).isFalse();
+    }
+
+    @Test
+    void testFloorRefillsOverTime() {
+        RetryBudget budget = RetryBudget.create(0, 2, now::get);
+        assertThat(drain(budget)).isEqualTo(20);
+        assertThat(budget.availableRetries()).isZero();
+
+        now.set(Duration.ofMillis(499).toNanos());
+        assertThat(budget.tryAcquireRetry()).isFalse();
+        now.set(Duration.ofMillis(1500).toNanos());
+        assertThat(budget.tryAcquireRetry()).isTrue();
+        assertThat(budget.tryAcquireRetry()).isTrue();
+        assertThat(budget.tryAcquireRetry()).isTrue();
+        assertThat(budget.tryAcquireRetry()).isFalse();
+    }
+
+    @Test
+    void testBalanceIsCapped() {
+        RetryBudget budget = RetryBudget.create(1, 5, now::get);
+        for (int i = 0; i < 1000; i++) {
+            budget.onFirstAttempt();
+        }
+        now.set(Duration.ofHours(1).toNanos());
+        // Ten seconds worth of the floor
+        assertThat(drain(budget)).isEqualTo(50);
+    }
+
+    @Test
+    void testUnlimited() {
+        RetryBudget budget = RetryBudget.unlimited();
+        for (int i = 0; i < 1000; i++) {
+            assertThat(budget.tryAcquireRetry()).isTrue();
+        }
+    }
+
+    private static int drain(RetryBudget budget) {
+        int retries = 0;
+        while (budget.tryAcquireRetry()) {
+            retries++;
+        }
+        return retries;
+    }
+}
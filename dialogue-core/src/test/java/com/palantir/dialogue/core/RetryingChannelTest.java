@@ -21,6 +21,7 @@ import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -36,12 +37,14 @@ import com.palantir.conjure.java.client.config.ClientConfiguration;
 import com.palantir.dialogue.EndpointChannel;
 import com.palantir.dialogue.Request;
 import com.palantir.dialogue.RequestBody;
+import com.palantir.dialogue.RequestDeadlines;
 import com.palantir.dialogue.Response;
 import com.palantir.dialogue.TestEndpoint;
 import com.palantir.dialogue.TestResponse;
 import com.palantir.dialogue.TestResponseQosEncoder;
 import com.palantir.logsafe.exceptions.SafeIoException;
 import com.palantir.logsafe.exceptions.SafeRuntimeException;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
 import java.io.ByteArrayOutputStream;
 import java.io.OutputStream;
 import java.net.ConnectException;
@@ -798,6 +801,114 @@ public class RetryingChannelTest {
         verify(channel, times(1)).execute(any());
     }
 
+    @Test
+    public void testRetryBudgetExhaustedFailsFast() {
+        when(channel.execute(any())).thenReturn(FAILED);
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        // Without a floor, the request's own first attempt only deposits enough for a single retry
+        RetryBudget budget = RetryBudget.create(1, 0, () -> 0L);
+        drain(budget);
+
+        EndpointChannel retryer = new RetryingChannel(
+                channel,
+                TestEndpoint.POST,
+                "my-channel",
+                registry,
+                3,
+                Duration.ZERO,
+                ClientConfiguration.ServerQoS.AUTOMATIC_RETRY,
+                ClientConfiguration.RetryOnTimeout.DISABLED,
+                budget);
+        ListenableFuture<Response> response = retryer.execute(REQUEST);
+        assertThatThrownBy(response::get).hasRootCauseMessage("FAILED");
+        verify(channel, times(2)).execute(REQUEST);
+        assertThat(DialogueClientMetrics.of(registry)
+                        .requestRetry()
+                        .channelName("my-channel")
+                        .reason("budgetExhausted")
+                        .build()
+                        .getCount())
+                .isOne();
+    }
+
+    @Test
+    public void testRetryBudgetExhaustedReturnsServerError() throws ExecutionException, InterruptedException {
+        Response serverError = mockResponse(500);
+        when(channel.execute(any())).thenReturn(Futures.immediateFuture(serverError));
+        RetryBudget budget = RetryBudget.create(0, 0, () -> 0L);
+        drain(budget);
+
+        EndpointChannel retryer = new RetryingChannel(
+                channel,
+                TestEndpoint.GET,
+                "my-channel",
+                new DefaultTaggedMetricRegistry(),
+                3,
+                Duration.ZERO,
+                ClientConfiguration.ServerQoS.AUTOMATIC_RETRY,
+                ClientConfiguration.RetryOnTimeout.DISABLED,
+                budget);
+        ListenableFuture<Response> response = retryer.execute(REQUEST);
+        assertThat(response.get()).isSameAs(serverError);
+        verify(channel, times(1)).execute(REQUEST);
+        verify(serverError, never()).close();
+    }
+
+    @Test
+    public void testDoesNotRetryPastDeadline() {
+        when(channel.execute(any())).thenReturn(FAILED);
+        DefaultTaggedMetricRegistry registry = new DefaultTaggedMetricRegistry();
+        Request request = Request.builder().build();
+        RequestDeadlines.setTimeout(request, Duration.ofMillis(100));
+
+        // The first backoff is a random fraction of a day, which is all but certain to end after the deadline
+        EndpointChannel retryer = new RetryingChannel(
+                channel,
+                TestEndpoint.POST,
+                "my-channel",
+                registry,
+                3,
+                Duration.ofDays(1),
+                ClientConfiguration.ServerQoS.AUTOMATIC_RETRY,
+                ClientConfiguration.RetryOnTimeout.DISABLED,
+                RetryBudget.unlimited());
+        ListenableFuture<Response> response = retryer.execute(request);
+        assertThat(response).isDone();
+        assertThatThrownBy(response::get).hasRootCauseMessage("FAILED");
+        verify(channel, times(1)).execute(request);
+        assertThat(DialogueClientMetrics.of(registry)
+                        .requestRetry()
+                        .channelName("my-channel")
+                        .reason("pastDeadline")
+                        .build()
+                        .getCount())
+                .isOne();
+    }
+
+    @Test
+    public void testRetriesWithinDeadline() throws ExecutionException, InterruptedException {
+        when(channel.execute(any())).thenReturn(FAILED).thenReturn(SUCCESS);
+        Request request = Request.builder().build();
+        RequestDeadlines.setTimeout(request, Duration.ofMinutes(1));
+
+        EndpointChannel retryer = new RetryingChannel(
+                channel,
+                TestEndpoint.POST,
+                "my-channel",
+                3,
+                Duration.ZERO,
+                ClientConfiguration.ServerQoS.AUTOMATIC_RETRY,
+                ClientConfiguration.RetryOnTimeout.DISABLED);
+        assertThat(retryer.execute(request).get()).isEqualTo(EXPECTED_RESPONSE);
+        verify(channel, times(2)).execute(request);
+    }
+
+    private static void drain(RetryBudget budget) {
+        while (budget.availableRetries() >= 1) {
+            assertThat(budget.tryAcquireRetry()).isTrue();
+        }
+    }
+
     private static Response mockResponse(int status) {
         Response response = mock(Response.class);
         when(response.code()).thenReturn(status);
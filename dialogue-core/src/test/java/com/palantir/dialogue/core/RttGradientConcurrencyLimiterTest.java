@@ -0,0 +1,133 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.palantir.dialogue.TestResponse;
+import com.palantir.dialogue.core.CautiousIncreaseAggressiveDecreaseConcurrencyLimiter.Behavior;
+import com.palantir.dialogue.core.LimitedChannel.LimitEnforcement;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+public class RttGradientConcurrencyLimiterTest {
+
+    private static final long FAST = Duration.ofMillis(10).toNanos();
+    private static final long SLOW = Duration.ofMillis(100).toNanos();
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    private RttGradientConcurrencyLimiter limiter(Behavior behavior) {
+        return new RttGradientConcurrencyLimiter(behavior, ticker::get);
+    }
+
+    @ParameterizedTest
+    @EnumSource(Behavior.class)
+    void acquire_returnsPermitsWhileInflightPermitLimitNotReached(Behavior behavior) {
+        RttGradientConcurrencyLimiter limiter = limiter(behavior);
+        double max = limiter.getLimit();
+        Optional<RttGradientConcurrencyLimiter.Permit> latestPermit = Optional.empty();
+        for (int i = 0; i < max; ++i) {
+            latestPermit = limiter.acquire(LimitEnforcement.DEFAULT_ENABLED);
+            assertThat(latestPermit).isPresent();
+        }
+
+        assertThat(limiter.getInflight()).isEqualTo((int) max);
+        assertThat(limiter.acquire(LimitEnforcement.DEFAULT_ENABLED)).isEmpty();
+        assertThat(limiter.acquire(LimitEnforcement.DANGEROUS_BYPASS_LIMITS)).isPresent();
+
+        latestPermit.get().ignore();
+        assertThat(limiter.getInflight()).isEqualTo((int) max);
+        assertThat(limiter.getLimit()).isEqualTo(max);
+    }
+
+    @Test
+    void success_recordsResponseTime() {
+        RttGradientConcurrencyLimiter limiter = limiter(Behavior.HOST_LEVEL);
+        double max = limiter.getLimit();
+        Optional<RttGradientConcurrencyLimiter.Permit> latestPermit = Optional.empty();
+        for (int i = 0; i < max; ++i) {
+            latestPermit = limiter.acquire(LimitEnforcement.DEFAULT_ENABLED);
+        }
+        ticker.addAndGet(FAST);
+        latestPermit.get().onSuccess(new TestResponse().code(200));
+
+        assertThat(limiter.getShortRttNanos()).isEqualTo(FAST);
+        assertThat(limiter.getLongRttNanos()).isEqualTo(FAST);
+        assertThat(limiter.getLimit()).isGreaterThan(max);
+        assertThat(limiter.getInflight()).isEqualTo((int) max - 1);
+    }
+
+    @Test
+    void success_doesNotIncreaseLimitWhenMostlyIdle() {
+        RttGradientConcurrencyLimiter limiter = limiter(Behavior.HOST_LEVEL);
+        double max = limiter.getLimit();
+        limiter.onSample(FAST, 1);
+        assertThat(limiter.getLimit()).isEqualTo(max);
+    }
+
+    @Test
+    void success_decreasesLimitWhenResponseTimeGrows() {
+        RttGradientConcurrencyLimiter limiter = limiter(Behavior.HOST_LEVEL);
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(FAST, Integer.MAX_VALUE);
+        }
+        double steadyStateLimit = limiter.getLimit();
+        assertThat(steadyStateLimit).isGreaterThan(20);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.onSample(SLOW, Integer.MAX_VALUE);
+        }
+        assertThat(limiter.getShortRttNanos()).isGreaterThan(limiter.getLongRttNanos());
+        assertThat(limiter.getLimit()).isLessThan(steadyStateLimit / 2);
+    }
+
+    @Test
+    void success_limitRecoversWhenResponseTimeReverts() {
+        RttGradientConcurrencyLimiter limiter = limiter(Behavior.HOST_LEVEL);
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(SLOW, Integer.MAX_VALUE);
+        }
+        for (int i = 0; i < 20; i++) {
+            limiter.onSample(FAST, Integer.MAX_VALUE);
+        }
+        double limit = limiter.getLimit();
+        limiter.onSample(FAST, Integer.MAX_VALUE);
+        assertThat(limiter.getLimit()).isGreaterThan(limit);
+    }
+
+    @Test
+    void success_handlesZeroResponseTime() {
+        RttGradientConcurrencyLimiter limiter = limiter(Behavior.HOST_LEVEL);
+        limiter.onSample(0, Integer.MAX_VALUE);
+        limiter.onSample(0, Integer.MAX_VALUE);
+        assertThat(limiter.getLimit()).isGreaterThan(20).isFinite();
+    }
+
+    @Test
+    void dropped_decreasesLimit() {
+        RttGradientConcurrencyLimiter limiter = limiter(Behavior.HOST_LEVEL);
+        Optional<RttGradientConcurrencyLimiter.Permit> permit = limiter.acquire(LimitEnforcement.DEFAULT_ENABLED);
+        permit.get().onSuccess(new TestResponse().code(503));
+        assertThat(limiter.getLimit()).isEqualTo(18);
+        assertThat(limiter.getInflight()).isZero();
+    }
+}
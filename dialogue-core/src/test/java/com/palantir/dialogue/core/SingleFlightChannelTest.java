@@ -0,0 +1,252 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.dialogue.EndpointChannel;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.RequestBody;
+import com.palantir.dialogue.RequestDeadlines;
+import com.palantir.dialogue.RequestPriority;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.TestEndpoint;
+import com.palantir.dialogue.TestResponse;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Mockito;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+final class SingleFlightChannelTest {
+
+    @Mock
+    private EndpointChannel delegate;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
+
+    @Mock
+    private ScheduledFuture<?> timeout;
+
+    private final Request request = Request.builder().putQueryParams("key", "value").build();
+    private final SettableFuture<Response> upstream = SettableFuture.create();
+    private SingleFlightChannel channel;
+
+    @BeforeEach
+    void beforeEach() {
+        channel = new SingleFlightChannel(
+                delegate, TestEndpoint.GET, "channel", 16, scheduler, new DefaultTaggedMetricRegistry());
+    }
+
+    @Test
+    void identical_requests_share_a_call() throws Exception {
+        when(delegate.execute(any())).thenReturn(upstream);
+        ListenableFuture<Response> first = channel.execute(request);
+        ListenableFuture<Response> second = channel.execute(Request.builder().from(request).build());
+        verify(delegate, times(1)).execute(any());
+
+        TestResponse response = TestResponse.withBody("body").code(200).withHeader("name", "value");
+        upstream.set(response);
+        assertThat(response.isClosed()).isTrue();
+        assertThat(channel.inFlight()).isZero();
+
+        Response firstResponse = first.get();
+        Response secondResponse = second.get();
+        assertThat(firstResponse).isNotSameAs(secondResponse);
+        assertThat(body(firstResponse)).isEqualTo("body");
+        firstResponse.close();
+        assertThat(body(secondResponse)).isEqualTo("body");
+        assertThat(secondResponse.code()).isEqualTo(200);
+        assertThat(secondResponse.getFirstHeader("name")).hasValue("value");
+        secondResponse.close();
+    }
+
+    @Test
+    void single_request_receives_the_response_directly() throws Exception {
+        when(delegate.execute(any())).thenReturn(upstream);
+        ListenableFuture<Response> future = channel.execute(request);
+        TestResponse response = TestResponse.withBody("body");
+        upstream.set(response);
+        assertThat(future.get()).isSameAs(response);
+        assertThat(response.isClosed()).isFalse();
+    }
+
+    @Test
+    void different_requests_are_sent_separately() {
+        when(delegate.execute(any())).thenReturn(upstream);
+        channel.execute(request);
+        channel.execute(Request.builder().putQueryParams("key", "other").build());
+        channel.execute(Request.builder().from(request).putHeaderParams("Authorization", "Bearer token").build());
+        verify(delegate, times(3)).execute(any());
+    }
+
+    @Test
+    void requests_with_different_priorities_are_sent_separately() {
+        when(delegate.execute(any())).thenReturn(upstream);
+        channel.execute(request);
+        Request batch = Request.builder().from(request).build();
+        RequestPriority.set(batch, RequestPriority.BATCH);
+        channel.execute(batch);
+        verify(delegate, times(2)).execute(any());
+    }
+
+    @Test
+    void requests_are_not_coalesced_with_calls_which_have_an_earlier_deadline() {
+        when(delegate.execute(any())).thenReturn(upstream);
+        Request first = Request.builder().from(request).build();
+        RequestDeadlines.setDeadlineNanos(first, System.nanoTime() + Duration.ofSeconds(1).toNanos());
+        channel.execute(first);
+
+        Request later = Request.builder().from(request).build();
+        RequestDeadlines.setDeadlineNanos(later, System.nanoTime() + Duration.ofMinutes(1).toNanos());
+        channel.execute(later);
+        channel.execute(Request.builder().from(request).build());
+        verify(delegate, times(3)).execute(any());
+        verifyNoInteractions(scheduler);
+    }
+
+    @Test
+    void joined_requests_fail_at_their_own_deadline() throws Exception {
+        when(delegate.execute(any())).thenReturn(upstream);
+        ArgumentCaptor<Runnable> expire = ArgumentCaptor.forClass(Runnable.class);
+        doReturn(timeout).when(scheduler).schedule(expire.capture(), anyLong(), eq(TimeUnit.NANOSECONDS));
+        ListenableFuture<Response> first = channel.execute(request);
+        Request withDeadline = Request.builder().from(request).build();
+        RequestDeadlines.setDeadlineNanos(withDeadline, System.nanoTime() + Duration.ofMinutes(1).toNanos());
+        ListenableFuture<Response> joined = channel.execute(withDeadline);
+        verify(delegate, times(1)).execute(any());
+
+        expire.getValue().run();
+        assertThatThrownBy(joined::get).hasCauseInstanceOf(QueueShedException.class);
+        assertThat(upstream).isNotCancelled();
+
+        TestResponse response = TestResponse.withBody("body");
+        upstream.set(response);
+        assertThat(first.get()).isSameAs(response);
+    }
+
+    @Test
+    void requests_with_bodies_are_not_coalesced() {
+        when(delegate.execute(any())).thenReturn(upstream);
+        Request withBody = Request.builder().body(Mockito.mock(RequestBody.class)).build();
+        channel.execute(withBody);
+        channel.execute(withBody);
+        verify(delegate, times(2)).execute(any());
+        assertThat(channel.inFlight()).isZero();
+    }
+
+    @Test
+    void requests_after_the_response_are_sent_again() {
+        when(delegate.execute(any())).thenReturn(Futures.immediateFuture(new TestResponse()));
+        channel.execute(request);
+        channel.execute(request);
+        verify(delegate, times(2)).execute(any());
+    }
+
+    @Test
+    void cancelling_one_request_does_not_cancel_the_call() throws Exception {
+        when(delegate.execute(any())).thenReturn(upstream);
+        ListenableFuture<Response> first = channel.execute(request);
+        ListenableFuture<Response> second = channel.execute(request);
+
+        first.cancel(false);
+        assertThat(upstream).isNotCancelled();
+
+        TestResponse response = TestResponse.withBody("body");
+        upstream.set(response);
+        assertThat(body(second.get())).isEqualTo("body");
+    }
+
+    @Test
+    void cancelling_every_request_cancels_the_call() {
+        when(delegate.execute(any())).thenReturn(upstream);
+        ListenableFuture<Response> first = channel.execute(request);
+        ListenableFuture<Response> second = channel.execute(request);
+
+        first.cancel(false);
+        second.cancel(false);
+        assertThat(upstream).isCancelled();
+        assertThat(channel.inFlight()).isZero();
+    }
+
+    @Test
+    void failures_are_shared() {
+        when(delegate.execute(any())).thenReturn(upstream);
+        ListenableFuture<Response> first = channel.execute(request);
+        ListenableFuture<Response> second = channel.execute(request);
+
+        IOException failure = new IOException("failed");
+        upstream.setException(failure);
+        assertThat(first)
+                .failsWithin(Duration.ZERO)
+                .withThrowableOfType(ExecutionException.class)
+                .withCause(failure);
+        assertThat(second)
+                .failsWithin(Duration.ZERO)
+                .withThrowableOfType(ExecutionException.class)
+                .withCause(failure);
+    }
+
+    @Test
+    void bodies_over_the_limit_are_only_shared_with_the_first_request() throws Exception {
+        when(delegate.execute(any())).thenReturn(upstream);
+        ListenableFuture<Response> first = channel.execute(request);
+        ListenableFuture<Response> second = channel.execute(request);
+
+        Mockito.reset(delegate);
+        TestResponse separate = TestResponse.withBody("separate");
+        when(delegate.execute(any())).thenReturn(Futures.immediateFuture(separate));
+        TestResponse response = TestResponse.withBody("a body longer than sixteen bytes");
+        upstream.set(response);
+
+        Response firstResponse = first.get();
+        assertThat(body(firstResponse)).isEqualTo("a body longer than sixteen bytes");
+        assertThat(response.isClosed()).isFalse();
+        firstResponse.close();
+        assertThat(response.isClosed()).isTrue();
+        assertThat(second.get()).isSameAs(separate);
+    }
+
+    private static String body(Response response) throws IOException {
+        return new String(ByteStreams.toByteArray(response.body()), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+import com.github.benmanes.caffeine.cache.Ticker;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class SlowStartTest {
+    private final AtomicLong nanos = new AtomicLong();
+    private final Ticker ticker = nanos::get;
+    private final SlowStart slowStart = new SlowStart(ticker, Duration.ofSeconds(10));
+
+    @Test
+    void full_weight_unless_started() {
+        assertThat(slowStart.weight()).isEqualTo(1);
+    }
+
+    @Test
+    void weight_ramps_linearly_over_window() {
+        slowStart.start();
+        assertThat(slowStart.weight()).isCloseTo(SlowStart.MIN_WEIGHT, within(1e-9));
+
+        advance(Duration.ofSeconds(5));
+        assertThat(slowStart.weight()).isCloseTo(0.55, within(1e-9));
+
+        advance(Duration.ofSeconds(5));
+        assertThat(slowStart.weight()).isEqualTo(1);
+
+        advance(Duration.ofSeconds(5));
+        assertThat(slowStart.weight()).isEqualTo(1);
+    }
+
+    @Test
+    void restarting_resets_weight() {
+        slowStart.start();
+        advance(Duration.ofSeconds(8));
+        slowStart.start();
+        assertThat(slowStart.weight()).isCloseTo(SlowStart.MIN_WEIGHT, within(1e-9));
+    }
+
+    @Test
+    void success_after_consecutive_failures_starts_ramp() {
+        slowStart.onFailure();
+        slowStart.onFailure();
+        slowStart.onSuccess();
+        assertThat(slowStart.weight()).describedAs("Two failures are a blip").isEqualTo(1);
+
+        slowStart.onFailure();
+        slowStart.onFailure();
+        slowStart.onFailure();
+        assertThat(slowStart.weight()).describedAs("Not recovered yet").isEqualTo(1);
+        slowStart.onSuccess();
+        assertThat(slowStart.weight()).isCloseTo(SlowStart.MIN_WEIGHT, within(1e-9));
+
+        advance(Duration.ofSeconds(10));
+        slowStart.onSuccess();
+        assertThat(slowStart.weight()).describedAs("Failures were reset").isEqualTo(1);
+    }
+
+    @Test
+    void window_must_be_positive() {
+        assertThatThrownBy(() -> new SlowStart(ticker, Duration.ZERO)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private void advance(Duration duration) {
+        nanos.addAndGet(duration.toNanos());
+    }
+}
@@ -19,12 +19,17 @@ package com.palantir.dialogue.core;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
+import com.palantir.dialogue.Endpoint;
+import com.palantir.dialogue.HttpMethod;
 import com.palantir.dialogue.Request;
 import com.palantir.dialogue.TestEndpoint;
+import com.palantir.dialogue.UrlBuilder;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.BiConsumer;
 import org.junit.jupiter.api.Test;
 
 public final class UrlBuilderTest {
@@ -275,6 +280,66 @@ public final class UrlBuilderTest {
                         key1, value1, key2, value2, key3, value3, key4, value4, key5, value5));
     }
 
+    @Test
+    public void renderString_matchesRender() throws Exception {
+        List<String> baseUrls =
+                List.of("http://host", "https://host:8443", "https://host/base/path/", "http://[::1]:80");
+        List<Request> requests = List.of(
+                Request.builder().build(),
+                Request.builder()
+                        .putQueryParams("a", "1")
+                        .putQueryParams("b", "/?+ü")
+                        .putQueryParams("a", "2")
+                        .build(),
+                Request.builder().putPathParams("param", "foo/bar:baz").build());
+        List<Endpoint> endpoints = List.of(
+                TestEndpoint.GET,
+                endpoint((_params, url) -> url.pathSegment("a").pathSegment("").pathSegment("b")),
+                endpoint((params, url) -> url.pathSegment("p").pathSegment(params.getOrDefault("param", "none"))),
+                endpoint((_params, url) -> url.pathSegments(List.of("!@#$%^&*()_+{}", "ü"))),
+                endpoint((_params, url) -> url.pathSegment("q").queryParam("a", "0")));
+        for (String base : baseUrls) {
+            BaseUrl baseUrl = BaseUrl.of(new URL(base));
+            for (Endpoint endpoint : endpoints) {
+                for (Request request : requests) {
+                    // Render twice to exercise cached values
+                    assertThat(baseUrl.renderString(endpoint, request))
+                            .isEqualTo(baseUrl.renderString(endpoint, request))
+                            .isEqualTo(baseUrl.render(endpoint, request).toString());
+                }
+            }
+        }
+    }
+
+    private static Endpoint endpoint(BiConsumer<Map<String, String>, UrlBuilder> renderPath) {
+        return new Endpoint() {
+            @Override
+            public void renderPath(Map<String, String> params, UrlBuilder url) {
+                renderPath.accept(params, url);
+            }
+
+            @Override
+            public HttpMethod httpMethod() {
+                return HttpMethod.GET;
+            }
+
+            @Override
+            public String serviceName() {
+                return "service";
+            }
+
+            @Override
+            public String endpointName() {
+                return "endpoint";
+            }
+
+            @Override
+            public String version() {
+                return "1.0.0";
+            }
+        };
+    }
+
     private static BaseUrl.DefaultUrlBuilder minimalUrl() throws MalformedURLException {
         return BaseUrl.DefaultUrlBuilder.from(new URL("http://host:80"));
     }
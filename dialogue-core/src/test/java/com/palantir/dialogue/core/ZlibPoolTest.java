@@ -0,0 +1,88 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+final class ZlibPoolTest {
+
+    private final AtomicInteger created = new AtomicInteger();
+    private final List<Resource> ended = new ArrayList<>();
+    private final ZlibPool<Resource> pool =
+            new ZlibPool<>(2, () -> new Resource(created.incrementAndGet()), Resource::reset, ended::add);
+
+    @Test
+    void released_instances_are_reset_and_reused() {
+        Resource first = pool.acquire();
+        first.used = true;
+        pool.release(first);
+        assertThat(pool.idle()).isOne();
+
+        Resource second = pool.acquire();
+        assertThat(second).isSameAs(first);
+        assertThat(second.used).isFalse();
+        assertThat(created).hasValue(1);
+        assertThat(pool.idle()).isZero();
+    }
+
+    @Test
+    void instances_are_created_when_the_pool_is_empty() {
+        assertThat(pool.acquire()).isNotSameAs(pool.acquire());
+        assertThat(created).hasValue(2);
+    }
+
+    @Test
+    void instances_are_ended_when_the_pool_is_full() {
+        Resource first = pool.acquire();
+        Resource second = pool.acquire();
+        Resource third = pool.acquire();
+        pool.release(first);
+        pool.release(second);
+        pool.release(third);
+        assertThat(pool.idle()).isEqualTo(2);
+        assertThat(ended).containsExactly(third);
+    }
+
+    @Test
+    void null_releases_are_ignored() {
+        pool.release(null);
+        assertThat(pool.idle()).isZero();
+    }
+
+    private static final class Resource {
+        private final int id;
+        private boolean used;
+
+        Resource(int id) {
+            this.id = id;
+        }
+
+        void reset() {
+            used = false;
+        }
+
+        @Override
+        public String toString() {
+            return "Resource{" + id + '}';
+        }
+    }
+}
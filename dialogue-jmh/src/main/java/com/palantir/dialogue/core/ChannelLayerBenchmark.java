@@ -0,0 +1,329 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.palantir.conjure.java.client.config.ClientConfiguration;
+import com.palantir.dialogue.Channel;
+import com.palantir.dialogue.Endpoint;
+import com.palantir.dialogue.EndpointChannel;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.TestConfigurations;
+import com.palantir.dialogue.TestEndpoint;
+import com.palantir.dialogue.TestResponse;
+import com.palantir.dialogue.core.LimitedChannel.LimitEnforcement;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the throughput and per-request allocation ({@code gc.alloc.rate.norm}) of individual channel layers, and of
+ * cumulative prefixes of the {@link DialogueChannel} stack, over a channel which completes immediately.
+ *
+ * <p>Isolated layers wrap the instant channel directly. {@code PREFIX_*} values add layers in the same order as
+ * {@link DialogueChannel.Builder}, from the host channel outwards, so the difference between two adjacent prefixes
+ * is the cost of the layers between them. Requests rejected by a concurrency limiter complete immediately, and are
+ * reported by the {@code rejected} counter rather than failing the benchmark.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 12, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 12, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@SuppressWarnings({"VisibilityModifier", "DesignForExtension"})
+public class ChannelLayerBenchmark {
+
+    private static final Request request = Request.builder().build();
+    private static final ListenableFuture<Response> future = Futures.immediateFuture(new TestResponse().code(200));
+    private static final ListenableFuture<Response> rejected = Futures.immediateFuture(new TestResponse().code(429));
+
+    @Param({
+        "INSTANT",
+        "QUEUED",
+        "CONCURRENCY_LIMITED",
+        "RETRYING",
+        "CONTENT_DECODING",
+        "TIMING",
+        "CIRCUIT_BREAKER",
+        "RESPONSE_CACHE",
+        "PREFIX_HOST",
+        "PREFIX_NODE_SELECTION",
+        "PREFIX_QUEUED",
+        "PREFIX_RETRYING",
+        "PREFIX_CONTENT_DECODING",
+        "PREFIX_TRACED",
+        "FULL_LAYERED",
+        "FULL_FUSED"
+    })
+    public Layer layer;
+
+    private EndpointChannel channel;
+
+    @Setup
+    public void before() {
+        ClientConfiguration clientConf = ClientConfiguration.builder()
+                .from(TestConfigurations.create("https://localhost"))
+                .maxNumRetries(4)
+                .taggedMetricRegistry(new DefaultTaggedMetricRegistry())
+                .build();
+        Config cf = ImmutableConfig.builder()
+                .channelName("benchmark")
+                .channelFactory(_args -> InstantChannel.INSTANCE)
+                .rawConfig(clientConf)
+                .build();
+        channel = layer.create(cf, TestEndpoint.POST);
+    }
+
+    @Threads(1)
+    @Benchmark
+    public ListenableFuture<Response> threads1(Counters counters) {
+        return execute(counters);
+    }
+
+    @Threads(4)
+    @Benchmark
+    public ListenableFuture<Response> threads4(Counters counters) {
+        return execute(counters);
+    }
+
+    @Threads(16)
+    @Benchmark
+    public ListenableFuture<Response> threads16(Counters counters) {
+        return execute(counters);
+    }
+
+    @Threads(64)
+    @Benchmark
+    public ListenableFuture<Response> threads64(Counters counters) {
+        return execute(counters);
+    }
+
+    private ListenableFuture<Response> execute(Counters counters) {
+        ListenableFuture<Response> result = channel.execute(request);
+        if (result == rejected) {
+            counters.rejected++;
+        }
+        return result;
+    }
+
+    /** Requests rejected by a concurrency limiter, which would otherwise inflate the throughput of limited layers. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+        public long rejected;
+
+        @Setup(Level.Iteration)
+        public void beforeIteration() {
+            rejected = 0;
+        }
+    }
+
+    public static void main(String[] _args) throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(ChannelLayerBenchmark.class.getSimpleName())
+                .jvmArgsPrepend("-Xmx1024m", "-Xms1024m", "-XX:+CrashOnOutOfMemoryError")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+
+    public enum Layer {
+        INSTANT {
+            @Override
+            EndpointChannel create(Config _cf, Endpoint endpoint) {
+                return new EndpointChannelAdapter(endpoint, InstantChannel.INSTANCE);
+            }
+        },
+        QUEUED {
+            @Override
+            EndpointChannel create(Config cf, Endpoint endpoint) {
+                LimitedChannel unlimited = new ChannelToLimitedChannelAdapter(InstantChannel.INSTANCE);
+                return new EndpointChannelAdapter(endpoint, QueuedChannel.create(cf, unlimited));
+            }
+        },
+        CONCURRENCY_LIMITED {
+            @Override
+            EndpointChannel create(Config cf, Endpoint endpoint) {
+                return limitedToEndpoint(
+                        ConcurrencyLimitedChannel.createForHost(cf, InstantChannel.INSTANCE, 0), endpoint);
+            }
+        },
+        RETRYING {
+            @Override
+            EndpointChannel create(Config cf, Endpoint endpoint) {
+                return RetryingChannel.create(cf, INSTANT.create(cf, endpoint), endpoint, RetryBudget.create(cf));
+            }
+        },
+        CONTENT_DECODING {
+            @Override
+            EndpointChannel create(Config cf, Endpoint endpoint) {
+                return ContentDecodingChannel.create(cf, INSTANT.create(cf, endpoint), endpoint);
+            }
+        },
+        TIMING {
+            @Override
+            EndpointChannel create(Config cf, Endpoint endpoint) {
+                return TimingEndpointChannel.create(cf, INSTANT.create(cf, endpoint), endpoint);
+            }
+        },
+        CIRCUIT_BREAKER {
+            @Override
+            EndpointChannel create(Config cf, Endpoint endpoint) {
+                return new CircuitBreakerChannel(
+                        INSTANT.create(cf, endpoint),
+                        endpoint,
+                        cf.channelName(),
+                        0.5,
+                        cf.ticker(),
+                        cf.clientConf().taggedMetricRegistry());
+            }
+        },
+        /** Responses without caching headers are never stored, so this measures the cost of a cache miss. */
+        RESPONSE_CACHE {
+            @Override
+            EndpointChannel create(Config cf, Endpoint endpoint) {
+                TaggedMetricRegistry registry = cf.clientConf().taggedMetricRegistry();
+                return new ResponseCacheChannel(
+                        INSTANT.create(cf, endpoint),
+                        endpoint,
+                        cf.channelName(),
+                        new ResponseCacheChannel.Store(cf.channelName(), 1_000_000, cf.ticker(), registry),
+                        registry);
+            }
+        },
+        /** Host channel with host and endpoint concurrency limiters, as created by {@link DialogueChannel.Builder}. */
+        PREFIX_HOST {
+            @Override
+            EndpointChannel create(Config cf, Endpoint endpoint) {
+                return limitedToEndpoint(host(cf), endpoint);
+            }
+        },
+        PREFIX_NODE_SELECTION {
+            @Override
+            EndpointChannel create(Config cf, Endpoint endpoint) {
+                return limitedToEndpoint(nodeSelection(cf), endpoint);
+            }
+        },
+        PREFIX_QUEUED {
+            @Override
+            EndpointChannel create(Config cf, Endpoint endpoint) {
+                return new EndpointChannelAdapter(endpoint, queued(cf));
+            }
+        },
+        PREFIX_RETRYING {
+            @Override
+            EndpointChannel create(Config cf, Endpoint endpoint) {
+                EndpointChannel channel = PREFIX_QUEUED.create(cf, endpoint);
+                channel = UserAgentEndpointChannel.create(channel, endpoint, TestConfigurations.AGENT);
+                return RetryingChannel.create(cf, channel, endpoint, RetryBudget.create(cf));
+            }
+        },
+        PREFIX_CONTENT_DECODING {
+            @Override
+            EndpointChannel create(Config cf, Endpoint endpoint) {
+                EndpointChannel channel = PREFIX_RETRYING.create(cf, endpoint);
+                channel = DeprecationWarningChannel.create(cf, channel, endpoint);
+                return ContentDecodingChannel.create(cf, channel, endpoint);
+            }
+        },
+        PREFIX_TRACED {
+            @Override
+            EndpointChannel create(Config cf, Endpoint endpoint) {
+                EndpointChannel channel = PREFIX_CONTENT_DECODING.create(cf, endpoint);
+                channel = new RangeAcceptsIdentityEncodingChannel(channel);
+                channel = ContentEncodingChannel.of(channel, endpoint);
+                return TracedChannel.create(cf, channel, endpoint);
+            }
+        },
+        FULL_LAYERED {
+            @Override
+            EndpointChannel create(Config cf, Endpoint endpoint) {
+                return dialogueChannel(cf, false).endpoint(endpoint);
+            }
+        },
+        FULL_FUSED {
+            @Override
+            EndpointChannel create(Config cf, Endpoint endpoint) {
+                return dialogueChannel(cf, true).endpoint(endpoint);
+            }
+        };
+
+        abstract EndpointChannel create(Config cf, Endpoint endpoint);
+    }
+
+    private static LimitedChannel host(Config cf) {
+        Channel perEndpoint = new ChannelToEndpointChannel(endpoint -> {
+            LimitedChannel limited =
+                    ConcurrencyLimitedChannel.createForEndpoint(cf, InstantChannel.INSTANCE, 0, endpoint);
+            return QueuedChannel.create(cf, endpoint, limited);
+        });
+        return ConcurrencyLimitedChannel.createForHost(cf, perEndpoint, 0);
+    }
+
+    private static LimitedChannel nodeSelection(Config cf) {
+        return NodeSelectionStrategyChannel.create(cf, ImmutableList.of(host(cf), host(cf)));
+    }
+
+    private static Channel queued(Config cf) {
+        return QueuedChannel.create(cf, new StickyValidationChannel(nodeSelection(cf)));
+    }
+
+    private static DialogueChannel dialogueChannel(Config cf, boolean fused) {
+        return DialogueChannel.builder()
+                .channelName(cf.channelName())
+                .clientConfiguration(cf.rawConfig())
+                .factory(cf.channelFactory())
+                .fusedEndpointPipeline(fused)
+                .build();
+    }
+
+    private static EndpointChannel limitedToEndpoint(LimitedChannel limited, Endpoint endpoint) {
+        return req -> limited.maybeExecute(endpoint, req, LimitEnforcement.DEFAULT_ENABLED)
+                .orElse(rejected);
+    }
+
+    private enum InstantChannel implements Channel {
+        INSTANCE;
+
+        @Override
+        public ListenableFuture<Response> execute(Endpoint _endpoint, Request _request) {
+            return future;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.palantir.dialogue.core.CautiousIncreaseAggressiveDecreaseConcurrencyLimiter.Behavior;
+import com.palantir.dialogue.core.CautiousIncreaseAggressiveDecreaseConcurrencyLimiter.Permit;
+import com.palantir.dialogue.core.LimitedChannel.LimitEnforcement;
+import com.palantir.logsafe.exceptions.SafeIllegalStateException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures contention on a single host-level {@link CautiousIncreaseAggressiveDecreaseConcurrencyLimiter} when many
+ * threads acquire and release permits, comparing the default single in-flight counter with {@link PermitLeases}.
+ * The limit is raised before measuring, so that with a large limit most acquisitions succeed and the benchmark is
+ * dominated by in-flight accounting rather than rejections.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 8, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 8, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@SuppressWarnings({"VisibilityModifier", "DesignForExtension"})
+public class ConcurrencyLimiterBenchmark {
+
+    @Param({"ATOMIC", "LEASES"})
+    public Accounting accounting;
+
+    @Param({"20", "1000"})
+    public int limit;
+
+    private CautiousIncreaseAggressiveDecreaseConcurrencyLimiter limiter;
+
+    @Setup
+    public void before() {
+        limiter = accounting.create();
+        // Successes with most permits in flight slowly raise the limit
+        List<Permit> permits = new ArrayList<>();
+        for (int round = 0; limiter.getLimit() < limit; round++) {
+            if (round > 1_000_000) {
+                throw new SafeIllegalStateException("Failed to raise the limit");
+            }
+            Optional<Permit> permit;
+            while ((permit = limiter.acquire(LimitEnforcement.DEFAULT_ENABLED)).isPresent()) {
+                permits.add(permit.get());
+            }
+            permits.forEach(Permit::success);
+            permits.clear();
+        }
+    }
+
+    @Threads(8)
+    @Benchmark
+    public boolean threads8() {
+        return acquireAndRelease();
+    }
+
+    @Threads(32)
+    @Benchmark
+    public boolean threads32() {
+        return acquireAndRelease();
+    }
+
+    @Threads(96)
+    @Benchmark
+    public boolean threads96() {
+        return acquireAndRelease();
+    }
+
+    private boolean acquireAndRelease() {
+        Optional<Permit> permit = limiter.acquire(LimitEnforcement.DEFAULT_ENABLED);
+        if (permit.isPresent()) {
+            permit.get().success();
+            return true;
+        }
+        return false;
+    }
+
+    public static void main(String[] _args) throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(ConcurrencyLimiterBenchmark.class.getSimpleName())
+                .build();
+        new Runner(opt).run();
+    }
+
+    public enum Accounting {
+        ATOMIC {
+            @Override
+            CautiousIncreaseAggressiveDecreaseConcurrencyLimiter create() {
+                return new CautiousIncreaseAggressiveDecreaseConcurrencyLimiter(Behavior.HOST_LEVEL);
+            }
+        },
+        LEASES {
+            @Override
+            CautiousIncreaseAggressiveDecreaseConcurrencyLimiter create() {
+                return new CautiousIncreaseAggressiveDecreaseConcurrencyLimiter(
+                        Behavior.HOST_LEVEL, PermitLeases.create(16));
+            }
+        };
+
+        abstract CautiousIncreaseAggressiveDecreaseConcurrencyLimiter create();
+    }
+}
@@ -36,17 +36,20 @@ import com.palantir.dialogue.TestResponse;
 import com.palantir.dialogue.clients.DialogueClients;
 import com.palantir.dialogue.example.SampleServiceBlocking;
 import com.palantir.dialogue.hc5.ApacheHttpClientChannels;
+import com.palantir.dialogue.hc5.async.ApacheHttpAsyncClientChannels;
 import com.palantir.refreshable.Refreshable;
 import com.palantir.tracing.Tracers;
 import com.palantir.tritium.metrics.MetricRegistries;
 import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
 import io.undertow.Undertow;
+import io.undertow.UndertowOptions;
 import io.undertow.server.handlers.ResponseCodeHandler;
 import java.io.IOException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import org.apache.hc.core5.http2.HttpVersionPolicy;
 import org.openjdk.jmh.annotations.Benchmark;
 import org.openjdk.jmh.annotations.BenchmarkMode;
 import org.openjdk.jmh.annotations.Fork;
@@ -80,13 +83,19 @@ public class EndToEndBenchmark {
     private ExecutorService blockingExecutor;
     private ApacheHttpClientChannels.CloseableClient closeableApache;
     private Channel apacheChannel;
+    private ApacheHttpAsyncClientChannels.CloseableAsyncClient closeableAsyncHttp1;
+    private Channel asyncHttp1Channel;
+    private ApacheHttpAsyncClientChannels.CloseableAsyncClient closeableAsyncHttp2;
+    private Channel asyncHttp2Channel;
 
     private SampleServiceBlocking blocking;
     private SampleServiceBlocking zeroNetworkDialogue;
 
     @Setup
     public void before() {
+        // HTTP/2 is enabled for cleartext prior-knowledge (h2c) connections, HTTP/1.1 clients are unaffected.
         undertow = Undertow.builder()
+                .setServerOption(UndertowOptions.ENABLE_HTTP2, true)
                 .addHttpListener(0, "localhost", new ResponseCodeHandler(200))
                 .build();
         undertow.start();
@@ -127,6 +136,20 @@ public class EndToEndBenchmark {
                 .build();
         apacheChannel =
                 ApacheHttpClientChannels.createSingleUri(serviceConf.uris().get(0), closeableApache);
+        closeableAsyncHttp1 = ApacheHttpAsyncClientChannels.clientBuilder()
+                .clientConfiguration(clientConf)
+                .clientName("asyncHttp1")
+                .httpVersionPolicy(HttpVersionPolicy.FORCE_HTTP_1)
+                .build();
+        asyncHttp1Channel =
+                ApacheHttpAsyncClientChannels.createSingleUri(serviceConf.uris().get(0), closeableAsyncHttp1);
+        closeableAsyncHttp2 = ApacheHttpAsyncClientChannels.clientBuilder()
+                .clientConfiguration(clientConf)
+                .clientName("asyncHttp2")
+                .httpVersionPolicy(HttpVersionPolicy.FORCE_HTTP_2)
+                .build();
+        asyncHttp2Channel =
+                ApacheHttpAsyncClientChannels.createSingleUri(serviceConf.uris().get(0), closeableAsyncHttp2);
 
         Channel zeroNetworkChannel = DialogueChannel.builder()
                 .channelName("goFast")
@@ -143,6 +166,8 @@ public class EndToEndBenchmark {
         MoreExecutors.shutdownAndAwaitTermination(RetryingChannel.sharedScheduler.get(), 1, TimeUnit.SECONDS);
         MoreExecutors.shutdownAndAwaitTermination(blockingExecutor, 1, TimeUnit.SECONDS);
         closeableApache.close();
+        closeableAsyncHttp1.close();
+        closeableAsyncHttp2.close();
     }
 
     @Threads(4)
@@ -163,6 +188,36 @@ public class EndToEndBenchmark {
         clientUtils.block(apacheChannel.execute(TestEndpoint.GET, request)).close();
     }
 
+    @Threads(64)
+    @Benchmark
+    public void rawApacheBlockingThreads64() {
+        clientUtils.block(apacheChannel.execute(TestEndpoint.GET, request)).close();
+    }
+
+    @Threads(4)
+    @Benchmark
+    public void rawAsyncHttp1() {
+        clientUtils.block(asyncHttp1Channel.execute(TestEndpoint.GET, request)).close();
+    }
+
+    @Threads(64)
+    @Benchmark
+    public void rawAsyncHttp1Threads64() {
+        clientUtils.block(asyncHttp1Channel.execute(TestEndpoint.GET, request)).close();
+    }
+
+    @Threads(4)
+    @Benchmark
+    public void rawAsyncHttp2() {
+        clientUtils.block(asyncHttp2Channel.execute(TestEndpoint.GET, request)).close();
+    }
+
+    @Threads(64)
+    @Benchmark
+    public void rawAsyncHttp2Threads64() {
+        clientUtils.block(asyncHttp2Channel.execute(TestEndpoint.GET, request)).close();
+    }
+
     private static String getUri(Undertow undertow) {
         Undertow.ListenerInfo listenerInfo = Iterables.getOnlyElement(undertow.getListenerInfo());
         return String.format("%s:/%s", listenerInfo.getProtcol(), listenerInfo.getAddress());
@@ -0,0 +1,134 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.google.common.io.ByteStreams;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the throughput and per-request allocation ({@code gc.alloc.rate.norm}) of {@link GzipStreams}, which pools
+ * native zlib state, with {@link GZIPOutputStream} and {@link GZIPInputStream}, which initialize it for every stream,
+ * as used by {@link ContentEncodingChannel} and {@link ContentDecodingChannel}. Small payloads are dominated by the
+ * cost of initializing zlib, large payloads by compression itself.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 8, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 8, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@SuppressWarnings({"VisibilityModifier", "DesignForExtension"})
+public class GzipBenchmark {
+
+    @Param({"128", "4096", "65536", "1048576"})
+    public int payloadBytes;
+
+    @Param({"true", "false"})
+    public boolean pooled;
+
+    private byte[] payload;
+    private byte[] compressed;
+
+    @Setup
+    public void before() throws IOException {
+        // JSON-like payload which compresses roughly as well as typical responses
+        Random random = new Random(payloadBytes);
+        payload = new byte[payloadBytes];
+        for (int i = 0; i < payloadBytes; i++) {
+            payload[i] = (byte) ('a' + random.nextInt(8));
+        }
+        compressed = compress();
+    }
+
+    @Threads(1)
+    @Benchmark
+    public byte[] compress() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(payloadBytes);
+        try (OutputStream gzip = pooled ? GzipStreams.compress(output) : new BestSpeedGzipOutputStream(output);
+                OutputStream buffered = new BufferedOutputStream(gzip, GzipStreams.BUFFER_SIZE)) {
+            buffered.write(payload);
+        }
+        return output.toByteArray();
+    }
+
+    @Threads(1)
+    @Benchmark
+    public long decompress() throws IOException {
+        InputStream input = new ByteArrayInputStream(compressed);
+        try (InputStream gzip = pooled
+                ? GzipStreams.decompress(input)
+                : new GZIPInputStream(input, GzipStreams.BUFFER_SIZE)) {
+            return ByteStreams.exhaust(gzip);
+        }
+    }
+
+    @Threads(16)
+    @Benchmark
+    public byte[] compressThreads16() throws IOException {
+        return compress();
+    }
+
+    @Threads(16)
+    @Benchmark
+    public long decompressThreads16() throws IOException {
+        return decompress();
+    }
+
+    public static void main(String[] _args) throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(GzipBenchmark.class.getSimpleName())
+                .jvmArgsPrepend("-Xmx1024m", "-Xms1024m", "-XX:+CrashOnOutOfMemoryError")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+
+    /** The request compression stream used before {@link GzipStreams}. */
+    @SuppressWarnings("FilterOutputStreamSlowMultibyteWrite") // false positive
+    private static final class BestSpeedGzipOutputStream extends GZIPOutputStream {
+        BestSpeedGzipOutputStream(OutputStream out) throws IOException {
+            super(out, GzipStreams.BUFFER_SIZE);
+            def.setLevel(Deflater.BEST_SPEED);
+        }
+    }
+}
@@ -63,12 +63,20 @@ public class NodeSelectionBenchmark {
     @Param({"true", "false"})
     public boolean headerDriven;
 
-    @Param({"2", "8"})
+    @Param({"2", "8", "32", "128"})
     public int numChannels;
 
     @Param({"PIN_UNTIL_ERROR", "ROUND_ROBIN"})
     public NodeSelectionStrategy selectionStrategy;
 
+    /** Only affects {@link NodeSelectionStrategy#ROUND_ROBIN}. */
+    @Param({"false", "true"})
+    public boolean powerOfTwoChoices;
+
+    /** Only affects {@link NodeSelectionStrategy#ROUND_ROBIN}. */
+    @Param({"false", "true"})
+    public boolean latencyScoring;
+
     private static final Request request = Request.builder().build();
     private static final TestResponse response =
             new TestResponse().code(200).withHeader("Node-Selection-Strategy", "BALANCED");
@@ -102,11 +110,16 @@ public class NodeSelectionBenchmark {
                     channel = new NodeSelectionStrategyChannel(
                             NodeSelectionStrategyChannel::getFirstKnownStrategy,
                             DialogueNodeSelectionStrategy.BALANCED,
+                            null,
+                            balancedOptions(),
+                            Optional.empty(),
                             "channelName",
                             random,
                             ticker,
                             metrics,
-                            channels);
+                            channels,
+                            RendezvousHashNodeSelectionStrategyChannel.indexHostKeys(channels.size()),
+                            BalancedScoreTracker.positionalHostIndices(channels.size()));
                     break;
                 default:
                     throw new SafeIllegalArgumentException("Unsupported");
@@ -124,8 +137,8 @@ public class NodeSelectionBenchmark {
                             "channelName");
                     break;
                 case ROUND_ROBIN:
-                    channel =
-                            new BalancedNodeSelectionStrategyChannel(channels, random, ticker, metrics, "channelName");
+                    channel = new BalancedNodeSelectionStrategyChannel(
+                            channels, Optional.empty(), balancedOptions(), random, ticker, metrics, "channelName");
                     break;
                 default:
                     throw new SafeIllegalArgumentException("Unsupported");
@@ -133,6 +146,13 @@ public class NodeSelectionBenchmark {
         }
     }
 
+    private BalancedOptions balancedOptions() {
+        return BalancedOptions.builder()
+                .powerOfTwoChoices(powerOfTwoChoices)
+                .latencyScoring(latencyScoring)
+                .build();
+    }
+
     @Threads(4)
     @Benchmark
     public Optional<ListenableFuture<Response>> postRequest() {
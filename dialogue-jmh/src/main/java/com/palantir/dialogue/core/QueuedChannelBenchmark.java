@@ -0,0 +1,192 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.dialogue.Endpoint;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.TestEndpoint;
+import com.palantir.dialogue.TestResponse;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures {@link QueuedChannel} throughput when many more threads submit requests than the delegate admits, so most
+ * requests are queued and every submission and completion runs the schedule loop. The delegate completes admitted
+ * requests asynchronously on a small pool. Process CPU time is reported by the {@code cpuNanos} auxiliary counter,
+ * divide it by the score for CPU time per request.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 8, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 8, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@SuppressWarnings({"VisibilityModifier", "DesignForExtension"})
+public class QueuedChannelBenchmark {
+
+    private static final Request request = Request.builder().build();
+
+    @Param({"false", "true"})
+    public boolean singleDrainer;
+
+    @Param({"16"})
+    public int limit;
+
+    private final AtomicBoolean cpuReported = new AtomicBoolean();
+    private ExecutorService completionExecutor;
+    private QueuedChannel channel;
+    private volatile long iterationStartCpuNanos;
+
+    @Setup
+    public void before() {
+        completionExecutor = Executors.newFixedThreadPool(4);
+        channel = new QueuedChannel(
+                new AsyncLimitedChannel(limit, completionExecutor),
+                "benchmark",
+                "channel",
+                QueuedChannel.channelInstrumentation(
+                        DialogueClientMetrics.of(new DefaultTaggedMetricRegistry()), "benchmark"),
+                100_000,
+                QueueOptions.builder().singleDrainer(singleDrainer).build());
+    }
+
+    @Setup(Level.Iteration)
+    public void beforeIteration() {
+        cpuReported.set(false);
+        iterationStartCpuNanos = processCpuNanos();
+    }
+
+    @TearDown
+    public void after() {
+        MoreExecutors.shutdownAndAwaitTermination(completionExecutor, 1, TimeUnit.SECONDS);
+    }
+
+    @Threads(64)
+    @Benchmark
+    public Response threads64(CpuCounters _counters) throws ExecutionException, InterruptedException {
+        return execute();
+    }
+
+    @Threads(128)
+    @Benchmark
+    public Response threads128(CpuCounters _counters) throws ExecutionException, InterruptedException {
+        return execute();
+    }
+
+    private Response execute() throws ExecutionException, InterruptedException {
+        return channel.execute(TestEndpoint.POST, request).get();
+    }
+
+    private static long processCpuNanos() {
+        OperatingSystemMXBean bean = ManagementFactory.getOperatingSystemMXBean();
+        if (bean instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) bean).getProcessCpuTime();
+        }
+        return 0;
+    }
+
+    public static void main(String[] _args) throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(QueuedChannelBenchmark.class.getSimpleName())
+                .jvmArgsPrepend("-Xmx1024m", "-Xms1024m", "-XX:+CrashOnOutOfMemoryError")
+                .build();
+        new Runner(opt).run();
+    }
+
+    /**
+     * Process CPU time consumed during the iteration, which JMH normalizes by the iteration duration. The first thread
+     * to finish reports the process-wide total, counters are summed across threads.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class CpuCounters {
+        public long cpuNanos;
+
+        @Setup(Level.Iteration)
+        public void beforeIteration() {
+            cpuNanos = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void afterIteration(QueuedChannelBenchmark benchmark) {
+            if (benchmark.cpuReported.compareAndSet(false, true)) {
+                cpuNanos = processCpuNanos() - benchmark.iterationStartCpuNanos;
+            }
+        }
+    }
+
+    /** Admits up to {@code limit} concurrent requests and completes them on the provided executor. */
+    private static final class AsyncLimitedChannel implements LimitedChannel {
+        private static final ListenableFuture<Response> response = Futures.immediateFuture(new TestResponse());
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final int limit;
+        private final ExecutorService executor;
+
+        AsyncLimitedChannel(int limit, ExecutorService executor) {
+            this.limit = limit;
+            this.executor = executor;
+        }
+
+        @Override
+        public Optional<ListenableFuture<Response>> maybeExecute(
+                Endpoint _endpoint, Request _request, LimitEnforcement _limitEnforcement) {
+            if (inFlight.incrementAndGet() > limit) {
+                inFlight.decrementAndGet();
+                return Optional.empty();
+            }
+            SettableFuture<Response> result = SettableFuture.create();
+            executor.execute(() -> {
+                // Release capacity before completion, so the schedule loop triggered by completion can use it
+                inFlight.decrementAndGet();
+                result.setFuture(response);
+            });
+            return Optional.of(result);
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.google.common.util.concurrent.Runnables;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of scheduling and cancelling a retry backoff while a large number of other timers are pending,
+ * which is the common case for retries: most backoffs are cancelled or run long after they are scheduled.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 8, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 8, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@SuppressWarnings({"VisibilityModifier", "DesignForExtension"})
+public class RetrySchedulerBenchmark {
+
+    private static final long MAX_BACKOFF_MICROS = TimeUnit.MILLISECONDS.toMicros(250);
+
+    @Param({"SCHEDULED_THREAD_POOL", "HASHED_WHEEL"})
+    public SchedulerType scheduler;
+
+    @Param({"0", "1000000"})
+    public int pendingTimers;
+
+    private ScheduledExecutorService executor;
+
+    @Setup
+    public void before() {
+        ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                .setNameFormat("benchmark-scheduler-%d")
+                .setDaemon(true)
+                .build();
+        executor = scheduler.create(threadFactory);
+        for (int i = 0; i < pendingTimers; i++) {
+            ScheduledFuture<?> _pending =
+                    executor.schedule(Runnables.doNothing(), 3600 + (i % 3600), TimeUnit.SECONDS);
+        }
+    }
+
+    @TearDown
+    public void after() throws InterruptedException {
+        executor.shutdownNow();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    @Threads(1)
+    @Benchmark
+    public boolean threads1() {
+        return scheduleAndCancel();
+    }
+
+    @Threads(8)
+    @Benchmark
+    public boolean threads8() {
+        return scheduleAndCancel();
+    }
+
+    private boolean scheduleAndCancel() {
+        long backoffMicros = ThreadLocalRandom.current().nextLong(MAX_BACKOFF_MICROS);
+        ScheduledFuture<?> future = executor.schedule(Runnables.doNothing(), backoffMicros, TimeUnit.MICROSECONDS);
+        return future.cancel(false);
+    }
+
+    public static void main(String[] _args) throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(RetrySchedulerBenchmark.class.getSimpleName())
+                .jvmArgsPrepend("-Xmx2048m", "-Xms2048m", "-XX:+CrashOnOutOfMemoryError")
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+
+    public enum SchedulerType {
+        SCHEDULED_THREAD_POOL {
+            @Override
+            ScheduledExecutorService create(ThreadFactory threadFactory) {
+                return DialogueExecutors.newSharedSingleThreadScheduler(threadFactory);
+            }
+        },
+        HASHED_WHEEL {
+            @Override
+            ScheduledExecutorService create(ThreadFactory threadFactory) {
+                return DialogueExecutors.newSharedHashedWheelScheduler(
+                        threadFactory, new DefaultTaggedMetricRegistry(), "benchmark");
+            }
+        };
+
+        abstract ScheduledExecutorService create(ThreadFactory threadFactory);
+    }
+}
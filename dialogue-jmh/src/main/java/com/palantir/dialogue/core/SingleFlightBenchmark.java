@@ -0,0 +1,170 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.google.common.io.ByteStreams;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import com.palantir.dialogue.EndpointChannel;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.TestEndpoint;
+import com.palantir.dialogue.TestResponse;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures {@link SingleFlightChannel} throughput when many threads send a small set of identical requests to a
+ * delegate which responds after a millisecond, reading each response body. Calls which reached the delegate are
+ * reported by the {@code upstreamCalls} auxiliary counter, divide it by the score for upstream calls per request.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 8, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 8, time = 1, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@BenchmarkMode(Mode.Throughput)
+@SuppressWarnings({"VisibilityModifier", "DesignForExtension"})
+public class SingleFlightBenchmark {
+
+    @Param({"false", "true"})
+    public boolean coalescing;
+
+    @Param({"1", "64"})
+    public int distinctRequests;
+
+    @Param({"0", "1024", "65536"})
+    public int bodyBytes;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicBoolean callsReported = new AtomicBoolean();
+    private ScheduledExecutorService completionExecutor;
+    private Request[] distinct;
+    private EndpointChannel channel;
+
+    @Setup
+    public void before() {
+        completionExecutor = Executors.newScheduledThreadPool(4);
+        distinct = new Request[distinctRequests];
+        for (int i = 0; i < distinctRequests; i++) {
+            distinct[i] = Request.builder().putQueryParams("key", Integer.toString(i)).build();
+        }
+        EndpointChannel delegate = _request -> {
+            calls.incrementAndGet();
+            SettableFuture<Response> result = SettableFuture.create();
+            completionExecutor.schedule(
+                    () -> result.set(new TestResponse(new byte[bodyBytes]).code(200)), 1, TimeUnit.MILLISECONDS);
+            return result;
+        };
+        channel = coalescing
+                ? new SingleFlightChannel(
+                        delegate,
+                        TestEndpoint.GET,
+                        "benchmark",
+                        SingleFlightChannel.MAX_BUFFERED_BYTES,
+                        completionExecutor,
+                        new DefaultTaggedMetricRegistry())
+                : delegate;
+    }
+
+    @Setup(Level.Iteration)
+    public void beforeIteration() {
+        calls.set(0);
+        callsReported.set(false);
+    }
+
+    @TearDown
+    public void after() {
+        MoreExecutors.shutdownAndAwaitTermination(completionExecutor, 1, TimeUnit.SECONDS);
+    }
+
+    @Threads(16)
+    @Benchmark
+    public long threads16(CallCounters _counters) throws ExecutionException, InterruptedException, IOException {
+        return execute();
+    }
+
+    @Threads(64)
+    @Benchmark
+    public long threads64(CallCounters _counters) throws ExecutionException, InterruptedException, IOException {
+        return execute();
+    }
+
+    private long execute() throws ExecutionException, InterruptedException, IOException {
+        Request request = distinct[ThreadLocalRandom.current().nextInt(distinct.length)];
+        ListenableFuture<Response> future = channel.execute(request);
+        try (Response response = future.get()) {
+            return ByteStreams.exhaust(response.body());
+        }
+    }
+
+    /**
+     * Calls which reached the delegate during the iteration, which JMH normalizes by the iteration duration. The first
+     * thread to finish reports the total, counters are summed across threads.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class CallCounters {
+        public long upstreamCalls;
+
+        @Setup(Level.Iteration)
+        public void beforeIteration() {
+            upstreamCalls = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void afterIteration(SingleFlightBenchmark benchmark) {
+            if (benchmark.callsReported.compareAndSet(false, true)) {
+                upstreamCalls = benchmark.calls.get();
+            }
+        }
+    }
+
+    public static void main(String[] _args) throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(SingleFlightBenchmark.class.getSimpleName())
+                .jvmArgsPrepend("-Xmx1024m", "-Xms1024m", "-XX:+CrashOnOutOfMemoryError")
+                .build();
+        new Runner(opt).run();
+    }
+}
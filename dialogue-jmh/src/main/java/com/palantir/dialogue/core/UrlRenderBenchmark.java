@@ -0,0 +1,153 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.palantir.dialogue.Endpoint;
+import com.palantir.dialogue.HttpMethod;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.UrlBuilder;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/** Compares {@link BaseUrl#render(Endpoint, Request)} with {@link BaseUrl#renderString(Endpoint, Request)}. */
+@State(Scope.Benchmark)
+@Warmup(iterations = 12, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 12, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.Throughput)
+@SuppressWarnings({"VisibilityModifier", "DesignForExtension"})
+public class UrlRenderBenchmark {
+
+    @Param({"STATIC", "PATH_PARAM", "QUERY_PARAMS"})
+    public Shape shape;
+
+    private BaseUrl baseUrl;
+    private Request request;
+
+    @Setup
+    public void before() throws MalformedURLException {
+        baseUrl = BaseUrl.of(new URL("https://localhost:8443/api"));
+        request = shape.request();
+    }
+
+    @Threads(4)
+    @Benchmark
+    public String renderUrl() {
+        return baseUrl.render(shape.endpoint(), request).toString();
+    }
+
+    @Threads(4)
+    @Benchmark
+    public String renderString() {
+        return baseUrl.renderString(shape.endpoint(), request);
+    }
+
+    public static void main(String[] _args) throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(UrlRenderBenchmark.class.getSimpleName())
+                .jvmArgsPrepend("-Xmx1024m", "-Xms1024m", "-XX:+CrashOnOutOfMemoryError")
+                // .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+
+    public enum Shape {
+        STATIC {
+            @Override
+            Request request() {
+                return Request.builder().build();
+            }
+        },
+        PATH_PARAM {
+            @Override
+            Request request() {
+                return Request.builder()
+                        .putPathParams("datasetRid", "ri.foundry.main.dataset.0a1b2c3d")
+                        .build();
+            }
+        },
+        QUERY_PARAMS {
+            @Override
+            Request request() {
+                return Request.builder()
+                        .putQueryParams("branch", "master")
+                        .putQueryParams("limit", "100")
+                        .putQueryParams("pageToken", "a b/c")
+                        .build();
+            }
+        };
+
+        abstract Request request();
+
+        Endpoint endpoint() {
+            return BenchmarkEndpoint.INSTANCE;
+        }
+    }
+
+    /** Renders a conjure-style path: {@code /catalog/datasets/{datasetRid}/transactions}. */
+    private enum BenchmarkEndpoint implements Endpoint {
+        INSTANCE;
+
+        @Override
+        public void renderPath(Map<String, String> params, UrlBuilder url) {
+            url.pathSegment("catalog");
+            url.pathSegment("datasets");
+            if (params.containsKey("datasetRid")) {
+                url.pathSegment(params.get("datasetRid"));
+            }
+            url.pathSegment("transactions");
+        }
+
+        @Override
+        public HttpMethod httpMethod() {
+            return HttpMethod.GET;
+        }
+
+        @Override
+        public String serviceName() {
+            return "CatalogService";
+        }
+
+        @Override
+        public String endpointName() {
+            return "getTransactions";
+        }
+
+        @Override
+        public String version() {
+            return "1.0.0";
+        }
+    }
+}
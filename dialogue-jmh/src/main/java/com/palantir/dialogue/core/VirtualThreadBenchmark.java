@@ -0,0 +1,284 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import com.google.common.collect.Iterables;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.palantir.conjure.java.api.config.service.ServiceConfiguration;
+import com.palantir.conjure.java.client.config.ClientConfiguration;
+import com.palantir.conjure.java.client.config.ClientConfigurations;
+import com.palantir.conjure.java.dialogue.serde.DefaultConjureRuntime;
+import com.palantir.dialogue.Channel;
+import com.palantir.dialogue.Clients;
+import com.palantir.dialogue.Deserializer;
+import com.palantir.dialogue.EndpointChannel;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.Response;
+import com.palantir.dialogue.TestConfigurations;
+import com.palantir.dialogue.TestEndpoint;
+import com.palantir.dialogue.blocking.VirtualThreads;
+import com.palantir.dialogue.hc5.ApacheHttpClientChannels;
+import com.palantir.logsafe.Preconditions;
+import com.palantir.tritium.metrics.registry.DefaultTaggedMetricRegistry;
+import io.undertow.Undertow;
+import io.undertow.server.HttpHandler;
+import io.undertow.util.SameThreadExecutor;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.profile.InternalProfiler;
+import org.openjdk.jmh.results.AggregationPolicy;
+import org.openjdk.jmh.results.IterationResult;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.ScalarResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares platform and virtual thread execution of the blocking apache transport with {@code concurrency} requests
+ * in flight against a local server which responds after 10 milliseconds. The reported
+ * score is the time to complete each batch, per-request p99 latency, peak live thread count and heap usage are
+ * reported by {@link IterationProfiler}. Run with a file descriptor limit above the concurrency, each request in
+ * flight holds a connection.
+ */
+@State(Scope.Benchmark)
+@Warmup(iterations = 5, time = 2, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 2, timeUnit = TimeUnit.SECONDS)
+@Fork(value = 1)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@BenchmarkMode(Mode.SampleTime)
+@SuppressWarnings({"VisibilityModifier", "DesignForExtension"})
+public class VirtualThreadBenchmark {
+
+    private static final long SERVER_DELAY_MILLIS = 10;
+    private static final int MAX_LATENCY_SAMPLES = 1 << 20;
+    private static final Clients clientUtils =
+            DefaultConjureRuntime.builder().build().clients();
+    private static final Deserializer<Void> deserializer =
+            DefaultConjureRuntime.builder().build().bodySerDe().emptyBodyDeserializer();
+
+    @Param({"5000"})
+    public int concurrency;
+
+    @Param({"PLATFORM_THREADS", "VIRTUAL_THREADS", "VIRTUAL_CALLERS"})
+    public Execution execution;
+
+    /** Per-request p99 latency of the most recently completed iteration, read by {@link IterationProfiler}. */
+    private static volatile double lastIterationP99Millis;
+
+    private final AtomicLongArray latencyNanos = new AtomicLongArray(MAX_LATENCY_SAMPLES);
+    private final AtomicInteger latencyCount = new AtomicInteger();
+
+    private Undertow undertow;
+    private ApacheHttpClientChannels.CloseableClient client;
+    private Channel channel;
+    private EndpointChannel endpointChannel;
+
+    @Setup
+    public void before() {
+        Preconditions.checkState(
+                execution == Execution.PLATFORM_THREADS || VirtualThreads.isSupported(),
+                "Virtual threads are not supported by this runtime");
+        undertow = Undertow.builder()
+                .addHttpListener(0, "localhost", delayedResponse())
+                .build();
+        undertow.start();
+
+        ServiceConfiguration serviceConf = ServiceConfiguration.builder()
+                .addUris(getUri(undertow))
+                .security(TestConfigurations.SSL_CONFIG)
+                .build();
+        ClientConfiguration clientConf = ClientConfiguration.builder()
+                .from(ClientConfigurations.of(serviceConf))
+                .taggedMetricRegistry(new DefaultTaggedMetricRegistry())
+                .userAgent(TestConfigurations.AGENT)
+                .build();
+        client = ApacheHttpClientChannels.clientBuilder()
+                .clientConfiguration(clientConf)
+                .clientName("virtualThreadBenchmark")
+                .virtualThreads(execution != Execution.PLATFORM_THREADS)
+                .build();
+        channel = ApacheHttpClientChannels.createSingleUri(serviceConf.uris().get(0), client);
+        endpointChannel = clientUtils.bind(channel, TestEndpoint.GET);
+    }
+
+    @Setup(Level.Iteration)
+    public void beforeIteration() {
+        latencyCount.set(0);
+    }
+
+    @TearDown(Level.Iteration)
+    public void afterIteration() {
+        int samples = Math.min(latencyCount.get(), MAX_LATENCY_SAMPLES);
+        long[] sorted = new long[samples];
+        for (int i = 0; i < samples; i++) {
+            sorted[i] = latencyNanos.get(i);
+        }
+        Arrays.sort(sorted);
+        lastIterationP99Millis = samples == 0 ? 0 : sorted[(int) (samples * 0.99)] / 1_000_000D;
+    }
+
+    @TearDown
+    public void after() throws IOException {
+        client.close();
+        undertow.stop();
+        MoreExecutors.shutdownAndAwaitTermination(RetryingChannel.sharedScheduler.get(), 1, TimeUnit.SECONDS);
+    }
+
+    @Threads(1)
+    @Benchmark
+    public void concurrentRequests() throws Exception {
+        List<ListenableFuture<?>> futures = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(execution.execute(this));
+        }
+        Futures.allAsList(futures).get();
+    }
+
+    private void recordLatency(long startNanos) {
+        int index = latencyCount.getAndIncrement();
+        if (index < MAX_LATENCY_SAMPLES) {
+            latencyNanos.set(index, System.nanoTime() - startNanos);
+        }
+    }
+
+    public enum Execution {
+        /** Requests execute on the shared cached platform thread pool. */
+        PLATFORM_THREADS {
+            @Override
+            ListenableFuture<?> execute(VirtualThreadBenchmark state) {
+                return state.executeAsync();
+            }
+        },
+        /** Requests execute on virtual threads from {@link VirtualThreads#executor()}. */
+        VIRTUAL_THREADS {
+            @Override
+            ListenableFuture<?> execute(VirtualThreadBenchmark state) {
+                return state.executeAsync();
+            }
+        },
+        /** Each request is a blocking call made from its own virtual thread, which executes it. */
+        VIRTUAL_CALLERS {
+            @Override
+            ListenableFuture<?> execute(VirtualThreadBenchmark state) {
+                ExecutorService callers = VirtualThreads.executor().orElseThrow();
+                return Futures.submit(
+                        () -> {
+                            long startNanos = System.nanoTime();
+                            clientUtils.callBlocking(
+                                    state.endpointChannel, Request.builder().build(), deserializer);
+                            state.recordLatency(startNanos);
+                        },
+                        callers);
+            }
+        };
+
+        abstract ListenableFuture<?> execute(VirtualThreadBenchmark state);
+    }
+
+    private ListenableFuture<?> executeAsync() {
+        long startNanos = System.nanoTime();
+        return Futures.transform(
+                channel.execute(TestEndpoint.GET, Request.builder().build()),
+                response -> {
+                    response.close();
+                    recordLatency(startNanos);
+                    return null;
+                },
+                MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Reports per-request p99 latency, peak live thread count and heap usage as secondary results. When running
+     * through the JMH command line, enable using
+     * {@code -prof com.palantir.dialogue.core.VirtualThreadBenchmark$IterationProfiler}.
+     */
+    public static final class IterationProfiler implements InternalProfiler {
+        private final ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+
+        @Override
+        public String getDescription() {
+            return "Per-request p99 latency, peak live threads and heap usage";
+        }
+
+        @Override
+        public void beforeIteration(BenchmarkParams _benchmarkParams, IterationParams _iterationParams) {
+            threadBean.resetPeakThreadCount();
+        }
+
+        @Override
+        public Collection<? extends Result> afterIteration(
+                BenchmarkParams _benchmarkParams, IterationParams _iterationParams, IterationResult _result) {
+            Runtime runtime = Runtime.getRuntime();
+            double heapUsedMb = (runtime.totalMemory() - runtime.freeMemory()) / (1024D * 1024D);
+            return List.of(
+                    new ScalarResult("p99", lastIterationP99Millis, "ms", AggregationPolicy.AVG),
+                    new ScalarResult("peakThreads", threadBean.getPeakThreadCount(), "threads", AggregationPolicy.MAX),
+                    new ScalarResult("heapUsed", heapUsedMb, "MB", AggregationPolicy.AVG));
+        }
+    }
+
+    private static HttpHandler delayedResponse() {
+        return exchange -> exchange.dispatch(
+                SameThreadExecutor.INSTANCE,
+                () -> exchange.getIoThread()
+                        .executeAfter(exchange::endExchange, SERVER_DELAY_MILLIS, TimeUnit.MILLISECONDS));
+    }
+
+    private static String getUri(Undertow undertow) {
+        Undertow.ListenerInfo listenerInfo = Iterables.getOnlyElement(undertow.getListenerInfo());
+        return String.format("%s:/%s", listenerInfo.getProtcol(), listenerInfo.getAddress());
+    }
+
+    public static void main(String[] _args) throws Exception {
+        Options opt = new OptionsBuilder()
+                .include(VirtualThreadBenchmark.class.getSimpleName())
+                .jvmArgsPrepend("-Xmx2g", "-Xms2g", "-XX:+CrashOnOutOfMemoryError")
+                .addProfiler(GCProfiler.class)
+                .addProfiler(IterationProfiler.class)
+                .build();
+        new Runner(opt).run();
+    }
+}
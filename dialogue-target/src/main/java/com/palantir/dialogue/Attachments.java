@@ -33,6 +33,13 @@ final class Attachments {
         return new Attachments();
     }
 
+    /** Returns a new instance holding the current attachments, which is not affected by later changes to this one. */
+    Attachments copy() {
+        Attachments copy = new Attachments();
+        copy.attachments.putAll(attachments);
+        return copy;
+    }
+
     @Nullable
     <V> V put(AttachmentKey<V> key, V value) {
         Preconditions.checkNotNull(key, "key");
@@ -182,6 +182,12 @@ public final class Request {
             return this;
         }
 
+        /** Replaces the attachments shared with the request this builder was initialized {@link #from(Request)}. */
+        Request.Builder attachments(RequestAttachments value) {
+            attachments = Preconditions.checkNotNull(value, "attachments");
+            return this;
+        }
+
         public Request.Builder putHeaderParams(String key, String... values) {
             return putAllHeaderParams(key, Arrays.asList(values));
         }
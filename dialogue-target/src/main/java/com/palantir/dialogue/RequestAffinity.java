@@ -0,0 +1,45 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue;
+
+import com.palantir.logsafe.Preconditions;
+import java.util.Optional;
+
+/**
+ * Affinity keys route requests which share a key to the same host, so that state the host holds for the key, for
+ * example a cache, is reused. Keys only apply to clients using the rendezvous hash node selection strategy, other
+ * strategies and requests without a key are unaffected. When adding or removing a host, only the keys routed to that
+ * host move. Keys are stored as request attachments, so they are shared by requests derived from the original using
+ * {@link Request.Builder#from(Request)}.
+ */
+public final class RequestAffinity {
+
+    private static final RequestAttachmentKey<String> AFFINITY_KEY = RequestAttachmentKey.create(String.class);
+
+    private RequestAffinity() {}
+
+    /** Sets the affinity key of {@code request}. */
+    public static void setKey(Request request, String key) {
+        Preconditions.checkNotNull(key, "key is required");
+        request.attachments().put(AFFINITY_KEY, key);
+    }
+
+    /** Returns the affinity key of {@code request}, if any. */
+    public static Optional<String> getKey(Request request) {
+        return Optional.ofNullable(request.attachments().getOrDefault(AFFINITY_KEY, null));
+    }
+}
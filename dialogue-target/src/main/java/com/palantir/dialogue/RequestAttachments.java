@@ -20,12 +20,19 @@ import javax.annotation.Nullable;
 
 public final class RequestAttachments {
 
-    private final Attachments attachments = Attachments.create();
+    private final Attachments attachments;
 
-    private RequestAttachments() {}
+    private RequestAttachments(Attachments attachments) {
+        this.attachments = attachments;
+    }
 
     static RequestAttachments create() {
-        return new RequestAttachments();
+        return new RequestAttachments(Attachments.create());
+    }
+
+    /** Returns new attachments initially holding the same values, which are not shared with this instance. */
+    RequestAttachments copy() {
+        return new RequestAttachments(attachments.copy());
     }
 
     @Nullable
@@ -0,0 +1,67 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue;
+
+import com.palantir.logsafe.Preconditions;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Per-request deadlines, which bound the total time spent on a call including queueing, retries and backoff. Requests
+ * which are queued by dialogue when their deadline passes fail rather than being sent to a server after the caller has
+ * stopped waiting for them, failures are not retried when the retry would be sent after the deadline, and transports
+ * which support it limit the response timeout of each attempt to the time remaining. Deadlines are stored as request
+ * attachments, so they are shared by requests derived from the original using {@link Request.Builder#from(Request)},
+ * use {@link #withDeadlineNanos(Request, long)} to apply a deadline without modifying the original.
+ */
+public final class RequestDeadlines {
+
+    private static final RequestAttachmentKey<Long> DEADLINE_NANOS = RequestAttachmentKey.create(Long.class);
+
+    private RequestDeadlines() {}
+
+    /** Sets the deadline of {@code request} to {@code timeout} from now. */
+    public static void setTimeout(Request request, Duration timeout) {
+        Preconditions.checkNotNull(timeout, "timeout is required");
+        setDeadlineNanos(request, System.nanoTime() + timeout.toNanos());
+    }
+
+    /** Sets the deadline of {@code request} to the given {@link System#nanoTime()} value. */
+    public static void setDeadlineNanos(Request request, long deadlineNanos) {
+        request.attachments().put(DEADLINE_NANOS, deadlineNanos);
+    }
+
+    /**
+     * Returns a copy of {@code request} with the given {@link System#nanoTime()} deadline. The copy holds its own
+     * attachments, initialized from those of {@code request}, so the original may be executed again without
+     * inheriting the deadline.
+     */
+    public static Request withDeadlineNanos(Request request, long deadlineNanos) {
+        Request copy = Request.builder()
+                .from(request)
+                .attachments(request.attachments().copy())
+                .build();
+        setDeadlineNanos(copy, deadlineNanos);
+        return copy;
+    }
+
+    /** Returns the {@link System#nanoTime()} value after which {@code request} should not be attempted, if any. */
+    public static OptionalLong getDeadlineNanos(Request request) {
+        Long deadline = request.attachments().getOrDefault(DEADLINE_NANOS, null);
+        return deadline == null ? OptionalLong.empty() : OptionalLong.of(deadline);
+    }
+}
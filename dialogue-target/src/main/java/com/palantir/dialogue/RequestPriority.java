@@ -0,0 +1,60 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue;
+
+import com.palantir.logsafe.Preconditions;
+
+/**
+ * Priority classes of requests, used to order requests which are queued by dialogue when a queue is configured with a
+ * priority discipline. Requests default to {@link #DEFAULT}. A priority can be set on individual requests using
+ * {@link #set(Request, RequestPriority)}, or on every request to an endpoint using the
+ * {@value #INTERACTIVE_TAG} and {@value #BATCH_TAG} endpoint tags. The request attachment takes precedence.
+ */
+public enum RequestPriority {
+    /** Latency sensitive requests, for example those a user is waiting on. */
+    INTERACTIVE,
+    DEFAULT,
+    /** Throughput oriented requests, for example backfills, which may wait behind other requests. */
+    BATCH;
+
+    public static final String INTERACTIVE_TAG = "dialogue-priority-interactive";
+    public static final String BATCH_TAG = "dialogue-priority-batch";
+
+    private static final RequestAttachmentKey<RequestPriority> PRIORITY =
+            RequestAttachmentKey.create(RequestPriority.class);
+
+    /** Sets the priority of {@code request}, overriding the priority of its endpoint. */
+    public static void set(Request request, RequestPriority priority) {
+        Preconditions.checkNotNull(priority, "priority is required");
+        request.attachments().put(PRIORITY, priority);
+    }
+
+    /** Returns the priority of {@code request} to {@code endpoint}. */
+    public static RequestPriority of(Endpoint endpoint, Request request) {
+        RequestPriority priority = request.attachments().getOrDefault(PRIORITY, null);
+        if (priority != null) {
+            return priority;
+        }
+        if (endpoint.tags().contains(INTERACTIVE_TAG)) {
+            return INTERACTIVE;
+        }
+        if (endpoint.tags().contains(BATCH_TAG)) {
+            return BATCH;
+        }
+        return DEFAULT;
+    }
+}
@@ -30,4 +30,15 @@ public final class RequestAttachmentsTest {
         requestAttachments.put(ATTACHMENT_KEY, true);
         assertThat(requestAttachments.getOrDefault(ATTACHMENT_KEY, false)).isTrue();
     }
+
+    @Test
+    public void testCopyIsIndependent() {
+        RequestAttachments original = RequestAttachments.create();
+        original.put(ATTACHMENT_KEY, true);
+        RequestAttachments copy = original.copy();
+        assertThat(copy.getOrDefault(ATTACHMENT_KEY, false)).isTrue();
+
+        copy.put(ATTACHMENT_KEY, false);
+        assertThat(original.getOrDefault(ATTACHMENT_KEY, false)).isTrue();
+    }
 }
@@ -0,0 +1,52 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.google.common.collect.ImmutableSet;
+import org.junit.jupiter.api.Test;
+
+public final class RequestPriorityTest {
+
+    @Test
+    public void testDefaultsToDefault() {
+        assertThat(RequestPriority.of(mock(Endpoint.class), Request.builder().build()))
+                .isEqualTo(RequestPriority.DEFAULT);
+    }
+
+    @Test
+    public void testEndpointTags() {
+        Endpoint endpoint = mock(Endpoint.class);
+        when(endpoint.tags()).thenReturn(ImmutableSet.of(RequestPriority.BATCH_TAG));
+        assertThat(RequestPriority.of(endpoint, Request.builder().build())).isEqualTo(RequestPriority.BATCH);
+    }
+
+    @Test
+    public void testAttachmentOverridesEndpointTags() {
+        Endpoint endpoint = mock(Endpoint.class);
+        when(endpoint.tags()).thenReturn(ImmutableSet.of(RequestPriority.BATCH_TAG));
+        Request request = Request.builder().build();
+        RequestPriority.set(request, RequestPriority.INTERACTIVE);
+        assertThat(RequestPriority.of(endpoint, request)).isEqualTo(RequestPriority.INTERACTIVE);
+        // Attachments are shared with derived requests
+        assertThat(RequestPriority.of(endpoint, Request.builder().from(request).build()))
+                .isEqualTo(RequestPriority.INTERACTIVE);
+    }
+}
@@ -107,6 +107,12 @@ public final class Benchmark {
         return this;
     }
 
+    /** Creates each request from its number, e.g. to add attachments to the result of {@link #constructRequest}. */
+    public Benchmark requestSupplier(Function<Long, Request> value) {
+        this.requestSupplier = value;
+        return this;
+    }
+
     public Benchmark sendUntil(Duration cutoff) {
         Preconditions.checkState(requestStream == null, "Already set up requests");
         long num = cutoff.toNanos() / delayBetweenRequests.toNanos();
@@ -394,7 +400,7 @@ public final class Benchmark {
         EndpointChannel endpointChannel();
     }
 
-    private static Request constructRequest(long number) {
+    static Request constructRequest(long number) {
         return Request.builder()
                 .putHeaderParams(REQUEST_ID_HEADER, Long.toString(number))
                 .build();
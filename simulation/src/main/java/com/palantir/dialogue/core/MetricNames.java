@@ -22,6 +22,8 @@ import com.codahale.metrics.Timer;
 import com.palantir.dialogue.Endpoint;
 import com.palantir.tritium.metrics.registry.MetricName;
 import com.palantir.tritium.metrics.registry.TaggedMetricRegistry;
+import java.util.Map;
+import java.util.TreeMap;
 import java.util.regex.Pattern;
 
 final class MetricNames {
@@ -71,6 +73,18 @@ final class MetricNames {
                 .build());
     }
 
+    /** Total number of requests received by each server across all endpoints, keyed by server name. */
+    static Map<String, Long> requestsPerServer(TaggedMetricRegistry reg) {
+        Map<String, Long> requests = new TreeMap<>();
+        reg.getMetrics().forEach((name, metric) -> {
+            String serverName = name.safeTags().get("server");
+            if (name.safeName().equals("request") && serverName != null && metric instanceof Meter) {
+                requests.merge(serverName, ((Meter) metric).getCount(), Long::sum);
+            }
+        });
+        return requests;
+    }
+
     static Pattern serverRequestMeterPattern() {
         return Pattern.compile("request$");
     }
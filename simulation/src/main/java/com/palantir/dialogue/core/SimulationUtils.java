@@ -19,7 +19,9 @@ package com.palantir.dialogue.core;
 import com.palantir.dialogue.Endpoint;
 import com.palantir.dialogue.HttpMethod;
 import com.palantir.dialogue.UrlBuilder;
+import java.util.Collections;
 import java.util.Map;
+import java.util.Set;
 
 final class SimulationUtils {
 
@@ -27,6 +29,10 @@ final class SimulationUtils {
     static final String SERVICE_NAME = "svc";
 
     public static Endpoint endpoint(String name, HttpMethod method) {
+        return endpoint(name, method, Collections.emptySet());
+    }
+
+    public static Endpoint endpoint(String name, HttpMethod method, Set<String> tags) {
         return new Endpoint() {
             @Override
             public void renderPath(Map<String, String> _params, UrlBuilder _url) {}
@@ -51,6 +57,11 @@ final class SimulationUtils {
                 return "1.0.0";
             }
 
+            @Override
+            public Set<String> tags() {
+                return tags;
+            }
+
             @Override
             public String toString() {
                 return endpointName();
@@ -0,0 +1,609 @@
+/*
+ * (c) Copyright 2026 Palantir Technologies Inc. All rights reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.palantir.dialogue.core;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.codahale.metrics.Meter;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableSet;
+import com.palantir.dialogue.Channel;
+import com.palantir.dialogue.Endpoint;
+import com.palantir.dialogue.HttpMethod;
+import com.palantir.dialogue.Request;
+import com.palantir.dialogue.RequestAffinity;
+import com.palantir.dialogue.RequestPriority;
+import com.palantir.dialogue.core.Benchmark.BenchmarkResult;
+import com.palantir.dialogue.core.Benchmark.ScheduledRequest;
+import com.palantir.refreshable.Refreshable;
+import com.palantir.refreshable.SettableRefreshable;
+import com.palantir.tracing.Observability;
+import com.palantir.tracing.Tracer;
+import com.palantir.tracing.Tracers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.IntSupplier;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.parallel.Execution;
+import org.junit.jupiter.api.parallel.ExecutionMode;
+
+/**
+ * Simulates opt-in {@link DialogueChannel} features. Unlike {@link SimulationTest}, which runs every scenario against
+ * every {@link Strategy} and checks in the results, each of these runs a single scenario chosen to exercise one
+ * feature, and asserts on its behaviour directly.
+ */
+@Execution(ExecutionMode.CONCURRENT)
+final class FeatureSimulationTest {
+    private static final Strategy STRATEGY = Strategy.CONCURRENCY_LIMITER_ROUND_ROBIN;
+
+    private final Simulation simulation = new Simulation();
+
+    @BeforeEach
+    public void before() {
+        Tracer.setSampler(() -> false);
+        Tracer.initTrace(Observability.DO_NOT_SAMPLE, Tracers.randomId());
+    }
+
+    @Test
+    void gradient_limiter_drastic_slowdown() {
+        // Same as SimulationTest.drastic_slowdown: one node takes 10 seconds to respond, without failing any requests
+        int capacity = 60;
+        Supplier<Map<String, SimulationServer>> servers = servers(
+                SimulationServer.builder()
+                        .serverName("fast")
+                        .simulation(simulation)
+                        .handler(h -> h.response(200).linearResponseTime(Duration.ofMillis(60), capacity))
+                        .build(),
+                SimulationServer.builder()
+                        .serverName("fast_then_slow_then_fast")
+                        .simulation(simulation)
+                        .handler(h -> h.response(200).linearResponseTime(Duration.ofMillis(60), capacity))
+                        .until(Duration.ofSeconds(3), "slow 200s")
+                        .handler(h -> h.response(200).linearResponseTime(Duration.ofSeconds(10), capacity))
+                        .until(Duration.ofSeconds(10), "revert")
+                        .handler(h -> h.response(200).linearResponseTime(Duration.ofMillis(60), capacity))
+                        .build());
+
+        UnaryOperator<DialogueChannel.Builder> gradient =
+                builder -> builder.concurrencyLimiter(ConcurrencyLimiterAlgorithm.GRADIENT);
+        BenchmarkResult result = Benchmark.builder()
+                .simulation(simulation)
+                .requestsPerSecond(200)
+                .sendUntil(Duration.ofSeconds(20))
+                .clients(10, _i -> STRATEGY.getChannel(simulation, servers, gradient))
+                .abortAfter(Duration.ofMinutes(10))
+                .run();
+
+        assertCompleted(result);
+        Map<String, Long> requestsPerServer = MetricNames.requestsPerServer(simulation.taggedMetrics());
+        assertThat(requestsPerServer.get("fast_then_slow_then_fast"))
+                .describedAs("The slow node gets less traffic: %s", requestsPerServer)
+                .isLessThan(requestsPerServer.get("fast"));
+    }
+
+    @Test
+    void many_clients_subsetting() {
+        int numServers = 20;
+        int numClients = 40;
+        int subsetSize = 5;
+        Supplier<Map<String, SimulationServer>> servers = servers(IntStream.range(0, numServers)
+                .mapToObj(i -> SimulationServer.builder()
+                        .serverName("node" + i)
+                        .simulation(simulation)
+                        .handler(h -> h.response(200).responseTime(Duration.ofMillis(100)))
+                        .build())
+                .toArray(SimulationServer[]::new));
+
+        // Each client only connects to 5 of the 20 nodes. With sequential client ids, every node is in the subsets
+        // of exactly 10 clients.
+        BenchmarkResult result = Benchmark.builder()
+                .simulation(simulation)
+                .requestsPerSecond(400)
+                .sendUntil(Duration.ofSeconds(20))
+                .clients(numClients, i -> STRATEGY.getSubsettingChannel(simulation, servers, subsetSize, i))
+                .abortAfter(Duration.ofMinutes(10))
+                .run();
+
+        assertCompleted(result);
+        Map<String, Long> requestsPerServer = MetricNames.requestsPerServer(simulation.taggedMetrics());
+        assertThat(requestsPerServer).describedAs("Every node is used").hasSize(numServers);
+        double mean = requestsPerServer.values().stream()
+                .mapToLong(Long::longValue)
+                .average()
+                .orElse(0);
+        assertThat(requestsPerServer.values())
+                .describedAs("Load is spread evenly across all nodes: %s", requestsPerServer)
+                .allSatisfy(requests -> assertThat(requests).isBetween((long) (mean * 0.75), (long) (mean * 1.25)));
+    }
+
+    @Test
+    @SuppressWarnings("FutureReturnValueIgnored")
+    void reloading_targets_under_load() {
+        int capacity = 60;
+        Map<String, SimulationServer> allServers = servers(
+                        SimulationServer.builder()
+                                .serverName("node0")
+                                .simulation(simulation)
+                                .handler(h -> h.response(200).linearResponseTime(Duration.ofMillis(100), capacity))
+                                .build(),
+                        SimulationServer.builder()
+                                .serverName("node1")
+                                .simulation(simulation)
+                                .handler(h -> h.response(200).linearResponseTime(Duration.ofMillis(100), capacity))
+                                .build(),
+                        SimulationServer.builder()
+                                .serverName("node2")
+                                .simulation(simulation)
+                                .handler(h -> h.response(200).linearResponseTime(Duration.ofMillis(100), capacity))
+                                .build())
+                .get();
+        List<String> serverNames = allServers.keySet().stream().sorted().collect(Collectors.toList());
+
+        // Each client is a single DialogueChannel which reloads its targets in place. Every couple of seconds the
+        // targets are reordered, or one node drops out of the list until the next reload (e.g. a flaky DNS lookup),
+        // which shouldn't reset the state of the nodes which remain.
+        SettableRefreshable<List<String>> targets = Refreshable.create(serverNames);
+        for (int i = 1; i < 10; i++) {
+            List<String> updated = new ArrayList<>(serverNames);
+            Collections.rotate(updated, i);
+            if (i % 2 == 1) {
+                updated.remove(0);
+            }
+            simulation.scheduler().schedule(() -> reloadTargets(targets, updated), i * 2L, TimeUnit.SECONDS);
+        }
+
+        BenchmarkResult result = Benchmark.builder()
+                .simulation(simulation)
+                .requestsPerSecond(250)
+                .sendUntil(Duration.ofSeconds(20))
+                .clients(10, _i -> STRATEGY.getTargetReloadingChannel(simulation, allServers, targets))
+                .abortAfter(Duration.ofMinutes(10))
+                .run();
+
+        assertCompleted(result);
+        assertThat(MetricNames.requestsPerServer(simulation.taggedMetrics()))
+                .describedAs("Every node is used")
+                .containsOnlyKeys(serverNames);
+    }
+
+    @Test
+    void power_of_two_choices_one_slow_node() {
+        // Enough load that the slow node builds up more requests in flight than the fast ones, which is what the
+        // two randomly chosen nodes are compared by.
+        int capacity = 60;
+        Supplier<Map<String, SimulationServer>> servers = servers(
+                SimulationServer.builder()
+                        .serverName("fast0")
+                        .simulation(simulation)
+                        .handler(h -> h.response(200).linearResponseTime(Duration.ofMillis(60), capacity))
+                        .build(),
+                SimulationServer.builder()
+                        .serverName("fast1")
+                        .simulation(simulation)
+                        .handler(h -> h.response(200).linearResponseTime(Duration.ofMillis(60), capacity))
+                        .build(),
+                SimulationServer.builder()
+                        .serverName("slow")
+                        .simulation(simulation)
+                        .handler(h -> h.response(200).linearResponseTime(Duration.ofMillis(180), capacity))
+                        .build());
+
+        BenchmarkResult result = Benchmark.builder()
+                .simulation(simulation)
+                .requestsPerSecond(200)
+                .sendUntil(Duration.ofSeconds(20))
+                .clients(10, _i -> STRATEGY.getChannel(
+                        simulation, servers, builder -> builder.balancedPowerOfTwoChoices(true)))
+                .abortAfter(Duration.ofMinutes(10))
+                .run();
+
+        assertCompleted(result);
+        Map<String, Long> requestsPerServer = MetricNames.requestsPerServer(simulation.taggedMetrics());
+        assertThat(requestsPerServer.get("slow"))
+                .describedAs("The slow node gets less traffic: %s", requestsPerServer)
+                .isLessThan(requestsPerServer.get("fast0"))
+                .isLessThan(requestsPerServer.get("fast1"));
+    }
+
+    @Test
+    void latency_scoring_one_permanently_slow_node() {
+        // Load is low enough that in-flight counts rarely differ between nodes, so only latency scoring can tell the
+        // slow node apart from the others.
+        Supplier<Map<String, SimulationServer>> servers = servers(
+                SimulationServer.builder()
+                        .serverName("fast0")
+                        .simulation(simulation)
+                        .handler(h -> h.response(200).responseTime(Duration.ofMillis(60)))
+                        .build(),
+                SimulationServer.builder()
+                        .serverName("fast1")
+                        .simulation(simulation)
+                        .handler(h -> h.response(200).responseTime(Duration.ofMillis(60)))
+                        .build(),
+                SimulationServer.builder()
+                        .serverName("slow")
+                        .simulation(simulation)
+                        .handler(h -> h.response(200).responseTime(Duration.ofMillis(180)))
+                        .build());
+
+        BenchmarkResult result = Benchmark.builder()
+                .simulation(simulation)
+                .requestsPerSecond(20)
+                .sendUntil(Duration.ofSeconds(30))
+                .client(STRATEGY.getChannel(simulation, servers, builder -> builder.balancedLatencyScoring(true)))
+                .abortAfter(Duration.ofMinutes(3))
+                .run();
+
+        assertCompleted(result);
+        Map<String, Long> requestsPerServer = MetricNames.requestsPerServer(simulation.taggedMetrics());
+        assertThat(requestsPerServer.get("slow"))
+                .describedAs("The slow node gets less traffic: %s", requestsPerServer)
+                .isLessThan(requestsPerServer.get("fast0"))
+                .isLessThan(requestsPerServer.get("fast1"));
+    }
+
+    @Test
+    void batch_client_saturates_limiter_with_priorities() {
+        // 1 server which accepts 10 concurrent requests, taking 100ms each
+        // 2 types of clients sharing a DialogueChannel with a weighted fair queue
+        //   - interactive client that sends 10 requests a second, needing 1 concurrent request
+        //   - batch client that sends ~140 requests a second, needing 14 concurrent requests
+        //
+        // The batch client alone saturates the concurrency limiter, so requests are queued. Interactive requests
+        // should not have to wait behind the batch backlog.
+        Duration responseTime = Duration.ofMillis(100);
+        Duration benchmarkDuration = Duration.ofSeconds(20);
+        Duration timeBetweenInteractiveRequests = Duration.ofMillis(100);
+        Duration timeBetweenBatchRequests = Duration.ofMillis(7);
+        long numInteractive = benchmarkDuration.toNanos() / timeBetweenInteractiveRequests.toNanos();
+        long numBatch = benchmarkDuration.toNanos() / timeBetweenBatchRequests.toNanos();
+
+        Supplier<Map<String, SimulationServer>> servers = servers(SimulationServer.builder()
+                .serverName("node1")
+                .simulation(simulation)
+                .handler(h -> h.respond200UntilCapacity(429, 10).responseTime(responseTime))
+                .build());
+
+        Channel channel = STRATEGY.getQueueDisciplineChannel(simulation, servers, QueueDiscipline.WEIGHTED_FAIR);
+        Endpoint interactiveEndpoint = SimulationUtils.endpoint(
+                "interactive", HttpMethod.GET, ImmutableSet.of(RequestPriority.INTERACTIVE_TAG));
+        Endpoint batchEndpoint =
+                SimulationUtils.endpoint("batch", HttpMethod.POST, ImmutableSet.of(RequestPriority.BATCH_TAG));
+
+        Benchmark builder = Benchmark.builder().simulation(simulation);
+        BenchmarkTimingEndpointChannel interactiveChannel =
+                builder.addEndpointChannel("interactive", interactiveEndpoint, channel);
+        BenchmarkTimingEndpointChannel batchChannel = builder.addEndpointChannel("batch", batchEndpoint, channel);
+
+        Stream<ScheduledRequest> interactiveRequests = builder.infiniteRequests(
+                        timeBetweenInteractiveRequests, () -> interactiveChannel)
+                .limit(numInteractive);
+        Stream<ScheduledRequest> batchRequests = builder.infiniteRequests(
+                        timeBetweenBatchRequests, () -> batchChannel)
+                .limit(numBatch);
+
+        BenchmarkResult result = builder.mergeRequestStreams(interactiveRequests, batchRequests)
+                .stopWhenNumReceived(numInteractive + numBatch)
+                .abortAfter(benchmarkDuration.plus(Duration.ofMinutes(2)))
+                .run();
+
+        assertCompleted(result);
+        // With a FIFO queue interactive requests would wait behind the batch backlog for tens of seconds, the
+        // threshold leaves room for the occasional interactive request which is retried after a 429.
+        Duration interactiveP99 = Duration.ofNanos(
+                (long) interactiveChannel.perEndpointChannelTimer().getSnapshot().get99thPercentile());
+        Duration batchP99 =
+                Duration.ofNanos((long) batchChannel.perEndpointChannelTimer().getSnapshot().get99thPercentile());
+        assertThat(interactiveP99)
+                .describedAs("Interactive p99 holds steady while the batch backlog is %s", batchP99)
+                .isLessThan(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void all_nodes_500_with_retry_budget() {
+        // Same as SimulationTest.all_nodes_500, but using an idempotent endpoint so that every 500 is retryable
+        Supplier<Map<String, SimulationServer>> servers = servers(
+                SimulationServer.builder()
+                        .serverName("node1")
+                        .simulation(simulation)
+                        .handler(h -> h.response(500).responseTime(Duration.ofMillis(600)))
+                        .until(Duration.ofSeconds(10), "revert badness")
+                        .handler(h -> h.response(200).responseTime(Duration.ofMillis(600)))
+                        .build(),
+                SimulationServer.builder()
+                        .serverName("node2")
+                        .simulation(simulation)
+                        .handler(h -> h.response(500).responseTime(Duration.ofMillis(600)))
+                        .until(Duration.ofSeconds(10), "revert badness")
+                        .handler(h -> h.response(200).responseTime(Duration.ofMillis(600)))
+                        .build());
+
+        int numClients = 10;
+        double retryRatio = 0.1;
+        int minRetriesPerSecond = 1;
+        Duration sendUntil = Duration.ofSeconds(20);
+        BenchmarkResult result = Benchmark.builder()
+                .simulation(simulation)
+                .requestsPerSecond(100)
+                .sendUntil(sendUntil)
+                .clients(
+                        numClients,
+                        _i -> STRATEGY.getRetryBudgetChannel(simulation, servers, retryRatio, minRetriesPerSecond))
+                .endpoints(SimulationUtils.endpoint("endpoint", HttpMethod.GET))
+                .abortAfter(Duration.ofMinutes(10))
+                .run();
+
+        assertCompleted(result);
+        // Each client may also spend its initial balance of 10 retries, and the floor of its budget
+        long maxRetries = Math.round(result.numSent() * retryRatio)
+                + numClients * (10 + minRetriesPerSecond * sendUntil.toSeconds());
+        assertThat(result.numGlobalResponses())
+                .describedAs("Retries are limited by the retry budget, rather than each request's max retries")
+                .isLessThanOrEqualTo(result.numSent() + maxRetries);
+    }
+
+    @Test
+    void occasionally_slow_nodes_with_hedging() {
+        // Every node occasionally pauses (e.g. for GC), so the slowest responses can't be avoided by node selection
+        Supplier<Map<String, SimulationServer>> servers = servers(
+                occasionallySlowServer("node0"), occasionallySlowServer("node1"), occasionallySlowServer("node2"));
+
+        BenchmarkResult result = Benchmark.builder()
+                .simulation(simulation)
+                .requestsPerSecond(20)
+                .sendUntil(Duration.ofSeconds(60))
+                .client(STRATEGY.getHedgingChannel(simulation, servers, 0.9, 0.1))
+                .endpoints(SimulationUtils.endpoint("endpoint", HttpMethod.GET))
+                .abortAfter(Duration.ofMinutes(3))
+                .run();
+
+        assertCompleted(result);
+        assertThat(Duration.ofNanos((long) result.clientHistogram().get99thPercentile()))
+                .describedAs("Slow responses are hedged to another node")
+                .isLessThan(Duration.ofSeconds(1));
+    }
+
+    private SimulationServer occasionallySlowServer(String name) {
+        return SimulationServer.builder()
+                .serverName(name)
+                .simulation(simulation)
+                .handler(h -> h.response(200)
+                        .responseTime(_server -> simulation.pseudoRandom().nextDouble() < 0.03
+                                ? Duration.ofSeconds(2)
+                                : Duration.ofMillis(50)))
+                .build();
+    }
+
+    @Test
+    void skewed_affinity_keys() {
+        // Requests carry one of 1000 affinity keys with zipfian popularity, the most popular key alone is 18% of
+        // requests. The rendezvous hash strategy sends each key to one node until that node has more than its share of
+        // requests in flight, so nodes stay balanced while most requests still reach the preferred node of their key.
+        int numServers = 4;
+        Supplier<Map<String, SimulationServer>> servers = servers(IntStream.range(0, numServers)
+                .mapToObj(i -> SimulationServer.builder()
+                        .serverName("node" + i)
+                        .simulation(simulation)
+                        .handler(h -> h.response(200).responseTime(Duration.ofMillis(100)))
+                        .build())
+                .toArray(SimulationServer[]::new));
+        IntSupplier keys = zipf(simulation.pseudoRandom(), 1000, 1.1);
+
+        BenchmarkResult result = Benchmark.builder()
+                .simulation(simulation)
+                .requestsPerSecond(400)
+                .requestSupplier(number -> {
+                    Request request = Benchmark.constructRequest(number);
+                    RequestAffinity.setKey(request, "key-" + keys.getAsInt());
+                    return request;
+                })
+                .sendUntil(Duration.ofSeconds(20))
+                .client(STRATEGY.getChannel(simulation, servers, builder -> builder.rendezvousHashNodeSelection(true)))
+                .abortAfter(Duration.ofMinutes(10))
+                .run();
+
+        assertCompleted(result);
+        Map<String, Long> requestsPerServer = MetricNames.requestsPerServer(simulation.taggedMetrics());
+        double mean = requestsPerServer.values().stream()
+                .mapToLong(Long::longValue)
+                .average()
+                .orElse(0);
+        assertThat(requestsPerServer.values())
+                .describedAs("Popular keys don't overload their node: %s", requestsPerServer)
+                .allSatisfy(requests -> assertThat(requests).isLessThanOrEqualTo((long) (mean * 1.5)));
+        long preferred = DialogueRendezvoushashMetrics.of(simulation.taggedMetrics())
+                .preferred(SimulationUtils.CHANNEL_NAME)
+                .getCount();
+        assertThat(preferred)
+                .describedAs("Most requests are sent to the preferred node of their key")
+                .isGreaterThan(result.numSent() / 2);
+    }
+
+    /** Returns integers in {@code [0, size)}, where the probability of {@code k} is proportional to 1/(k+1)^s. */
+    private static IntSupplier zipf(Random random, int size, double exponent) {
+        double[] cumulative = new double[size];
+        double total = 0;
+        for (int k = 0; k < size; k++) {
+            total += Math.pow(k + 1, -exponent);
+            cumulative[k] = total;
+        }
+        double sum = total;
+        return () -> {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            return Math.min(index < 0 ? -index - 1 : index, size - 1);
+        };
+    }
+
+    @Test
+    @SuppressWarnings("FutureReturnValueIgnored")
+    void cold_node_added() {
+        int capacity = 60;
+        Map<String, SimulationServer> allServers = servers(
+                        SimulationServer.builder()
+                                .serverName("node0")
+                                .simulation(simulation)
+                                .handler(h -> h.response(200).linearResponseTime(Duration.ofMillis(100), capacity))
+                                .build(),
+                        SimulationServer.builder()
+                                .serverName("node1")
+                                .simulation(simulation)
+                                .handler(h -> h.response(200).linearResponseTime(Duration.ofMillis(100), capacity))
+                                .build(),
+                        SimulationServer.builder()
+                                .serverName("node2_cold")
+                                .simulation(simulation)
+                                .handler(h -> h.response(200).linearResponseTime(Duration.ofMillis(600), capacity))
+                                .until(Duration.ofSeconds(10), "warmed up")
+                                .handler(h -> h.response(200).linearResponseTime(Duration.ofMillis(100), capacity))
+                                .build())
+                .get();
+        List<String> serverNames = allServers.keySet().stream().sorted().collect(Collectors.toList());
+
+        // A freshly started node joins the targets at 5 seconds, but stays slow until its caches and JIT warm up
+        SettableRefreshable<List<String>> targets = Refreshable.create(serverNames.subList(0, 2));
+        simulation.scheduler().schedule(() -> reloadTargets(targets, serverNames), 5, TimeUnit.SECONDS);
+
+        UnaryOperator<DialogueChannel.Builder> slowStart = builder -> builder.slowStart(Duration.ofSeconds(10));
+        BenchmarkResult result = Benchmark.builder()
+                .simulation(simulation)
+                .requestsPerSecond(250)
+                .sendUntil(Duration.ofSeconds(20))
+                .clients(10, _i -> STRATEGY.getTargetReloadingChannel(simulation, allServers, targets, slowStart))
+                .abortAfter(Duration.ofMinutes(10))
+                .run();
+
+        assertCompleted(result);
+        Map<String, Long> requestsPerServer = MetricNames.requestsPerServer(simulation.taggedMetrics());
+        assertThat(requestsPerServer.get("node2_cold"))
+                .describedAs("The cold node is ramped up: %s", requestsPerServer)
+                .isLessThan(requestsPerServer.get("node0"))
+                .isLessThan(requestsPerServer.get("node1"));
+    }
+
+    @Test
+    void outlier_ejection_one_node_500s() {
+        Supplier<Map<String, SimulationServer>> servers = servers(
+                SimulationServer.builder()
+                        .serverName("node0")
+                        .simulation(simulation)
+                        .handler(h -> h.response(200).responseTime(Duration.ofMillis(100)))
+                        .build(),
+                SimulationServer.builder()
+                        .serverName("node1")
+                        .simulation(simulation)
+                        .handler(h -> h.response(200).responseTime(Duration.ofMillis(100)))
+                        .build(),
+                SimulationServer.builder()
+                        .serverName("node2_broken")
+                        .simulation(simulation)
+                        .handler(h -> h.response(500).responseTime(Duration.ofMillis(10)))
+                        .build());
+
+        // Probes fail as well, so the broken node is ejected again for longer every time it is probed
+        Endpoint probe = SimulationUtils.endpoint("probe", HttpMethod.GET);
+        UnaryOperator<DialogueChannel.Builder> outlierEjection = builder -> builder.outlierEjectionProbe(probe);
+        BenchmarkResult result = Benchmark.builder()
+                .simulation(simulation)
+                .requestsPerSecond(100)
+                .sendUntil(Duration.ofSeconds(30))
+                .clients(10, _i -> STRATEGY.getChannel(simulation, servers, outlierEjection))
+                .abortAfter(Duration.ofMinutes(10))
+                .run();
+
+        assertCompleted(result);
+        assertThat(meterCount("dialogue.outlierejection.ejection"))
+                .describedAs("The broken node is ejected")
+                .isPositive();
+        Map<String, Long> requestsPerServer = MetricNames.requestsPerServer(simulation.taggedMetrics());
+        assertThat(requestsPerServer.get("node2_broken"))
+                .describedAs("The broken node gets less traffic: %s", requestsPerServer)
+                .isLessThan(requestsPerServer.get("node0"))
+                .isLessThan(requestsPerServer.get("node1"));
+    }
+
+    @Test
+    void circuit_breaker_all_nodes_500() {
+        // Same as SimulationTest.all_nodes_500, every request fails until the nodes recover after 10 seconds
+        Supplier<Map<String, SimulationServer>> servers = servers(
+                SimulationServer.builder()
+                        .serverName("node1")
+                        .simulation(simulation)
+                        .handler(h -> h.response(500).responseTime(Duration.ofMillis(600)))
+                        .until(Duration.ofSeconds(10), "revert badness")
+                        .handler(h -> h.response(200).responseTime(Duration.ofMillis(600)))
+                        .build(),
+                SimulationServer.builder()
+                        .serverName("node2")
+                        .simulation(simulation)
+                        .handler(h -> h.response(500).responseTime(Duration.ofMillis(600)))
+                        .until(Duration.ofSeconds(10), "revert badness")
+                        .handler(h -> h.response(200).responseTime(Duration.ofMillis(600)))
+                        .build());
+
+        BenchmarkResult result = Benchmark.builder()
+                .simulation(simulation)
+                .requestsPerSecond(100)
+                .sendUntil(Duration.ofSeconds(20))
+                .clients(10, _i -> STRATEGY.getChannel(simulation, servers, builder -> builder.circuitBreaker(0.5)))
+                .abortAfter(Duration.ofMinutes(10))
+                .run();
+
+        assertCompleted(result);
+        assertThat(meterCount("dialogue.circuitbreaker.rejected"))
+                .describedAs("Requests fail without being sent while every node is failing")
+                .isPositive();
+    }
+
+    /** Every request sent by the benchmark got a response or failed, and every response was closed. */
+    private static void assertCompleted(BenchmarkResult result) {
+        assertThat(result.numReceived()).isEqualTo(result.numSent());
+        assertThat(result.responsesLeaked())
+                .describedAs("There should be no unclosed responses")
+                .isZero();
+    }
+
+    /** Sum of the counts of every meter named {@code safeName}, regardless of its tags. */
+    private long meterCount(String safeName) {
+        return simulation.taggedMetrics().getMetrics().entrySet().stream()
+                .filter(entry -> entry.getKey().safeName().equals(safeName) && entry.getValue() instanceof Meter)
+                .mapToLong(entry -> ((Meter) entry.getValue()).getCount())
+                .sum();
+    }
+
+    private void reloadTargets(SettableRefreshable<List<String>> targets, List<String> updated) {
+        simulation.events().event("reload targets: " + updated);
+        targets.update(updated);
+    }
+
+    private Supplier<Map<String, SimulationServer>> servers(SimulationServer... values) {
+        return Suppliers.memoize(
+                () -> Arrays.stream(values).collect(Collectors.toMap(SimulationServer::toString, Function.identity())));
+    }
+}
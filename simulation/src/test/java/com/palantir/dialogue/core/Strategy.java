@@ -24,12 +24,16 @@ import com.palantir.conjure.java.client.config.ClientConfigurations;
 import com.palantir.conjure.java.client.config.NodeSelectionStrategy;
 import com.palantir.dialogue.Channel;
 import com.palantir.logsafe.Preconditions;
+import com.palantir.refreshable.Refreshable;
 import java.nio.file.Paths;
 import java.time.Duration;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
 
 @SuppressWarnings("ImmutableEnumChecker")
 public enum Strategy {
@@ -48,6 +52,95 @@ public enum Strategy {
         return refreshingChannel(simulation, servers);
     }
 
+    /**
+     * Like {@link #getChannel}, but {@code channelConfig} may enable {@link DialogueChannel.Builder} options, see
+     * {@link FeatureSimulationTest}.
+     */
+    public Channel getChannel(
+            Simulation simulation,
+            Supplier<Map<String, SimulationServer>> servers,
+            UnaryOperator<DialogueChannel.Builder> channelConfig) {
+        return RefreshingChannelFactory.RefreshingChannel.create(
+                servers,
+                channels -> channelConfig
+                        .apply(dialogueChannelBuilder(simulation, channels))
+                        .build());
+    }
+
+    /**
+     * Returns a single {@link DialogueChannel} which reloads its targets in place, whereas {@link #getChannel}
+     * rebuilds the whole channel every time the servers change.
+     */
+    public Channel getTargetReloadingChannel(
+            Simulation simulation, Map<String, SimulationServer> servers, Refreshable<List<String>> targets) {
+        return getTargetReloadingChannel(simulation, servers, targets, UnaryOperator.identity());
+    }
+
+    /** Like {@link #getTargetReloadingChannel}, with additional {@link DialogueChannel.Builder} options. */
+    public Channel getTargetReloadingChannel(
+            Simulation simulation,
+            Map<String, SimulationServer> servers,
+            Refreshable<List<String>> targets,
+            UnaryOperator<DialogueChannel.Builder> channelConfig) {
+        return channelConfig
+                .apply(dialogueChannelBuilder(simulation, servers))
+                .uris(targets.map(
+                        uris -> uris.stream().map(TargetUri::of).collect(Collectors.toUnmodifiableList())))
+                .build();
+    }
+
+    /**
+     * Like {@link #getChannel}, but the client only uses a deterministic subset of {@code subsetSize} servers chosen
+     * using its {@code clientId}.
+     */
+    public Channel getSubsettingChannel(
+            Simulation simulation,
+            Supplier<Map<String, SimulationServer>> servers,
+            int subsetSize,
+            long clientId) {
+        return RefreshingChannelFactory.RefreshingChannel.create(
+                servers,
+                channels -> dialogueChannelBuilder(simulation, channels)
+                        .deterministicSubsetting(subsetSize, clientId)
+                        .build());
+    }
+
+    /** Like {@link #getChannel}, but retries are limited by a {@link RetryBudget}. */
+    public Channel getRetryBudgetChannel(
+            Simulation simulation,
+            Supplier<Map<String, SimulationServer>> servers,
+            double retryRatio,
+            int minRetriesPerSecond) {
+        return RefreshingChannelFactory.RefreshingChannel.create(
+                servers,
+                channels -> dialogueChannelBuilder(simulation, channels)
+                        .retryBudget(retryRatio, minRetriesPerSecond)
+                        .build());
+    }
+
+    /** Like {@link #getChannel}, but slow idempotent requests are hedged, see {@link HedgingChannel}. */
+    public Channel getHedgingChannel(
+            Simulation simulation,
+            Supplier<Map<String, SimulationServer>> servers,
+            double latencyQuantile,
+            double hedgeRatio) {
+        return RefreshingChannelFactory.RefreshingChannel.create(
+                servers,
+                channels -> dialogueChannelBuilder(simulation, channels)
+                        .hedgedRequests(latencyQuantile, hedgeRatio)
+                        .build());
+    }
+
+    /** Like {@link #getChannel}, but queued requests are ordered using the given {@link QueueDiscipline}. */
+    public Channel getQueueDisciplineChannel(
+            Simulation simulation, Supplier<Map<String, SimulationServer>> servers, QueueDiscipline discipline) {
+        return RefreshingChannelFactory.RefreshingChannel.create(
+                servers,
+                channels -> dialogueChannelBuilder(simulation, channels)
+                        .queueDiscipline(discipline)
+                        .build());
+    }
+
     public Supplier<Channel> getSticky2NonReloading(Simulation simulation, Map<String, SimulationServer> servers) {
         Preconditions.checkArgument(servers.size() == 1, "Only one server supported");
         return dialogueChannelWithDefaults(simulation, servers).stickyChannels();
@@ -76,6 +169,11 @@ public enum Strategy {
     }
 
     private DialogueChannel dialogueChannelWithDefaults(Simulation sim, Map<String, SimulationServer> channelSupplier) {
+        return dialogueChannelBuilder(sim, channelSupplier).build();
+    }
+
+    private DialogueChannel.Builder dialogueChannelBuilder(
+            Simulation sim, Map<String, SimulationServer> channelSupplier) {
         ClientConfiguration.Builder confBuilder = ClientConfiguration.builder()
                 .uris(channelSupplier.keySet())
                 .from(STUB_CONFIG)
@@ -87,8 +185,7 @@ public enum Strategy {
                 .factory(args -> channelSupplier.get(args.uri()))
                 .random(sim.pseudoRandom())
                 .scheduler(sim.scheduler())
-                .ticker(sim.clock())
-                .build();
+                .ticker(sim.clock());
     }
 
     private static ClientConfiguration stubConfig() {